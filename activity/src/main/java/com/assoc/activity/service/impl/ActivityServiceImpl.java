@@ -8,18 +8,16 @@ import com.assoc.activity.entity.ActivityStatus;
 import com.assoc.activity.entity.ActivityType;
 import com.assoc.activity.repository.ActivityRepository;
 import com.assoc.activity.service.ActivityService;
-import com.assoc.common.event.VectorizeEvent;
+import com.assoc.common.event.VectorMapping;
+import com.assoc.common.event.VectorizePublisher;
 import com.assoc.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -27,7 +25,24 @@ import java.util.Map;
 public class ActivityServiceImpl implements ActivityService {
 
     private final ActivityRepository activityRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final VectorizePublisher vectorizePublisher;
+
+    private final VectorMapping<Activity> vectorMapping = VectorMapping.<Activity>builder("activity", Activity::getId)
+            .field("title", Activity::getTitle)
+            .field("description", Activity::getDescription)
+            .field("detailedDescription", Activity::getDetailedDescription)
+            .field("speaker", Activity::getSpeaker)
+            .field("speakerBio", Activity::getSpeakerBio)
+            .field("agenda", Activity::getAgenda)
+            .field("benefits", Activity::getBenefits)
+            .field("venue", Activity::getVenue)
+            .field("organization", Activity::getOrganization)
+            .field("location", Activity::getLocation)
+            .field("typeName", activity -> getTypeName(activity.getType()))
+            .metadata("title", Activity::getTitle)
+            .metadata("type", activity -> activity.getType() != null ? activity.getType().name() : null)
+            .metadata("typeName", activity -> getTypeName(activity.getType()))
+            .build();
 
     private static final List<ActivityStatus> ACTIVE_STATUSES = List.of(
             ActivityStatus.UPCOMING, ActivityStatus.ONGOING
@@ -82,7 +97,7 @@ public class ActivityServiceImpl implements ActivityService {
         activity.setRegisteredCount(0);
 
         activity = activityRepository.save(activity);
-        publishVectorizeEvent(activity, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publish(vectorMapping, activity);
         return toResponse(activity);
     }
 
@@ -92,13 +107,14 @@ public class ActivityServiceImpl implements ActivityService {
         Activity activity = activityRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("活动不存在: " + id));
 
+        VectorMapping.Snapshot before = vectorMapping.snapshot(activity);
         mapRequestToEntity(request, activity);
         if (request.getStatus() != null) {
             activity.setStatus(request.getStatus());
         }
 
         activity = activityRepository.save(activity);
-        publishVectorizeEvent(activity, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publishIfChanged(vectorMapping, before, activity);
         return toResponse(activity);
     }
 
@@ -109,11 +125,7 @@ public class ActivityServiceImpl implements ActivityService {
             throw new ResourceNotFoundException("活动不存在: " + id);
         }
         activityRepository.deleteById(id);
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("activity")
-                .entityId(id)
-                .action(VectorizeEvent.EventAction.DELETE)
-                .build());
+        vectorizePublisher.publishDelete(vectorMapping, id);
     }
 
     @Override
@@ -236,53 +248,13 @@ public class ActivityServiceImpl implements ActivityService {
         };
     }
 
-    private void publishVectorizeEvent(Activity activity, VectorizeEvent.EventAction action) {
-        Map<String, String> fields = new HashMap<>();
-        fields.put("title", nullToEmpty(activity.getTitle()));
-        fields.put("description", nullToEmpty(activity.getDescription()));
-        fields.put("detailedDescription", nullToEmpty(activity.getDetailedDescription()));
-        fields.put("speaker", nullToEmpty(activity.getSpeaker()));
-        fields.put("speakerBio", nullToEmpty(activity.getSpeakerBio()));
-        fields.put("agenda", nullToEmpty(activity.getAgenda()));
-        fields.put("benefits", nullToEmpty(activity.getBenefits()));
-        fields.put("venue", nullToEmpty(activity.getVenue()));
-        fields.put("organization", nullToEmpty(activity.getOrganization()));
-        fields.put("location", nullToEmpty(activity.getLocation()));
-        if (activity.getType() != null) {
-            fields.put("typeName", getTypeName(activity.getType()));
-        }
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("title", activity.getTitle());
-        if (activity.getType() != null) {
-            metadata.put("type", activity.getType().name());
-            metadata.put("typeName", getTypeName(activity.getType()));
-        }
-
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("activity")
-                .entityId(activity.getId())
-                .action(action)
-                .fields(fields)
-                .metadata(metadata)
-                .build());
-    }
-
-    private String nullToEmpty(String s) {
-        return s == null ? "" : s;
-    }
-
     @Override
     public String getEntityType() {
-        return "activity";
+        return vectorMapping.getEntityType();
     }
 
     @Override
     public int resyncVectors() {
-        List<Activity> allActivities = activityRepository.findAll();
-        for (Activity activity : allActivities) {
-            publishVectorizeEvent(activity, VectorizeEvent.EventAction.UPSERT);
-        }
-        return allActivities.size();
+        return vectorizePublisher.resync(vectorMapping, activityRepository.findAll());
     }
 }
@@ -0,0 +1,265 @@
+package com.assoc.ai.admission;
+
+import com.assoc.ai.config.LlmAdmissionProperties;
+import com.assoc.ai.exception.LlmOverloadedException;
+import com.assoc.ai.metrics.RagMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Admission control in front of LLM calls.
+ *
+ * <p>Each audience (public / authenticated) has its own concurrency pool with a bounded FIFO
+ * wait queue, so public bursts cannot consume the slots reserved for admin users. On top of
+ * that every client (IP for public traffic, user for authenticated traffic) is limited by a
+ * token bucket. Requests are shed immediately with {@link LlmOverloadedException} when the
+ * bucket is empty or the queue is full.</p>
+ */
+@Slf4j
+@Service
+public class LlmAdmissionService {
+
+    private final LlmAdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Pool publicPool;
+    private final Pool authenticatedPool;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public LlmAdmissionService(LlmAdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.publicPool = new Pool(RagMetrics.AUDIENCE_PUBLIC, properties.getPublicPool());
+        this.authenticatedPool = new Pool(RagMetrics.AUDIENCE_AUTHENTICATED, properties.getAuthenticatedPool());
+    }
+
+    /**
+     * Wait for an LLM slot.
+     *
+     * @param publicAccess     whether the request came through the public endpoint
+     * @param clientKey        IP or user identifier used for per-client rate limiting (may be null)
+     * @param positionListener receives the 1-based queue position whenever it changes while waiting
+     * @return a permit that must be released once the LLM call has finished
+     * @throws LlmOverloadedException when the request is rate limited, the queue is full or the wait times out
+     */
+    public Permit acquire(boolean publicAccess, String clientKey, IntConsumer positionListener) {
+        if (!properties.isEnabled()) {
+            return Permit.NOOP;
+        }
+        Pool pool = publicAccess ? publicPool : authenticatedPool;
+
+        if (clientKey != null && !tryConsumeToken(pool, clientKey)) {
+            pool.rejected("rate_limited");
+            throw new LlmOverloadedException("请求过于频繁，请稍后再试");
+        }
+        return pool.acquire(positionListener);
+    }
+
+    private boolean tryConsumeToken(Pool pool, String clientKey) {
+        LlmAdmissionProperties.Pool config = pool.config;
+        if (config.getRequestsPerMinute() <= 0) {
+            return true;
+        }
+        if (buckets.size() > properties.getMaxTrackedClients()) {
+            evictIdleBuckets();
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(pool.audience + ':' + clientKey,
+                key -> new TokenBucket(Math.max(1, config.getBurst()), config.getRequestsPerMinute() / 60.0));
+        return bucket.tryConsume();
+    }
+
+    /**
+     * A full bucket carries no state worth keeping, so it can be dropped and recreated on demand.
+     */
+    private void evictIdleBuckets() {
+        buckets.values().removeIf(TokenBucket::isFull);
+        log.debug("Evicted idle LLM rate-limit buckets, {} remaining", buckets.size());
+    }
+
+    /**
+     * Permit for one LLM call. Releasing is idempotent.
+     */
+    public interface Permit {
+
+        Permit NOOP = () -> {
+        };
+
+        void release();
+    }
+
+    private final class Pool {
+
+        private final String audience;
+        private final LlmAdmissionProperties.Pool config;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition slotFreed = lock.newCondition();
+        private final ArrayDeque<Object> queue = new ArrayDeque<>();
+        private final Timer admittedWait;
+        private final Timer timedOutWait;
+        private int active;
+
+        private Pool(String audience, LlmAdmissionProperties.Pool config) {
+            this.audience = audience;
+            this.config = config;
+            this.admittedWait = waitTimer("admitted");
+            this.timedOutWait = waitTimer("timeout");
+            Gauge.builder("rag.admission.active", this, pool -> pool.active)
+                    .description("LLM calls currently holding a slot")
+                    .tag("audience", audience)
+                    .register(meterRegistry);
+            Gauge.builder("rag.admission.queue.size", this, pool -> pool.queue.size())
+                    .description("Requests waiting for an LLM slot")
+                    .tag("audience", audience)
+                    .register(meterRegistry);
+        }
+
+        private Timer waitTimer(String outcome) {
+            return Timer.builder("rag.admission.wait")
+                    .description("Time spent waiting for an LLM slot")
+                    .tag("audience", audience)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private void rejected(String reason) {
+            meterRegistry.counter("rag.admission.rejected", "audience", audience, "reason", reason).increment();
+        }
+
+        private Permit acquire(IntConsumer positionListener) {
+            long start = System.nanoTime();
+            long deadline = start + config.getMaxWait().toNanos();
+            Object ticket = new Object();
+            int reportedPosition = 0;
+
+            lock.lock();
+            try {
+                if (queue.isEmpty() && active < config.getMaxConcurrent()) {
+                    active++;
+                    admittedWait.record(0, TimeUnit.NANOSECONDS);
+                    return newPermit();
+                }
+                if (queue.size() >= config.getMaxQueue()) {
+                    rejected("queue_full");
+                    throw new LlmOverloadedException("当前咨询人数较多，请稍后再试");
+                }
+                queue.addLast(ticket);
+
+                while (true) {
+                    int position = positionOf(ticket);
+                    if (position == 1 && active < config.getMaxConcurrent()) {
+                        queue.removeFirst();
+                        active++;
+                        // Let the next waiter re-check in case more than one slot is free
+                        slotFreed.signalAll();
+                        admittedWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return newPermit();
+                    }
+
+                    if (position != reportedPosition && positionListener != null) {
+                        reportedPosition = position;
+                        // Never call out (SSE I/O) while holding the lock
+                        lock.unlock();
+                        try {
+                            positionListener.accept(position);
+                        } finally {
+                            lock.lock();
+                        }
+                        continue;
+                    }
+
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.remove(ticket);
+                        slotFreed.signalAll();
+                        timedOutWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        rejected("timeout");
+                        throw new LlmOverloadedException("排队等待超时，请稍后再试");
+                    }
+                    slotFreed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                queue.remove(ticket);
+                slotFreed.signalAll();
+                Thread.currentThread().interrupt();
+                throw new LlmOverloadedException("请求已取消");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int positionOf(Object ticket) {
+            int position = 1;
+            for (Iterator<Object> it = queue.iterator(); it.hasNext(); position++) {
+                if (it.next() == ticket) {
+                    return position;
+                }
+            }
+            return -1;
+        }
+
+        private Permit newPermit() {
+            AtomicBoolean released = new AtomicBoolean();
+            return () -> {
+                if (released.compareAndSet(false, true)) {
+                    lock.lock();
+                    try {
+                        active--;
+                        slotFreed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Classic token bucket refilled lazily on access.
+     */
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        private TokenBucket(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerSecond / 1_000_000_000d;
+            this.tokens = capacity;
+        }
+
+        synchronized boolean tryConsume() {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized boolean isFull() {
+            refill();
+            return tokens >= capacity;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
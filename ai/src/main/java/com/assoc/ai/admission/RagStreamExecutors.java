@@ -0,0 +1,76 @@
+package com.assoc.ai.admission;
+
+import com.assoc.ai.config.LlmAdmissionProperties;
+import com.assoc.ai.exception.LlmOverloadedException;
+import com.assoc.ai.metrics.RagMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads that drive streaming chat responses, one bounded pool per audience.
+ *
+ * <p>A stream holds its thread while it waits for an LLM slot and while it streams, so a pool
+ * never needs more threads than its admission pool can hold: {@code max-concurrent} streaming
+ * plus {@code max-queue} waiting. Beyond that a new stream is rejected at once with
+ * {@link LlmOverloadedException}, counted as {@code rag.admission.rejected} with reason
+ * {@code stream_threads}, instead of starting another thread.</p>
+ */
+@Slf4j
+@Component
+public class RagStreamExecutors implements DisposableBean {
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor publicStreams;
+    private final ThreadPoolExecutor authenticatedStreams;
+
+    public RagStreamExecutors(LlmAdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.publicStreams = pool(RagMetrics.AUDIENCE_PUBLIC, properties.getPublicPool());
+        this.authenticatedStreams = pool(RagMetrics.AUDIENCE_AUTHENTICATED, properties.getAuthenticatedPool());
+    }
+
+    private static ThreadPoolExecutor pool(String audience, LlmAdmissionProperties.Pool config) {
+        int maxThreads = Math.max(1, config.getMaxConcurrent() + config.getMaxQueue());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "rag-stream-" + audience + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("RAG stream pool {}: max {} threads", audience, maxThreads);
+        return executor;
+    }
+
+    /**
+     * Start a streaming response on the audience's pool.
+     *
+     * @throws LlmOverloadedException when every thread of the pool is taken
+     */
+    public void execute(boolean publicAccess, Runnable stream) {
+        try {
+            (publicAccess ? publicStreams : authenticatedStreams).execute(stream);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("rag.admission.rejected",
+                    "audience", publicAccess ? RagMetrics.AUDIENCE_PUBLIC : RagMetrics.AUDIENCE_AUTHENTICATED,
+                    "reason", "stream_threads").increment();
+            throw new LlmOverloadedException("当前咨询人数较多，请稍后再试");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        publicStreams.shutdownNow();
+        authenticatedStreams.shutdownNow();
+    }
+}
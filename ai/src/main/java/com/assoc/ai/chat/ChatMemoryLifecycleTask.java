@@ -0,0 +1,206 @@
+package com.assoc.ai.chat;
+
+import com.assoc.common.job.InternalJobTask;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lifecycle of the chat memory, run by an INTERNAL_SERVICE job of the scheduler module
+ * (handler key {@value #KEY}), which provides the schedule, cluster-wide exclusion and execution log.
+ *
+ * <ol>
+ *   <li>Create the monthly partitions of {@code ai_chat_memory} ahead of time.</li>
+ *   <li>Delete anonymous conversations idle for longer than {@code kb.chat.memory.anonymous-ttl}, in batches.</li>
+ *   <li>Drop (or detach, when {@code kb.chat.memory.archive} is on) partitions of conversations that
+ *       started more than {@code kb.chat.memory.retention} ago.</li>
+ * </ol>
+ *
+ * <p>Job parameters {@code batchSize} and {@code monthsAhead} override the configured values.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatMemoryLifecycleTask implements InternalJobTask {
+
+    public static final String KEY = "aiChatMemoryLifecycle";
+
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("ai_chat_memory_p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${kb.chat.memory.anonymous-ttl:P7D}")
+    private Duration anonymousTtl;
+
+    @Value("${kb.chat.memory.retention:P180D}")
+    private Duration retention;
+
+    @Value("${kb.chat.memory.archive:false}")
+    private boolean archive;
+
+    @Value("${kb.chat.memory.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${kb.chat.memory.months-ahead:2}")
+    private int monthsAhead;
+
+    @Override
+    public String getKey() {
+        return KEY;
+    }
+
+    @Override
+    public void execute(Map<String, Object> params) {
+        int batch = intParam(params, "batchSize", batchSize);
+        int ahead = intParam(params, "monthsAhead", monthsAhead);
+
+        int created = ensurePartitions(ahead);
+        long expired = deleteExpiredAnonymous(batch);
+        int dropped = dropExpiredPartitions();
+        log.info("Chat memory lifecycle: {} partitions created, {} anonymous conversations expired, {} partitions {}",
+                created, expired, dropped, archive ? "archived" : "dropped");
+    }
+
+    /**
+     * The job may not be configured yet on a fresh installation; make sure the current month exists.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitionsOnStartup() {
+        try {
+            ensurePartitions(monthsAhead);
+        } catch (Exception e) {
+            log.error("Failed to create chat memory partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    private int ensurePartitions(int ahead) {
+        List<String> existing = partitions();
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (int i = 0; i <= ahead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (existing.contains(name)) {
+                continue;
+            }
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.plusMonths(1).atDay(1);
+            // Rows that fell into the default partition for this range must move before the attach
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.execute("CREATE TABLE %s (LIKE ai_chat_memory INCLUDING DEFAULTS)".formatted(name));
+                jdbcTemplate.update("""
+                        WITH moved AS (
+                            DELETE FROM ai_chat_memory_default WHERE started_on >= ? AND started_on < ?
+                            RETURNING *
+                        )
+                        INSERT INTO %s SELECT * FROM moved
+                        """.formatted(name), Date.valueOf(from), Date.valueOf(to));
+                jdbcTemplate.execute("ALTER TABLE ai_chat_memory ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')"
+                        .formatted(name, from, to));
+            });
+            log.info("Created chat memory partition {}", name);
+            created++;
+        }
+        return created;
+    }
+
+    private long deleteExpiredAnonymous(int batch) {
+        LocalDateTime idleBefore = LocalDateTime.now().minus(anonymousTtl);
+        long total = 0;
+        int deleted;
+        do {
+            // Small batches keep locks short while visitors are chatting
+            Integer count = jdbcTemplate.queryForObject("""
+                    WITH expired AS (
+                        DELETE FROM ai_chat_conversation
+                        WHERE conversation_id IN (
+                            SELECT conversation_id FROM ai_chat_conversation
+                            WHERE anonymous AND last_active_at < ?
+                            ORDER BY last_active_at
+                            LIMIT ?
+                        )
+                        RETURNING conversation_id, started_on
+                    ), messages AS (
+                        DELETE FROM ai_chat_memory m
+                        USING expired e
+                        WHERE m.started_on = e.started_on AND m.conversation_id = e.conversation_id
+                    )
+                    SELECT COUNT(*) FROM expired
+                    """, Integer.class, idleBefore, batch);
+            deleted = count != null ? count : 0;
+            total += deleted;
+        } while (deleted >= batch);
+        return total;
+    }
+
+    private int dropExpiredPartitions() {
+        // A partition goes once its newest possible conversation start is past the retention
+        LocalDate keepFrom = LocalDate.now().minusDays(retention.toDays());
+        int dropped = 0;
+        for (String name : partitions()) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(matcher.group(1), PARTITION_SUFFIX);
+            if (!month.plusMonths(1).atDay(1).isBefore(keepFrom)) {
+                continue;
+            }
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM ai_chat_conversation WHERE started_on >= ? AND started_on < ?",
+                        Date.valueOf(month.atDay(1)), Date.valueOf(month.plusMonths(1).atDay(1)));
+                if (archive) {
+                    jdbcTemplate.execute("ALTER TABLE ai_chat_memory DETACH PARTITION " + name);
+                    jdbcTemplate.execute("ALTER TABLE %s RENAME TO ai_chat_memory_archive_%s"
+                            .formatted(name, matcher.group(1)));
+                } else {
+                    jdbcTemplate.execute("DROP TABLE " + name);
+                }
+            });
+            log.info("{} chat memory partition {}", archive ? "Archived" : "Dropped", name);
+            dropped++;
+        }
+        return dropped;
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = CAST('ai_chat_memory' AS regclass)
+                ORDER BY c.relname
+                """, String.class);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "ai_chat_memory_p" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static int intParam(Map<String, Object> params, String name, int defaultValue) {
+        Object value = params != null ? params.get(name) : null;
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        return value != null ? Integer.parseInt(value.toString()) : defaultValue;
+    }
+}
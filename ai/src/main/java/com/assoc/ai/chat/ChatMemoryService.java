@@ -0,0 +1,77 @@
+package com.assoc.ai.chat;
+
+import com.assoc.ai.entity.ChatMessage;
+import com.assoc.ai.repository.ChatMessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Conversation history storage.
+ *
+ * <p>Both operations cost a primary-key lookup on {@code ai_chat_conversation} plus one index
+ * access in the conversation's partition of {@code ai_chat_memory}, independent of the table size.</p>
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatMemoryService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatMessageRepository chatMessageRepository;
+
+    /**
+     * Latest messages of a conversation in chronological order.
+     */
+    public List<ChatMessage> loadRecent(String conversationId, int limit) {
+        List<LocalDate> startedOn = jdbcTemplate.queryForList(
+                "SELECT started_on FROM ai_chat_conversation WHERE conversation_id = ?",
+                LocalDate.class, conversationId);
+        if (startedOn.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<ChatMessage> messages = new ArrayList<>(chatMessageRepository
+                .findByStartedOnAndConversationIdOrderByMessageIndexDesc(
+                        startedOn.get(0), conversationId, PageRequest.ofSize(limit)));
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    /**
+     * Append a message, creating the conversation on its first message.
+     *
+     * @param anonymous whether the conversation belongs to a public visitor and expires after the TTL
+     */
+    @Transactional
+    public void append(String conversationId, boolean anonymous, String messageType, String content) {
+        LocalDateTime now = LocalDateTime.now();
+        // The counter row is locked until commit, so concurrent appends get consecutive indexes
+        Slot slot = jdbcTemplate.queryForObject("""
+                INSERT INTO ai_chat_conversation
+                (conversation_id, anonymous, message_count, started_on, created_at, last_active_at)
+                VALUES (?, ?, 1, ?, ?, ?)
+                ON CONFLICT (conversation_id) DO UPDATE
+                SET message_count = ai_chat_conversation.message_count + 1,
+                    last_active_at = EXCLUDED.last_active_at
+                RETURNING message_count - 1 AS message_index, started_on
+                """, (rs, rowNum) -> new Slot(rs.getInt("message_index"), rs.getDate("started_on")),
+                conversationId, anonymous, Date.valueOf(now.toLocalDate()), now, now);
+
+        jdbcTemplate.update("""
+                INSERT INTO ai_chat_memory
+                (started_on, conversation_id, message_index, message_type, content, created_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, slot.startedOn(), conversationId, slot.messageIndex(), messageType, content, now);
+    }
+
+    private record Slot(int messageIndex, Date startedOn) {
+    }
+}
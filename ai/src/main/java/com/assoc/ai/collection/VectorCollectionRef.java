@@ -0,0 +1,30 @@
+package com.assoc.ai.collection;
+
+import com.assoc.ai.entity.VectorCollection;
+
+import java.util.regex.Pattern;
+
+/**
+ * Immutable view of a collection for the query and write paths: which table to use and which
+ * model produced its vectors. Always read both from the same reference so they stay consistent.
+ */
+public record VectorCollectionRef(Long id, String tableName, String model, int dimension) {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("ai_vector_document_v\\d+");
+
+    public VectorCollectionRef {
+        // The table name is interpolated into SQL, so only accept names this module generates
+        if (tableName == null || !TABLE_NAME.matcher(tableName).matches()) {
+            throw new IllegalArgumentException("Invalid vector collection table: " + tableName);
+        }
+    }
+
+    static VectorCollectionRef of(VectorCollection collection) {
+        return new VectorCollectionRef(collection.getId(), collection.getTableName(),
+                collection.getModel(), collection.getDimension());
+    }
+
+    static String tableNameFor(long id) {
+        return "ai_vector_document_v" + id;
+    }
+}
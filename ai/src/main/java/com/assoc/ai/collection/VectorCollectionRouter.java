@@ -0,0 +1,94 @@
+package com.assoc.ai.collection;
+
+import com.assoc.ai.entity.VectorCollection;
+import com.assoc.ai.repository.VectorCollectionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Routes reads to the active collection and writes to every collection that still needs them.
+ *
+ * <p>The routing table is a snapshot of {@code ai_vector_collection}, refreshed after local
+ * changes and polled so that other nodes pick up a switch within a few seconds. Until they do,
+ * they keep querying the previous collection, which stays complete while it is DRAINING.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VectorCollectionRouter {
+
+    private static final Set<VectorCollection.Status> WRITABLE = EnumSet.of(
+            VectorCollection.Status.ACTIVE, VectorCollection.Status.BUILDING, VectorCollection.Status.DRAINING);
+
+    private final VectorCollectionRepository collectionRepository;
+
+    private volatile Routes routes;
+
+    /**
+     * Collection that serves queries.
+     */
+    public VectorCollectionRef active() {
+        return routes().active();
+    }
+
+    /**
+     * Collections that must receive every upsert and delete.
+     */
+    public List<VectorCollectionRef> writeTargets() {
+        return routes().writeTargets();
+    }
+
+    /**
+     * Collection being backfilled, or {@code null}.
+     */
+    public VectorCollectionRef building() {
+        return routes().building();
+    }
+
+    @Scheduled(fixedDelayString = "${kb.embedding.collection.refresh-ms:5000}")
+    public void refresh() {
+        List<VectorCollection> live = collectionRepository.findByStatusInOrderByIdAsc(WRITABLE);
+        VectorCollectionRef active = null;
+        VectorCollectionRef building = null;
+        List<VectorCollectionRef> targets = new ArrayList<>(live.size());
+        for (VectorCollection collection : live) {
+            VectorCollectionRef ref = VectorCollectionRef.of(collection);
+            targets.add(ref);
+            if (collection.getStatus() == VectorCollection.Status.ACTIVE) {
+                active = ref;
+            } else if (collection.getStatus() == VectorCollection.Status.BUILDING) {
+                building = ref;
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("No active vector collection");
+        }
+
+        Routes previous = routes;
+        routes = new Routes(active, building, List.copyOf(targets));
+        if (previous != null && !previous.active().equals(active)) {
+            log.info("Active vector collection switched: {} -> {} ({})",
+                    previous.active().tableName(), active.tableName(), active.model());
+        }
+    }
+
+    private Routes routes() {
+        Routes current = routes;
+        if (current == null) {
+            refresh();
+            current = routes;
+        }
+        return current;
+    }
+
+    private record Routes(VectorCollectionRef active, VectorCollectionRef building,
+                          List<VectorCollectionRef> writeTargets) {
+    }
+}
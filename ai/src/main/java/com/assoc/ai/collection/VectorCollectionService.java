@@ -0,0 +1,604 @@
+package com.assoc.ai.collection;
+
+import com.assoc.ai.dto.VectorCollectionStatus;
+import com.assoc.ai.embedding.EmbeddingService;
+import com.assoc.ai.entity.VectorCollection;
+import com.assoc.ai.repository.VectorCollectionRepository;
+import com.assoc.common.exception.BusinessException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Lifecycle of versioned vector collections: build a new collection for another embedding model
+ * or dimension while the active one keeps serving, then switch over atomically.
+ *
+ * <ol>
+ *   <li>{@link #startRebuild} registers a BUILDING collection and creates its table with the same
+ *       partitions as the active one. From then on upserts and deletes are written to both.</li>
+ *   <li>A background backfill re-embeds the stored chunks of the active collection in keyset order,
+ *       rate limited and checkpointed after every batch so that any node can resume it.</li>
+ *   <li>Once the ANN and full-text indexes are built and entities changed during the backfill are
+ *       copied again, the registry and the {@code ai_vector_document} view are switched in one
+ *       transaction. The previous collection is DRAINING and dropped after a grace period.</li>
+ * </ol>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VectorCollectionService {
+
+    /**
+     * pgvector cannot build an HNSW index for more dimensions than this
+     */
+    private static final int MAX_INDEXED_DIMENSION = 2000;
+
+    private static final Pattern PARTITION_SUFFIX = Pattern.compile("_[a-z0-9_]+");
+
+    private static final int EMBED_ATTEMPTS = 3;
+
+    private static final String SELECT_CHUNKS = """
+            SELECT id, entity_type, entity_id, chunk_index, content, field_source,
+                   CAST(metadata AS text) AS metadata, created_time
+            FROM %s
+            """;
+
+    private static final RowMapper<SourceChunk> CHUNK_MAPPER = (rs, rowNum) -> new SourceChunk(
+            rs.getLong("id"),
+            rs.getString("entity_type"),
+            rs.getLong("entity_id"),
+            rs.getInt("chunk_index"),
+            rs.getString("content"),
+            rs.getString("field_source"),
+            rs.getString("metadata"),
+            rs.getTimestamp("created_time"));
+
+    private final VectorCollectionRepository collectionRepository;
+    private final VectorCollectionRouter collectionRouter;
+    private final EmbeddingService embeddingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${kb.embedding.api.model:bge-small-zh-1.5}")
+    private String configuredModel;
+
+    @Value("${kb.embedding.dimension:512}")
+    private int configuredDimension;
+
+    @Value("${kb.embedding.collection.auto-rebuild:false}")
+    private boolean autoRebuild;
+
+    @Value("${kb.embedding.collection.batch-size:32}")
+    private int batchSize;
+
+    @Value("${kb.embedding.collection.max-chunks-per-second:100}")
+    private int maxChunksPerSecond;
+
+    @Value("${kb.embedding.collection.retire-after:PT10M}")
+    private Duration retireAfter;
+
+    @Value("${kb.embedding.collection.stale-after:PT2M}")
+    private Duration staleAfter;
+
+    private final String nodeId = abbreviate(ManagementFactory.getRuntimeMXBean().getName(), 100);
+
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vector-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Collection backfilled by this node, or {@code null}
+     */
+    private volatile Long running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            VectorCollection active = collectionRepository.findFirstByStatus(VectorCollection.Status.ACTIVE)
+                    .orElseThrow(() -> new IllegalStateException("No active vector collection"));
+            if (active.getModel() == null) {
+                // The first collection predates the registry; its vectors come from the configured model
+                jdbcTemplate.update("UPDATE ai_vector_collection SET model = ? WHERE id = ? AND model IS NULL",
+                        configuredModel, active.getId());
+                active.setModel(configuredModel);
+                collectionRouter.refresh();
+            }
+
+            resumeStaleBuild();
+
+            if (configuredModel.equals(active.getModel()) && configuredDimension == active.getDimension()) {
+                return;
+            }
+            if (!autoRebuild) {
+                log.warn("Configured embedding model {} ({}d) differs from active collection {} ({} {}d); "
+                                + "queries keep using the active model until a rebuild is started",
+                        configuredModel, configuredDimension, active.getTableName(),
+                        active.getModel(), active.getDimension());
+            } else if (collectionRepository.findFirstByStatus(VectorCollection.Status.BUILDING).isEmpty()) {
+                startRebuild(configuredModel, configuredDimension);
+            }
+        } catch (Exception e) {
+            log.error("Failed to initialise vector collections: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Start building a new collection for the given embedding model.
+     *
+     * @param model     embedding model, defaults to {@code kb.embedding.api.model}
+     * @param dimension output dimension of the model, defaults to {@code kb.embedding.dimension}
+     */
+    public VectorCollectionStatus startRebuild(String model, Integer dimension) {
+        String targetModel = (model == null || model.isBlank()) ? configuredModel : model.strip();
+        int targetDimension = dimension != null ? dimension : configuredDimension;
+        if (targetDimension < 1 || targetDimension > MAX_INDEXED_DIMENSION) {
+            throw new IllegalArgumentException("Dimension must be between 1 and " + MAX_INDEXED_DIMENSION);
+        }
+        if (collectionRepository.findFirstByStatus(VectorCollection.Status.BUILDING).isPresent()) {
+            throw new BusinessException(409, "A vector collection is already being built");
+        }
+
+        // Fail fast on an unknown model or a dimension that does not match its output
+        int actualDimension = embeddingService.embedBatch(List.of("向量维度检测"), targetModel).get(0).length;
+        if (actualDimension != targetDimension) {
+            throw new IllegalArgumentException("Model " + targetModel + " returns " + actualDimension
+                    + " dimensions, not " + targetDimension);
+        }
+
+        VectorCollectionRef source = collectionRouter.active();
+        long id = collectionRepository.nextId();
+        String table = VectorCollectionRef.tableNameFor(id);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.update("""
+                        INSERT INTO ai_vector_collection
+                        (id, table_name, model, dimension, status, owner, created_time, updated_time)
+                        VALUES (?, ?, ?, ?, 'BUILDING', ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                        """, id, table, targetModel, targetDimension, nodeId);
+                createTable(source, table, id, targetDimension);
+            });
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException(409, "A vector collection is already being built");
+        }
+
+        // Dual writes start as soon as the routing table includes the new collection
+        collectionRouter.refresh();
+        log.info("Started vector collection {} for model {} ({}d)", table, targetModel, targetDimension);
+        submit(id);
+        return toStatus(collectionRepository.findById(id).orElseThrow());
+    }
+
+    /**
+     * Cancel a collection that is still being built. Its table is dropped by the next maintenance run.
+     */
+    public void cancel(Long id) {
+        int updated = jdbcTemplate.update("""
+                UPDATE ai_vector_collection SET status = 'CANCELLED', owner = NULL, updated_time = ?
+                WHERE id = ? AND status = 'BUILDING'
+                """, LocalDateTime.now(), id);
+        if (updated == 0) {
+            throw new BusinessException(409, "Vector collection " + id + " is not being built");
+        }
+        collectionRouter.refresh();
+        log.info("Cancelled vector collection {}", id);
+    }
+
+    public List<VectorCollectionStatus> list() {
+        return collectionRepository.findAllByOrderByIdDesc().stream()
+                .map(VectorCollectionService::toStatus)
+                .toList();
+    }
+
+    /**
+     * Resume abandoned backfills and drop collections that are no longer needed.
+     */
+    @Scheduled(fixedDelayString = "${kb.embedding.collection.maintenance-ms:60000}")
+    public void maintain() {
+        try {
+            resumeStaleBuild();
+
+            LocalDateTime now = LocalDateTime.now();
+            for (VectorCollection collection : collectionRepository.findByStatusInOrderByIdAsc(EnumSet.of(
+                    VectorCollection.Status.DRAINING, VectorCollection.Status.FAILED,
+                    VectorCollection.Status.CANCELLED))) {
+                if (collection.getDroppedTime() != null) {
+                    continue;
+                }
+                // Nodes that have not seen the switch yet still query a draining collection
+                if (collection.getStatus() == VectorCollection.Status.DRAINING
+                        && collection.getDeactivatedTime().plus(retireAfter).isAfter(now)) {
+                    continue;
+                }
+                drop(collection, now);
+            }
+        } catch (Exception e) {
+            log.error("Vector collection maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // The checkpoint lets another node (or this one after restart) resume the backfill
+        backfillExecutor.shutdownNow();
+    }
+
+    private void createTable(VectorCollectionRef source, String table, long id, int dimension) {
+        jdbcTemplate.execute("""
+                CREATE TABLE %1$s (
+                    id BIGINT NOT NULL DEFAULT nextval('ai_vector_document_id_seq'),
+                    entity_type VARCHAR(50) NOT NULL,
+                    entity_id BIGINT NOT NULL,
+                    chunk_index INTEGER NOT NULL DEFAULT 0,
+                    content TEXT NOT NULL,
+                    field_source VARCHAR(50),
+                    embedding vector(%2$d) NOT NULL,
+                    metadata JSONB,
+                    search_vector tsvector GENERATED ALWAYS AS (
+                        to_tsvector('simple', coalesce(content, ''))
+                    ) STORED,
+                    created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    CONSTRAINT %1$s_pkey PRIMARY KEY (entity_type, id),
+                    CONSTRAINT uk_ai_vector_chunk_v%3$d UNIQUE (entity_type, entity_id, chunk_index, field_source)
+                ) PARTITION BY LIST (entity_type)
+                """.formatted(table, dimension, id));
+
+        // Same partitions as the active collection: ai_vector_document_v1_news -> ai_vector_document_v2_news
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = CAST(? AS regclass)
+                ORDER BY c.relname
+                """, source.tableName());
+        for (Map<String, Object> partition : partitions) {
+            String suffix = ((String) partition.get("name")).substring(source.tableName().length());
+            if (!PARTITION_SUFFIX.matcher(suffix).matches()) {
+                log.warn("Skipping unexpected partition {}", partition.get("name"));
+                continue;
+            }
+            jdbcTemplate.execute("CREATE TABLE %s%s PARTITION OF %s %s"
+                    .formatted(table, suffix, table, partition.get("bound")));
+        }
+
+        // Needed right away by dual-write deletes; the ANN and full-text indexes are built after the backfill
+        jdbcTemplate.execute("CREATE INDEX idx_ai_vector_v%d_entity ON %s(entity_type, entity_id)".formatted(id, table));
+    }
+
+    private void resumeStaleBuild() {
+        if (running != null) {
+            return;
+        }
+        collectionRepository.findFirstByStatus(VectorCollection.Status.BUILDING).ifPresent(collection -> {
+            LocalDateTime now = LocalDateTime.now();
+            Integer claimed = new TransactionTemplate(transactionManager).execute(status ->
+                    collectionRepository.claim(collection.getId(), nodeId, now, now.minus(staleAfter)));
+            if (claimed != null && claimed == 1) {
+                log.info("Resuming backfill of {} after {}/{}", collection.getTableName(),
+                        collection.getCursorEntityType(), collection.getCursorId());
+                submit(collection.getId());
+            }
+        });
+    }
+
+    private void submit(Long id) {
+        running = id;
+        backfillExecutor.execute(() -> {
+            try {
+                backfill(id);
+            } finally {
+                running = null;
+            }
+        });
+    }
+
+    private void backfill(Long id) {
+        try {
+            VectorCollection collection = collectionRepository.findById(id).orElseThrow();
+            VectorCollectionRef target = VectorCollectionRef.of(collection);
+            VectorCollectionRef source = collectionRouter.active();
+            log.info("Backfilling {} ({}) from {} ({})", target.tableName(), target.model(),
+                    source.tableName(), source.model());
+
+            if (collection.getTotalChunks() == 0) {
+                Long total = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM " + source.tableName(), Long.class);
+                jdbcTemplate.update("UPDATE ai_vector_collection SET total_chunks = ? WHERE id = ?", total, id);
+            }
+
+            String cursorType = collection.getCursorEntityType() != null ? collection.getCursorEntityType() : "";
+            long cursorId = collection.getCursorId() != null ? collection.getCursorId() : 0L;
+            long processed = collection.getProcessedChunks();
+            long failed = collection.getFailedChunks();
+            long started = System.nanoTime();
+            long copied = 0;
+
+            String nextBatch = SELECT_CHUNKS.formatted(source.tableName()) + """
+                    WHERE (entity_type, id) > (?, ?)
+                    ORDER BY entity_type, id
+                    LIMIT ?
+                    """;
+            while (true) {
+                List<SourceChunk> batch = jdbcTemplate.query(nextBatch, CHUNK_MAPPER, cursorType, cursorId, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                int batchFailed = copy(target, batch);
+                processed += batch.size() - batchFailed;
+                failed += batchFailed;
+                SourceChunk last = batch.get(batch.size() - 1);
+                cursorType = last.entityType();
+                cursorId = last.id();
+
+                if (!checkpoint(id, processed, failed, cursorType, cursorId)) {
+                    log.info("Backfill of {} stopped: cancelled or taken over", target.tableName());
+                    return;
+                }
+                copied += batch.size();
+                throttle(started, copied);
+            }
+
+            // Bulk-building the indexes once is much faster than maintaining them during the backfill
+            jdbcTemplate.execute("""
+                    CREATE INDEX IF NOT EXISTS idx_ai_vector_v%1$d_embedding ON %2$s
+                        USING hnsw (embedding vector_cosine_ops) WITH (m = 16, ef_construction = 64)
+                    """.formatted(id, target.tableName()));
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_ai_vector_v%d_fts ON %s USING gin(search_vector)"
+                    .formatted(id, target.tableName()));
+            jdbcTemplate.execute("ANALYZE " + target.tableName());
+
+            failed += catchUp(source, target, collection.getCreatedTime());
+            if (failed > 0) {
+                fail(id, failed + " chunks could not be embedded");
+                return;
+            }
+            activate(source, target);
+        } catch (CancellationException e) {
+            log.info("Backfill of collection {} paused by shutdown", id);
+        } catch (Exception e) {
+            log.error("Backfill of collection {} failed: {}", id, e.getMessage(), e);
+            fail(id, e.getMessage());
+        }
+    }
+
+    /**
+     * Re-embed chunks into the target collection.
+     *
+     * @return number of chunks that could not be embedded
+     */
+    private int copy(VectorCollectionRef target, List<SourceChunk> chunks) {
+        List<float[]> embeddings = embedWithRetry(target.model(), chunks.stream().map(SourceChunk::content).toList());
+        if (embeddings == null) {
+            return chunks.size();
+        }
+        if (embeddings.get(0).length != target.dimension()) {
+            throw new IllegalStateException("Model " + target.model() + " returned " + embeddings.get(0).length
+                    + " dimensions, expected " + target.dimension());
+        }
+
+        // Keep ids so that the same chunk has the same id in every collection; rows already written
+        // by dual writes win over the older source copy
+        String sql = """
+                INSERT INTO %s
+                (id, entity_type, entity_id, chunk_index, content, field_source, embedding, metadata, created_time)
+                VALUES (?, ?, ?, ?, ?, ?, CAST(? AS vector), CAST(? AS jsonb), ?)
+                ON CONFLICT DO NOTHING
+                """.formatted(target.tableName());
+        int[] index = {0};
+        jdbcTemplate.batchUpdate(sql, chunks, chunks.size(), (ps, chunk) -> {
+            ps.setLong(1, chunk.id());
+            ps.setString(2, chunk.entityType());
+            ps.setLong(3, chunk.entityId());
+            ps.setInt(4, chunk.chunkIndex());
+            ps.setString(5, chunk.content());
+            ps.setString(6, chunk.fieldSource());
+            ps.setString(7, vectorToString(embeddings.get(index[0]++)));
+            ps.setString(8, chunk.metadata());
+            ps.setTimestamp(9, chunk.createdTime());
+        });
+        return 0;
+    }
+
+    private List<float[]> embedWithRetry(String model, List<String> texts) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return embeddingService.embedBatch(texts, model);
+            } catch (Exception e) {
+                if (attempt == EMBED_ATTEMPTS) {
+                    log.warn("Giving up embedding {} chunks with {}: {}", texts.size(), model, e.getMessage());
+                    return null;
+                }
+                sleep(1000L << (attempt - 1));
+            }
+        }
+    }
+
+    /**
+     * Bring entities that changed while the backfill was running up to date. Dual writes cover
+     * most of them, but a backfill batch read before an update may have been written after it, and
+     * other nodes start dual writes only once they refresh their routing table.
+     *
+     * @return number of chunks that could not be embedded
+     */
+    private int catchUp(VectorCollectionRef source, VectorCollectionRef target, LocalDateTime since) {
+        int removed = jdbcTemplate.update("""
+                DELETE FROM %s t
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM %s s WHERE s.entity_type = t.entity_type AND s.entity_id = t.entity_id
+                )
+                """.formatted(target.tableName(), source.tableName()));
+
+        // Re-vectorizing upserts chunks in place and only bumps updated_time; rows written before V008 have none
+        List<Map<String, Object>> changed = jdbcTemplate.queryForList("""
+                SELECT DISTINCT entity_type, entity_id FROM %s WHERE COALESCE(updated_time, created_time) >= ?
+                """.formatted(source.tableName()),
+                Timestamp.valueOf(since));
+        String entityChunks = SELECT_CHUNKS.formatted(source.tableName())
+                + "WHERE entity_type = ? AND entity_id = ? ORDER BY id";
+        int failed = 0;
+        for (Map<String, Object> entity : changed) {
+            Object entityType = entity.get("entity_type");
+            Object entityId = entity.get("entity_id");
+            jdbcTemplate.update("DELETE FROM %s WHERE entity_type = ? AND entity_id = ?".formatted(target.tableName()),
+                    entityType, entityId);
+            List<SourceChunk> chunks = jdbcTemplate.query(entityChunks, CHUNK_MAPPER, entityType, entityId);
+            if (!chunks.isEmpty()) {
+                failed += copy(target, chunks);
+            }
+        }
+        log.info("Caught up {}: {} entities re-copied, {} stale chunks removed",
+                target.tableName(), changed.size(), removed);
+        return failed;
+    }
+
+    /**
+     * Make the target the active collection. Registry and view change in one transaction;
+     * other nodes follow on their next routing refresh.
+     */
+    private void activate(VectorCollectionRef source, VectorCollectionRef target) {
+        LocalDateTime now = LocalDateTime.now();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int demoted = jdbcTemplate.update("""
+                    UPDATE ai_vector_collection SET status = 'DRAINING', deactivated_time = ?, updated_time = ?
+                    WHERE id = ? AND status = 'ACTIVE'
+                    """, now, now, source.id());
+            int promoted = jdbcTemplate.update("""
+                    UPDATE ai_vector_collection SET status = 'ACTIVE', activated_time = ?, updated_time = ?, owner = NULL
+                    WHERE id = ? AND status = 'BUILDING' AND owner = ?
+                    """, now, now, target.id(), nodeId);
+            if (demoted != 1 || promoted != 1) {
+                throw new IllegalStateException("Collection " + target.tableName() + " can no longer be activated");
+            }
+            jdbcTemplate.execute("DROP VIEW IF EXISTS ai_vector_document");
+            jdbcTemplate.execute("CREATE VIEW ai_vector_document AS SELECT * FROM " + target.tableName());
+        });
+        collectionRouter.refresh();
+        log.info("Activated vector collection {} ({}), {} is draining",
+                target.tableName(), target.model(), source.tableName());
+    }
+
+    /**
+     * @return false if the collection is no longer building on this node
+     */
+    private boolean checkpoint(Long id, long processed, long failed, String cursorType, long cursorId) {
+        return jdbcTemplate.update("""
+                UPDATE ai_vector_collection
+                SET processed_chunks = ?, failed_chunks = ?, cursor_entity_type = ?, cursor_id = ?, updated_time = ?
+                WHERE id = ? AND status = 'BUILDING' AND owner = ?
+                """, processed, failed, cursorType, cursorId, LocalDateTime.now(), id, nodeId) == 1;
+    }
+
+    private void fail(Long id, String message) {
+        jdbcTemplate.update("""
+                UPDATE ai_vector_collection SET status = 'FAILED', error_message = ?, owner = NULL, updated_time = ?
+                WHERE id = ? AND status = 'BUILDING'
+                """, message, LocalDateTime.now(), id);
+        collectionRouter.refresh();
+    }
+
+    private void drop(VectorCollection collection, LocalDateTime now) {
+        String table = VectorCollectionRef.of(collection).tableName();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+            jdbcTemplate.update("""
+                    UPDATE ai_vector_collection
+                    SET status = CASE WHEN status = 'DRAINING' THEN 'RETIRED' ELSE status END,
+                        dropped_time = ?, updated_time = ?
+                    WHERE id = ? AND status = ?
+                    """, now, now, collection.getId(), collection.getStatus().name());
+        });
+        log.info("Dropped {} vector collection {}", collection.getStatus(), table);
+    }
+
+    private void throttle(long startedNanos, long copied) {
+        if (maxChunksPerSecond <= 0) {
+            return;
+        }
+        long aheadNanos = copied * 1_000_000_000L / maxChunksPerSecond - (System.nanoTime() - startedNanos);
+        if (aheadNanos > 0) {
+            sleep(aheadNanos / 1_000_000);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        }
+    }
+
+    private static VectorCollectionStatus toStatus(VectorCollection collection) {
+        boolean building = collection.getStatus() == VectorCollection.Status.BUILDING;
+        long total = collection.getTotalChunks();
+        long done = collection.getProcessedChunks() + collection.getFailedChunks();
+        double seconds = Duration.between(collection.getCreatedTime(), collection.getUpdatedTime()).toMillis() / 1000.0;
+        Double rate = seconds > 0 && collection.getProcessedChunks() > 0
+                ? collection.getProcessedChunks() / seconds : null;
+
+        return VectorCollectionStatus.builder()
+                .id(collection.getId())
+                .tableName(collection.getTableName())
+                .model(collection.getModel())
+                .dimension(collection.getDimension())
+                .status(collection.getStatus().name())
+                .totalChunks(total)
+                .processedChunks(collection.getProcessedChunks())
+                .failedChunks(collection.getFailedChunks())
+                .progress(building ? (total > 0 ? Math.min(100.0, done * 100.0 / total) : 0.0) : null)
+                .chunksPerSecond(rate)
+                .etaSeconds(building && rate != null ? (long) (Math.max(0, total - done) / rate) : null)
+                .errorMessage(collection.getErrorMessage())
+                .createdTime(collection.getCreatedTime())
+                .updatedTime(collection.getUpdatedTime())
+                .activatedTime(collection.getActivatedTime())
+                .deactivatedTime(collection.getDeactivatedTime())
+                .droppedTime(collection.getDroppedTime())
+                .build();
+    }
+
+    private static String vectorToString(float[] vector) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append(vector[i]);
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    private static String abbreviate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private record SourceChunk(long id, String entityType, long entityId, int chunkIndex, String content,
+                               String fieldSource, String metadata, Timestamp createdTime) {
+    }
+}
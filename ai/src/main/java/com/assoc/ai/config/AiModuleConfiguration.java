@@ -0,0 +1,9 @@
+package com.assoc.ai.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({HybridSearchProperties.class, LlmAdmissionProperties.class})
+public class AiModuleConfiguration {
+}
@@ -0,0 +1,33 @@
+package com.assoc.ai.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning knobs for hybrid (vector + full-text) retrieval.
+ */
+@Data
+@ConfigurationProperties(prefix = "kb.rag.hybrid")
+public class HybridSearchProperties {
+
+    /**
+     * Weight of the cosine similarity score in the fused score.
+     */
+    private double vectorWeight = 0.7;
+
+    /**
+     * Weight of the full-text rank in the fused score.
+     */
+    private double textWeight = 0.3;
+
+    /**
+     * Each leg fetches {@code topK * candidateMultiplier} candidates before fusion.
+     */
+    private int candidateMultiplier = 2;
+
+    /**
+     * HNSW candidate list size ({@code hnsw.ef_search}) of vector queries; raised to the query's
+     * LIMIT when that is larger, since an HNSW scan never returns more rows than this.
+     */
+    private int efSearch = 40;
+}
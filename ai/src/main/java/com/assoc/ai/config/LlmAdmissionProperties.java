@@ -0,0 +1,69 @@
+package com.assoc.ai.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Admission control for LLM calls. Public and authenticated traffic get separate pools so that
+ * a burst on the public endpoint cannot starve admin users.
+ */
+@Data
+@ConfigurationProperties(prefix = "kb.rag.admission")
+public class LlmAdmissionProperties {
+
+    /**
+     * Disable to let every request through (e.g. in local development).
+     */
+    private boolean enabled = true;
+
+    /**
+     * Upper bound of tracked per-client token buckets; idle buckets are dropped beyond this.
+     */
+    private int maxTrackedClients = 10_000;
+
+    private Pool publicPool = new Pool(4, 20, Duration.ofSeconds(30), 10, 5);
+
+    private Pool authenticatedPool = new Pool(8, 50, Duration.ofSeconds(60), 30, 10);
+
+    @Data
+    public static class Pool {
+
+        /**
+         * Concurrent LLM streams allowed for this pool.
+         */
+        private int maxConcurrent;
+
+        /**
+         * Requests allowed to wait for a slot; further requests are rejected immediately.
+         */
+        private int maxQueue;
+
+        /**
+         * Longest time a request may wait in the queue.
+         */
+        private Duration maxWait;
+
+        /**
+         * Sustained requests per minute per client (IP or user).
+         */
+        private int requestsPerMinute;
+
+        /**
+         * Burst size of the per-client token bucket.
+         */
+        private int burst;
+
+        public Pool() {
+        }
+
+        public Pool(int maxConcurrent, int maxQueue, Duration maxWait, int requestsPerMinute, int burst) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.maxWait = maxWait;
+            this.requestsPerMinute = requestsPerMinute;
+            this.burst = burst;
+        }
+    }
+}
@@ -1,21 +1,31 @@
 package com.assoc.ai.controller;
 
+import com.assoc.ai.admission.RagStreamExecutors;
 import com.assoc.ai.dto.PublicRagChatRequest;
 import com.assoc.ai.dto.RagChatRequest;
+import com.assoc.ai.dto.RelatedContent;
+import com.assoc.ai.dto.SearchSuggestion;
+import com.assoc.ai.exception.LlmOverloadedException;
 import com.assoc.ai.service.RagService;
+import com.assoc.ai.related.RelatedContentService;
+import com.assoc.ai.suggest.SuggestionService;
+import com.assoc.common.Result;
+import com.assoc.common.security.ClientAddress;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Public RAG API controller for website visitors.
@@ -29,17 +39,26 @@ import java.util.concurrent.Executors;
 public class PublicRagController {
 
     private final RagService ragService;
+    private final SuggestionService suggestionService;
+    private final RelatedContentService relatedContentService;
     private final ObjectMapper objectMapper;
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final RagStreamExecutors streamExecutors;
 
     private static final int DEFAULT_TOP_K = 5;
 
     @PostMapping(value = "/chat", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @Operation(summary = "Public RAG chat (streaming)", description = "Chat with RAG using streaming response, no authentication required")
-    public SseEmitter chat(@RequestBody PublicRagChatRequest request) {
+    public SseEmitter chat(@RequestBody PublicRagChatRequest request, HttpServletRequest httpRequest) {
         SseEmitter emitter = new SseEmitter(300_000L);
 
-        executor.execute(() -> {
+        String clientKey = ClientAddress.of(httpRequest);
+        // Carry the request traceId over to the streaming thread
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+
+        startStream(emitter, () -> {
+            if (mdcContext != null) {
+                MDC.setContextMap(mdcContext);
+            }
             try {
                 // Convert to internal RagChatRequest
                 RagChatRequest ragRequest = new RagChatRequest();
@@ -47,65 +66,80 @@ public class PublicRagController {
                 ragRequest.setTypes(request.getTypes());
                 ragRequest.setTopK(DEFAULT_TOP_K);
                 ragRequest.setConversationId(request.getConversationId());
+                ragRequest.setStreamDelayMs(request.getStreamDelayMs());
+                ragRequest.setPublicAccess(true);
+                ragRequest.setClientKey(clientKey);
 
                 // Get streaming result with references
-                RagService.StreamingChatResult result = ragService.chatWithReferences(ragRequest);
+                RagService.StreamingChatResult result = ragService.chatWithReferences(
+                        ragRequest, position -> sendQueueEvent(emitter, position));
 
-                // 1. Send meta event with conversationId
                 try {
-                    String metaJson = objectMapper.writeValueAsString(
-                            java.util.Map.of("conversationId", result.conversationId()));
-                    SseEmitter.SseEventBuilder metaEvent = SseEmitter.event()
-                            .name("meta")
-                            .data(metaJson, MediaType.APPLICATION_JSON);
-                    emitter.send(metaEvent);
-                } catch (JsonProcessingException e) {
-                    log.error("Error serializing meta", e);
-                }
+                    // 1. Send meta event with conversationId
+                    try {
+                        String metaJson = objectMapper.writeValueAsString(
+                                java.util.Map.of("conversationId", result.conversationId()));
+                        SseEmitter.SseEventBuilder metaEvent = SseEmitter.event()
+                                .name("meta")
+                                .data(metaJson, MediaType.APPLICATION_JSON);
+                        emitter.send(metaEvent);
+                    } catch (JsonProcessingException e) {
+                        log.error("Error serializing meta", e);
+                    }
 
-                // 2. Send references event
-                try {
-                    String referencesJson = objectMapper.writeValueAsString(result.references());
-                    SseEmitter.SseEventBuilder refEvent = SseEmitter.event()
-                            .name("references")
-                            .data(referencesJson, MediaType.APPLICATION_JSON);
-                    emitter.send(refEvent);
-                } catch (JsonProcessingException e) {
-                    log.error("Error serializing references", e);
-                }
+                    // 2. Send references event
+                    try {
+                        String referencesJson = objectMapper.writeValueAsString(result.references());
+                        SseEmitter.SseEventBuilder refEvent = SseEmitter.event()
+                                .name("references")
+                                .data(referencesJson, MediaType.APPLICATION_JSON);
+                        emitter.send(refEvent);
+                    } catch (JsonProcessingException e) {
+                        log.error("Error serializing references", e);
+                    }
 
-                // 3. Stream content events
-                result.contentFlux()
-                        .doOnNext(content -> {
-                            try {
-                                SseEmitter.SseEventBuilder event = SseEmitter.event()
-                                        .name("content")
-                                        .data(content, MediaType.valueOf("text/plain;charset=UTF-8"));
-                                emitter.send(event);
-                            } catch (IOException e) {
-                                log.error("Error sending SSE content event", e);
-                                emitter.completeWithError(e);
-                            }
-                        })
-                        .doOnComplete(() -> {
-                            try {
-                                // 4. Send done event
-                                SseEmitter.SseEventBuilder doneEvent = SseEmitter.event()
-                                        .name("done")
-                                        .data("");
-                                emitter.send(doneEvent);
-                                emitter.complete();
-                            } catch (IOException e) {
-                                log.error("Error sending done event", e);
-                                emitter.completeWithError(e);
-                            }
-                        })
-                        .doOnError(emitter::completeWithError)
-                        .blockLast();
+                    // 3. Stream content events
+                    result.contentFlux()
+                            .doOnNext(content -> {
+                                try {
+                                    SseEmitter.SseEventBuilder event = SseEmitter.event()
+                                            .name("content")
+                                            .data(content, MediaType.valueOf("text/plain;charset=UTF-8"));
+                                    emitter.send(event);
+                                } catch (IOException e) {
+                                    log.error("Error sending SSE content event", e);
+                                    emitter.completeWithError(e);
+                                }
+                            })
+                            .doOnComplete(() -> {
+                                try {
+                                    // 4. Send suggestions event, if the model produced any
+                                    sendSuggestionsEvent(emitter, result.suggestedQuestions().get());
 
+                                    // 5. Send done event
+                                    SseEmitter.SseEventBuilder doneEvent = SseEmitter.event()
+                                            .name("done")
+                                            .data("");
+                                    emitter.send(doneEvent);
+                                    emitter.complete();
+                                } catch (IOException e) {
+                                    log.error("Error sending done event", e);
+                                    emitter.completeWithError(e);
+                                }
+                            })
+                            .doOnError(emitter::completeWithError)
+                            .blockLast();
+                } finally {
+                    result.permit().release();
+                }
+
+            } catch (LlmOverloadedException e) {
+                sendOverloadedEvent(emitter, e);
             } catch (Exception e) {
                 log.error("Error in public SSE streaming", e);
                 emitter.completeWithError(e);
+            } finally {
+                MDC.clear();
             }
         });
 
@@ -115,4 +149,62 @@ public class PublicRagController {
 
         return emitter;
     }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Search suggestions", description = "Autocomplete titles by prefix or pinyin initials, no authentication required")
+    public Result<List<SearchSuggestion>> suggest(@RequestParam("q") String query,
+                                                  @RequestParam(required = false) List<String> types,
+                                                  @RequestParam(required = false) Integer limit) {
+        return Result.success(suggestionService.suggest(query, types, limit));
+    }
+
+    @GetMapping("/related/{type}/{id}")
+    @Operation(summary = "Related content", description = "Precomputed related entities of any type for a detail page, no authentication required")
+    public Result<List<RelatedContent>> related(@PathVariable String type,
+                                                @PathVariable Long id,
+                                                @RequestParam(required = false) Integer limit) {
+        return Result.success(relatedContentService.findRelated(type, id, limit));
+    }
+
+    private void sendSuggestionsEvent(SseEmitter emitter, List<String> suggestions) throws IOException {
+        if (suggestions.isEmpty()) {
+            return;
+        }
+        SseEmitter.SseEventBuilder suggestionsEvent = SseEmitter.event()
+                .name("suggestions")
+                .data(objectMapper.writeValueAsString(suggestions), MediaType.APPLICATION_JSON);
+        emitter.send(suggestionsEvent);
+    }
+
+    private void sendQueueEvent(SseEmitter emitter, int position) {
+        try {
+            SseEmitter.SseEventBuilder queueEvent = SseEmitter.event()
+                    .name("queue")
+                    .data(objectMapper.writeValueAsString(Map.of("position", position)), MediaType.APPLICATION_JSON);
+            emitter.send(queueEvent);
+        } catch (IOException e) {
+            log.debug("Error sending queue position: {}", e.getMessage());
+        }
+    }
+
+    private void startStream(SseEmitter emitter, Runnable stream) {
+        try {
+            streamExecutors.execute(true, stream);
+        } catch (LlmOverloadedException e) {
+            sendOverloadedEvent(emitter, e);
+        }
+    }
+
+    private void sendOverloadedEvent(SseEmitter emitter, LlmOverloadedException e) {
+        try {
+            SseEmitter.SseEventBuilder errorEvent = SseEmitter.event()
+                    .name("error")
+                    .data(objectMapper.writeValueAsString(Map.of("code", e.getCode(), "message", e.getMessage())),
+                            MediaType.APPLICATION_JSON);
+            emitter.send(errorEvent);
+            emitter.complete();
+        } catch (IOException ex) {
+            emitter.completeWithError(ex);
+        }
+    }
 }
@@ -1,24 +1,29 @@
 package com.assoc.ai.controller;
 
+import com.assoc.ai.admission.RagStreamExecutors;
 import com.assoc.ai.dto.RagChatRequest;
 import com.assoc.ai.dto.RagChatResponse;
 import com.assoc.ai.dto.SearchResult;
+import com.assoc.ai.exception.LlmOverloadedException;
 import com.assoc.ai.service.RagService;
 import com.assoc.common.Result;
+import com.assoc.common.context.RequestContext;
+import com.assoc.common.security.ClientAddress;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
 
 /**
  * RAG (Retrieval Augmented Generation) API controller.
@@ -32,7 +37,8 @@ public class RagController {
 
     private final RagService ragService;
     private final ObjectMapper objectMapper;
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final RequestContext requestContext;
+    private final RagStreamExecutors streamExecutors;
 
     @GetMapping("/search")
     @Operation(summary = "Semantic search", description = "Search for relevant content using hybrid search")
@@ -46,70 +52,89 @@ public class RagController {
 
     @PostMapping(value = "/chat", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @Operation(summary = "RAG chat (streaming)", description = "Chat with RAG using streaming response with references")
-    public SseEmitter chatStream(@RequestBody RagChatRequest request) {
+    public SseEmitter chatStream(@RequestBody RagChatRequest request, HttpServletRequest httpRequest) {
         // 设置超时时间为 5 分钟
         SseEmitter emitter = new SseEmitter(300_000L);
 
-        executor.execute(() -> {
+        request.setClientKey(resolveClientKey(httpRequest));
+        // Carry the request traceId over to the streaming thread
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+
+        startStream(emitter, () -> {
+            if (mdcContext != null) {
+                MDC.setContextMap(mdcContext);
+            }
             try {
                 // Get streaming result with references
-                RagService.StreamingChatResult result = ragService.chatWithReferences(request);
+                RagService.StreamingChatResult result = ragService.chatWithReferences(
+                        request, position -> sendQueueEvent(emitter, position));
 
-                // 1. Send meta event with conversationId
                 try {
-                    String metaJson = objectMapper.writeValueAsString(
-                            java.util.Map.of("conversationId", result.conversationId()));
-                    SseEmitter.SseEventBuilder metaEvent = SseEmitter.event()
-                            .name("meta")
-                            .data(metaJson, MediaType.APPLICATION_JSON);
-                    emitter.send(metaEvent);
-                } catch (JsonProcessingException e) {
-                    log.error("Error serializing meta", e);
-                }
+                    // 1. Send meta event with conversationId
+                    try {
+                        String metaJson = objectMapper.writeValueAsString(
+                                java.util.Map.of("conversationId", result.conversationId()));
+                        SseEmitter.SseEventBuilder metaEvent = SseEmitter.event()
+                                .name("meta")
+                                .data(metaJson, MediaType.APPLICATION_JSON);
+                        emitter.send(metaEvent);
+                    } catch (JsonProcessingException e) {
+                        log.error("Error serializing meta", e);
+                    }
 
-                // 2. Send references event
-                try {
-                    String referencesJson = objectMapper.writeValueAsString(result.references());
-                    SseEmitter.SseEventBuilder refEvent = SseEmitter.event()
-                            .name("references")
-                            .data(referencesJson, MediaType.APPLICATION_JSON);
-                    emitter.send(refEvent);
-                } catch (JsonProcessingException e) {
-                    log.error("Error serializing references", e);
-                }
+                    // 2. Send references event
+                    try {
+                        String referencesJson = objectMapper.writeValueAsString(result.references());
+                        SseEmitter.SseEventBuilder refEvent = SseEmitter.event()
+                                .name("references")
+                                .data(referencesJson, MediaType.APPLICATION_JSON);
+                        emitter.send(refEvent);
+                    } catch (JsonProcessingException e) {
+                        log.error("Error serializing references", e);
+                    }
 
-                // 3. Stream content events
-                result.contentFlux()
-                        .doOnNext(content -> {
-                            try {
-                                SseEmitter.SseEventBuilder event = SseEmitter.event()
-                                        .name("content")
-                                        .data(content, MediaType.valueOf("text/plain;charset=UTF-8"));
-                                emitter.send(event);
-                            } catch (IOException e) {
-                                log.error("Error sending SSE content event", e);
-                                emitter.completeWithError(e);
-                            }
-                        })
-                        .doOnComplete(() -> {
-                            try {
-                                // 4. Send done event
-                                SseEmitter.SseEventBuilder doneEvent = SseEmitter.event()
-                                        .name("done")
-                                        .data("");
-                                emitter.send(doneEvent);
-                                emitter.complete();
-                            } catch (IOException e) {
-                                log.error("Error sending done event", e);
-                                emitter.completeWithError(e);
-                            }
-                        })
-                        .doOnError(emitter::completeWithError)
-                        .blockLast();  // 阻塞等待 Flux 完成
+                    // 3. Stream content events
+                    result.contentFlux()
+                            .doOnNext(content -> {
+                                try {
+                                    SseEmitter.SseEventBuilder event = SseEmitter.event()
+                                            .name("content")
+                                            .data(content, MediaType.valueOf("text/plain;charset=UTF-8"));
+                                    emitter.send(event);
+                                } catch (IOException e) {
+                                    log.error("Error sending SSE content event", e);
+                                    emitter.completeWithError(e);
+                                }
+                            })
+                            .doOnComplete(() -> {
+                                try {
+                                    // 4. Send suggestions event, if the model produced any
+                                    sendSuggestionsEvent(emitter, result.suggestedQuestions().get());
 
+                                    // 5. Send done event
+                                    SseEmitter.SseEventBuilder doneEvent = SseEmitter.event()
+                                            .name("done")
+                                            .data("");
+                                    emitter.send(doneEvent);
+                                    emitter.complete();
+                                } catch (IOException e) {
+                                    log.error("Error sending done event", e);
+                                    emitter.completeWithError(e);
+                                }
+                            })
+                            .doOnError(emitter::completeWithError)
+                            .blockLast();  // 阻塞等待 Flux 完成
+                } finally {
+                    result.permit().release();
+                }
+
+            } catch (LlmOverloadedException e) {
+                sendOverloadedEvent(emitter, e);
             } catch (Exception e) {
                 log.error("Error in SSE streaming", e);
                 emitter.completeWithError(e);
+            } finally {
+                MDC.clear();
             }
         });
 
@@ -122,8 +147,60 @@ public class RagController {
 
     @PostMapping("/chat/sync")
     @Operation(summary = "RAG chat (synchronous)", description = "Chat with RAG with complete response including references")
-    public Result<RagChatResponse> chatSync(@RequestBody RagChatRequest request) {
+    public Result<RagChatResponse> chatSync(@RequestBody RagChatRequest request, HttpServletRequest httpRequest) {
+        request.setClientKey(resolveClientKey(httpRequest));
         RagChatResponse response = ragService.chatSyncWithReferences(request);
         return Result.success(response);
     }
+
+    private void sendSuggestionsEvent(SseEmitter emitter, List<String> suggestions) throws IOException {
+        if (suggestions.isEmpty()) {
+            return;
+        }
+        SseEmitter.SseEventBuilder suggestionsEvent = SseEmitter.event()
+                .name("suggestions")
+                .data(objectMapper.writeValueAsString(suggestions), MediaType.APPLICATION_JSON);
+        emitter.send(suggestionsEvent);
+    }
+
+    private void sendQueueEvent(SseEmitter emitter, int position) {
+        try {
+            SseEmitter.SseEventBuilder queueEvent = SseEmitter.event()
+                    .name("queue")
+                    .data(objectMapper.writeValueAsString(Map.of("position", position)), MediaType.APPLICATION_JSON);
+            emitter.send(queueEvent);
+        } catch (IOException e) {
+            log.debug("Error sending queue position: {}", e.getMessage());
+        }
+    }
+
+    private void startStream(SseEmitter emitter, Runnable stream) {
+        try {
+            streamExecutors.execute(false, stream);
+        } catch (LlmOverloadedException e) {
+            sendOverloadedEvent(emitter, e);
+        }
+    }
+
+    private void sendOverloadedEvent(SseEmitter emitter, LlmOverloadedException e) {
+        try {
+            SseEmitter.SseEventBuilder errorEvent = SseEmitter.event()
+                    .name("error")
+                    .data(objectMapper.writeValueAsString(Map.of("code", e.getCode(), "message", e.getMessage())),
+                            MediaType.APPLICATION_JSON);
+            emitter.send(errorEvent);
+            emitter.complete();
+        } catch (IOException ex) {
+            emitter.completeWithError(ex);
+        }
+    }
+
+    /**
+     * Rate-limit authenticated traffic per user, falling back to the client IP.
+     */
+    private String resolveClientKey(HttpServletRequest request) {
+        return requestContext.currentUserId()
+                .map(userId -> "user:" + userId)
+                .orElseGet(() -> ClientAddress.of(request));
+    }
 }
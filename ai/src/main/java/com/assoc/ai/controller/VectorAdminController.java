@@ -1,8 +1,12 @@
 package com.assoc.ai.controller;
 
+import com.assoc.ai.collection.VectorCollectionService;
+import com.assoc.ai.dto.VectorCollectionRequest;
+import com.assoc.ai.dto.VectorCollectionStatus;
 import com.assoc.ai.dto.VectorStats;
-import com.assoc.ai.service.RagService;
+import com.assoc.ai.service.VectorStatsService;
 import com.assoc.ai.service.VectorSyncService;
+import com.assoc.ai.store.VectorStore;
 import com.assoc.common.Result;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,13 +25,15 @@ import java.util.Map;
 @Tag(name = "Vector Admin", description = "Vector management API")
 public class VectorAdminController {
 
-    private final RagService ragService;
+    private final VectorStatsService vectorStatsService;
     private final VectorSyncService vectorSyncService;
+    private final VectorStore vectorStore;
+    private final VectorCollectionService vectorCollectionService;
 
     @GetMapping("/stats")
-    @Operation(summary = "Get vector statistics", description = "Get statistics about stored vectors")
+    @Operation(summary = "Get vector statistics", description = "Get statistics about stored vectors, cached for a short time")
     public Result<VectorStats> getStats() {
-        VectorStats stats = ragService.getStats();
+        VectorStats stats = vectorStatsService.getStats();
         return Result.success(stats);
     }
 
@@ -50,4 +56,31 @@ public class VectorAdminController {
         int count = vectorSyncService.resyncByType(type);
         return Result.success(count);
     }
+
+    @PostMapping("/reindex/{type}")
+    @Operation(summary = "重建指定类型的向量索引", description = "在线重建该实体类型分区上的向量索引和全文索引，不影响其他类型的写入")
+    public Result<Void> reindex(@PathVariable String type) {
+        vectorStore.reindex(type);
+        return Result.success();
+    }
+
+    @GetMapping("/collections")
+    @Operation(summary = "获取向量集合列表", description = "返回所有向量集合（每个嵌入模型一个）及其回填进度")
+    public Result<List<VectorCollectionStatus>> listCollections() {
+        return Result.success(vectorCollectionService.list());
+    }
+
+    @PostMapping("/collections")
+    @Operation(summary = "为新嵌入模型构建向量集合", description = "后台回填新集合，完成后原子切换为当前集合，切换前查询不受影响")
+    public Result<VectorCollectionStatus> startRebuild(@RequestBody(required = false) VectorCollectionRequest request) {
+        VectorCollectionRequest body = request != null ? request : new VectorCollectionRequest();
+        return Result.success(vectorCollectionService.startRebuild(body.getModel(), body.getDimension()));
+    }
+
+    @DeleteMapping("/collections/{id}")
+    @Operation(summary = "取消构建中的向量集合", description = "停止回填，集合表由后台任务删除")
+    public Result<Void> cancelRebuild(@PathVariable Long id) {
+        vectorCollectionService.cancel(id);
+        return Result.success();
+    }
 }
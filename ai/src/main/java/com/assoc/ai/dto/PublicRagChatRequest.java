@@ -26,4 +26,10 @@ public class PublicRagChatRequest {
      * If null, a new conversation will be created.
      */
     private String conversationId;
+
+    /**
+     * Optional SSE coalescing delay in milliseconds.
+     * 0 streams every token as its own event; if null, the server default is used.
+     */
+    private Integer streamDelayMs;
 }
@@ -1,5 +1,6 @@
 package com.assoc.ai.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -42,4 +43,24 @@ public class RagChatRequest {
      * Conversation ID for multi-turn chat (optional, null creates new conversation)
      */
     private String conversationId;
+
+    /**
+     * Optional SSE coalescing delay in milliseconds: 0 streams every token as its own event,
+     * null uses the server default (kb.rag.stream-delay); capped by kb.rag.stream.max-client-delay
+     */
+    private Integer streamDelayMs;
+
+    /**
+     * Whether the request came in through the public endpoint (set server-side, never bound from JSON)
+     */
+    @JsonIgnore
+    @Builder.Default
+    private boolean publicAccess = false;
+
+    /**
+     * Client identity used for per-client rate limiting: IP for public requests, user for authenticated ones
+     * (set server-side, never bound from JSON)
+     */
+    @JsonIgnore
+    private String clientKey;
 }
@@ -31,6 +31,11 @@ public class RagChatResponse {
      */
     private String conversationId;
 
+    /**
+     * Follow-up questions suggested by the LLM for the next turn
+     */
+    private List<String> suggestedQuestions;
+
     /**
      * Reference information for source tracking and navigation.
      */
@@ -0,0 +1,36 @@
+package com.assoc.ai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a related entity shown on a detail page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatedContent {
+
+    /**
+     * Entity type: activity, news, project, expert, product, manufacturer
+     */
+    private String entityType;
+
+    /**
+     * Original entity ID for navigation
+     */
+    private Long entityId;
+
+    /**
+     * Title or name of the entity
+     */
+    private String title;
+
+    /**
+     * Cosine similarity of the entity centroids
+     */
+    private Double score;
+}
@@ -0,0 +1,31 @@
+package com.assoc.ai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a search-box autocomplete suggestion.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchSuggestion {
+
+    /**
+     * Entity type: activity, news, project, expert, product, manufacturer
+     */
+    private String entityType;
+
+    /**
+     * Original entity ID for navigation
+     */
+    private Long entityId;
+
+    /**
+     * Title or name of the entity
+     */
+    private String title;
+}
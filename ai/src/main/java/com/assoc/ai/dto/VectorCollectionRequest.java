@@ -0,0 +1,26 @@
+package com.assoc.ai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for building a new vector collection.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VectorCollectionRequest {
+
+    /**
+     * Embedding model (null for the configured model)
+     */
+    private String model;
+
+    /**
+     * Output dimension of the model (null for the configured dimension)
+     */
+    private Integer dimension;
+}
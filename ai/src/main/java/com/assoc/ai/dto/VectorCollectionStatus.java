@@ -0,0 +1,64 @@
+package com.assoc.ai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a vector collection and its backfill progress.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VectorCollectionStatus {
+
+    private Long id;
+
+    private String tableName;
+
+    private String model;
+
+    private Integer dimension;
+
+    /**
+     * BUILDING/ACTIVE/DRAINING/RETIRED/FAILED/CANCELLED
+     */
+    private String status;
+
+    private Long totalChunks;
+
+    private Long processedChunks;
+
+    private Long failedChunks;
+
+    /**
+     * Backfill progress in percent, only while building
+     */
+    private Double progress;
+
+    /**
+     * Average backfill throughput since the collection was created
+     */
+    private Double chunksPerSecond;
+
+    /**
+     * Estimated seconds until the backfill completes, only while building
+     */
+    private Long etaSeconds;
+
+    private String errorMessage;
+
+    private LocalDateTime createdTime;
+
+    private LocalDateTime updatedTime;
+
+    private LocalDateTime activatedTime;
+
+    private LocalDateTime deactivatedTime;
+
+    private LocalDateTime droppedTime;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,4 +32,65 @@ public class VectorStats {
      * Document counts by entity type
      */
     private Map<String, Long> countsByType;
+
+    /**
+     * Per entity type figures, including supported types without documents
+     */
+    private List<TypeStats> types;
+
+    /**
+     * Table holding the active collection
+     */
+    private String collection;
+
+    /**
+     * Embedding model of the active collection
+     */
+    private String model;
+
+    /**
+     * Size of the table and TOAST data in bytes, excluding indexes
+     */
+    private Long tableBytes;
+
+    /**
+     * Size of all indexes (entity, HNSW, full-text) in bytes
+     */
+    private Long indexBytes;
+
+    /**
+     * Dead tuples not yet vacuumed, as estimated by PostgreSQL statistics
+     */
+    private Long deadTuples;
+
+    /**
+     * Creation time of the newest chunk
+     */
+    private LocalDateTime lastIngestTime;
+
+    /**
+     * When these figures were computed; they are cached for a short time
+     */
+    private LocalDateTime generatedTime;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TypeStats {
+
+        private String entityType;
+
+        private Long documents;
+
+        private Long entities;
+
+        private Long tableBytes;
+
+        private Long indexBytes;
+
+        private Long deadTuples;
+
+        private LocalDateTime lastIngestTime;
+    }
 }
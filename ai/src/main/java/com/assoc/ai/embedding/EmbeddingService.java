@@ -22,4 +22,14 @@ public interface EmbeddingService {
      * @return list of embedding vectors
      */
     List<float[]> embedBatch(List<String> texts);
+
+    /**
+     * Generate embeddings with a specific model, e.g. the model of a vector collection
+     * other than the configured one.
+     *
+     * @param texts list of texts to embed
+     * @param model embedding model name ({@code null} for the configured model)
+     * @return list of embedding vectors
+     */
+    List<float[]> embedBatch(List<String> texts, String model);
 }
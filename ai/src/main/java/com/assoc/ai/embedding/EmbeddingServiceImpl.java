@@ -43,8 +43,13 @@ public class EmbeddingServiceImpl implements EmbeddingService {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public List<float[]> embedBatch(List<String> texts) {
+        return embedBatch(texts, model);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<float[]> embedBatch(List<String> texts, String model) {
         if (texts == null || texts.isEmpty()) {
             return List.of();
         }
@@ -55,7 +60,7 @@ public class EmbeddingServiceImpl implements EmbeddingService {
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         Map<String, Object> request = Map.of(
-                "model", model,
+                "model", model != null ? model : this.model,
                 "input", texts
         );
 
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -20,6 +21,13 @@ import java.time.LocalDateTime;
 @IdClass(ChatMessageId.class)
 public class ChatMessage {
 
+    /**
+     * Start date of the conversation, partition key of ai_chat_memory
+     */
+    @Id
+    @Column(name = "started_on", nullable = false)
+    private LocalDate startedOn;
+
     @Id
     @Column(name = "conversation_id", nullable = false)
     private String conversationId;
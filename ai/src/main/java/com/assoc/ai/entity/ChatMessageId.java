@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
+import java.time.LocalDate;
 
 /**
  * Composite primary key for ChatMessage entity.
@@ -13,6 +14,7 @@ import java.io.Serializable;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatMessageId implements Serializable {
+    private LocalDate startedOn;
     private String conversationId;
     private Integer messageIndex;
 }
@@ -0,0 +1,123 @@
+package com.assoc.ai.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A versioned vector collection: one physical table per embedding model / dimension.
+ */
+@Entity
+@Table(name = "ai_vector_collection")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VectorCollection {
+
+    /**
+     * Assigned from {@code ai_vector_collection_id_seq} before insert, since it names the table
+     */
+    @Id
+    private Long id;
+
+    /**
+     * Physical table holding the vectors: ai_vector_document_v{id}
+     */
+    @Column(name = "table_name", nullable = false, length = 63)
+    private String tableName;
+
+    /**
+     * Embedding model used for every vector in this collection
+     */
+    @Column(length = 100)
+    private String model;
+
+    @Column(nullable = false)
+    private Integer dimension;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "total_chunks", nullable = false)
+    @Builder.Default
+    private Long totalChunks = 0L;
+
+    @Column(name = "processed_chunks", nullable = false)
+    @Builder.Default
+    private Long processedChunks = 0L;
+
+    @Column(name = "failed_chunks", nullable = false)
+    @Builder.Default
+    private Long failedChunks = 0L;
+
+    /**
+     * Backfill keyset position (entity_type, id) in the source collection
+     */
+    @Column(name = "cursor_entity_type", length = 50)
+    private String cursorEntityType;
+
+    @Column(name = "cursor_id")
+    private Long cursorId;
+
+    /**
+     * Node running the backfill
+     */
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_time", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdTime = LocalDateTime.now();
+
+    /**
+     * Backfill heartbeat
+     */
+    @Column(name = "updated_time", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedTime = LocalDateTime.now();
+
+    @Column(name = "activated_time")
+    private LocalDateTime activatedTime;
+
+    @Column(name = "deactivated_time")
+    private LocalDateTime deactivatedTime;
+
+    @Column(name = "dropped_time")
+    private LocalDateTime droppedTime;
+
+    public enum Status {
+        /**
+         * Backfilling; receives writes but serves no queries
+         */
+        BUILDING,
+
+        /**
+         * Serving queries
+         */
+        ACTIVE,
+
+        /**
+         * Replaced by a newer collection; still written during the grace period so that nodes
+         * that have not noticed the switch yet keep consistent results
+         */
+        DRAINING,
+
+        /**
+         * Table dropped
+         */
+        RETIRED,
+
+        FAILED,
+
+        CANCELLED
+    }
+}
@@ -1,7 +1,10 @@
 package com.assoc.ai.event;
 
+import com.assoc.ai.collection.VectorCollectionRef;
+import com.assoc.ai.collection.VectorCollectionRouter;
 import com.assoc.ai.dto.VectorChunk;
 import com.assoc.ai.embedding.EmbeddingService;
+import com.assoc.ai.related.RelatedContentService;
 import com.assoc.ai.store.VectorStore;
 import com.assoc.ai.util.JsonTextExtractor;
 import com.assoc.ai.util.TextChunker;
@@ -15,7 +18,6 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Event listener for vectorization events.
@@ -29,6 +31,8 @@ public class VectorizeEventListener {
     private final VectorStore vectorStore;
     private final EmbeddingService embeddingService;
     private final TextChunker textChunker;
+    private final VectorCollectionRouter collectionRouter;
+    private final RelatedContentService relatedContentService;
 
     /**
      * Handle vectorize event asynchronously.
@@ -55,6 +59,7 @@ public class VectorizeEventListener {
     private void handleDelete(VectorizeEvent event) {
         vectorStore.deleteByEntity(event.getEntityType(), event.getEntityId());
         log.info("Deleted vectors for entity: {}/{}", event.getEntityType(), event.getEntityId());
+        relatedContentService.onEntityDeleted(event.getEntityType(), event.getEntityId());
     }
 
     private void handleUpsert(VectorizeEvent event) {
@@ -64,11 +69,13 @@ public class VectorizeEventListener {
         Map<String, String> fields = event.getFields();
         if (fields == null || fields.isEmpty()) {
             log.warn("No fields provided for vectorization: {}/{}", event.getEntityType(), event.getEntityId());
+            relatedContentService.onEntityDeleted(event.getEntityType(), event.getEntityId());
             return;
         }
 
-        List<VectorChunk> allChunks = new ArrayList<>();
-        AtomicInteger globalChunkIndex = new AtomicInteger(0);
+        // Chunk once; every collection that receives writes gets its own embeddings
+        List<String> fieldSources = new ArrayList<>();
+        List<String> contents = new ArrayList<>();
 
         fields.forEach((fieldName, content) -> {
             if (content == null || content.isBlank()) {
@@ -81,30 +88,38 @@ public class VectorizeEventListener {
                 return;
             }
 
-            // Chunk the text
-            List<String> textChunks = textChunker.chunk(text);
-
-            // Generate embeddings and create vector chunks
-            for (String chunkContent : textChunks) {
-                try {
-                    float[] embedding = embeddingService.embed(chunkContent);
-                    allChunks.add(VectorChunk.builder()
-                            .chunkIndex(globalChunkIndex.getAndIncrement())
-                            .fieldSource(fieldName)
-                            .content(chunkContent)
-                            .embedding(embedding)
+            for (String chunkContent : textChunker.chunk(text)) {
+                fieldSources.add(fieldName);
+                contents.add(chunkContent);
+            }
+        });
+
+        if (contents.isEmpty()) {
+            relatedContentService.onEntityDeleted(event.getEntityType(), event.getEntityId());
+            return;
+        }
+
+        for (VectorCollectionRef collection : collectionRouter.writeTargets()) {
+            try {
+                List<float[]> embeddings = embeddingService.embedBatch(contents, collection.model());
+                List<VectorChunk> chunks = new ArrayList<>(contents.size());
+                for (int i = 0; i < contents.size(); i++) {
+                    chunks.add(VectorChunk.builder()
+                            .chunkIndex(i)
+                            .fieldSource(fieldSources.get(i))
+                            .content(contents.get(i))
+                            .embedding(embeddings.get(i))
                             .metadata(event.getMetadata())
                             .build());
-                } catch (Exception e) {
-                    log.warn("Failed to embed chunk for field '{}': {}", fieldName, e.getMessage());
                 }
+                vectorStore.save(collection, event.getEntityType(), event.getEntityId(), chunks);
+            } catch (Exception e) {
+                // One collection failing (e.g. its model is unavailable) must not block the others
+                log.warn("Failed to vectorize entity {}/{} into {}: {}", event.getEntityType(),
+                        event.getEntityId(), collection.tableName(), e.getMessage());
             }
-        });
-
-        if (!allChunks.isEmpty()) {
-            vectorStore.save(event.getEntityType(), event.getEntityId(), allChunks);
-            log.info("Saved {} vector chunks for entity: {}/{}",
-                    allChunks.size(), event.getEntityType(), event.getEntityId());
         }
+
+        relatedContentService.onEntityUpserted(event.getEntityType(), event.getEntityId());
     }
 }
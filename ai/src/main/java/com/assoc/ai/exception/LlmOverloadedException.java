@@ -0,0 +1,13 @@
+package com.assoc.ai.exception;
+
+import com.assoc.common.exception.BusinessException;
+
+/**
+ * Thrown when a chat request is shed by LLM admission control (rate limit, full queue or wait timeout).
+ */
+public class LlmOverloadedException extends BusinessException {
+
+    public LlmOverloadedException(String message) {
+        super(429, message);
+    }
+}
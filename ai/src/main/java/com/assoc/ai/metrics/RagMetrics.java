@@ -0,0 +1,258 @@
+package com.assoc.ai.metrics;
+
+import com.assoc.common.filter.TraceIdFilter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation for the RAG pipeline.
+ *
+ * <p>Every stage of a chat turn (query embedding, vector leg, text leg, fusion, context build,
+ * history load, message persist, LLM) is recorded as a {@code rag.stage} timer tagged with the
+ * stage, the requested entity types and the audience (public vs. authenticated). All timers
+ * publish percentile histograms so Prometheus exemplars can point at the {@code traceId} set
+ * by {@link TraceIdFilter}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class RagMetrics {
+
+    public static final String STAGE_EMBEDDING = "embedding";
+    public static final String STAGE_VECTOR = "vector";
+    public static final String STAGE_TEXT = "text";
+    public static final String STAGE_FUSION = "fusion";
+    public static final String STAGE_CONTEXT = "context";
+    public static final String STAGE_HISTORY = "history";
+    public static final String STAGE_PERSIST = "persist";
+    public static final String STAGE_LLM = "llm";
+
+    public static final String AUDIENCE_PUBLIC = "public";
+    public static final String AUDIENCE_AUTHENTICATED = "authenticated";
+
+    public static final String MODE_STREAM = "stream";
+    public static final String MODE_SYNC = "sync";
+
+    private static final Set<String> KNOWN_TYPES = Set.of(
+            "activity", "news", "project", "expert", "product", "manufacturer", "member");
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> firstTokenTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> chatTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> throughputSummaries = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> frameSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * Start tracing a chat turn. The trace keeps the current {@code traceId} so that metrics
+     * recorded later on reactor threads still carry the exemplar of the originating request.
+     */
+    public Trace start(List<String> entityTypes, boolean publicAccess, String mode) {
+        return new Trace(typesTag(entityTypes),
+                publicAccess ? AUDIENCE_PUBLIC : AUDIENCE_AUTHENTICATED,
+                mode,
+                MDC.get(TraceIdFilter.TRACE_ID_KEY));
+    }
+
+    /**
+     * Record a stage that runs outside an explicit {@link Trace} reference, e.g. inside the
+     * vector store. The audience is taken from the trace active on this thread, if any.
+     */
+    public void recordStage(String stage, List<String> entityTypes, long startNanos) {
+        Trace trace = CURRENT.get();
+        String audience = trace != null ? trace.audience : AUDIENCE_AUTHENTICATED;
+        stageTimer(stage, typesTag(entityTypes), audience)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer stageTimer(String stage, String types, String audience) {
+        return stageTimers.computeIfAbsent(stage + '|' + types + '|' + audience, key -> Timer.builder("rag.stage")
+                .description("Duration of a single RAG pipeline stage")
+                .tag("stage", stage)
+                .tag("types", types)
+                .tag("audience", audience)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Timer firstTokenTimer(String types, String audience) {
+        return firstTokenTimers.computeIfAbsent(types + '|' + audience, key -> Timer.builder("rag.llm.first.token")
+                .description("Time from prompt submission to the first streamed LLM token")
+                .tag("types", types)
+                .tag("audience", audience)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Timer chatTimer(String mode, String types, String audience, String outcome) {
+        return chatTimers.computeIfAbsent(mode + '|' + types + '|' + audience + '|' + outcome,
+                key -> Timer.builder("rag.chat")
+                        .description("End-to-end duration of a RAG chat turn")
+                        .tag("mode", mode)
+                        .tag("types", types)
+                        .tag("audience", audience)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+    }
+
+    private DistributionSummary throughputSummary(String audience) {
+        return throughputSummaries.computeIfAbsent(audience, key -> DistributionSummary.builder("rag.llm.tokens.per.second")
+                .description("Streamed LLM tokens per second after the first token")
+                .baseUnit("tokens")
+                .tag("audience", audience)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary frameSummary(String audience) {
+        return frameSummaries.computeIfAbsent(audience, key -> DistributionSummary.builder("rag.stream.frames")
+                .description("SSE content events sent per streamed answer, after coalescing")
+                .baseUnit("frames")
+                .tag("audience", audience)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Collapse the requested entity types into a bounded tag value so that arbitrary
+     * client input cannot blow up metric cardinality.
+     */
+    static String typesTag(List<String> entityTypes) {
+        if (entityTypes == null || entityTypes.isEmpty()) {
+            return "all";
+        }
+        if (entityTypes.size() > 1) {
+            return "multi";
+        }
+        String type = entityTypes.get(0);
+        return KNOWN_TYPES.contains(type) ? type : "other";
+    }
+
+    /**
+     * Per-request timing state for one chat turn.
+     */
+    public final class Trace {
+
+        private final String types;
+        private final String audience;
+        private final String mode;
+        private final String traceId;
+        private final long startNanos = System.nanoTime();
+        private long llmStartNanos;
+        private long firstTokenNanos;
+        private long tokens;
+        private long frames;
+
+        private Trace(String types, String audience, String mode, String traceId) {
+            this.types = types;
+            this.audience = audience;
+            this.mode = mode;
+            this.traceId = traceId;
+        }
+
+        /**
+         * Make this trace visible to {@link RagMetrics#recordStage} on the current thread.
+         */
+        public Scope activate() {
+            Trace previous = CURRENT.get();
+            CURRENT.set(this);
+            return () -> {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            };
+        }
+
+        public void recordStage(String stage, long stageStartNanos) {
+            long elapsed = System.nanoTime() - stageStartNanos;
+            withTraceId(() -> stageTimer(stage, types, audience).record(elapsed, TimeUnit.NANOSECONDS));
+        }
+
+        /**
+         * Mark the moment the prompt is submitted to the LLM.
+         */
+        public void llmStarted() {
+            llmStartNanos = System.nanoTime();
+        }
+
+        /**
+         * Record the full LLM call, from prompt submission to the last token.
+         */
+        public void llmCompleted() {
+            recordStage(STAGE_LLM, llmStartNanos);
+        }
+
+        /**
+         * Called for every streamed chunk; the first call records time-to-first-token.
+         */
+        public void onToken() {
+            if (tokens++ == 0) {
+                firstTokenNanos = System.nanoTime();
+                long elapsed = firstTokenNanos - llmStartNanos;
+                withTraceId(() -> firstTokenTimer(types, audience).record(elapsed, TimeUnit.NANOSECONDS));
+            }
+        }
+
+        /**
+         * Called for every content event sent to the client.
+         */
+        public void onFrame() {
+            frames++;
+        }
+
+        /**
+         * Record the end-to-end duration and, for streams, the generation throughput and frame count.
+         */
+        public void complete(boolean success) {
+            long endNanos = System.nanoTime();
+            withTraceId(() -> {
+                chatTimer(mode, types, audience, success ? "success" : "error")
+                        .record(endNanos - startNanos, TimeUnit.NANOSECONDS);
+                if (tokens > 1 && endNanos > firstTokenNanos) {
+                    double seconds = (endNanos - firstTokenNanos) / 1_000_000_000d;
+                    throughputSummary(audience).record((tokens - 1) / seconds);
+                }
+                if (MODE_STREAM.equals(mode) && success) {
+                    frameSummary(audience).record(frames);
+                }
+            });
+        }
+
+        private void withTraceId(Runnable recording) {
+            if (traceId == null || MDC.get(TraceIdFilter.TRACE_ID_KEY) != null) {
+                recording.run();
+                return;
+            }
+            MDC.put(TraceIdFilter.TRACE_ID_KEY, traceId);
+            try {
+                recording.run();
+            } finally {
+                MDC.remove(TraceIdFilter.TRACE_ID_KEY);
+            }
+        }
+    }
+
+    /**
+     * Restores the previously active trace when closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
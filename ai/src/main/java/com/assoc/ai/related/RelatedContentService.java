@@ -0,0 +1,241 @@
+package com.assoc.ai.related;
+
+import com.assoc.ai.collection.VectorCollectionRef;
+import com.assoc.ai.collection.VectorCollectionRouter;
+import com.assoc.ai.dto.RelatedContent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * "Related content" for detail pages, precomputed from the stored chunk embeddings.
+ *
+ * <p>Each entity is represented by the centroid of its chunk embeddings in the active collection.
+ * Its nearest neighbours across all types are stored as one JSON row in {@code ai_related_content},
+ * so serving a detail page is a primary-key lookup. When an entity is vectorized, its centroid and
+ * list are recomputed together with the lists that mention it or that it now mentions; a periodic
+ * full rebuild corrects the remaining drift and follows collection switches.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RelatedContentService {
+
+    private static final TypeReference<List<RelatedContent>> RELATED_LIST = new TypeReference<>() {
+    };
+
+    private static final String UPSERT_CENTROIDS = """
+            INSERT INTO ai_entity_centroid (entity_type, entity_id, collection_id, embedding, label, updated_time)
+            SELECT entity_type, entity_id, ?, AVG(embedding),
+                   (array_agg(COALESCE(NULLIF(metadata ->> 'name', ''), NULLIF(metadata ->> 'title', ''))
+                              ORDER BY chunk_index))[1],
+                   CURRENT_TIMESTAMP
+            FROM %s
+            %s
+            GROUP BY entity_type, entity_id
+            ON CONFLICT (entity_type, entity_id) DO UPDATE
+            SET collection_id = EXCLUDED.collection_id, embedding = EXCLUDED.embedding,
+                label = EXCLUDED.label, updated_time = EXCLUDED.updated_time
+            """;
+
+    /**
+     * Exact nearest neighbours over the centroids: there is one per entity, far fewer than chunks,
+     * and the dimension follows the collection, so there is no ANN index on them.
+     */
+    private static final String UPSERT_RELATED = """
+            INSERT INTO ai_related_content (entity_type, entity_id, related, updated_time)
+            SELECT c.entity_type, c.entity_id,
+                   COALESCE((
+                       SELECT jsonb_agg(jsonb_build_object(
+                                  'entityType', n.entity_type, 'entityId', n.entity_id, 'title', n.label,
+                                  'score', round(CAST(1 - n.distance AS numeric), 4))
+                              ORDER BY n.distance)
+                       FROM (
+                           SELECT o.entity_type, o.entity_id, o.label, o.embedding <=> c.embedding AS distance
+                           FROM ai_entity_centroid o
+                           WHERE o.collection_id = c.collection_id
+                             AND (o.entity_type, o.entity_id) <> (c.entity_type, c.entity_id)
+                           ORDER BY distance
+                           LIMIT ?
+                       ) n
+                   ), CAST('[]' AS jsonb)),
+                   CURRENT_TIMESTAMP
+            FROM ai_entity_centroid c
+            %s
+            ON CONFLICT (entity_type, entity_id) DO UPDATE
+            SET related = EXCLUDED.related, updated_time = EXCLUDED.updated_time
+            """;
+
+    private static final String ENTITY_FILTER = "WHERE entity_type = ? AND entity_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VectorCollectionRouter collectionRouter;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${kb.related.size:8}")
+    private int relatedSize;
+
+    /**
+     * Related entities of one entity, most similar first.
+     *
+     * @param limit maximum number of entities, capped at {@code kb.related.size}
+     */
+    public List<RelatedContent> findRelated(String entityType, Long entityId, Integer limit) {
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT CAST(related AS text) FROM ai_related_content " + ENTITY_FILTER,
+                String.class, entityType, entityId);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        try {
+            List<RelatedContent> related = objectMapper.readValue(rows.get(0), RELATED_LIST);
+            int max = (limit == null || limit <= 0) ? relatedSize : Math.min(limit, relatedSize);
+            return related.size() > max ? related.subList(0, max) : related;
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid related content for {}/{}: {}", entityType, entityId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Recompute an entity after its vectors changed.
+     */
+    public void onEntityUpserted(String entityType, Long entityId) {
+        VectorCollectionRef collection = collectionRouter.active();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Set<List<Object>> affected = mentioning(entityType, entityId);
+            int updated = jdbcTemplate.update(UPSERT_CENTROIDS.formatted(collection.tableName(), ENTITY_FILTER),
+                    collection.id(), entityType, entityId);
+            if (updated == 0) {
+                // Nothing left to embed, e.g. all fields became empty
+                removeEntity(entityType, entityId);
+            } else {
+                refreshRelated(entityType, entityId);
+                // The entity may now belong in the lists of its own neighbours
+                affected.addAll(mentionedBy(entityType, entityId));
+            }
+            affected.remove(List.of(entityType, entityId));
+            affected.forEach(key -> refreshRelated((String) key.get(0), (Long) key.get(1)));
+        });
+    }
+
+    public void onEntityDeleted(String entityType, Long entityId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Set<List<Object>> affected = mentioning(entityType, entityId);
+            removeEntity(entityType, entityId);
+            affected.forEach(key -> refreshRelated((String) key.get(0), (Long) key.get(1)));
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartupIfStale() {
+        try {
+            VectorCollectionRef collection = collectionRouter.active();
+            Boolean stale = jdbcTemplate.queryForObject("""
+                    SELECT EXISTS (SELECT 1 FROM ai_entity_centroid WHERE collection_id <> ?)
+                        OR (NOT EXISTS (SELECT 1 FROM ai_entity_centroid) AND EXISTS (SELECT 1 FROM %s))
+                    """.formatted(collection.tableName()), Boolean.class, collection.id());
+            if (Boolean.TRUE.equals(stale)) {
+                rebuildAll();
+            }
+        } catch (Exception e) {
+            log.error("Failed to check related content: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recompute every centroid and list, e.g. after a collection switch. Nodes skip the run while
+     * another node holds the lock.
+     */
+    @Scheduled(cron = "${kb.related.rebuild-cron:0 15 4 * * *}")
+    public void rebuildAll() {
+        VectorCollectionRef collection = collectionRouter.active();
+        long start = System.nanoTime();
+        Integer entities = new TransactionTemplate(transactionManager).execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                    "SELECT pg_try_advisory_xact_lock(hashtext('ai_related_content'))", Boolean.class);
+            if (!Boolean.TRUE.equals(locked)) {
+                return null;
+            }
+            // Readers keep seeing the previous lists until this transaction commits
+            jdbcTemplate.update("DELETE FROM ai_entity_centroid");
+            int count = jdbcTemplate.update(UPSERT_CENTROIDS.formatted(collection.tableName(), ""), collection.id());
+            jdbcTemplate.update("""
+                    DELETE FROM ai_related_content r
+                    WHERE NOT EXISTS (
+                        SELECT 1 FROM ai_entity_centroid c
+                        WHERE c.entity_type = r.entity_type AND c.entity_id = r.entity_id
+                    )
+                    """);
+            jdbcTemplate.update(UPSERT_RELATED.formatted(""), relatedSize);
+            return count;
+        });
+        if (entities != null) {
+            log.info("Rebuilt related content for {} entities from {} in {} ms",
+                    entities, collection.tableName(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void refreshRelated(String entityType, Long entityId) {
+        jdbcTemplate.update(UPSERT_RELATED.formatted("WHERE c.entity_type = ? AND c.entity_id = ?"),
+                relatedSize, entityType, entityId);
+    }
+
+    private void removeEntity(String entityType, Long entityId) {
+        jdbcTemplate.update("DELETE FROM ai_entity_centroid " + ENTITY_FILTER, entityType, entityId);
+        jdbcTemplate.update("DELETE FROM ai_related_content " + ENTITY_FILTER, entityType, entityId);
+    }
+
+    /**
+     * Entities whose list contains the given entity.
+     */
+    private Set<List<Object>> mentioning(String entityType, Long entityId) {
+        String needle = "[{\"entityType\":%s,\"entityId\":%d}]".formatted(quote(entityType), entityId);
+        return toKeys(jdbcTemplate.queryForList("""
+                SELECT entity_type, entity_id FROM ai_related_content
+                WHERE related @> CAST(? AS jsonb)
+                """, needle));
+    }
+
+    /**
+     * Entities in the given entity's list.
+     */
+    private Set<List<Object>> mentionedBy(String entityType, Long entityId) {
+        return toKeys(jdbcTemplate.queryForList("""
+                SELECT r ->> 'entityType' AS entity_type, CAST(r ->> 'entityId' AS bigint) AS entity_id
+                FROM ai_related_content, jsonb_array_elements(related) r
+                """ + ENTITY_FILTER, entityType, entityId));
+    }
+
+    private static Set<List<Object>> toKeys(List<Map<String, Object>> rows) {
+        Set<List<Object>> keys = new LinkedHashSet<>();
+        for (Map<String, Object> row : rows) {
+            keys.add(List.of(row.get("entity_type"), ((Number) row.get("entity_id")).longValue()));
+        }
+        return keys;
+    }
+
+    private String quote(String value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -2,36 +2,25 @@ package com.assoc.ai.repository;
 
 import com.assoc.ai.entity.ChatMessage;
 import com.assoc.ai.entity.ChatMessageId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * Repository for ChatMessage entity.
+ * Appends and message counters live in {@link com.assoc.ai.chat.ChatMemoryService}.
  */
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, ChatMessageId> {
 
     /**
-     * Find all messages for a conversation, ordered by message index.
+     * Find the latest messages of a conversation, newest first. The start date prunes the query
+     * to the conversation's partition.
      */
-    List<ChatMessage> findByConversationIdOrderByMessageIndexAsc(String conversationId);
-
-    /**
-     * Get the next message index for a conversation.
-     */
-    @Query("SELECT COALESCE(MAX(m.messageIndex), -1) + 1 FROM ChatMessage m WHERE m.conversationId = :conversationId")
-    Integer getNextMessageIndex(String conversationId);
-
-    /**
-     * Delete all messages for a conversation.
-     */
-    void deleteByConversationId(String conversationId);
-
-    /**
-     * Count messages in a conversation.
-     */
-    long countByConversationId(String conversationId);
+    List<ChatMessage> findByStartedOnAndConversationIdOrderByMessageIndexDesc(LocalDate startedOn,
+                                                                            String conversationId,
+                                                                            Pageable pageable);
 }
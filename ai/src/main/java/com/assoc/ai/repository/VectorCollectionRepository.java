@@ -0,0 +1,46 @@
+package com.assoc.ai.repository;
+
+import com.assoc.ai.entity.VectorCollection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for VectorCollection entity.
+ */
+@Repository
+public interface VectorCollectionRepository extends JpaRepository<VectorCollection, Long> {
+
+    /**
+     * Collections whose table still exists.
+     */
+    List<VectorCollection> findByStatusInOrderByIdAsc(Collection<VectorCollection.Status> statuses);
+
+    Optional<VectorCollection> findFirstByStatus(VectorCollection.Status status);
+
+    List<VectorCollection> findAllByOrderByIdDesc();
+
+    @Query(value = "SELECT nextval('ai_vector_collection_id_seq')", nativeQuery = true)
+    Long nextId();
+
+    /**
+     * Take over a building collection whose owner stopped sending heartbeats.
+     *
+     * @return 1 if this node now owns the backfill
+     */
+    @Modifying
+    @Query("""
+            UPDATE VectorCollection c SET c.owner = :owner, c.updatedTime = :now
+            WHERE c.id = :id AND c.status = com.assoc.ai.entity.VectorCollection.Status.BUILDING
+              AND c.updatedTime < :staleBefore
+            """)
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -28,13 +28,27 @@ public interface VectorDocumentRepository extends JpaRepository<VectorDocument,
     void deleteByEntityTypeAndEntityId(@Param("entityType") String entityType, @Param("entityId") Long entityId);
 
     /**
-     * Count documents by entity type.
+     * One row per entity with the display fields from its first chunk's metadata.
      */
-    long countByEntityType(String entityType);
+    @Query(value = """
+            SELECT DISTINCT ON (entity_type, entity_id)
+                   entity_type AS entityType, entity_id AS entityId,
+                   metadata ->> 'name' AS name, metadata ->> 'title' AS title
+            FROM ai_vector_document
+            ORDER BY entity_type, entity_id, chunk_index
+            """, nativeQuery = true)
+    List<EntityLabel> findEntityLabels();
 
     /**
-     * Count total documents.
+     * Projection for {@link #findEntityLabels()}.
      */
-    @Query("SELECT COUNT(DISTINCT CONCAT(v.entityType, '-', v.entityId)) FROM VectorDocument v")
-    long countDistinctEntities();
+    interface EntityLabel {
+        String getEntityType();
+
+        Long getEntityId();
+
+        String getName();
+
+        String getTitle();
+    }
 }
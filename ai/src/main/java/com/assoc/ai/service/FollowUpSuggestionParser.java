@@ -0,0 +1,147 @@
+package com.assoc.ai.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Incremental parser that splits follow-up suggestions off the end of a streamed LLM answer.
+ *
+ * <p>The model is asked to append {@code [建议问题]问题1|问题2|问题3[/建议问题]} after its answer.
+ * {@link #accept(String)} returns the part of each chunk that belongs to the visible answer and
+ * swallows the trailer block, even when the markers are split across chunks. Chunks without a
+ * {@code '['} are returned as-is, so the common path is a single {@code indexOf} per token.</p>
+ *
+ * <p>Not thread-safe; one instance per answer.</p>
+ */
+class FollowUpSuggestionParser {
+
+    static final String OPEN_TAG = "[建议问题]";
+    static final String CLOSE_TAG = "[/建议问题]";
+    static final int MAX_SUGGESTIONS = 3;
+
+    private enum State { ANSWER, TRAILER, DONE }
+
+    private State state = State.ANSWER;
+    /** Tail of the answer that may be the beginning of {@link #OPEN_TAG}. */
+    private final StringBuilder pending = new StringBuilder();
+    private final StringBuilder trailer = new StringBuilder();
+    private List<String> suggestions = Collections.emptyList();
+
+    /**
+     * Feed the next streamed chunk.
+     *
+     * @return the text that should be shown to the user (possibly empty)
+     */
+    String accept(String chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return "";
+        }
+        return switch (state) {
+            case ANSWER -> acceptAnswer(chunk);
+            case TRAILER -> acceptTrailer(chunk);
+            case DONE -> chunk;
+        };
+    }
+
+    /**
+     * Signal the end of the stream.
+     *
+     * @return answer text that was held back waiting for a possible marker (possibly empty)
+     */
+    String finish() {
+        if (state == State.TRAILER) {
+            // The model stopped without closing the block; take what it produced
+            suggestions = parseSuggestions(trailer);
+            state = State.DONE;
+        }
+        String rest = pending.toString();
+        pending.setLength(0);
+        return rest;
+    }
+
+    /**
+     * Suggestions extracted from the trailer; empty until the block has been closed or the stream finished.
+     */
+    List<String> getSuggestions() {
+        return suggestions;
+    }
+
+    /**
+     * Convenience for non-streaming answers.
+     *
+     * @return the answer with the trailer block removed
+     */
+    String parseComplete(String answer) {
+        String visible = accept(answer) + finish();
+        return visible.strip();
+    }
+
+    private String acceptAnswer(String chunk) {
+        if (pending.isEmpty() && chunk.indexOf('[') < 0) {
+            return chunk;
+        }
+        String text = pending.isEmpty() ? chunk : pending.append(chunk).toString();
+        pending.setLength(0);
+
+        int open = text.indexOf(OPEN_TAG);
+        if (open >= 0) {
+            state = State.TRAILER;
+            String afterOpen = text.substring(open + OPEN_TAG.length());
+            String visible = text.substring(0, open);
+            String tail = afterOpen.isEmpty() ? "" : acceptTrailer(afterOpen);
+            return visible + tail;
+        }
+
+        int keep = partialMarkerLength(text);
+        if (keep == 0) {
+            return text;
+        }
+        pending.append(text, text.length() - keep, text.length());
+        return text.substring(0, text.length() - keep);
+    }
+
+    private String acceptTrailer(String chunk) {
+        int searchFrom = Math.max(0, trailer.length() - CLOSE_TAG.length() + 1);
+        trailer.append(chunk);
+        int close = trailer.indexOf(CLOSE_TAG, searchFrom);
+        if (close < 0) {
+            return "";
+        }
+        String after = trailer.substring(close + CLOSE_TAG.length());
+        trailer.setLength(close);
+        suggestions = parseSuggestions(trailer);
+        state = State.DONE;
+        // Anything after the block is unexpected but should not be lost
+        return after.isBlank() ? "" : after;
+    }
+
+    /**
+     * Length of the longest suffix of {@code text} that is a proper prefix of {@link #OPEN_TAG}.
+     */
+    private static int partialMarkerLength(String text) {
+        int bracket = text.lastIndexOf('[');
+        if (bracket < 0) {
+            return 0;
+        }
+        int length = text.length() - bracket;
+        if (length >= OPEN_TAG.length()) {
+            return 0;
+        }
+        return OPEN_TAG.startsWith(text.substring(bracket)) ? length : 0;
+    }
+
+    private static List<String> parseSuggestions(CharSequence block) {
+        List<String> result = new ArrayList<>(MAX_SUGGESTIONS);
+        for (String part : block.toString().split("[|｜\\n]")) {
+            String question = part.strip();
+            if (!question.isEmpty()) {
+                result.add(question);
+                if (result.size() == MAX_SUGGESTIONS) {
+                    break;
+                }
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
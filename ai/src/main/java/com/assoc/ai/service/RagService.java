@@ -1,14 +1,18 @@
 package com.assoc.ai.service;
 
+import com.assoc.ai.admission.LlmAdmissionService;
+import com.assoc.ai.chat.ChatMemoryService;
+import com.assoc.ai.collection.VectorCollectionRef;
+import com.assoc.ai.collection.VectorCollectionRouter;
 import com.assoc.ai.dto.RagChatRequest;
 import com.assoc.ai.dto.RagChatResponse;
 import com.assoc.ai.dto.SearchResult;
-import com.assoc.ai.dto.VectorStats;
 import com.assoc.ai.embedding.EmbeddingService;
 import com.assoc.ai.entity.ChatMessage;
-import com.assoc.ai.repository.ChatMessageRepository;
-import com.assoc.ai.repository.VectorDocumentRepository;
+import com.assoc.ai.metrics.RagMetrics;
 import com.assoc.ai.store.VectorStore;
+import com.assoc.ai.stream.TokenCoalescer;
+import com.assoc.ai.suggest.SuggestionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
@@ -19,10 +23,15 @@ import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 
 /**
  * RAG (Retrieval Augmented Generation) service with multi-turn conversation support.
@@ -34,9 +43,12 @@ public class RagService {
 
     private final VectorStore vectorStore;
     private final EmbeddingService embeddingService;
-    private final VectorDocumentRepository vectorDocumentRepository;
-    private final ChatMessageRepository chatMessageRepository;
+    private final VectorCollectionRouter collectionRouter;
+    private final ChatMemoryService chatMemoryService;
     private final ChatClient.Builder chatClientBuilder;
+    private final RagMetrics ragMetrics;
+    private final LlmAdmissionService admissionService;
+    private final SuggestionService suggestionService;
 
     @Value("${kb.rag.top-k:8}")
     private int defaultTopK;
@@ -47,10 +59,21 @@ public class RagService {
     @Value("${kb.rag.max-history-messages:10}")
     private int maxHistoryMessages;
 
+    @Value("${kb.rag.stream-delay:PT0.06S}")
+    private Duration streamDelay;
+
+    @Value("${kb.rag.stream.max-client-delay:PT0.5S}")
+    private Duration maxClientStreamDelay;
+
+    @Value("${kb.rag.stream.max-frame-bytes:1024}")
+    private int maxFrameBytes;
+
     private static final String SYSTEM_PROMPT = """
             你是一个专业的知识助手，基于参考资料回答问题。
             如果参考资料中没有相关信息，诚实说明。
             使用中文回答。
+            回答结束后，根据内容生成 2-3 个用户可能想继续追问的问题，单独一行输出，格式：
+            [建议问题]问题1|问题2|问题3[/建议问题]
             """;
 
     private static final String RAG_USER_TEMPLATE = """
@@ -68,15 +91,43 @@ public class RagService {
             topK = defaultTopK;
         }
 
-        float[] queryVector = embeddingService.embed(query);
-        return vectorStore.hybridSearch(queryVector, query, entityTypes, topK);
+        // Embed with the model of the collection being queried, even if a switch happens meanwhile
+        VectorCollectionRef collection = collectionRouter.active();
+        long start = System.nanoTime();
+        float[] queryVector = embeddingService.embedBatch(List.of(query), collection.model()).get(0);
+        ragMetrics.recordStage(RagMetrics.STAGE_EMBEDDING, entityTypes, start);
+        return vectorStore.hybridSearch(collection, queryVector, query, entityTypes, topK);
     }
 
     /**
      * Perform RAG chat with streaming response, references, and conversation history.
      */
-    @Transactional
     public StreamingChatResult chatWithReferences(RagChatRequest request) {
+        return chatWithReferences(request, null);
+    }
+
+    /**
+     * Perform RAG chat with streaming response, waiting for an LLM slot first.
+     * Not transactional on purpose: a request queued for admission must not pin a pooled connection.
+     *
+     * @param queueListener receives the queue position while the request waits for admission (may be null)
+     * @throws com.assoc.ai.exception.LlmOverloadedException when admission control sheds the request
+     */
+    public StreamingChatResult chatWithReferences(RagChatRequest request, IntConsumer queueListener) {
+        RagMetrics.Trace trace = ragMetrics.start(request.getTypes(), request.isPublicAccess(), RagMetrics.MODE_STREAM);
+        LlmAdmissionService.Permit permit = LlmAdmissionService.Permit.NOOP;
+        try (RagMetrics.Scope ignored = trace.activate()) {
+            permit = admissionService.acquire(request.isPublicAccess(), request.getClientKey(), queueListener);
+            return doChatWithReferences(request, trace, permit);
+        } catch (RuntimeException e) {
+            permit.release();
+            trace.complete(false);
+            throw e;
+        }
+    }
+
+    private StreamingChatResult doChatWithReferences(RagChatRequest request, RagMetrics.Trace trace,
+                                                     LlmAdmissionService.Permit permit) {
         // Generate or use existing conversationId
         String conversationId = request.getConversationId();
         boolean isNewConversation = (conversationId == null || conversationId.isBlank());
@@ -92,38 +143,72 @@ public class RagService {
         );
 
         // Build context string
+        long start = System.nanoTime();
         String context = buildContext(results);
+        trace.recordStage(RagMetrics.STAGE_CONTEXT, start);
 
         // Convert to references (deduplicated by entity)
         List<RagChatResponse.Reference> references = toReferences(results);
+        suggestionService.recordHits(references);
 
         log.info("RAG chat - conversationId: {}, query: '{}', retrieved {} documents, {} unique references",
                 conversationId, request.getQuery(), results.size(), references.size());
 
         // Build messages with history
-        List<Message> messages = buildMessagesWithHistory(conversationId, context, request.getQuery());
+        List<Message> messages = buildMessagesWithHistory(trace, conversationId, context, request.getQuery());
 
         // Save user message to history
-        saveMessage(conversationId, "USER", buildUserMessageContent(context, request.getQuery()));
+        saveMessage(trace, conversationId, request.isPublicAccess(), "USER",
+                buildUserMessageContent(context, request.getQuery()));
 
         // Create prompt and stream response
         ChatClient chatClient = chatClientBuilder.build();
         Prompt prompt = new Prompt(messages);
 
-        // Use StringBuilder to collect response for saving
+        // Use StringBuilder to collect the visible answer for saving
         StringBuilder responseBuilder = new StringBuilder();
         String finalConversationId = conversationId;
+        // Follow-up suggestions arrive as a trailer block in the same completion
+        FollowUpSuggestionParser suggestionParser = new FollowUpSuggestionParser();
 
         Flux<String> contentFlux = chatClient.prompt(prompt)
                 .stream()
                 .content()
+                .doOnSubscribe(subscription -> trace.llmStarted())
+                .doOnNext(token -> trace.onToken())
+                .map(suggestionParser::accept)
+                .concatWith(Mono.fromSupplier(suggestionParser::finish))
+                .filter(content -> !content.isEmpty())
                 .doOnNext(responseBuilder::append)
                 .doOnComplete(() -> {
+                    trace.llmCompleted();
                     // Save assistant response to history
-                    saveMessage(finalConversationId, "ASSISTANT", responseBuilder.toString());
+                    saveMessage(trace, finalConversationId, request.isPublicAccess(), "ASSISTANT",
+                            responseBuilder.toString().strip());
+                })
+                .transform(tokens -> TokenCoalescer.coalesce(tokens, streamDelay(request), maxFrameBytes,
+                        Schedulers.boundedElastic()))
+                .doOnNext(frame -> trace.onFrame())
+                .doFinally(signal -> {
+                    permit.release();
+                    trace.complete(signal == SignalType.ON_COMPLETE);
                 });
 
-        return new StreamingChatResult(contentFlux, references, conversationId);
+        return new StreamingChatResult(contentFlux, references, conversationId, permit,
+                suggestionParser::getSuggestions);
+    }
+
+    /**
+     * Coalescing delay of a stream: the client's choice, capped by {@code kb.rag.stream.max-client-delay},
+     * otherwise {@code kb.rag.stream-delay}. Zero sends every token as its own event.
+     */
+    private Duration streamDelay(RagChatRequest request) {
+        Integer requested = request.getStreamDelayMs();
+        if (requested == null || requested < 0) {
+            return streamDelay;
+        }
+        Duration delay = Duration.ofMillis(requested);
+        return delay.compareTo(maxClientStreamDelay) > 0 ? maxClientStreamDelay : delay;
     }
 
     /**
@@ -135,9 +220,24 @@ public class RagService {
 
     /**
      * Perform RAG chat with non-streaming response including references.
+     * Not transactional so that neither the admission wait nor the LLM call holds a pooled connection.
      */
-    @Transactional
     public RagChatResponse chatSyncWithReferences(RagChatRequest request) {
+        RagMetrics.Trace trace = ragMetrics.start(request.getTypes(), request.isPublicAccess(), RagMetrics.MODE_SYNC);
+        LlmAdmissionService.Permit permit = LlmAdmissionService.Permit.NOOP;
+        boolean success = false;
+        try (RagMetrics.Scope ignored = trace.activate()) {
+            permit = admissionService.acquire(request.isPublicAccess(), request.getClientKey(), null);
+            RagChatResponse response = doChatSyncWithReferences(request, trace);
+            success = true;
+            return response;
+        } finally {
+            permit.release();
+            trace.complete(success);
+        }
+    }
+
+    private RagChatResponse doChatSyncWithReferences(RagChatRequest request, RagMetrics.Trace trace) {
         // Generate or use existing conversationId
         String conversationId = request.getConversationId();
         if (conversationId == null || conversationId.isBlank()) {
@@ -150,29 +250,39 @@ public class RagService {
                 request.getTopK()
         );
 
+        long start = System.nanoTime();
         String context = buildContext(results);
+        trace.recordStage(RagMetrics.STAGE_CONTEXT, start);
         List<RagChatResponse.Reference> references = toReferences(results);
+        suggestionService.recordHits(references);
 
         // Build messages with history
-        List<Message> messages = buildMessagesWithHistory(conversationId, context, request.getQuery());
+        List<Message> messages = buildMessagesWithHistory(trace, conversationId, context, request.getQuery());
 
         // Save user message
-        saveMessage(conversationId, "USER", buildUserMessageContent(context, request.getQuery()));
+        saveMessage(trace, conversationId, request.isPublicAccess(), "USER",
+                buildUserMessageContent(context, request.getQuery()));
 
         // Get response
         ChatClient chatClient = chatClientBuilder.build();
         Prompt prompt = new Prompt(messages);
-        String answer = chatClient.prompt(prompt)
+        trace.llmStarted();
+        String rawAnswer = chatClient.prompt(prompt)
                 .call()
                 .content();
+        trace.llmCompleted();
+
+        FollowUpSuggestionParser suggestionParser = new FollowUpSuggestionParser();
+        String answer = rawAnswer != null ? suggestionParser.parseComplete(rawAnswer) : null;
 
         // Save assistant response
-        saveMessage(conversationId, "ASSISTANT", answer);
+        saveMessage(trace, conversationId, request.isPublicAccess(), "ASSISTANT", answer);
 
         return RagChatResponse.builder()
                 .answer(answer)
                 .references(references)
                 .conversationId(conversationId)
+                .suggestedQuestions(suggestionParser.getSuggestions())
                 .build();
     }
 
@@ -183,42 +293,22 @@ public class RagService {
         return chatSyncWithReferences(request).getAnswer();
     }
 
-    /**
-     * Get vector statistics.
-     */
-    public VectorStats getStats() {
-        long totalDocuments = vectorDocumentRepository.count();
-        long totalEntities = vectorDocumentRepository.countDistinctEntities();
-
-        Map<String, Long> countsByType = new HashMap<>();
-        for (String type : List.of("activity", "news", "project", "expert", "product")) {
-            countsByType.put(type, vectorDocumentRepository.countByEntityType(type));
-        }
-
-        return VectorStats.builder()
-                .totalDocuments(totalDocuments)
-                .totalEntities(totalEntities)
-                .countsByType(countsByType)
-                .build();
-    }
-
     /**
      * Build messages list including conversation history.
      */
-    private List<Message> buildMessagesWithHistory(String conversationId, String context, String query) {
+    private List<Message> buildMessagesWithHistory(RagMetrics.Trace trace, String conversationId,
+                                                   String context, String query) {
         List<Message> messages = new ArrayList<>();
 
         // Add system message
         messages.add(new SystemMessage(SYSTEM_PROMPT));
 
-        // Load conversation history (limit to recent messages)
-        List<ChatMessage> history = chatMessageRepository
-                .findByConversationIdOrderByMessageIndexAsc(conversationId);
+        // Load the last N messages of the conversation history
+        long start = System.nanoTime();
+        List<ChatMessage> history = chatMemoryService.loadRecent(conversationId, maxHistoryMessages);
+        trace.recordStage(RagMetrics.STAGE_HISTORY, start);
 
-        // Take only the last N messages
-        int startIdx = Math.max(0, history.size() - maxHistoryMessages);
-        for (int i = startIdx; i < history.size(); i++) {
-            ChatMessage msg = history.get(i);
+        for (ChatMessage msg : history) {
             switch (msg.getMessageType()) {
                 case "USER" -> messages.add(new UserMessage(msg.getContent()));
                 case "ASSISTANT" -> messages.add(new AssistantMessage(msg.getContent()));
@@ -246,18 +336,15 @@ public class RagService {
     /**
      * Save a message to conversation history.
      */
-    private void saveMessage(String conversationId, String messageType, String content) {
+    private void saveMessage(RagMetrics.Trace trace, String conversationId, boolean anonymous,
+                             String messageType, String content) {
+        long start = System.nanoTime();
         try {
-            Integer nextIndex = chatMessageRepository.getNextMessageIndex(conversationId);
-            ChatMessage message = ChatMessage.builder()
-                    .conversationId(conversationId)
-                    .messageIndex(nextIndex)
-                    .messageType(messageType)
-                    .content(content)
-                    .build();
-            chatMessageRepository.save(message);
+            chatMemoryService.append(conversationId, anonymous, messageType, content);
         } catch (Exception e) {
             log.error("Failed to save chat message: conversationId={}, type={}", conversationId, messageType, e);
+        } finally {
+            trace.recordStage(RagMetrics.STAGE_PERSIST, start);
         }
     }
 
@@ -320,16 +407,22 @@ public class RagService {
             case "expert" -> "专家";
             case "product" -> "产品";
             case "manufacturer" -> "厂商";
+            case "member" -> "会员单位";
             default -> entityType;
         };
     }
 
     /**
      * Result holder for streaming chat with references and conversationId.
+     * The admission permit is released when the content stream terminates; callers that end up
+     * not subscribing must release it themselves (releasing twice is harmless).
+     * {@code suggestedQuestions} is populated once {@code contentFlux} has completed.
      */
     public record StreamingChatResult(
             Flux<String> contentFlux,
             List<RagChatResponse.Reference> references,
-            String conversationId
+            String conversationId,
+            LlmAdmissionService.Permit permit,
+            Supplier<List<String>> suggestedQuestions
     ) {}
 }
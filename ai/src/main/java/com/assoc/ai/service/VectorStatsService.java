@@ -0,0 +1,167 @@
+package com.assoc.ai.service;
+
+import com.assoc.ai.collection.VectorCollectionRef;
+import com.assoc.ai.collection.VectorCollectionRouter;
+import com.assoc.ai.dto.VectorStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Statistics for the admin dashboard.
+ *
+ * <p>Counts come from one grouped aggregate over the active collection, storage figures from the
+ * PostgreSQL catalog and statistics views per partition. The result is cached for
+ * {@code kb.embedding.stats-ttl}, so dashboard refreshes do not rescan the table.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VectorStatsService {
+
+    /**
+     * Partition bound of a single-type partition: FOR VALUES IN ('news')
+     */
+    private static final Pattern SINGLE_VALUE_BOUND = Pattern.compile("FOR VALUES IN \\('([^']*)'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VectorCollectionRouter collectionRouter;
+    private final VectorSyncService vectorSyncService;
+
+    @Value("${kb.embedding.stats-ttl:PT30S}")
+    private Duration ttl;
+
+    private volatile CachedStats cached;
+
+    public VectorStats getStats() {
+        VectorCollectionRef collection = collectionRouter.active();
+        CachedStats current = cached;
+        if (isFresh(current, collection)) {
+            return current.stats();
+        }
+        synchronized (this) {
+            // Concurrent dashboard requests share one computation
+            current = cached;
+            if (!isFresh(current, collection)) {
+                current = new CachedStats(compute(collection), System.nanoTime());
+                cached = current;
+            }
+            return current.stats();
+        }
+    }
+
+    private boolean isFresh(CachedStats current, VectorCollectionRef collection) {
+        return current != null
+                && current.stats().getCollection().equals(collection.tableName())
+                && System.nanoTime() - current.computedAt() < ttl.toNanos();
+    }
+
+    private VectorStats compute(VectorCollectionRef collection) {
+        long start = System.nanoTime();
+        Map<String, VectorStats.TypeStats> byType = new LinkedHashMap<>();
+        for (String type : vectorSyncService.getSupportedTypes()) {
+            byType.put(type, emptyTypeStats(type));
+        }
+
+        jdbcTemplate.query("""
+                SELECT entity_type, COUNT(*) AS documents, COUNT(DISTINCT entity_id) AS entities,
+                       MAX(created_time) AS last_ingest
+                FROM %s
+                GROUP BY entity_type
+                ORDER BY entity_type
+                """.formatted(collection.tableName()), rs -> {
+            VectorStats.TypeStats stats = byType.computeIfAbsent(rs.getString("entity_type"), this::emptyTypeStats);
+            stats.setDocuments(rs.getLong("documents"));
+            stats.setEntities(rs.getLong("entities"));
+            stats.setLastIngestTime(toLocalDateTime(rs.getTimestamp("last_ingest")));
+        });
+
+        long tableBytes = 0;
+        long indexBytes = 0;
+        long deadTuples = 0;
+        for (Map<String, Object> partition : jdbcTemplate.queryForList("""
+                SELECT pg_get_expr(c.relpartbound, c.oid) AS bound,
+                       pg_table_size(c.oid) AS table_bytes,
+                       pg_indexes_size(c.oid) AS index_bytes,
+                       COALESCE(s.n_dead_tup, 0) AS dead_tuples
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                LEFT JOIN pg_stat_user_tables s ON s.relid = c.oid
+                WHERE i.inhparent = CAST(? AS regclass)
+                """, collection.tableName())) {
+            long partitionTable = ((Number) partition.get("table_bytes")).longValue();
+            long partitionIndexes = ((Number) partition.get("index_bytes")).longValue();
+            long partitionDead = ((Number) partition.get("dead_tuples")).longValue();
+            tableBytes += partitionTable;
+            indexBytes += partitionIndexes;
+            deadTuples += partitionDead;
+
+            // The default partition is shared by types without their own and only counts towards the totals
+            Matcher matcher = SINGLE_VALUE_BOUND.matcher((String) partition.get("bound"));
+            if (matcher.matches()) {
+                VectorStats.TypeStats stats = byType.computeIfAbsent(matcher.group(1), this::emptyTypeStats);
+                stats.setTableBytes(partitionTable);
+                stats.setIndexBytes(partitionIndexes);
+                stats.setDeadTuples(partitionDead);
+            }
+        }
+
+        List<VectorStats.TypeStats> types = new ArrayList<>(byType.values());
+        Map<String, Long> countsByType = new LinkedHashMap<>();
+        long totalDocuments = 0;
+        long totalEntities = 0;
+        LocalDateTime lastIngest = null;
+        for (VectorStats.TypeStats stats : types) {
+            countsByType.put(stats.getEntityType(), stats.getDocuments());
+            totalDocuments += stats.getDocuments();
+            totalEntities += stats.getEntities();
+            if (stats.getLastIngestTime() != null
+                    && (lastIngest == null || stats.getLastIngestTime().isAfter(lastIngest))) {
+                lastIngest = stats.getLastIngestTime();
+            }
+        }
+
+        log.debug("Computed vector stats for {} in {} ms",
+                collection.tableName(), (System.nanoTime() - start) / 1_000_000);
+        return VectorStats.builder()
+                .totalDocuments(totalDocuments)
+                .totalEntities(totalEntities)
+                .countsByType(countsByType)
+                .types(types)
+                .collection(collection.tableName())
+                .model(collection.model())
+                .tableBytes(tableBytes)
+                .indexBytes(indexBytes)
+                .deadTuples(deadTuples)
+                .lastIngestTime(lastIngest)
+                .generatedTime(LocalDateTime.now())
+                .build();
+    }
+
+    private VectorStats.TypeStats emptyTypeStats(String entityType) {
+        return VectorStats.TypeStats.builder()
+                .entityType(entityType)
+                .documents(0L)
+                .entities(0L)
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private record CachedStats(VectorStats stats, long computedAt) {
+    }
+}
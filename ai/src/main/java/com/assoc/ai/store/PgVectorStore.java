@@ -1,9 +1,12 @@
 package com.assoc.ai.store;
 
+import com.assoc.ai.collection.VectorCollectionRef;
+import com.assoc.ai.collection.VectorCollectionRouter;
+import com.assoc.ai.config.HybridSearchProperties;
 import com.assoc.ai.dto.SearchResult;
 import com.assoc.ai.dto.VectorChunk;
 import com.assoc.ai.entity.VectorDocument;
-import com.assoc.ai.repository.VectorDocumentRepository;
+import com.assoc.ai.metrics.RagMetrics;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,11 +16,14 @@ import jakarta.persistence.Query;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -25,6 +31,9 @@ import java.util.stream.Collectors;
 /**
  * pgvector implementation of VectorStore.
  * Uses PostgreSQL with pgvector extension for vector storage and similarity search.
+ * Every vector collection table is list-partitioned by entity type, so the {@code entity_type = ANY(?)}
+ * filters below prune to the requested partitions and use their own HNSW / GIN indexes.
+ * Reads go to the active collection, deletes to every collection that still receives writes.
  */
 @Slf4j
 @Service
@@ -32,8 +41,16 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(name = "ai.vector.store.type", havingValue = "pgvector", matchIfMissing = true)
 public class PgVectorStore implements VectorStore {
 
-    private final VectorDocumentRepository repository;
     private final ObjectMapper objectMapper;
+    private final RagMetrics ragMetrics;
+    private final HybridSearchProperties hybridProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final VectorCollectionRouter collectionRouter;
+
+    /**
+     * pgvector's default {@code hnsw.ef_search}, left to the session unless a query needs another.
+     */
+    private static final int DEFAULT_EF_SEARCH = 40;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -41,6 +58,12 @@ public class PgVectorStore implements VectorStore {
     @Override
     @Transactional
     public void save(String entityType, Long entityId, List<VectorChunk> chunks) {
+        save(collectionRouter.active(), entityType, entityId, chunks);
+    }
+
+    @Override
+    @Transactional
+    public void save(VectorCollectionRef collection, String entityType, Long entityId, List<VectorChunk> chunks) {
         if (chunks == null || chunks.isEmpty()) {
             log.debug("No chunks to save for entity: {}/{}", entityType, entityId);
             return;
@@ -60,21 +83,23 @@ public class PgVectorStore implements VectorStore {
 
         // Use native query for pgvector support
         for (VectorDocument doc : documents) {
-            saveWithNativeQuery(doc);
+            saveWithNativeQuery(collection, doc);
         }
 
-        log.info("Saved {} vector chunks for entity: {}/{}", chunks.size(), entityType, entityId);
+        log.info("Saved {} vector chunks for entity: {}/{} into {}",
+                chunks.size(), entityType, entityId, collection.tableName());
     }
 
-    private void saveWithNativeQuery(VectorDocument doc) {
+    private void saveWithNativeQuery(VectorCollectionRef collection, VectorDocument doc) {
         // Use CAST function instead of :: to avoid parameter binding issues with Hibernate
         String sql = """
-            INSERT INTO ai_vector_document
-            (entity_type, entity_id, chunk_index, content, field_source, embedding, metadata, created_time)
-            VALUES (?1, ?2, ?3, ?4, ?5, CAST(?6 AS vector), CAST(?7 AS jsonb), NOW())
+            INSERT INTO %s
+            (entity_type, entity_id, chunk_index, content, field_source, embedding, metadata, created_time, updated_time)
+            VALUES (?1, ?2, ?3, ?4, ?5, CAST(?6 AS vector), CAST(?7 AS jsonb), NOW(), NOW())
             ON CONFLICT (entity_type, entity_id, chunk_index, field_source)
-            DO UPDATE SET content = ?4, embedding = CAST(?6 AS vector), metadata = CAST(?7 AS jsonb)
-            """;
+            DO UPDATE SET content = ?4, embedding = CAST(?6 AS vector), metadata = CAST(?7 AS jsonb),
+                updated_time = NOW()
+            """.formatted(collection.tableName());
 
         Query query = entityManager.createNativeQuery(sql);
         query.setParameter(1, doc.getEntityType());
@@ -90,88 +115,170 @@ public class PgVectorStore implements VectorStore {
     @Override
     @Transactional
     public void deleteByEntity(String entityType, Long entityId) {
-        repository.deleteByEntityTypeAndEntityId(entityType, entityId);
+        // Collections being built or drained must not keep stale chunks either
+        for (VectorCollectionRef collection : collectionRouter.writeTargets()) {
+            entityManager.createNativeQuery(
+                            "DELETE FROM %s WHERE entity_type = ?1 AND entity_id = ?2".formatted(collection.tableName()))
+                    .setParameter(1, entityType)
+                    .setParameter(2, entityId)
+                    .executeUpdate();
+        }
         log.info("Deleted vectors for entity: {}/{}", entityType, entityId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<SearchResult> similaritySearch(float[] queryVector, List<String> entityTypes, int topK) {
+        return similaritySearch(collectionRouter.active(), queryVector, entityTypes, topK);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchResult> similaritySearch(VectorCollectionRef collection, float[] queryVector,
+                                               List<String> entityTypes, int topK) {
+        long start = System.nanoTime();
+        List<Candidate> candidates = vectorLeg(collection, queryVector, entityTypes, topK);
+        ragMetrics.recordStage(RagMetrics.STAGE_VECTOR, entityTypes, start);
+
+        return candidates.stream()
+                .map(this::toSearchResult)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchResult> hybridSearch(float[] queryVector, String query, List<String> entityTypes, int topK) {
+        return hybridSearch(collectionRouter.active(), queryVector, query, entityTypes, topK);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchResult> hybridSearch(VectorCollectionRef collection, float[] queryVector, String query,
+                                           List<String> entityTypes, int topK) {
+        // Each leg is fetched separately so that its latency can be measured on its own
+        int candidates = topK * Math.max(1, hybridProperties.getCandidateMultiplier());
+
+        long start = System.nanoTime();
+        List<Candidate> vectorCandidates = vectorLeg(collection, queryVector, entityTypes, candidates);
+        ragMetrics.recordStage(RagMetrics.STAGE_VECTOR, entityTypes, start);
+
+        start = System.nanoTime();
+        List<Candidate> textCandidates = textLeg(collection, query, entityTypes, candidates);
+        ragMetrics.recordStage(RagMetrics.STAGE_TEXT, entityTypes, start);
+
+        start = System.nanoTime();
+        List<SearchResult> results = fuse(vectorCandidates, textCandidates, topK);
+        ragMetrics.recordStage(RagMetrics.STAGE_FUSION, entityTypes, start);
+        return results;
+    }
+
+    private List<Candidate> vectorLeg(VectorCollectionRef collection, float[] queryVector,
+                                      List<String> entityTypes, int limit) {
         String typeFilter = (entityTypes != null && !entityTypes.isEmpty())
                 ? "AND entity_type = ANY(?3)"
                 : "";
 
         String sql = """
-            SELECT entity_type, entity_id, content, field_source, metadata,
+            SELECT id, entity_type, entity_id, content, field_source, metadata,
                    1 - (embedding <=> CAST(?1 AS vector)) AS score
-            FROM ai_vector_document
+            FROM %s
             WHERE 1=1 %s
             ORDER BY embedding <=> CAST(?1 AS vector)
             LIMIT ?2
-            """.formatted(typeFilter);
+            """.formatted(collection.tableName(), typeFilter);
+
+        // The configured candidate list, widened for this transaction so that LIMIT is honoured
+        int efSearch = Math.max(hybridProperties.getEfSearch(), limit);
+        if (efSearch != DEFAULT_EF_SEARCH) {
+            entityManager.createNativeQuery("SELECT set_config('hnsw.ef_search', ?1, true)")
+                    .setParameter(1, String.valueOf(efSearch))
+                    .getSingleResult();
+        }
 
         Query query = entityManager.createNativeQuery(sql);
         query.setParameter(1, vectorToString(queryVector));
-        query.setParameter(2, topK);
+        query.setParameter(2, limit);
 
         if (entityTypes != null && !entityTypes.isEmpty()) {
             query.setParameter(3, entityTypes.toArray(new String[0]));
         }
 
-        return mapToSearchResults(query.getResultList());
+        return mapToCandidates(query.getResultList());
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<SearchResult> hybridSearch(float[] queryVector, String query, List<String> entityTypes, int topK) {
+    private List<Candidate> textLeg(VectorCollectionRef collection, String text, List<String> entityTypes, int limit) {
         String typeFilter = (entityTypes != null && !entityTypes.isEmpty())
-                ? "AND entity_type = ANY(?5)"
-                : "";
-        String textTypeFilter = (entityTypes != null && !entityTypes.isEmpty())
-                ? "AND entity_type = ANY(?5)"
+                ? "AND entity_type = ANY(?3)"
                 : "";
 
-        // Hybrid search: vector similarity (0.7) + full-text search (0.3)
         String sql = """
-            WITH vector_search AS (
-                SELECT id, entity_type, entity_id, content, field_source, metadata,
-                       1 - (embedding <=> CAST(?1 AS vector)) AS vector_score
-                FROM ai_vector_document
-                WHERE 1=1 %s
-                ORDER BY embedding <=> CAST(?1 AS vector)
-                LIMIT ?3
-            ),
-            text_search AS (
-                SELECT id, entity_type, entity_id, content, field_source, metadata,
-                       ts_rank(search_vector, plainto_tsquery('simple', ?2)) AS text_score
-                FROM ai_vector_document
-                WHERE search_vector @@ plainto_tsquery('simple', ?2)
-                %s
-                LIMIT ?3
-            )
-            SELECT COALESCE(v.entity_type, t.entity_type) AS entity_type,
-                   COALESCE(v.entity_id, t.entity_id) AS entity_id,
-                   COALESCE(v.content, t.content) AS content,
-                   COALESCE(v.field_source, t.field_source) AS field_source,
-                   COALESCE(v.metadata, t.metadata) AS metadata,
-                   (COALESCE(v.vector_score, 0) * 0.7 + COALESCE(t.text_score, 0) * 0.3) AS score
-            FROM vector_search v
-            FULL OUTER JOIN text_search t ON v.id = t.id
+            SELECT id, entity_type, entity_id, content, field_source, metadata,
+                   ts_rank(search_vector, plainto_tsquery('simple', ?1)) AS score
+            FROM %s
+            WHERE search_vector @@ plainto_tsquery('simple', ?1)
+            %s
             ORDER BY score DESC
-            LIMIT ?4
-            """.formatted(typeFilter, textTypeFilter);
+            LIMIT ?2
+            """.formatted(collection.tableName(), typeFilter);
 
-        Query nativeQuery = entityManager.createNativeQuery(sql);
-        nativeQuery.setParameter(1, vectorToString(queryVector));
-        nativeQuery.setParameter(2, query);
-        nativeQuery.setParameter(3, topK * 2);
-        nativeQuery.setParameter(4, topK);
+        Query query = entityManager.createNativeQuery(sql);
+        query.setParameter(1, text);
+        query.setParameter(2, limit);
 
         if (entityTypes != null && !entityTypes.isEmpty()) {
-            nativeQuery.setParameter(5, entityTypes.toArray(new String[0]));
+            query.setParameter(3, entityTypes.toArray(new String[0]));
         }
 
-        return mapToSearchResults(nativeQuery.getResultList());
+        return mapToCandidates(query.getResultList());
+    }
+
+    @Override
+    public void reindex(String entityType) {
+        List<String> partitions = jdbcTemplate.queryForList("""
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = CAST(? AS regclass)
+              AND pg_get_expr(c.relpartbound, c.oid) = format('FOR VALUES IN (%L)', CAST(? AS text))
+            """, String.class, collectionRouter.active().tableName(), entityType);
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("No vector partition for entity type: " + entityType);
+        }
+
+        // Runs outside a transaction: REINDEX CONCURRENTLY keeps the partition writable
+        String partition = partitions.get(0);
+        String identifier = "\"" + partition.replace("\"", "\"\"") + "\"";
+        long start = System.nanoTime();
+        jdbcTemplate.execute("REINDEX TABLE CONCURRENTLY " + identifier);
+        jdbcTemplate.execute("ANALYZE " + identifier);
+        log.info("Reindexed vector partition {} in {} ms", partition, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Hybrid fusion: weighted vector similarity + weighted full-text rank (0.7 / 0.3 by default),
+     * joined on document id.
+     */
+    private List<SearchResult> fuse(List<Candidate> vectorCandidates, List<Candidate> textCandidates, int topK) {
+        double vectorWeight = hybridProperties.getVectorWeight();
+        double textWeight = hybridProperties.getTextWeight();
+        Map<Long, Candidate> merged = new LinkedHashMap<>();
+        Map<Long, Double> scores = new HashMap<>();
+
+        for (Candidate candidate : vectorCandidates) {
+            merged.put(candidate.id(), candidate);
+            scores.merge(candidate.id(), candidate.score() * vectorWeight, Double::sum);
+        }
+        for (Candidate candidate : textCandidates) {
+            merged.putIfAbsent(candidate.id(), candidate);
+            scores.merge(candidate.id(), candidate.score() * textWeight, Double::sum);
+        }
+
+        return merged.values().stream()
+                .map(candidate -> candidate.withScore(scores.get(candidate.id())))
+                .sorted(Comparator.comparingDouble(Candidate::score).reversed())
+                .limit(topK)
+                .map(this::toSearchResult)
+                .collect(Collectors.toList());
     }
 
     private String vectorToString(float[] vector) {
@@ -204,34 +311,55 @@ public class PgVectorStore implements VectorStore {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private List<SearchResult> mapToSearchResults(List<?> results) {
-        List<SearchResult> searchResults = new ArrayList<>();
-        for (Object row : results) {
+    private List<Candidate> mapToCandidates(List<?> rows) {
+        List<Candidate> candidates = new ArrayList<>(rows.size());
+        for (Object row : rows) {
             Object[] cols = (Object[]) row;
-            String title = null;
-            Map<String, Object> metadata = deserializeMetadata((String) cols[4]);
-            if (metadata != null) {
-                // 优先使用 name（适用于专家、产品），其次使用 title（适用于活动、新闻、项目）
-                Object nameValue = metadata.get("name");
-                Object titleValue = metadata.get("title");
-                if (nameValue != null && !nameValue.toString().isBlank()) {
-                    title = nameValue.toString();
-                } else if (titleValue != null && !titleValue.toString().isBlank()) {
-                    title = titleValue.toString();
-                }
+            candidates.add(new Candidate(
+                    ((Number) cols[0]).longValue(),
+                    (String) cols[1],
+                    ((Number) cols[2]).longValue(),
+                    (String) cols[3],
+                    (String) cols[4],
+                    (String) cols[5],
+                    ((Number) cols[6]).doubleValue()));
+        }
+        return candidates;
+    }
+
+    private SearchResult toSearchResult(Candidate candidate) {
+        String title = null;
+        Map<String, Object> metadata = deserializeMetadata(candidate.metadata());
+        if (metadata != null) {
+            // 优先使用 name（适用于专家、产品），其次使用 title（适用于活动、新闻、项目）
+            Object nameValue = metadata.get("name");
+            Object titleValue = metadata.get("title");
+            if (nameValue != null && !nameValue.toString().isBlank()) {
+                title = nameValue.toString();
+            } else if (titleValue != null && !titleValue.toString().isBlank()) {
+                title = titleValue.toString();
             }
+        }
+
+        return SearchResult.builder()
+                .entityType(candidate.entityType())
+                .entityId(candidate.entityId())
+                .content(candidate.content())
+                .fieldSource(candidate.fieldSource())
+                .metadata(metadata)
+                .title(title)
+                .score(candidate.score())
+                .build();
+    }
+
+    /**
+     * A single row returned by one of the search legs.
+     */
+    private record Candidate(long id, String entityType, long entityId, String content,
+                             String fieldSource, String metadata, double score) {
 
-            searchResults.add(SearchResult.builder()
-                    .entityType((String) cols[0])
-                    .entityId(((Number) cols[1]).longValue())
-                    .content((String) cols[2])
-                    .fieldSource((String) cols[3])
-                    .metadata(metadata)
-                    .title(title)
-                    .score(((Number) cols[5]).doubleValue())
-                    .build());
+        Candidate withScore(double newScore) {
+            return new Candidate(id, entityType, entityId, content, fieldSource, metadata, newScore);
         }
-        return searchResults;
     }
 }
@@ -1,5 +1,6 @@
 package com.assoc.ai.store;
 
+import com.assoc.ai.collection.VectorCollectionRef;
 import com.assoc.ai.dto.SearchResult;
 import com.assoc.ai.dto.VectorChunk;
 
@@ -21,7 +22,18 @@ public interface VectorStore {
     void save(String entityType, Long entityId, List<VectorChunk> chunks);
 
     /**
-     * Delete all vectors for an entity.
+     * Save vector chunks into a specific collection. The chunk embeddings must come from that
+     * collection's model.
+     *
+     * @param collection target collection
+     * @param entityType the type of entity
+     * @param entityId   the entity ID
+     * @param chunks     list of vector chunks to save
+     */
+    void save(VectorCollectionRef collection, String entityType, Long entityId, List<VectorChunk> chunks);
+
+    /**
+     * Delete all vectors for an entity from every collection that receives writes.
      *
      * @param entityType the type of entity
      * @param entityId   the entity ID
@@ -38,6 +50,13 @@ public interface VectorStore {
      */
     List<SearchResult> similaritySearch(float[] queryVector, List<String> entityTypes, int topK);
 
+    /**
+     * Perform pure vector similarity search against a specific collection.
+     * The query vector must come from that collection's model.
+     */
+    List<SearchResult> similaritySearch(VectorCollectionRef collection, float[] queryVector,
+                                        List<String> entityTypes, int topK);
+
     /**
      * Perform hybrid search combining vector similarity and full-text search.
      *
@@ -48,4 +67,19 @@ public interface VectorStore {
      * @return list of search results ordered by combined score
      */
     List<SearchResult> hybridSearch(float[] queryVector, String query, List<String> entityTypes, int topK);
+
+    /**
+     * Perform hybrid search against a specific collection.
+     * The query vector must come from that collection's model.
+     */
+    List<SearchResult> hybridSearch(VectorCollectionRef collection, float[] queryVector, String query,
+                                    List<String> entityTypes, int topK);
+
+    /**
+     * Rebuild the indexes holding vectors of one entity type, without blocking writes to other types.
+     *
+     * @param entityType the type of entity
+     * @throws IllegalArgumentException if the store has no dedicated storage for the type
+     */
+    void reindex(String entityType);
 }
@@ -0,0 +1,132 @@
+package com.assoc.ai.stream;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces streamed LLM tokens into larger frames so that an answer is sent as a few dozen SSE
+ * events instead of one event per token.
+ *
+ * <p>A frame is flushed when it reaches {@code maxBytes} (UTF-8) or when {@code maxDelay} has passed
+ * since the previous flush. A token arriving after the stream was idle for at least {@code maxDelay}
+ * (including the first one) is sent immediately, so coalescing never adds latency to a slow model;
+ * it only batches tokens that arrive faster than the client could render them anyway. Whatever is
+ * buffered is flushed before completion or an error is propagated.</p>
+ */
+public final class TokenCoalescer {
+
+    private TokenCoalescer() {
+    }
+
+    /**
+     * @param maxDelay longest time a token may wait in the buffer; zero disables coalescing
+     * @param maxBytes frame size that triggers an immediate flush
+     * @param timer    scheduler for the delayed flushes, on which downstream may then run
+     */
+    public static Flux<String> coalesce(Flux<String> tokens, Duration maxDelay, int maxBytes, Scheduler timer) {
+        if (maxDelay.isZero() || maxDelay.isNegative()) {
+            return tokens;
+        }
+        return Flux.create(sink -> {
+            Frame frame = new Frame(sink, maxDelay.toNanos(), maxBytes, timer);
+            Disposable upstream = tokens.subscribe(frame::onToken, frame::onError, frame::onComplete);
+            sink.onDispose(() -> {
+                upstream.dispose();
+                frame.cancelTimer();
+            });
+        }, FluxSink.OverflowStrategy.BUFFER);
+    }
+
+    /**
+     * Buffer state of one subscription; the upstream and the timer thread both go through the monitor.
+     */
+    private static final class Frame {
+
+        private final FluxSink<String> sink;
+        private final long maxDelayNanos;
+        private final int maxBytes;
+        private final Scheduler timer;
+        private final StringBuilder buffer = new StringBuilder();
+        private int bytes;
+        private long lastFlushNanos;
+        private boolean flushedOnce;
+        private Disposable scheduledFlush;
+
+        private Frame(FluxSink<String> sink, long maxDelayNanos, int maxBytes, Scheduler timer) {
+            this.sink = sink;
+            this.maxDelayNanos = maxDelayNanos;
+            this.maxBytes = maxBytes;
+            this.timer = timer;
+        }
+
+        synchronized void onToken(String token) {
+            buffer.append(token);
+            bytes += utf8Length(token);
+            long now = System.nanoTime();
+            long sinceFlush = now - lastFlushNanos;
+            if (!flushedOnce || sinceFlush >= maxDelayNanos || bytes >= maxBytes) {
+                flush(now);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::onTimer, maxDelayNanos - sinceFlush, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        synchronized void onComplete() {
+            flush(System.nanoTime());
+            sink.complete();
+        }
+
+        synchronized void onError(Throwable error) {
+            flush(System.nanoTime());
+            sink.error(error);
+        }
+
+        synchronized void cancelTimer() {
+            if (scheduledFlush != null) {
+                scheduledFlush.dispose();
+                scheduledFlush = null;
+            }
+        }
+
+        private synchronized void onTimer() {
+            scheduledFlush = null;
+            flush(System.nanoTime());
+        }
+
+        private void flush(long now) {
+            cancelTimer();
+            if (buffer.isEmpty()) {
+                return;
+            }
+            String content = buffer.toString();
+            buffer.setLength(0);
+            bytes = 0;
+            lastFlushNanos = now;
+            flushedOnce = true;
+            sink.next(content);
+        }
+
+        private static int utf8Length(String token) {
+            int length = 0;
+            for (int i = 0; i < token.length(); i++) {
+                char c = token.charAt(i);
+                if (c < 0x80) {
+                    length++;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c)) {
+                    length += 4;
+                    i++;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.assoc.ai.suggest;
+
+import java.util.List;
+
+/**
+ * A suggestion candidate: one entity with its display label and lookup keys.
+ *
+ * @param keys normalized label and, for Chinese labels, the pinyin initials
+ * @param rank global position by popularity, assigned when the index is rebuilt (0 = best)
+ */
+record Suggestion(String entityType, Long entityId, String label, List<String> keys, int rank) {
+
+    Suggestion withRank(int newRank) {
+        return new Suggestion(entityType, entityId, label, keys, newRank);
+    }
+}
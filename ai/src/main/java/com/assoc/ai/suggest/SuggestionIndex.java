@@ -0,0 +1,286 @@
+package com.assoc.ai.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable compressed prefix tree (radix tree) used for search-box suggestions.
+ *
+ * <p>The tree is flattened into primitive arrays: every node stores its incoming edge as a slice
+ * of a shared {@code char[]} pool, its children as a contiguous range sorted by first character,
+ * and the best {@code topK} entries of its whole subtree as a slice of a shared {@code int[]}.
+ * A lookup is therefore a walk of at most {@code prefix.length()} characters followed by copying
+ * a precomputed list — no subtree scan and no per-prefix map.</p>
+ *
+ * <p>Instances are built once and swapped atomically by {@link SuggestionService}.</p>
+ */
+final class SuggestionIndex {
+
+    static final SuggestionIndex EMPTY = new SuggestionIndex(List.of(), List.of(), 0);
+
+    private final List<Suggestion> entries;
+
+    // Per node
+    private int[] edgeOffset;
+    private int[] edgeLength;
+    private int[] childStart;
+    private int[] childCount;
+    private int[] topStart;
+    private int[] topCount;
+
+    // Shared pools
+    private char[] edgePool;
+    private char[] childFirstChar;
+    private int[] childNode;
+    private int[] topPool;
+
+    private int nodeSize;
+    private int edgePoolSize;
+    private int childPoolSize;
+    private int topPoolSize;
+
+    /**
+     * @param entries ranked candidates; position in the list is the rank (best first)
+     * @param keys    one or more lookup keys per entry, as {@code (key, entryIndex)} pairs
+     * @param topK    number of entries kept per node
+     */
+    private SuggestionIndex(List<Suggestion> entries, List<Key> keys, int topK) {
+        this.entries = entries;
+        int capacity = Math.max(1, keys.size() * 2);
+        edgeOffset = new int[capacity];
+        edgeLength = new int[capacity];
+        childStart = new int[capacity];
+        childCount = new int[capacity];
+        topStart = new int[capacity];
+        topCount = new int[capacity];
+        edgePool = new char[Math.max(16, keys.stream().mapToInt(k -> k.text.length()).sum())];
+        childFirstChar = new char[capacity];
+        childNode = new int[capacity];
+        topPool = new int[Math.max(16, capacity * Math.max(1, Math.min(topK, 4)))];
+
+        int root = newNode("", 0, 0);
+        if (!keys.isEmpty()) {
+            buildSubtree(root, keys, 0, keys.size(), 0, topK);
+        }
+        trim();
+    }
+
+    /**
+     * Build an index from ranked entries. Every entry is reachable through each of its keys.
+     */
+    static SuggestionIndex build(List<Suggestion> rankedEntries, int topK) {
+        if (rankedEntries.isEmpty()) {
+            return EMPTY;
+        }
+        List<Key> keys = new ArrayList<>(rankedEntries.size() * 2);
+        for (int i = 0; i < rankedEntries.size(); i++) {
+            for (String key : rankedEntries.get(i).keys()) {
+                if (!key.isEmpty()) {
+                    keys.add(new Key(key, i));
+                }
+            }
+        }
+        keys.sort(Comparator.comparing((Key k) -> k.text).thenComparingInt(k -> k.entry));
+        return new SuggestionIndex(rankedEntries, keys, topK);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Return up to {@code limit} best-ranked entries having a key that starts with {@code prefix}.
+     *
+     * @param prefix normalized prefix (see {@link SuggestionKeys#normalize(String)})
+     */
+    List<Suggestion> lookup(String prefix, int limit) {
+        if (entries.isEmpty() || prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int node = 0;
+        int i = 0;
+        while (i < prefix.length()) {
+            int child = findChild(node, prefix.charAt(i));
+            if (child < 0) {
+                return Collections.emptyList();
+            }
+            int offset = edgeOffset[child];
+            int length = edgeLength[child];
+            int j = 0;
+            while (j < length && i < prefix.length()) {
+                if (edgePool[offset + j] != prefix.charAt(i)) {
+                    return Collections.emptyList();
+                }
+                j++;
+                i++;
+            }
+            node = child;
+        }
+        int count = Math.min(limit, topCount[node]);
+        List<Suggestion> result = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            result.add(entries.get(topPool[topStart[node] + k]));
+        }
+        return result;
+    }
+
+    private int findChild(int node, char c) {
+        int lo = childStart[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char midChar = childFirstChar[mid];
+            if (midChar < c) {
+                lo = mid + 1;
+            } else if (midChar > c) {
+                hi = mid - 1;
+            } else {
+                return childNode[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Build the subtree for the sorted key range {@code [lo, hi)} which shares the first
+     * {@code depth} characters, and fill in the node's top-K list from its children.
+     */
+    private void buildSubtree(int node, List<Key> keys, int lo, int hi, int depth, int topK) {
+        // Keys ending exactly here sort first
+        int start = lo;
+        while (start < hi && keys.get(start).text.length() == depth) {
+            start++;
+        }
+        int[] terminal = new int[start - lo];
+        for (int i = lo; i < start; i++) {
+            terminal[i - lo] = keys.get(i).entry;
+        }
+
+        // Group the remaining keys by their next character
+        List<int[]> groups = new ArrayList<>();
+        int groupStart = start;
+        while (groupStart < hi) {
+            char c = keys.get(groupStart).text.charAt(depth);
+            int groupEnd = groupStart + 1;
+            while (groupEnd < hi && keys.get(groupEnd).text.charAt(depth) == c) {
+                groupEnd++;
+            }
+            groups.add(new int[]{groupStart, groupEnd});
+            groupStart = groupEnd;
+        }
+
+        int firstChild = reserveChildren(groups.size());
+        childStart[node] = firstChild;
+        childCount[node] = groups.size();
+
+        for (int g = 0; g < groups.size(); g++) {
+            int a = groups.get(g)[0];
+            int b = groups.get(g)[1];
+            String first = keys.get(a).text;
+            int lcp = commonPrefixLength(first, keys.get(b - 1).text, depth);
+            int child = newNode(first, depth, lcp - depth);
+            childFirstChar[firstChild + g] = first.charAt(depth);
+            childNode[firstChild + g] = child;
+            buildSubtree(child, keys, a, b, lcp, topK);
+        }
+
+        mergeTop(node, terminal, firstChild, groups.size(), topK);
+    }
+
+    /**
+     * Entry indices are ranks, so the node's top-K is the K smallest distinct indices among its
+     * own terminal entries and its children's top-K lists.
+     */
+    private void mergeTop(int node, int[] terminal, int firstChild, int children, int topK) {
+        int total = terminal.length;
+        for (int g = 0; g < children; g++) {
+            total += topCount[childNode[firstChild + g]];
+        }
+        int[] candidates = Arrays.copyOf(terminal, total);
+        int n = terminal.length;
+        for (int g = 0; g < children; g++) {
+            int child = childNode[firstChild + g];
+            System.arraycopy(topPool, topStart[child], candidates, n, topCount[child]);
+            n += topCount[child];
+        }
+        Arrays.sort(candidates);
+
+        ensureTopCapacity(Math.min(topK, total));
+        topStart[node] = topPoolSize;
+        int count = 0;
+        int previous = -1;
+        for (int i = 0; i < candidates.length && count < topK; i++) {
+            if (candidates[i] != previous) {
+                topPool[topPoolSize++] = candidates[i];
+                previous = candidates[i];
+                count++;
+            }
+        }
+        topCount[node] = count;
+    }
+
+    private static int commonPrefixLength(String a, String b, int from) {
+        int max = Math.min(a.length(), b.length());
+        int i = from;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private int newNode(String source, int from, int length) {
+        if (nodeSize == edgeOffset.length) {
+            int capacity = nodeSize * 2;
+            edgeOffset = Arrays.copyOf(edgeOffset, capacity);
+            edgeLength = Arrays.copyOf(edgeLength, capacity);
+            childStart = Arrays.copyOf(childStart, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            topStart = Arrays.copyOf(topStart, capacity);
+            topCount = Arrays.copyOf(topCount, capacity);
+        }
+        if (edgePoolSize + length > edgePool.length) {
+            edgePool = Arrays.copyOf(edgePool, Math.max(edgePool.length * 2, edgePoolSize + length));
+        }
+        source.getChars(from, from + length, edgePool, edgePoolSize);
+        edgeOffset[nodeSize] = edgePoolSize;
+        edgeLength[nodeSize] = length;
+        edgePoolSize += length;
+        return nodeSize++;
+    }
+
+    private int reserveChildren(int count) {
+        if (childPoolSize + count > childNode.length) {
+            int capacity = Math.max(childNode.length * 2, childPoolSize + count);
+            childFirstChar = Arrays.copyOf(childFirstChar, capacity);
+            childNode = Arrays.copyOf(childNode, capacity);
+        }
+        int start = childPoolSize;
+        childPoolSize += count;
+        return start;
+    }
+
+    private void ensureTopCapacity(int count) {
+        if (topPoolSize + count > topPool.length) {
+            topPool = Arrays.copyOf(topPool, Math.max(topPool.length * 2, topPoolSize + count));
+        }
+    }
+
+    private void trim() {
+        edgeOffset = Arrays.copyOf(edgeOffset, nodeSize);
+        edgeLength = Arrays.copyOf(edgeLength, nodeSize);
+        childStart = Arrays.copyOf(childStart, nodeSize);
+        childCount = Arrays.copyOf(childCount, nodeSize);
+        topStart = Arrays.copyOf(topStart, nodeSize);
+        topCount = Arrays.copyOf(topCount, nodeSize);
+        edgePool = Arrays.copyOf(edgePool, edgePoolSize);
+        childFirstChar = Arrays.copyOf(childFirstChar, childPoolSize);
+        childNode = Arrays.copyOf(childNode, childPoolSize);
+        topPool = Arrays.copyOf(topPool, topPoolSize);
+    }
+
+    private record Key(String text, int entry) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.assoc.ai.suggest;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+
+import java.util.List;
+
+/**
+ * Key normalization for the suggestion index.
+ */
+final class SuggestionKeys {
+
+    private SuggestionKeys() {
+    }
+
+    /**
+     * Lower-case and drop whitespace so that "Smart Water" and "smartwater" share a prefix.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lookup keys for a label: the normalized label, plus its pinyin initials when it contains
+     * Chinese characters (e.g. 智慧水务 → zhsw). Latin letters and digits are kept as-is in the
+     * initials key, other characters are skipped. Polyphonic characters use their first reading.
+     */
+    static List<String> keysOf(String label) {
+        String normalized = normalize(label);
+        StringBuilder initials = new StringBuilder(normalized.length());
+        boolean hasHan = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN) {
+                String[] readings = PinyinHelper.toHanyuPinyinStringArray(c);
+                if (readings != null && readings.length > 0 && !readings[0].isEmpty()) {
+                    initials.append(readings[0].charAt(0));
+                    hasHan = true;
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                initials.append(c);
+            }
+        }
+        if (!hasHan || initials.isEmpty()) {
+            return List.of(normalized);
+        }
+        return List.of(normalized, initials.toString());
+    }
+}
@@ -0,0 +1,208 @@
+package com.assoc.ai.suggest;
+
+import com.assoc.ai.dto.RagChatResponse;
+import com.assoc.ai.dto.SearchSuggestion;
+import com.assoc.ai.repository.VectorDocumentRepository;
+import com.assoc.common.event.VectorizeEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Search-box autocomplete over entity titles and names.
+ *
+ * <p>Candidates are loaded from {@code ai_vector_document} metadata on startup and kept fresh from
+ * {@link VectorizeEvent}s. Lookups are served from an immutable {@link SuggestionIndex} that is
+ * rebuilt in the background when something changed, so the request path never touches the
+ * database. Popularity is the number of times an entity was cited as a RAG reference since startup.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SuggestionService {
+
+    private static final String ALL_TYPES = "";
+
+    private final VectorDocumentRepository vectorDocumentRepository;
+
+    @Value("${kb.search.suggestion-limit:10}")
+    private int suggestionLimit;
+
+    private final Map<String, Suggestion> candidates = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> popularity = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    /**
+     * Index over all types under {@link #ALL_TYPES}, plus one per entity type.
+     */
+    private volatile Map<String, SuggestionIndex> indexes = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            int loaded = 0;
+            for (VectorDocumentRepository.EntityLabel row : vectorDocumentRepository.findEntityLabels()) {
+                String label = hasText(row.getName()) ? row.getName() : row.getTitle();
+                if (hasText(label)) {
+                    // Events received while loading are newer than the table snapshot
+                    candidates.putIfAbsent(key(row.getEntityType(), row.getEntityId()),
+                            newSuggestion(row.getEntityType(), row.getEntityId(), label));
+                    loaded++;
+                }
+            }
+            rebuild();
+            log.info("Suggestion index loaded with {} entities", loaded);
+        } catch (Exception e) {
+            log.error("Failed to load suggestion index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Keep candidates in sync with vectorization. Only a map update happens here; the index is
+     * rebuilt by {@link #refreshIfDirty()}.
+     */
+    @EventListener
+    public void onVectorizeEvent(VectorizeEvent event) {
+        String key = key(event.getEntityType(), event.getEntityId());
+        if (event.getAction() == VectorizeEvent.EventAction.DELETE) {
+            candidates.remove(key);
+            popularity.remove(key);
+        } else {
+            String label = labelOf(event.getMetadata());
+            if (label != null) {
+                candidates.put(key, newSuggestion(event.getEntityType(), event.getEntityId(), label));
+            } else {
+                candidates.remove(key);
+            }
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * Count entities cited in a RAG answer towards their suggestion ranking.
+     */
+    public void recordHits(List<RagChatResponse.Reference> references) {
+        for (RagChatResponse.Reference reference : references) {
+            String key = key(reference.getEntityType(), reference.getEntityId());
+            if (candidates.containsKey(key)) {
+                popularity.computeIfAbsent(key, k -> new LongAdder()).increment();
+                dirty.set(true);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${kb.search.suggestion-refresh-ms:2000}")
+    public void refreshIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Suggest entities whose title starts with the query, or whose pinyin initials do.
+     *
+     * @param types optional entity type filter
+     * @param limit maximum number of suggestions, capped at {@code kb.search.suggestion-limit}
+     */
+    public List<SearchSuggestion> suggest(String query, List<String> types, Integer limit) {
+        String prefix = SuggestionKeys.normalize(query);
+        int max = (limit == null || limit <= 0) ? suggestionLimit : Math.min(limit, suggestionLimit);
+        Map<String, SuggestionIndex> current = indexes;
+
+        List<Suggestion> matches;
+        if (types == null || types.isEmpty()) {
+            matches = current.getOrDefault(ALL_TYPES, SuggestionIndex.EMPTY).lookup(prefix, max);
+        } else {
+            matches = new ArrayList<>();
+            for (String type : types) {
+                matches.addAll(current.getOrDefault(type, SuggestionIndex.EMPTY).lookup(prefix, max));
+            }
+            if (types.size() > 1) {
+                matches.sort(Comparator.comparingInt(Suggestion::rank));
+                matches = matches.subList(0, Math.min(max, matches.size()));
+            }
+        }
+
+        return matches.stream()
+                .map(s -> SearchSuggestion.builder()
+                        .entityType(s.entityType())
+                        .entityId(s.entityId())
+                        .title(s.label())
+                        .build())
+                .toList();
+    }
+
+    private synchronized void rebuild() {
+        long start = System.nanoTime();
+        // Snapshot hit counts so concurrent increments cannot break the sort order
+        Map<String, Long> hits = new HashMap<>();
+        popularity.forEach((key, adder) -> hits.put(key, adder.sum()));
+
+        List<Suggestion> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(Comparator.<Suggestion>comparingLong(
+                        s -> -hits.getOrDefault(key(s.entityType(), s.entityId()), 0L))
+                .thenComparingInt(s -> s.label().length())
+                .thenComparing(Suggestion::entityId, Comparator.reverseOrder()));
+
+        Map<String, List<Suggestion>> byType = new LinkedHashMap<>();
+        List<Suggestion> all = new ArrayList<>(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            Suggestion suggestion = ranked.get(i).withRank(i);
+            all.add(suggestion);
+            byType.computeIfAbsent(suggestion.entityType(), t -> new ArrayList<>()).add(suggestion);
+        }
+
+        Map<String, SuggestionIndex> rebuilt = new HashMap<>();
+        rebuilt.put(ALL_TYPES, SuggestionIndex.build(all, suggestionLimit));
+        byType.forEach((type, list) -> rebuilt.put(type, SuggestionIndex.build(list, suggestionLimit)));
+        indexes = Map.copyOf(rebuilt);
+
+        log.debug("Rebuilt suggestion index: {} entities in {} ms",
+                all.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Suggestion newSuggestion(String entityType, Long entityId, String label) {
+        String trimmed = label.strip();
+        return new Suggestion(entityType, entityId, trimmed, SuggestionKeys.keysOf(trimmed), 0);
+    }
+
+    /**
+     * Same rule as search results: name (experts, products, manufacturers) before title.
+     */
+    private static String labelOf(Map<String, Object> metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        Object name = metadata.get("name");
+        if (name != null && hasText(name.toString())) {
+            return name.toString();
+        }
+        Object title = metadata.get("title");
+        if (title != null && hasText(title.toString())) {
+            return title.toString();
+        }
+        return null;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String key(String entityType, Long entityId) {
+        return entityType + ":" + entityId;
+    }
+}
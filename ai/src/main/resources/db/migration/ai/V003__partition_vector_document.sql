@@ -0,0 +1,64 @@
+-- Partition ai_vector_document by entity_type
+-- Type-filtered searches used to scan one global ivfflat index and filter afterwards, which could
+-- return fewer than topK rows. With one partition per type the planner prunes to the requested
+-- partitions and each partition has its own ANN and full-text index.
+
+ALTER TABLE ai_vector_document RENAME TO ai_vector_document_legacy;
+ALTER TABLE ai_vector_document_legacy RENAME CONSTRAINT ai_vector_document_pkey TO ai_vector_document_legacy_pkey;
+ALTER TABLE ai_vector_document_legacy RENAME CONSTRAINT uk_ai_vector_chunk TO uk_ai_vector_chunk_legacy;
+
+-- Keep the id sequence so existing ids stay unique
+ALTER SEQUENCE ai_vector_document_id_seq OWNED BY NONE;
+
+CREATE TABLE ai_vector_document (
+    id BIGINT NOT NULL DEFAULT nextval('ai_vector_document_id_seq'),
+    entity_type VARCHAR(50) NOT NULL,   -- activity/news/project/expert/product/manufacturer
+    entity_id BIGINT NOT NULL,          -- Original entity ID
+    chunk_index INTEGER NOT NULL DEFAULT 0,
+    content TEXT NOT NULL,              -- Chunked text content
+    field_source VARCHAR(50),           -- Source field: title/description/etc
+    embedding vector(512) NOT NULL,     -- Vector data (512 dimensions for bge-small-zh-1.5)
+    metadata JSONB,                     -- Extended metadata (title, summary, etc.)
+    search_vector tsvector GENERATED ALWAYS AS (
+        to_tsvector('simple', coalesce(content, ''))
+    ) STORED,
+    created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Unique constraints on a partitioned table must include the partition key
+    PRIMARY KEY (entity_type, id),
+    CONSTRAINT uk_ai_vector_chunk UNIQUE (entity_type, entity_id, chunk_index, field_source)
+) PARTITION BY LIST (entity_type);
+
+ALTER SEQUENCE ai_vector_document_id_seq OWNED BY ai_vector_document.id;
+
+CREATE TABLE ai_vector_document_activity PARTITION OF ai_vector_document FOR VALUES IN ('activity');
+CREATE TABLE ai_vector_document_news PARTITION OF ai_vector_document FOR VALUES IN ('news');
+CREATE TABLE ai_vector_document_project PARTITION OF ai_vector_document FOR VALUES IN ('project');
+CREATE TABLE ai_vector_document_expert PARTITION OF ai_vector_document FOR VALUES IN ('expert');
+CREATE TABLE ai_vector_document_product PARTITION OF ai_vector_document FOR VALUES IN ('product');
+CREATE TABLE ai_vector_document_manufacturer PARTITION OF ai_vector_document FOR VALUES IN ('manufacturer');
+-- Catch-all for types added before they get a partition of their own
+CREATE TABLE ai_vector_document_default PARTITION OF ai_vector_document DEFAULT;
+
+-- Copy before indexing: building the ANN index once is much faster than maintaining it per row
+INSERT INTO ai_vector_document
+    (id, entity_type, entity_id, chunk_index, content, field_source, embedding, metadata, created_time)
+SELECT id, entity_type, entity_id, chunk_index, content, field_source, embedding, metadata, created_time
+FROM ai_vector_document_legacy;
+
+DROP TABLE ai_vector_document_legacy;
+
+-- Indexes are defined on the parent and created on every partition (including future ones).
+-- HNSW needs no training data, so small or initially empty partitions still get a usable index,
+-- unlike ivfflat whose lists are fixed from the rows present at build time.
+CREATE INDEX idx_ai_vector_entity ON ai_vector_document(entity_type, entity_id);
+CREATE INDEX idx_ai_vector_embedding ON ai_vector_document
+    USING hnsw (embedding vector_cosine_ops) WITH (m = 16, ef_construction = 64);
+CREATE INDEX idx_ai_vector_fts ON ai_vector_document USING gin(search_vector);
+
+ANALYZE ai_vector_document;
+
+-- Comments
+COMMENT ON TABLE ai_vector_document IS 'Unified vector document table, list-partitioned by entity_type';
+COMMENT ON COLUMN ai_vector_document.entity_type IS 'Entity type: activity/news/project/expert/product/manufacturer (partition key)';
+COMMENT ON COLUMN ai_vector_document.entity_id IS 'Original entity ID, corresponds to primary key in respective module tables';
+COMMENT ON COLUMN ai_vector_document.metadata IS 'JSON metadata containing title, summary etc. for search result display';
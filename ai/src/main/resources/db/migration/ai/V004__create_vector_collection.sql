@@ -0,0 +1,59 @@
+-- Versioned vector collections
+-- Every embedding model / dimension gets its own physical table (ai_vector_document_v{id}).
+-- A new collection is backfilled in the background while the active one keeps serving queries,
+-- then the active pointer and the ai_vector_document view are switched in one transaction.
+
+CREATE TABLE IF NOT EXISTS ai_vector_collection (
+    id BIGINT PRIMARY KEY,
+    table_name VARCHAR(63) NOT NULL,
+    model VARCHAR(100),                  -- NULL only for the pre-existing collection until first startup
+    dimension INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL,         -- BUILDING/ACTIVE/DRAINING/RETIRED/FAILED/CANCELLED
+    total_chunks BIGINT NOT NULL DEFAULT 0,
+    processed_chunks BIGINT NOT NULL DEFAULT 0,
+    failed_chunks BIGINT NOT NULL DEFAULT 0,
+    cursor_entity_type VARCHAR(50),      -- Backfill keyset position, used to resume after a restart
+    cursor_id BIGINT,
+    owner VARCHAR(100),                  -- Node running the backfill
+    error_message TEXT,
+    created_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    activated_time TIMESTAMP,
+    deactivated_time TIMESTAMP,
+    dropped_time TIMESTAMP,
+    CONSTRAINT uk_ai_vector_collection_table UNIQUE (table_name)
+);
+
+-- At most one active and one building collection
+CREATE UNIQUE INDEX uk_ai_vector_collection_live ON ai_vector_collection (status)
+    WHERE status IN ('ACTIVE', 'BUILDING');
+
+CREATE SEQUENCE IF NOT EXISTS ai_vector_collection_id_seq START WITH 2 OWNED BY ai_vector_collection.id;
+
+-- The existing table becomes collection 1
+ALTER TABLE ai_vector_document RENAME TO ai_vector_document_v1;
+ALTER TABLE ai_vector_document_v1 RENAME CONSTRAINT ai_vector_document_pkey TO ai_vector_document_v1_pkey;
+ALTER TABLE ai_vector_document_v1 RENAME CONSTRAINT uk_ai_vector_chunk TO uk_ai_vector_chunk_v1;
+ALTER INDEX idx_ai_vector_entity RENAME TO idx_ai_vector_v1_entity;
+ALTER INDEX idx_ai_vector_embedding RENAME TO idx_ai_vector_v1_embedding;
+ALTER INDEX idx_ai_vector_fts RENAME TO idx_ai_vector_v1_fts;
+ALTER TABLE ai_vector_document_activity RENAME TO ai_vector_document_v1_activity;
+ALTER TABLE ai_vector_document_news RENAME TO ai_vector_document_v1_news;
+ALTER TABLE ai_vector_document_project RENAME TO ai_vector_document_v1_project;
+ALTER TABLE ai_vector_document_expert RENAME TO ai_vector_document_v1_expert;
+ALTER TABLE ai_vector_document_product RENAME TO ai_vector_document_v1_product;
+ALTER TABLE ai_vector_document_manufacturer RENAME TO ai_vector_document_v1_manufacturer;
+ALTER TABLE ai_vector_document_default RENAME TO ai_vector_document_v1_default;
+
+-- Shared by all collections so that ids stay unique across a switch; must outlive any one table
+ALTER SEQUENCE ai_vector_document_id_seq OWNED BY NONE;
+
+INSERT INTO ai_vector_collection (id, table_name, model, dimension, status, activated_time)
+VALUES (1, 'ai_vector_document_v1', NULL, 512, 'ACTIVE', CURRENT_TIMESTAMP);
+
+-- Stable name for JPA, statistics and ad-hoc queries; always points at the active collection
+CREATE VIEW ai_vector_document AS SELECT * FROM ai_vector_document_v1;
+
+COMMENT ON TABLE ai_vector_collection IS 'Versioned vector collections (one table per embedding model / dimension)';
+COMMENT ON COLUMN ai_vector_collection.status IS 'BUILDING: backfilling; ACTIVE: serving queries; DRAINING: replaced, kept for the grace period; RETIRED: dropped';
+COMMENT ON VIEW ai_vector_document IS 'Active vector collection';
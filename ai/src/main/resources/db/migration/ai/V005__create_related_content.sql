@@ -0,0 +1,27 @@
+-- Precomputed "related content"
+-- Entity-level centroids of the chunk embeddings, and for every entity its nearest neighbours
+-- across all types. Detail pages read one row by primary key instead of running an ANN query.
+
+CREATE TABLE IF NOT EXISTS ai_entity_centroid (
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    collection_id BIGINT NOT NULL,       -- Vector collection the centroid was computed from
+    embedding vector NOT NULL,           -- Mean of the entity's chunk embeddings (dimension of that collection)
+    label VARCHAR(500),                  -- Name or title for display
+    updated_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (entity_type, entity_id)
+);
+
+CREATE TABLE IF NOT EXISTS ai_related_content (
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    related JSONB NOT NULL,              -- [{entityType, entityId, title, score}] ordered by similarity
+    updated_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (entity_type, entity_id)
+);
+
+-- Finds the entities whose lists mention a changed or deleted entity
+CREATE INDEX idx_ai_related_content_related ON ai_related_content USING gin(related jsonb_path_ops);
+
+COMMENT ON TABLE ai_entity_centroid IS 'Entity-level mean embedding, input for related content';
+COMMENT ON TABLE ai_related_content IS 'Precomputed nearest neighbours per entity across all types';
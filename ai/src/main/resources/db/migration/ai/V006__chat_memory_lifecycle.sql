@@ -0,0 +1,72 @@
+-- Chat memory lifecycle
+-- ai_chat_conversation keeps one row per conversation with its message counter, so appends no
+-- longer run MAX(message_index). Messages are range-partitioned by the month the conversation
+-- started: reads and appends prune to one partition, and retention drops whole partitions.
+
+CREATE TABLE IF NOT EXISTS ai_chat_conversation (
+    conversation_id VARCHAR(255) PRIMARY KEY,
+    anonymous BOOLEAN NOT NULL DEFAULT TRUE,  -- Public visitor conversation, subject to the TTL
+    message_count INTEGER NOT NULL DEFAULT 0, -- Next message_index
+    started_on DATE NOT NULL DEFAULT CURRENT_DATE, -- Partition key of the conversation's messages
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_active_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_ai_chat_conversation_expiry ON ai_chat_conversation(anonymous, last_active_at);
+
+-- Existing conversations: whether they were anonymous is unknown, so only retention applies to them
+INSERT INTO ai_chat_conversation (conversation_id, anonymous, message_count, started_on, created_at, last_active_at)
+SELECT conversation_id, FALSE, MAX(message_index) + 1,
+       CAST(MIN(COALESCE(created_at, CURRENT_TIMESTAMP)) AS DATE),
+       MIN(COALESCE(created_at, CURRENT_TIMESTAMP)), MAX(COALESCE(created_at, CURRENT_TIMESTAMP))
+FROM ai_chat_memory
+GROUP BY conversation_id;
+
+ALTER TABLE ai_chat_memory RENAME TO ai_chat_memory_legacy;
+ALTER TABLE ai_chat_memory_legacy RENAME CONSTRAINT ai_chat_memory_pkey TO ai_chat_memory_legacy_pkey;
+DROP INDEX IF EXISTS idx_ai_chat_memory_conv;
+
+CREATE TABLE ai_chat_memory (
+    started_on DATE NOT NULL,
+    conversation_id VARCHAR(255) NOT NULL,
+    message_index INTEGER NOT NULL,
+    message_type VARCHAR(50) NOT NULL,    -- USER, ASSISTANT, SYSTEM
+    content TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Unique constraints on a partitioned table must include the partition key
+    PRIMARY KEY (started_on, conversation_id, message_index)
+) PARTITION BY RANGE (started_on);
+
+-- Monthly partitions are created ahead by the lifecycle job; the default one only catches gaps
+CREATE TABLE ai_chat_memory_default PARTITION OF ai_chat_memory DEFAULT;
+
+DO $$
+DECLARE
+    partition_month DATE;
+BEGIN
+    FOR partition_month IN
+        SELECT CAST(date_trunc('month', started_on) AS DATE) FROM ai_chat_conversation
+        UNION
+        SELECT CAST(date_trunc('month', CURRENT_DATE) + INTERVAL '1 month' * n AS DATE) FROM generate_series(0, 2) n
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF ai_chat_memory FOR VALUES FROM (%L) TO (%L)',
+                       'ai_chat_memory_p' || to_char(partition_month, 'YYYYMM'), partition_month,
+                       CAST(partition_month + INTERVAL '1 month' AS DATE));
+    END LOOP;
+END $$;
+
+INSERT INTO ai_chat_memory (started_on, conversation_id, message_index, message_type, content, created_at)
+SELECT c.started_on, m.conversation_id, m.message_index, m.message_type, m.content, m.created_at
+FROM ai_chat_memory_legacy m
+JOIN ai_chat_conversation c ON c.conversation_id = m.conversation_id;
+
+DROP TABLE ai_chat_memory_legacy;
+
+COMMENT ON TABLE ai_chat_conversation IS 'RAG会话：消息计数器与生命周期';
+COMMENT ON COLUMN ai_chat_conversation.anonymous IS '是否为匿名访客会话（受 TTL 约束）';
+COMMENT ON COLUMN ai_chat_conversation.started_on IS '会话开始日期，即其消息所在分区的分区键';
+COMMENT ON TABLE ai_chat_memory IS 'RAG多轮对话历史存储，按会话开始月份分区';
+COMMENT ON COLUMN ai_chat_memory.conversation_id IS '会话ID';
+COMMENT ON COLUMN ai_chat_memory.message_index IS '消息序号';
+COMMENT ON COLUMN ai_chat_memory.message_type IS '消息类型: USER/ASSISTANT/SYSTEM';
+COMMENT ON COLUMN ai_chat_memory.content IS '消息内容';
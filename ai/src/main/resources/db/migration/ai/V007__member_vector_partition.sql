@@ -0,0 +1,17 @@
+-- Organization members are vectorized as entity type 'member'.
+-- Give the type its own partition in every live collection instead of the default partition;
+-- collections built later copy the partitions of the active one.
+
+DO $$
+DECLARE
+    collection_table TEXT;
+BEGIN
+    FOR collection_table IN
+        SELECT table_name FROM ai_vector_collection WHERE status IN ('ACTIVE', 'BUILDING')
+    LOOP
+        IF to_regclass(collection_table || '_member') IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES IN (''member'')',
+                           collection_table || '_member', collection_table);
+        END IF;
+    END LOOP;
+END $$;
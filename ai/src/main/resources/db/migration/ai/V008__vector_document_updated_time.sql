@@ -0,0 +1,19 @@
+-- Track when a chunk was last re-embedded
+-- Re-vectorizing an entity upserts its chunks in place, which leaves created_time unchanged.
+-- The backfill catch-up of a new collection looks for chunks changed since the build started
+-- and needs a column that the upsert bumps.
+
+DO $$
+DECLARE
+    collection_table TEXT;
+BEGIN
+    FOR collection_table IN
+        SELECT table_name FROM ai_vector_collection WHERE status IN ('ACTIVE', 'BUILDING', 'DRAINING')
+    LOOP
+        IF to_regclass(collection_table) IS NOT NULL THEN
+            -- No default for existing rows, so the column is added without rewriting the embeddings
+            EXECUTE format('ALTER TABLE %I ADD COLUMN IF NOT EXISTS updated_time TIMESTAMP', collection_table);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN updated_time SET DEFAULT CURRENT_TIMESTAMP', collection_table);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,86 @@
+package com.assoc.ai.eval;
+
+import com.assoc.ai.embedding.EmbeddingService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic stub embedding for offline evaluation.
+ *
+ * <p>Projects character unigrams and bigrams into a fixed-size vector with feature hashing
+ * and L2-normalises the result. Texts sharing vocabulary land close to each other, which is
+ * enough to compare index, chunking and fusion settings without calling the embedding API.</p>
+ */
+public class HashingEmbeddingService implements EmbeddingService {
+
+    private final int dimension;
+
+    public HashingEmbeddingService(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Text cannot be null or blank");
+        }
+
+        float[] vector = new float[dimension];
+        String normalized = text.toLowerCase().replaceAll("\\s+", " ");
+        int[] codePoints = normalized.codePoints().toArray();
+        for (int i = 0; i < codePoints.length; i++) {
+            if (Character.isWhitespace(codePoints[i])) {
+                continue;
+            }
+            add(vector, new String(codePoints, i, 1), 1.0f);
+            if (i + 1 < codePoints.length && !Character.isWhitespace(codePoints[i + 1])) {
+                add(vector, new String(codePoints, i, 2), 1.5f);
+            }
+        }
+
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(embed(text));
+        }
+        return embeddings;
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts, String model) {
+        // A single deterministic "model"
+        return embedBatch(texts);
+    }
+
+    private void add(float[] vector, String feature, float weight) {
+        int hash = fnv1a(feature);
+        int bucket = Math.floorMod(hash, dimension);
+        // The sign bit spreads collisions so that they cancel out on average
+        vector[bucket] += (hash >>> 31) == 0 ? weight : -weight;
+    }
+
+    private static int fnv1a(String feature) {
+        int hash = 0x811c9dc5;
+        for (byte b : feature.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+}
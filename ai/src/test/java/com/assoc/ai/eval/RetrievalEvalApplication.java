@@ -0,0 +1,47 @@
+package com.assoc.ai.eval;
+
+import com.assoc.ai.collection.VectorCollectionRouter;
+import com.assoc.ai.config.HybridSearchProperties;
+import com.assoc.ai.metrics.RagMetrics;
+import com.assoc.ai.store.PgVectorStore;
+import com.assoc.ai.util.TextChunker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Minimal context for the retrieval evaluation: only the datasource, JPA and the vector store,
+ * without the LLM client, security or the other business modules.
+ */
+@SpringBootConfiguration
+@ImportAutoConfiguration({
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class,
+        TransactionAutoConfiguration.class,
+        JacksonAutoConfiguration.class
+})
+@EntityScan("com.assoc.ai.entity")
+@EnableJpaRepositories("com.assoc.ai.repository")
+@EnableConfigurationProperties(HybridSearchProperties.class)
+@Import({PgVectorStore.class, VectorCollectionRouter.class, RagMetrics.class, TextChunker.class})
+public class RetrievalEvalApplication {
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,333 @@
+package com.assoc.ai.eval;
+
+import com.assoc.ai.collection.VectorCollectionRouter;
+import com.assoc.ai.config.HybridSearchProperties;
+import com.assoc.ai.dto.SearchResult;
+import com.assoc.ai.dto.VectorChunk;
+import com.assoc.ai.embedding.EmbeddingService;
+import com.assoc.ai.store.VectorStore;
+import com.assoc.ai.util.JsonTextExtractor;
+import com.assoc.ai.util.TextChunker;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Offline retrieval evaluation harness.
+ *
+ * <p>Loads the fixture corpus under {@code eval/} into a local pgvector database using
+ * deterministic {@link HashingEmbeddingService} vectors, then runs
+ * {@link VectorStore#similaritySearch} and {@link VectorStore#hybridSearch} for every entry of
+ * {@code eval/configurations.json}. recall@k, MRR, p50/p95/p99 latency and index size are
+ * written to {@code target/retrieval-eval/report.json}.</p>
+ *
+ * <p>Run with {@code mvn -pl ai -am test -Pretrieval-eval}. The target database is taken from
+ * {@code -Deval.jdbc.url}, {@code -Deval.jdbc.username} and {@code -Deval.jdbc.password}; its
+ * active vector collection table is truncated. Pass {@code -Deval.baseline=<report.json>} to
+ * fail the build when recall or MRR drops below a previous report by more than
+ * {@code -Deval.tolerance} (default 0.02).</p>
+ */
+@Slf4j
+@Tag("retrieval-eval")
+@SpringBootTest(classes = RetrievalEvalApplication.class)
+class RetrievalEvaluationTest {
+
+    private static final int DIMENSION = Integer.getInteger("eval.dimension", 512);
+    private static final int ITERATIONS = Integer.getInteger("eval.iterations", 20);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("eval.tolerance", "0.02"));
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> System.getProperty("eval.jdbc.url", "jdbc:postgresql://localhost:5432/assoc_eval"));
+        registry.add("spring.datasource.username", () -> System.getProperty("eval.jdbc.username", "assoc"));
+        registry.add("spring.datasource.password", () -> System.getProperty("eval.jdbc.password", "assoc"));
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private VectorStore vectorStore;
+
+    @Autowired
+    private TextChunker textChunker;
+
+    @Autowired
+    private VectorCollectionRouter collectionRouter;
+
+    @Autowired
+    private HybridSearchProperties hybridProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final EmbeddingService embeddingService = new HashingEmbeddingService(DIMENSION);
+
+    @Test
+    void evaluate() throws IOException {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .table("ai_flyway_schema_history")
+                .locations("classpath:db/migration/ai")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+
+        List<CorpusEntry> corpus = readFixture("eval/corpus.json", new TypeReference<>() {});
+        List<LabeledQuery> queries = readFixture("eval/queries.json", new TypeReference<>() {});
+        List<EvalConfiguration> configurations = readFixture("eval/configurations.json", new TypeReference<>() {});
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", OffsetDateTime.now().toString());
+        report.put("documents", corpus.size());
+        report.put("queries", queries.size());
+        report.put("iterations", ITERATIONS);
+        List<Map<String, Object>> results = new ArrayList<>();
+        report.put("results", results);
+
+        String ingestedChunking = null;
+        Map<String, Object> indexStats = Map.of();
+        for (EvalConfiguration configuration : configurations) {
+            String chunking = configuration.getChunkSize() + "/" + configuration.getChunkOverlap();
+            if (!chunking.equals(ingestedChunking)) {
+                indexStats = ingest(jdbcTemplate, corpus, configuration);
+                ingestedChunking = chunking;
+            }
+
+            hybridProperties.setVectorWeight(configuration.getVectorWeight());
+            hybridProperties.setTextWeight(configuration.getTextWeight());
+            hybridProperties.setCandidateMultiplier(configuration.getCandidateMultiplier());
+            hybridProperties.setEfSearch(configuration.getEfSearch());
+
+            for (String mode : List.of("vector", "hybrid")) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("configuration", configuration);
+                result.put("mode", mode);
+                result.putAll(indexStats);
+                result.putAll(run(mode, queries, configuration.getTopK()));
+                results.add(result);
+                log.info("Retrieval eval [{} / {}]: {}", configuration.getName(), mode, result);
+            }
+        }
+
+        Path reportPath = Paths.get(System.getProperty("eval.report", "target/retrieval-eval/report.json"));
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(), report);
+        log.info("Retrieval evaluation report written to {}", reportPath.toAbsolutePath());
+
+        String baseline = System.getProperty("eval.baseline");
+        if (baseline != null && !baseline.isBlank()) {
+            compareWithBaseline(Paths.get(baseline), results);
+        }
+    }
+
+    /**
+     * Reload the corpus with the chunking of the given configuration and report the index footprint.
+     */
+    private Map<String, Object> ingest(JdbcTemplate jdbcTemplate, List<CorpusEntry> corpus, EvalConfiguration configuration) {
+        // ai_vector_document is a view; maintenance statements need the active collection table
+        String table = collectionRouter.active().tableName();
+        jdbcTemplate.execute("TRUNCATE " + table);
+        ReflectionTestUtils.setField(textChunker, "chunkSize", configuration.getChunkSize());
+        ReflectionTestUtils.setField(textChunker, "overlap", configuration.getChunkOverlap());
+
+        // Same chunking and extraction steps as VectorizeEventListener, with stub embeddings
+        for (CorpusEntry entry : corpus) {
+            List<VectorChunk> chunks = new ArrayList<>();
+            entry.getFields().forEach((fieldName, content) -> {
+                String text = JsonTextExtractor.extractText(content);
+                if (text.isBlank()) {
+                    return;
+                }
+                for (String chunkContent : textChunker.chunk(text)) {
+                    chunks.add(VectorChunk.builder()
+                            .chunkIndex(chunks.size())
+                            .fieldSource(fieldName)
+                            .content(chunkContent)
+                            .embedding(embeddingService.embed(chunkContent))
+                            .metadata(entry.getMetadata())
+                            .build());
+                }
+            });
+            vectorStore.save(entry.getEntityType(), entry.getEntityId(), chunks);
+        }
+
+        // Rebuild once the data is in place so every partition index is built in bulk, as after a migration
+        jdbcTemplate.execute("REINDEX TABLE " + table);
+        jdbcTemplate.execute("ANALYZE " + table);
+
+        Map<String, Object> stats = jdbcTemplate.queryForMap("""
+                SELECT COUNT(*) AS chunks FROM ai_vector_document
+                """);
+        stats.putAll(jdbcTemplate.queryForMap("""
+                SELECT COALESCE(SUM(pg_total_relation_size(c.oid)), 0) AS total_bytes,
+                       COALESCE(SUM(pg_indexes_size(c.oid)), 0) AS index_bytes
+                FROM pg_class c
+                WHERE c.oid = CAST(? AS regclass)
+                   OR c.oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = CAST(? AS regclass))
+                """, table, table));
+        return new LinkedHashMap<>(stats);
+    }
+
+    private Map<String, Object> run(String mode, List<LabeledQuery> queries, int topK) {
+        // Warm-up pass also provides the ranking used for quality metrics
+        List<List<String>> rankings = new ArrayList<>();
+        for (LabeledQuery query : queries) {
+            rankings.add(rankEntities(search(mode, query, topK)));
+        }
+
+        long[] latencies = new long[queries.size() * ITERATIONS];
+        int n = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (LabeledQuery query : queries) {
+                long start = System.nanoTime();
+                search(mode, query, topK);
+                latencies[n++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+
+        double recallSum = 0;
+        double reciprocalRankSum = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            Set<String> relevant = new LinkedHashSet<>(queries.get(i).getRelevant());
+            List<String> ranking = rankings.get(i);
+            long hits = ranking.stream().filter(relevant::contains).count();
+            recallSum += relevant.isEmpty() ? 0 : (double) hits / relevant.size();
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                if (relevant.contains(ranking.get(rank))) {
+                    reciprocalRankSum += 1.0 / (rank + 1);
+                    break;
+                }
+            }
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("recallAtK", recallSum / queries.size());
+        metrics.put("mrr", reciprocalRankSum / queries.size());
+        metrics.put("p50Ms", percentileMillis(latencies, 0.50));
+        metrics.put("p95Ms", percentileMillis(latencies, 0.95));
+        metrics.put("p99Ms", percentileMillis(latencies, 0.99));
+        return metrics;
+    }
+
+    private List<SearchResult> search(String mode, LabeledQuery query, int topK) {
+        float[] vector = embeddingService.embed(query.getQuery());
+        return "vector".equals(mode)
+                ? vectorStore.similaritySearch(vector, query.getTypes(), topK)
+                : vectorStore.hybridSearch(vector, query.getQuery(), query.getTypes(), topK);
+    }
+
+    /**
+     * Results are chunks; quality is judged on the distinct entities in ranking order.
+     */
+    private static List<String> rankEntities(List<SearchResult> results) {
+        Set<String> entities = new LinkedHashSet<>();
+        for (SearchResult result : results) {
+            entities.add(result.getEntityType() + ":" + result.getEntityId());
+        }
+        return new ArrayList<>(entities);
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000d;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void compareWithBaseline(Path baselinePath, List<Map<String, Object>> results) throws IOException {
+        Map<String, Object> baseline = objectMapper.readValue(baselinePath.toFile(), new TypeReference<>() {});
+        Map<String, Map<String, Object>> expected = new LinkedHashMap<>();
+        for (Map<String, Object> entry : (List<Map<String, Object>>) baseline.get("results")) {
+            Map<String, Object> configuration = (Map<String, Object>) entry.get("configuration");
+            expected.put(configuration.get("name") + "/" + entry.get("mode"), entry);
+        }
+
+        List<String> regressions = new ArrayList<>();
+        for (Map<String, Object> result : results) {
+            String key = ((EvalConfiguration) result.get("configuration")).getName() + "/" + result.get("mode");
+            Map<String, Object> previous = expected.get(key);
+            if (previous == null) {
+                continue;
+            }
+            for (String metric : List.of("recallAtK", "mrr")) {
+                double before = ((Number) previous.get(metric)).doubleValue();
+                double now = ((Number) result.get(metric)).doubleValue();
+                if (now < before - TOLERANCE) {
+                    regressions.add("%s %s: %.4f -> %.4f".formatted(key, metric, before, now));
+                }
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            fail("Retrieval quality regressed against " + baselinePath + ":\n" + String.join("\n", regressions));
+        }
+    }
+
+    private <T> T readFixture(String path, TypeReference<T> type) throws IOException {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+
+    @Data
+    static class CorpusEntry {
+        private String entityType;
+        private Long entityId;
+        private Map<String, Object> metadata;
+        private Map<String, String> fields;
+    }
+
+    @Data
+    static class LabeledQuery {
+        private String query;
+        private List<String> types;
+        private List<String> relevant;
+    }
+
+    @Data
+    static class EvalConfiguration {
+        private String name;
+        private int chunkSize;
+        private int chunkOverlap;
+        private double vectorWeight;
+        private double textWeight;
+        private int candidateMultiplier;
+        private int topK;
+        private int efSearch;
+    }
+}
@@ -0,0 +1,96 @@
+package com.assoc.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FollowUpSuggestionParserTest {
+
+    private static final String ANSWER = "协会成立于2001年[1]，会员超过300家。";
+    private static final String TRAILER = "[建议问题]如何入会？|会费是多少？|有哪些活动？[/建议问题]";
+
+    @Test
+    void markersSplitAtAnyPointAreSwallowed() {
+        String stream = ANSWER + TRAILER;
+        for (int i = 1; i < stream.length(); i++) {
+            for (int j = i; j < stream.length(); j++) {
+                FollowUpSuggestionParser parser = new FollowUpSuggestionParser();
+                String visible = feed(parser, stream.substring(0, i), stream.substring(i, j), stream.substring(j));
+
+                assertThat(visible).as("split at %d/%d", i, j).isEqualTo(ANSWER);
+                assertThat(parser.getSuggestions()).containsExactly("如何入会？", "会费是多少？", "有哪些活动？");
+            }
+        }
+    }
+
+    @Test
+    void tokenByTokenStreamNeverShowsTheMarker() {
+        FollowUpSuggestionParser parser = new FollowUpSuggestionParser();
+        List<String> shown = new ArrayList<>();
+        for (int i = 0; i < (ANSWER + TRAILER).length(); i++) {
+            shown.add(parser.accept(String.valueOf((ANSWER + TRAILER).charAt(i))));
+        }
+        shown.add(parser.finish());
+
+        assertThat(String.join("", shown)).isEqualTo(ANSWER).doesNotContain("[建");
+    }
+
+    @Test
+    void unclosedTrailerIsParsedOnFinish() {
+        FollowUpSuggestionParser parser = new FollowUpSuggestionParser();
+
+        String visible = feed(parser, ANSWER + "[建议问", "题]如何入会？|会费是多少");
+
+        assertThat(visible).isEqualTo(ANSWER);
+        assertThat(parser.getSuggestions()).containsExactly("如何入会？", "会费是多少");
+    }
+
+    @Test
+    void answersWithoutMarkerPassThrough() {
+        FollowUpSuggestionParser parser = new FollowUpSuggestionParser();
+
+        assertThat(parser.accept("见附件")).isEqualTo("见附件");
+        // A partial marker is held back until the stream shows it is plain text
+        assertThat(feed(parser, ANSWER, "[附录]", "末尾是[建议")).isEqualTo(ANSWER + "[附录]末尾是[建议");
+        assertThat(parser.getSuggestions()).isEmpty();
+    }
+
+    @Test
+    void malformedTrailerYieldsOnlyNonBlankSuggestions() {
+        FollowUpSuggestionParser parser = new FollowUpSuggestionParser();
+
+        String visible = feed(parser, ANSWER, "[建议问题]| 如何入会？ ||\n会费是多少？｜有哪些活动？|第四个|第五个[/建议问题]\n");
+
+        assertThat(visible).isEqualTo(ANSWER);
+        assertThat(parser.getSuggestions()).containsExactly("如何入会？", "会费是多少？", "有哪些活动？");
+    }
+
+    @Test
+    void emptyTrailerAndTextAfterTheBlock() {
+        FollowUpSuggestionParser parser = new FollowUpSuggestionParser();
+
+        String visible = feed(parser, ANSWER + "[建议问题][/建议问题]", "补充说明");
+
+        assertThat(visible).isEqualTo(ANSWER + "补充说明");
+        assertThat(parser.getSuggestions()).isEmpty();
+    }
+
+    @Test
+    void completeAnswersAreStripped() {
+        FollowUpSuggestionParser parser = new FollowUpSuggestionParser();
+
+        assertThat(parser.parseComplete(ANSWER + "\n\n" + TRAILER)).isEqualTo(ANSWER);
+        assertThat(parser.getSuggestions()).hasSize(3);
+    }
+
+    private static String feed(FollowUpSuggestionParser parser, String... chunks) {
+        StringBuilder visible = new StringBuilder();
+        for (String chunk : chunks) {
+            visible.append(parser.accept(chunk));
+        }
+        return visible.append(parser.finish()).toString();
+    }
+}
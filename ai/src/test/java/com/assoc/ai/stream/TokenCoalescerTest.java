@@ -0,0 +1,110 @@
+package com.assoc.ai.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenCoalescerTest {
+
+    /** Long enough that no timer fires while a test emits synchronously */
+    private static final Duration LONG_DELAY = Duration.ofSeconds(10);
+
+    private final Scheduler timer = Schedulers.newSingle("coalescer-test");
+    private final Sinks.Many<String> tokens = Sinks.many().unicast().onBackpressureBuffer();
+    private final List<String> frames = new CopyOnWriteArrayList<>();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    @AfterEach
+    void disposeTimer() {
+        timer.dispose();
+    }
+
+    @Test
+    void flushesWhenTheFrameReachesMaxBytes() {
+        subscribe(LONG_DELAY, 6);
+
+        emit("首", "ab", "cd");
+        assertThat(frames).containsExactly("首");
+
+        emit("ef");
+        assertThat(frames).containsExactly("首", "abcdef");
+
+        // Three bytes per CJK character
+        emit("中", "文");
+        assertThat(frames).containsExactly("首", "abcdef", "中文");
+    }
+
+    @Test
+    void flushesBufferedTokensAfterMaxDelay() throws InterruptedException {
+        subscribe(Duration.ofMillis(500), 1024);
+
+        emit("a", "b", "c");
+        assertThat(frames).containsExactly("a");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (frames.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(frames).containsExactly("a", "bc");
+        assertThat(terminated.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void flushesBeforeCompleting() throws InterruptedException {
+        subscribe(LONG_DELAY, 1024);
+
+        emit("a", "b", "c");
+        tokens.tryEmitComplete();
+
+        assertThat(terminated.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(frames).containsExactly("a", "bc");
+        assertThat(error.get()).isNull();
+    }
+
+    @Test
+    void flushesBeforePropagatingAnError() throws InterruptedException {
+        subscribe(LONG_DELAY, 1024);
+        IllegalStateException failure = new IllegalStateException("model failed");
+
+        emit("a", "b", "c");
+        tokens.tryEmitError(failure);
+
+        assertThat(terminated.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(frames).containsExactly("a", "bc");
+        assertThat(error.get()).isSameAs(failure);
+    }
+
+    @Test
+    void zeroDelayPassesTokensThrough() {
+        Flux<String> source = Flux.just("a", "b");
+
+        assertThat(TokenCoalescer.coalesce(source, Duration.ZERO, 1024, timer)).isSameAs(source);
+    }
+
+    private void subscribe(Duration maxDelay, int maxBytes) {
+        TokenCoalescer.coalesce(tokens.asFlux(), maxDelay, maxBytes, timer)
+                .subscribe(frames::add, e -> {
+                    error.set(e);
+                    terminated.countDown();
+                }, terminated::countDown);
+    }
+
+    private void emit(String... values) {
+        for (String value : values) {
+            tokens.tryEmitNext(value).orThrow();
+        }
+    }
+}
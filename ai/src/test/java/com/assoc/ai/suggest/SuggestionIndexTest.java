@@ -0,0 +1,131 @@
+package com.assoc.ai.suggest;
+
+import com.assoc.ai.dto.SearchSuggestion;
+import com.assoc.ai.repository.VectorDocumentRepository;
+import com.assoc.common.event.VectorizeEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SuggestionIndexTest {
+
+    @Test
+    void splitsEdgesWhereKeysDiverge() {
+        SuggestionIndex index = index("waterfall", "water", "wave", "watt", "smart water");
+
+        assertThat(labels(index.lookup("wa", 10))).containsExactly("waterfall", "water", "wave", "watt");
+        assertThat(labels(index.lookup("wat", 10))).containsExactly("waterfall", "water", "watt");
+        assertThat(labels(index.lookup("water", 10))).containsExactly("waterfall", "water");
+        assertThat(labels(index.lookup("waterf", 10))).containsExactly("waterfall");
+        assertThat(labels(index.lookup("smartw", 10))).containsExactly("smart water");
+        assertThat(index.lookup("waterfalls", 10)).isEmpty();
+        assertThat(index.lookup("wx", 10)).isEmpty();
+        assertThat(index.lookup("", 10)).isEmpty();
+    }
+
+    @Test
+    void findsChineseLabelsByPinyinInitials() {
+        SuggestionIndex index = index("智慧水务", "智能水表", "水务协会2024年会");
+
+        assertThat(labels(index.lookup("z", 10))).containsExactly("智慧水务", "智能水表");
+        assertThat(labels(index.lookup("zn", 10))).containsExactly("智能水表");
+        assertThat(labels(index.lookup("zhsw", 10))).containsExactly("智慧水务");
+        assertThat(labels(index.lookup("智慧", 10))).containsExactly("智慧水务");
+        assertThat(labels(index.lookup("swxh2024", 10))).containsExactly("水务协会2024年会");
+    }
+
+    @Test
+    void agreesWithABruteForcePrefixScan() {
+        Random random = new Random(42);
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            // A small alphabet forces long shared prefixes and many splits
+            StringBuilder label = new StringBuilder();
+            int length = 1 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                label.append("abc水务".charAt(random.nextInt(5)));
+            }
+            labels.add(label.toString());
+        }
+        int topK = 10;
+        List<Suggestion> ranked = ranked(labels.toArray(String[]::new));
+        SuggestionIndex index = SuggestionIndex.build(ranked, topK);
+
+        List<String> prefixes = new ArrayList<>(List.of("a", "sw", "ssw", "水", "水务", "zz"));
+        for (int i = 0; i < 300; i++) {
+            String label = labels.get(random.nextInt(labels.size()));
+            prefixes.add(label.substring(0, 1 + random.nextInt(label.length())));
+        }
+        for (String prefix : prefixes) {
+            for (int limit : new int[]{1, 3, topK}) {
+                assertThat(index.lookup(prefix, limit))
+                        .as("%s limit %d", prefix, limit)
+                        .isEqualTo(bruteForce(ranked, prefix, limit));
+            }
+        }
+    }
+
+    @Test
+    void serviceFiltersByTypeAndCapsTheLimit() {
+        SuggestionService service = new SuggestionService(mock(VectorDocumentRepository.class));
+        ReflectionTestUtils.setField(service, "suggestionLimit", 3);
+        service.onVectorizeEvent(upsert("news", 1L, "水务新闻一"));
+        service.onVectorizeEvent(upsert("news", 2L, "水务新闻第二篇"));
+        service.onVectorizeEvent(upsert("expert", 3L, "水务专家"));
+        service.onVectorizeEvent(upsert("project", 4L, "水务工程项目"));
+        service.onVectorizeEvent(upsert("project", 5L, "智慧水务"));
+        service.refreshIfDirty();
+
+        assertThat(ids(service.suggest("水务", List.of("news"), null))).containsExactly(1L, 2L);
+        assertThat(ids(service.suggest("sw", List.of("expert", "project"), null))).containsExactly(3L, 4L);
+        assertThat(ids(service.suggest("水务", null, 100))).hasSize(3);
+        assertThat(ids(service.suggest("水务", null, 1))).containsExactly(3L);
+        assertThat(service.suggest("水务", List.of("member"), null)).isEmpty();
+    }
+
+    private static SuggestionIndex index(String... labels) {
+        return SuggestionIndex.build(ranked(labels), 10);
+    }
+
+    /** Rank is the position in the argument list */
+    private static List<Suggestion> ranked(String... labels) {
+        List<Suggestion> ranked = new ArrayList<>(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            ranked.add(new Suggestion("news", (long) i, labels[i], SuggestionKeys.keysOf(labels[i]), i));
+        }
+        return ranked;
+    }
+
+    private static List<Suggestion> bruteForce(List<Suggestion> ranked, String prefix, int limit) {
+        return ranked.stream()
+                .filter(s -> s.keys().stream().anyMatch(key -> key.startsWith(prefix)))
+                .sorted(Comparator.comparingInt(Suggestion::rank))
+                .limit(limit)
+                .toList();
+    }
+
+    private static List<String> labels(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::label).toList();
+    }
+
+    private static List<Long> ids(List<SearchSuggestion> suggestions) {
+        return suggestions.stream().map(SearchSuggestion::getEntityId).toList();
+    }
+
+    private static VectorizeEvent upsert(String type, Long id, String title) {
+        return VectorizeEvent.builder()
+                .entityType(type)
+                .entityId(id)
+                .action(VectorizeEvent.EventAction.UPSERT)
+                .metadata(Map.of("title", title))
+                .build();
+    }
+}
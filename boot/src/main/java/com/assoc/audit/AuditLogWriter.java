@@ -0,0 +1,456 @@
+package com.assoc.audit;
+
+import com.assoc.common.audit.AuditContext;
+import com.assoc.config.AuditProperties;
+import com.assoc.iam.service.AuditLogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes audit events to the database in groups instead of one transaction per event.
+ *
+ * <p>Requests only append to a lock-free {@link AuditRingBuffer}; a single writer thread drains it
+ * and inserts a batch when {@code batch-size} events are waiting or the oldest has waited
+ * {@code flush-interval}. A full buffer is handled by the configured
+ * {@link AuditProperties.OverflowPolicy}, and never fails the request that produced the event.</p>
+ *
+ * <p>Under the SPILL policy, events that cannot be kept in memory or written (a full buffer,
+ * a failed batch, what is left when shutdown times out) are appended to a spill file as JSON
+ * lines; the other policies count them as dropped. The writer replays the spill file on start
+ * and every 30 seconds while idle, moving it aside first so new spills go to a fresh file.
+ * Events the database rejects for their data are dropped one by one, never spilled, so that they
+ * cannot hold up the rest of their batch or the replay.</p>
+ *
+ * <p>Metrics: {@code audit.buffer.depth}, {@code audit.batch.size}, {@code audit.write.latency},
+ * {@code audit.events.written}, {@code audit.events.spilled} and {@code audit.events.dropped}
+ * (by reason, {@code rejected} for events the database refused).</p>
+ */
+@Slf4j
+@Component
+public class AuditLogWriter implements SmartLifecycle {
+
+    /** Stop after the web server, so events of the last requests are still taken */
+    private static final int PHASE = Integer.MAX_VALUE - 4096;
+    private static final String SPILL_FILE = "audit-spill.ndjson";
+    private static final String REPLAY_FILE = "audit-spill.replaying.ndjson";
+    /** Lines of the replay file already written, so that a resumed replay writes each event once */
+    private static final String REPLAY_OFFSET_FILE = "audit-spill.replaying.offset";
+    private static final long REPLAY_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final AuditLogService auditLogService;
+    private final AuditProperties.Writer properties;
+    private final ObjectMapper objectMapper;
+    private final AuditRingBuffer<AuditContext> buffer;
+    private final Path spillDir;
+    private final Object spillLock = new Object();
+
+    private volatile boolean running;
+    /** Events submitted before start are buffered and written once the writer runs */
+    private volatile boolean accepting = true;
+    private volatile Thread thread;
+    /** Events the writer has taken into its current batch, so that a full batch wakes it */
+    private volatile int pending;
+    /** Only touched by the writer thread */
+    private long lastReplayAttempt;
+    private long replayedLines;
+    private boolean lastWriteFailed;
+
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary batchSize;
+    private final Timer writeLatency;
+    private final Counter written;
+    private final Counter spilled;
+
+    public AuditLogWriter(AuditLogService auditLogService,
+                          AuditProperties auditProperties,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
+        this.auditLogService = auditLogService;
+        this.properties = auditProperties.getWriter();
+        this.objectMapper = objectMapper;
+        this.buffer = new AuditRingBuffer<>(properties.getBufferSize());
+        this.spillDir = Paths.get(properties.getSpillDir());
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("audit.buffer.depth", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("audit.batch.size")
+                .description("Audit events per INSERT batch")
+                .register(meterRegistry);
+        this.writeLatency = Timer.builder("audit.write.latency")
+                .description("Time to write one batch of audit events")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.written = Counter.builder("audit.events.written")
+                .description("Audit events written to the database")
+                .register(meterRegistry);
+        this.spilled = Counter.builder("audit.events.spilled")
+                .description("Audit events appended to the spill file")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an event for writing. Never throws; events that cannot be kept are counted as dropped.
+     */
+    public void submit(AuditContext context) {
+        if (!accepting) {
+            overflow(List.of(context), "shutdown");
+            return;
+        }
+        if (buffer.offer(context)) {
+            if (buffer.size() + pending >= properties.getBatchSize()) {
+                wakeUp();
+            }
+            return;
+        }
+        switch (properties.getOverflowPolicy()) {
+            case BLOCK -> {
+                wakeUp();
+                long deadline = System.nanoTime() + properties.getBlockTimeout().toNanos();
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    if (buffer.offer(context)) {
+                        return;
+                    }
+                }
+                dropped("timeout", 1);
+            }
+            case SPILL -> overflow(List.of(context), "full");
+            case DROP -> dropped("full", 1);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        accepting = true;
+        Thread writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        thread = writer;
+        writer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        accepting = false;
+        running = false;
+        Thread writer = thread;
+        thread = null;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            // The writer hands what it could not write to the overflow policy when interrupted
+            log.warn("Audit writer did not drain within {}, {} events still buffered",
+                    properties.getShutdownTimeout(), buffer.size());
+            writer.interrupt();
+            return;
+        }
+        // Events offered while the writer finished; it is gone, so draining here is safe
+        List<AuditContext> remaining = new ArrayList<>();
+        buffer.drainTo(remaining, Integer.MAX_VALUE);
+        if (!remaining.isEmpty()) {
+            overflow(remaining, "shutdown");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void run() {
+        int max = properties.getBatchSize();
+        long flushNanos = properties.getFlushInterval().toNanos();
+        List<AuditContext> batch = new ArrayList<>(max);
+        long oldest = 0;
+        replaySpill();
+        while (running) {
+            boolean wasEmpty = batch.isEmpty();
+            buffer.drainTo(batch, max - batch.size());
+            pending = batch.size();
+            long now = System.nanoTime();
+            if (wasEmpty && !batch.isEmpty()) {
+                oldest = now;
+            }
+            if (batch.size() >= max || (!batch.isEmpty() && now - oldest >= flushNanos)) {
+                write(batch);
+                batch.clear();
+                pending = 0;
+            } else if (batch.isEmpty()) {
+                if (now - lastReplayAttempt >= REPLAY_INTERVAL_NANOS) {
+                    replaySpill();
+                }
+                LockSupport.parkNanos(this, flushNanos);
+            } else {
+                LockSupport.parkNanos(this, flushNanos - (now - oldest));
+            }
+        }
+        // Shutdown: write everything that is left, in full batches
+        do {
+            buffer.drainTo(batch, max - batch.size());
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        } while (buffer.size() > 0 && !Thread.currentThread().isInterrupted());
+        buffer.drainTo(batch, Integer.MAX_VALUE);
+        if (!batch.isEmpty()) {
+            overflow(batch, "shutdown");
+        }
+    }
+
+    private void wakeUp() {
+        Thread writer = thread;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void write(List<AuditContext> batch) {
+        int handled = tryWrite(batch);
+        if (handled < batch.size()) {
+            overflow(batch.subList(handled, batch.size()), "write_failed");
+        }
+    }
+
+    /**
+     * Write a batch. When the database rejects it for its data, the events are written one by
+     * one so that only the rejected ones are dropped.
+     *
+     * @return how many events from the start of the batch were written or dropped as rejected;
+     *         fewer than the batch size when the database failed
+     */
+    private int tryWrite(List<AuditContext> batch) {
+        long start = System.nanoTime();
+        try {
+            auditLogService.recordAll(batch);
+        } catch (DataIntegrityViolationException ex) {
+            return writeEach(batch);
+        } catch (Exception ex) {
+            failed(batch.size(), ex);
+            return 0;
+        }
+        recovered();
+        writeLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.size());
+        written.increment(batch.size());
+        return batch.size();
+    }
+
+    private int writeEach(List<AuditContext> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                auditLogService.recordAll(List.of(batch.get(i)));
+                written.increment();
+            } catch (DataIntegrityViolationException ex) {
+                log.warn("Dropping audit event rejected by the database: {}", ex.getMessage());
+                dropped("rejected", 1);
+            } catch (Exception ex) {
+                failed(batch.size() - i, ex);
+                return i;
+            }
+        }
+        recovered();
+        batchSize.record(batch.size());
+        return batch.size();
+    }
+
+    private void failed(int count, Exception ex) {
+        if (!lastWriteFailed) {
+            log.warn("Failed to write {} audit events: {}", count, ex.getMessage(), ex);
+        }
+        lastWriteFailed = true;
+    }
+
+    private void recovered() {
+        if (lastWriteFailed) {
+            log.info("Audit log writes recovered");
+            lastWriteFailed = false;
+        }
+    }
+
+    /**
+     * Spill events that cannot be written now under the SPILL policy; otherwise, or when
+     * spilling fails, count them as dropped.
+     */
+    private void overflow(List<AuditContext> events, String reason) {
+        if (properties.getOverflowPolicy() != AuditProperties.OverflowPolicy.SPILL) {
+            dropped(reason, events.size());
+        } else if (!spill(events)) {
+            dropped("spill_failed", events.size());
+        }
+    }
+
+    /**
+     * Append events to the spill file.
+     */
+    private boolean spill(List<AuditContext> events) {
+        try {
+            synchronized (spillLock) {
+                Files.createDirectories(spillDir);
+                try (BufferedWriter writer = Files.newBufferedWriter(spillDir.resolve(SPILL_FILE),
+                        StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (AuditContext event : events) {
+                        writer.write(objectMapper.writeValueAsString(event));
+                        writer.newLine();
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Failed to spill {} audit events to {}: {}", events.size(), spillDir, ex.getMessage());
+            return false;
+        }
+        spilled.increment(events.size());
+        return true;
+    }
+
+    private void dropped(String reason, int count) {
+        meterRegistry.counter("audit.events.dropped", "reason", reason).increment(count);
+    }
+
+    /**
+     * Write the spilled events back in batches. Runs on the writer thread only. When a batch
+     * fails, the replay file is kept together with the number of lines already written, and the
+     * next attempt resumes after them; the offset is also persisted so that a restart does not
+     * write the replayed part again.
+     */
+    private void replaySpill() {
+        lastReplayAttempt = System.nanoTime();
+        Path spill = spillDir.resolve(SPILL_FILE);
+        Path replay = spillDir.resolve(REPLAY_FILE);
+        Path offset = spillDir.resolve(REPLAY_OFFSET_FILE);
+        try {
+            synchronized (spillLock) {
+                // An unfinished replay file is finished before the spill file is taken
+                if (Files.notExists(replay)) {
+                    if (Files.notExists(spill)) {
+                        return;
+                    }
+                    Files.deleteIfExists(offset);
+                    replayedLines = 0;
+                    Files.move(spill, replay, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            long done = Math.max(replayedLines, readOffset(offset));
+            long replayed = 0;
+            try (BufferedReader reader = Files.newBufferedReader(replay, StandardCharsets.UTF_8)) {
+                List<AuditContext> batch = new ArrayList<>(properties.getBatchSize());
+                // Line of each event in the batch, to resume right after the last one handled
+                List<Long> batchLines = new ArrayList<>(properties.getBatchSize());
+                long lineNumber = 0;
+                String line;
+                while (true) {
+                    line = reader.readLine();
+                    if (line != null && ++lineNumber <= done) {
+                        continue;
+                    }
+                    if (line != null && !line.isBlank()) {
+                        AuditContext event = readSpilled(line);
+                        if (event != null) {
+                            batch.add(event);
+                            batchLines.add(lineNumber);
+                        }
+                    }
+                    boolean end = line == null;
+                    if (batch.size() >= properties.getBatchSize() || (end && !batch.isEmpty())) {
+                        int handled = tryWrite(batch);
+                        if (handled < batch.size()) {
+                            if (handled > 0) {
+                                done = batchLines.get(handled - 1);
+                                replayedLines = done;
+                                writeOffset(offset, done);
+                            }
+                            log.warn("Audit replay paused after {} lines of {}; resuming later", done, replay);
+                            return;
+                        }
+                        replayed += batch.size();
+                        batch.clear();
+                        batchLines.clear();
+                        done = lineNumber;
+                        replayedLines = done;
+                        writeOffset(offset, done);
+                    }
+                    if (end) {
+                        break;
+                    }
+                }
+            }
+            synchronized (spillLock) {
+                Files.delete(replay);
+                Files.deleteIfExists(offset);
+            }
+            replayedLines = 0;
+            if (replayed > 0) {
+                log.info("Replayed {} spilled audit events", replayed);
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to replay spilled audit events from {}: {}", replay, ex.getMessage());
+        }
+    }
+
+    private static long readOffset(Path offset) {
+        try {
+            return Files.exists(offset) ? Long.parseLong(Files.readString(offset).trim()) : 0;
+        } catch (IOException | NumberFormatException ex) {
+            log.warn("Ignoring unreadable audit replay offset {}: {}", offset, ex.getMessage());
+            return 0;
+        }
+    }
+
+    private static void writeOffset(Path offset, long lines) {
+        try {
+            Files.writeString(offset, Long.toString(lines));
+        } catch (IOException ex) {
+            // The in-memory offset still covers retries; only a restart would replay these lines again
+            log.warn("Failed to record audit replay offset {}: {}", offset, ex.getMessage());
+        }
+    }
+
+    private AuditContext readSpilled(String line) {
+        try {
+            return objectMapper.readValue(line, AuditContext.class);
+        } catch (IOException ex) {
+            log.warn("Skipping unreadable spilled audit event: {}", ex.getMessage());
+            dropped("unreadable", 1);
+            return null;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.assoc.audit;
 
 import com.assoc.config.AuditProperties;
-import com.assoc.iam.service.AuditLogService;
+import com.assoc.iam.service.AuditLogPartitionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -14,11 +16,21 @@ import java.time.OffsetDateTime;
 @RequiredArgsConstructor
 public class AuditRetentionScheduler {
 
-    private final AuditLogService auditLogService;
+    private final AuditLogPartitionService auditLogPartitionService;
     private final AuditProperties auditProperties;
 
+    /**
+     * Make sure the current month's partition exists before the first audit events arrive.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPartitionsOnStartup() {
+        createPartitions();
+    }
+
     @Scheduled(cron = "${audit.retention-cron:0 30 3 * * *}")
     public void purgeExpired() {
+        createPartitions();
+
         int retentionDays = auditProperties.getRetentionDays();
         if (retentionDays <= 0) {
             log.debug("Audit retention disabled via configuration");
@@ -27,12 +39,20 @@ public class AuditRetentionScheduler {
 
         OffsetDateTime cutoff = OffsetDateTime.now().minusDays(retentionDays);
         try {
-            long deleted = auditLogService.deleteOlderThan(cutoff);
-            if (deleted > 0) {
-                log.info("Audit retention cleaned {} records before {}", deleted, cutoff);
+            int dropped = auditLogPartitionService.dropPartitionsBefore(cutoff);
+            if (dropped > 0) {
+                log.info("Audit retention dropped {} partitions before {}", dropped, cutoff);
             }
         } catch (Exception ex) {
             log.warn("Audit retention failed: {}", ex.getMessage());
         }
     }
+
+    private void createPartitions() {
+        try {
+            auditLogPartitionService.createPartitions(auditProperties.getPartitionMonthsAhead());
+        } catch (Exception ex) {
+            log.warn("Failed to create audit log partitions: {}", ex.getMessage());
+        }
+    }
 }
@@ -0,0 +1,99 @@
+package com.assoc.audit;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * <p>Every slot carries a sequence number telling whose turn it is: a producer may fill slot
+ * {@code p & mask} when its sequence equals the claimed position {@code p}, and publishes the
+ * element by setting it to {@code p + 1}; the consumer takes it at that value and hands the slot
+ * to the next lap with {@code p + capacity}. Producers claim positions with a CAS on the tail and
+ * never wait for each other beyond that; a full buffer makes {@link #offer} return {@code false}.</p>
+ */
+final class AuditRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    /** Only advanced by the consumer; volatile for {@link #size()} */
+    private volatile long head;
+
+    AuditRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid audit buffer capacity: " + requestedCapacity);
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Elements waiting; a snapshot that may be off by the offers in flight.
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * Append an element; {@code false} when the buffer is full. Safe from any thread.
+     */
+    boolean offer(T element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds the element of the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Move up to {@code max} elements into {@code sink}, oldest first. Only called by the consumer.
+     *
+     * @return the number of elements moved
+     */
+    int drainTo(Collection<? super T> sink, int max) {
+        long position = head;
+        int moved = 0;
+        while (moved < max) {
+            int index = (int) (position & mask);
+            // A claimed slot whose element is not yet published ends the drain as well
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            T element = slots.get(index);
+            slots.set(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            sink.add(element);
+            moved++;
+        }
+        head = position;
+        return moved;
+    }
+}
@@ -0,0 +1,43 @@
+package com.assoc.boot.config;
+
+import com.assoc.common.filter.TraceIdFilter;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.slf4j.MDC;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Attaches the request {@code traceId} (see {@link TraceIdFilter}) as exemplar to histogram
+ * buckets exposed on {@code /actuator/prometheus}.
+ *
+ * <p>There is no span model in this application, so the trace id doubles as span id.
+ * Exemplars are only rendered when the scraper asks for the OpenMetrics format.</p>
+ */
+@Configuration
+public class PrometheusExemplarConfig {
+
+    @Bean
+    public SpanContext mdcTraceIdSpanContext() {
+        return new SpanContext() {
+            @Override
+            public String getCurrentTraceId() {
+                return MDC.get(TraceIdFilter.TRACE_ID_KEY);
+            }
+
+            @Override
+            public String getCurrentSpanId() {
+                return MDC.get(TraceIdFilter.TRACE_ID_KEY);
+            }
+
+            @Override
+            public boolean isCurrentSpanSampled() {
+                return MDC.get(TraceIdFilter.TRACE_ID_KEY) != null;
+            }
+
+            @Override
+            public void markCurrentSpanAsExemplar() {
+                // Nothing to mark: trace ids are not sampled downstream
+            }
+        };
+    }
+}
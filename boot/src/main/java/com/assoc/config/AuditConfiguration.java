@@ -6,8 +6,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 @RequiredArgsConstructor
@@ -24,16 +22,4 @@ public class AuditConfiguration {
                 auditProperties.getParameterMaxLength()
         );
     }
-
-    @Bean(name = "auditEventExecutor")
-    public TaskExecutor auditEventExecutor() {
-        AuditProperties.Async async = auditProperties.getAsync();
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setThreadNamePrefix("audit-");
-        executor.setCorePoolSize(async.getCorePoolSize());
-        executor.setMaxPoolSize(async.getMaxPoolSize());
-        executor.setQueueCapacity(async.getQueueCapacity());
-        executor.initialize();
-        return executor;
-    }
 }
@@ -3,6 +3,7 @@ package com.assoc.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,6 +27,7 @@ public class AuditProperties {
 
     /**
      * How many days to retain audit data. Set to 0 or negative to disable purging.
+     * Data goes by whole monthly partitions, once the entire month is past the retention.
      */
     private int retentionDays = 180;
 
@@ -34,12 +36,58 @@ public class AuditProperties {
      */
     private String retentionCron = "0 30 3 * * *";
 
-    private Async async = new Async();
+    /**
+     * Monthly partitions of the audit log created ahead of the current month.
+     */
+    private int partitionMonthsAhead = 2;
+
+    private Writer writer = new Writer();
+
+    /**
+     * What to do with an audit event when the writer's buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait up to {@code block-timeout} for room, then drop */
+        BLOCK,
+        /** Append to the spill file, replayed once the database keeps up again */
+        SPILL,
+        /** Drop at once */
+        DROP
+    }
 
     @Data
-    public static class Async {
-        private int corePoolSize = 2;
-        private int maxPoolSize = 4;
-        private int queueCapacity = 500;
+    public static class Writer {
+
+        /**
+         * Events buffered in memory, rounded up to a power of two.
+         */
+        private int bufferSize = 4096;
+
+        /**
+         * Events written per INSERT batch; a full batch is written at once.
+         */
+        private int batchSize = 200;
+
+        /**
+         * Longest time an event waits for its batch to fill.
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        /**
+         * How long a request may wait for buffer room under the BLOCK policy.
+         */
+        private Duration blockTimeout = Duration.ofMillis(50);
+
+        /**
+         * Directory of the spill file used by the SPILL policy.
+         */
+        private String spillDir = System.getProperty("java.io.tmpdir") + "/audit-spill";
+
+        /**
+         * How long shutdown waits for the buffer to drain; the rest goes to the overflow policy.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
     }
 }
@@ -0,0 +1,246 @@
+package com.assoc.audit;
+
+import com.assoc.common.audit.AuditContext;
+import com.assoc.config.AuditProperties;
+import com.assoc.iam.service.AuditLogService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class AuditLogWriterTest {
+
+    @TempDir
+    Path spillDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuditLogService auditLogService = mock(AuditLogService.class);
+    /** Remarks of the events written, in order; the writer reuses its batch list */
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private final AuditProperties properties = new AuditProperties();
+    private AuditLogWriter writer;
+
+    @AfterEach
+    void stopWriter() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void writesAFullBatchAtOnce() {
+        properties.getWriter().setBatchSize(3);
+        properties.getWriter().setFlushInterval(Duration.ofSeconds(30));
+        recordInto(written);
+        writer = start();
+
+        submit("e0", "e1");
+        sleep(100);
+        assertThat(written).isEmpty();
+
+        submit("e2");
+        awaitSize(written, 3);
+        assertThat(written).containsExactly("e0", "e1", "e2");
+    }
+
+    @Test
+    void writesAPartialBatchAfterTheFlushInterval() {
+        properties.getWriter().setBatchSize(100);
+        properties.getWriter().setFlushInterval(Duration.ofMillis(100));
+        recordInto(written);
+        writer = start();
+
+        long start = System.nanoTime();
+        submit("e0", "e1");
+        awaitSize(written, 2);
+
+        assertThat(written).containsExactly("e0", "e1");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(90));
+    }
+
+    @Test
+    void rejectedEventIsDroppedAloneAndNotSpilled() {
+        properties.getWriter().setOverflowPolicy(AuditProperties.OverflowPolicy.SPILL);
+        doAnswer(invocation -> {
+            List<AuditContext> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(event -> event.getRemark().equals("bad"))) {
+                throw new DataIntegrityViolationException("value too long for type character varying(255)");
+            }
+            batch.forEach(event -> written.add(event.getRemark()));
+            return null;
+        }).when(auditLogService).recordAll(anyList());
+        writer = writer();
+
+        ReflectionTestUtils.invokeMethod(writer, "write", events("e0", "bad", "e2"));
+
+        assertThat(written).containsExactly("e0", "e2");
+        assertThat(meterRegistry.counter("audit.events.dropped", "reason", "rejected").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("audit.events.written").count()).isEqualTo(2);
+        assertThat(spillDir.resolve("audit-spill.ndjson")).doesNotExist();
+    }
+
+    @Test
+    void replayResumesAfterAFailedBatchWithoutRewriting() throws IOException {
+        properties.getWriter().setOverflowPolicy(AuditProperties.OverflowPolicy.SPILL);
+        properties.getWriter().setBatchSize(2);
+        writeSpill("e0", "e1", "e2", "e3", "e4");
+        AtomicBoolean databaseDown = new AtomicBoolean(false);
+        doAnswer(invocation -> {
+            List<AuditContext> batch = invocation.getArgument(0);
+            List<String> remarks = batch.stream().map(AuditContext::getRemark).toList();
+            if (remarks.contains("e2") && databaseDown.compareAndSet(false, true)) {
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            // e3 can never be written
+            if (remarks.contains("e3")) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            written.addAll(remarks);
+            return null;
+        }).when(auditLogService).recordAll(anyList());
+
+        writer = writer();
+        ReflectionTestUtils.invokeMethod(writer, "replaySpill");
+        assertThat(written).containsExactly("e0", "e1");
+        assertThat(spillDir.resolve("audit-spill.replaying.offset")).hasContent("2");
+
+        // A restarted writer resumes from the recorded offset and skips the rejected event
+        writer = writer();
+        ReflectionTestUtils.invokeMethod(writer, "replaySpill");
+        assertThat(written).containsExactly("e0", "e1", "e2", "e4");
+        assertThat(meterRegistry.counter("audit.events.dropped", "reason", "rejected").count()).isEqualTo(1);
+        assertThat(spillDir.resolve("audit-spill.replaying.ndjson")).doesNotExist();
+        assertThat(spillDir.resolve("audit-spill.replaying.offset")).doesNotExist();
+    }
+
+    @Test
+    void stopHandsWhatCouldNotBeWrittenToTheOverflowPolicy() throws IOException {
+        properties.getWriter().setOverflowPolicy(AuditProperties.OverflowPolicy.SPILL);
+        properties.getWriter().setBatchSize(2);
+        properties.getWriter().setFlushInterval(Duration.ofMillis(10));
+        properties.getWriter().setShutdownTimeout(Duration.ofMillis(100));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessResourceFailureException("interrupted", e);
+            }
+            return null;
+        }).when(auditLogService).recordAll(anyList());
+        writer = start();
+
+        submit("e0", "e1", "e2", "e3", "e4");
+        awaitLatch(entered);
+        writer.stop();
+
+        Path spill = spillDir.resolve("audit-spill.ndjson");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (spilledLines(spill) < 5 && System.nanoTime() < deadline) {
+            sleep(10);
+        }
+        List<String> spilled = new ArrayList<>();
+        for (String line : Files.readAllLines(spill)) {
+            spilled.add(objectMapper.readValue(line, AuditContext.class).getRemark());
+        }
+        assertThat(spilled).containsExactlyInAnyOrder("e0", "e1", "e2", "e3", "e4");
+        release.countDown();
+    }
+
+    private AuditLogWriter writer() {
+        properties.getWriter().setSpillDir(spillDir.toString());
+        return new AuditLogWriter(auditLogService, properties, objectMapper, meterRegistry);
+    }
+
+    private AuditLogWriter start() {
+        AuditLogWriter started = writer();
+        started.start();
+        return started;
+    }
+
+    private void recordInto(List<String> sink) {
+        doAnswer(invocation -> {
+            List<AuditContext> batch = invocation.getArgument(0);
+            batch.forEach(event -> sink.add(event.getRemark()));
+            return null;
+        }).when(auditLogService).recordAll(anyList());
+    }
+
+    private void submit(String... remarks) {
+        events(remarks).forEach(writer::submit);
+    }
+
+    private void writeSpill(String... remarks) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (AuditContext event : events(remarks)) {
+            lines.add(objectMapper.writeValueAsString(event));
+        }
+        Files.write(spillDir.resolve("audit-spill.ndjson"), lines);
+    }
+
+    private static List<AuditContext> events(String... remarks) {
+        List<AuditContext> events = new ArrayList<>();
+        for (String remark : remarks) {
+            events.add(AuditContext.builder().action("LOGIN").remark(remark).occurredAt(OffsetDateTime.now()).build());
+        }
+        return events;
+    }
+
+    private static long spilledLines(Path spill) {
+        try {
+            return Files.exists(spill) ? Files.readAllLines(spill).size() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void awaitSize(List<?> list, int size) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (list.size() < size && System.nanoTime() < deadline) {
+            sleep(10);
+        }
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
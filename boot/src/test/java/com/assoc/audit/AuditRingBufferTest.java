@@ -0,0 +1,118 @@
+package com.assoc.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditRingBufferTest {
+
+    @Test
+    void offerFailsExactlyAtCapacity() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(5);
+        assertThat(buffer.capacity()).isEqualTo(8);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(8)).isFalse();
+        assertThat(buffer.size()).isEqualTo(8);
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 1)).isEqualTo(1);
+        assertThat(buffer.offer(8)).isTrue();
+        assertThat(buffer.offer(9)).isFalse();
+    }
+
+    @Test
+    void keepsOrderAcrossManyLaps() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        for (int lap = 0; lap < 1_000; lap++) {
+            // Uneven fills and drains move the head and tail through every slot offset
+            int fill = Math.min(1 + lap % 4, buffer.capacity() - buffer.size());
+            for (int i = 0; i < fill; i++) {
+                assertThat(buffer.offer(next++)).isTrue();
+            }
+            buffer.drainTo(drained, 1 + lap % 3);
+        }
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+
+        assertThat(buffer.size()).isZero();
+        assertThat(drained).hasSize(next);
+        for (int i = 0; i < next; i++) {
+            assertThat(drained.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void concurrentProducersLoseAndDuplicateNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 25_000;
+        AuditRingBuffer<Long> buffer = new AuditRingBuffer<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        if (Thread.interrupted()) {
+                            return null;
+                        }
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        int total = producers * perProducer;
+        List<Long> drained = new ArrayList<>(total);
+        try {
+            start.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (drained.size() < total && System.nanoTime() < deadline) {
+                if (buffer.drainTo(drained, 64) == 0) {
+                    Thread.yield();
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(drained).hasSize(total);
+        boolean[] seen = new boolean[total];
+        long[] lastOfProducer = new long[producers];
+        Arrays.fill(lastOfProducer, -1);
+        for (long value : drained) {
+            assertThat(seen[(int) value]).as("duplicate %d", value).isFalse();
+            seen[(int) value] = true;
+            // Each producer's elements come out in the order it offered them
+            int producer = (int) (value / perProducer);
+            assertThat(value).isGreaterThan(lastOfProducer[producer]);
+            lastOfProducer[producer] = value;
+        }
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidCapacity() {
+        assertThatThrownBy(() -> new AuditRingBuffer<>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -9,19 +9,16 @@ import com.assoc.cms.entity.ExpertiseField;
 import com.assoc.cms.repository.ExpertRepository;
 import com.assoc.cms.repository.ExpertiseFieldRepository;
 import com.assoc.cms.service.ExpertService;
-import com.assoc.common.event.VectorizeEvent;
+import com.assoc.common.event.VectorMapping;
+import com.assoc.common.event.VectorizePublisher;
 import com.assoc.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -32,7 +29,26 @@ public class ExpertServiceImpl implements ExpertService {
 
     private final ExpertRepository expertRepository;
     private final ExpertiseFieldRepository expertiseFieldRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final VectorizePublisher vectorizePublisher;
+
+    private final VectorMapping<Expert> vectorMapping = VectorMapping.<Expert>builder("expert", Expert::getId)
+            .field("name", Expert::getName)
+            .field("title", Expert::getTitle)
+            .field("bio", Expert::getBio)
+            .field("achievements", Expert::getAchievements)
+            .field("education", Expert::getEducation)
+            .field("experience", Expert::getExperience)
+            .field("projects", Expert::getProjects)
+            .field("publications", Expert::getPublications)
+            .field("researchAreas", Expert::getResearchAreas)
+            .field("organization", Expert::getOrganization)
+            .field("location", Expert::getLocation)
+            .field("awards", Expert::getAwards)
+            .field("expertiseFields", ExpertServiceImpl::expertiseFieldNames)
+            .metadata("name", Expert::getName)
+            .metadata("title", Expert::getTitle)
+            .metadata("organization", Expert::getOrganization)
+            .build();
 
     private static final int STATUS_ACTIVE = 1;
     private static final int STATUS_INACTIVE = 0;
@@ -123,7 +139,7 @@ public class ExpertServiceImpl implements ExpertService {
         }
 
         expert = expertRepository.save(expert);
-        publishVectorizeEvent(expert, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publish(vectorMapping, expert);
         return toResponse(expert);
     }
 
@@ -133,6 +149,7 @@ public class ExpertServiceImpl implements ExpertService {
         Expert expert = expertRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("专家不存在: " + id));
 
+        VectorMapping.Snapshot before = vectorMapping.snapshot(expert);
         mapRequestToEntity(request, expert);
         if (request.getStatus() != null) {
             expert.setStatus(request.getStatus());
@@ -145,7 +162,7 @@ public class ExpertServiceImpl implements ExpertService {
         }
 
         expert = expertRepository.save(expert);
-        publishVectorizeEvent(expert, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publishIfChanged(vectorMapping, before, expert);
         return toResponse(expert);
     }
 
@@ -156,11 +173,7 @@ public class ExpertServiceImpl implements ExpertService {
             throw new ResourceNotFoundException("专家不存在: " + id);
         }
         expertRepository.deleteById(id);
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("expert")
-                .entityId(id)
-                .action(VectorizeEvent.EventAction.DELETE)
-                .build());
+        vectorizePublisher.publishDelete(vectorMapping, id);
     }
 
     private void mapRequestToEntity(ExpertRequest request, Expert expert) {
@@ -252,56 +265,26 @@ public class ExpertServiceImpl implements ExpertService {
         return response;
     }
 
-    private void publishVectorizeEvent(Expert expert, VectorizeEvent.EventAction action) {
-        Map<String, String> fields = new HashMap<>();
-        fields.put("name", nullToEmpty(expert.getName()));
-        fields.put("title", nullToEmpty(expert.getTitle()));
-        fields.put("bio", nullToEmpty(expert.getBio()));
-        fields.put("achievements", nullToEmpty(expert.getAchievements()));
-        fields.put("education", nullToEmpty(expert.getEducation()));
-        fields.put("experience", nullToEmpty(expert.getExperience()));
-        fields.put("projects", nullToEmpty(expert.getProjects()));
-        fields.put("publications", nullToEmpty(expert.getPublications()));
-        fields.put("researchAreas", nullToEmpty(expert.getResearchAreas()));
-        fields.put("organization", nullToEmpty(expert.getOrganization()));
-        fields.put("location", nullToEmpty(expert.getLocation()));
-        fields.put("awards", nullToEmpty(expert.getAwards()));
-        if (expert.getExpertiseFields() != null && !expert.getExpertiseFields().isEmpty()) {
-            String fieldNames = expert.getExpertiseFields().stream()
+    /**
+     * Sorted so that reloading the same fields does not look like a change
+     */
+    private static String expertiseFieldNames(Expert expert) {
+        if (expert.getExpertiseFields() == null) {
+            return null;
+        }
+        return expert.getExpertiseFields().stream()
                 .map(ExpertiseField::getName)
+                .sorted()
                 .collect(Collectors.joining(" "));
-            fields.put("expertiseFields", fieldNames);
-        }
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("name", expert.getName());
-        metadata.put("title", expert.getTitle());
-        metadata.put("organization", expert.getOrganization());
-
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("expert")
-                .entityId(expert.getId())
-                .action(action)
-                .fields(fields)
-                .metadata(metadata)
-                .build());
-    }
-
-    private String nullToEmpty(String s) {
-        return s == null ? "" : s;
     }
 
     @Override
     public String getEntityType() {
-        return "expert";
+        return vectorMapping.getEntityType();
     }
 
     @Override
     public int resyncVectors() {
-        List<Expert> allExperts = expertRepository.findAll();
-        for (Expert expert : allExperts) {
-            publishVectorizeEvent(expert, VectorizeEvent.EventAction.UPSERT);
-        }
-        return allExperts.size();
+        return vectorizePublisher.resync(vectorMapping, expertRepository.findAll());
     }
 }
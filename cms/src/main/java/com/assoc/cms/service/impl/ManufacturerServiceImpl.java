@@ -8,10 +8,10 @@ import com.assoc.cms.entity.ManufacturerCategory;
 import com.assoc.cms.repository.ManufacturerCategoryRepository;
 import com.assoc.cms.repository.ManufacturerRepository;
 import com.assoc.cms.service.ManufacturerService;
-import com.assoc.common.event.VectorizeEvent;
+import com.assoc.common.event.VectorMapping;
+import com.assoc.common.event.VectorizePublisher;
 import com.assoc.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -19,9 +19,6 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -30,7 +27,21 @@ public class ManufacturerServiceImpl implements ManufacturerService {
 
     private final ManufacturerRepository manufacturerRepository;
     private final ManufacturerCategoryRepository categoryRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final VectorizePublisher vectorizePublisher;
+
+    private final VectorMapping<Manufacturer> vectorMapping = VectorMapping
+            .<Manufacturer>builder("manufacturer", Manufacturer::getId)
+            .field("name", Manufacturer::getName)
+            .field("summary", Manufacturer::getSummary)
+            .field("description", Manufacturer::getDescription)
+            .field("mainBusiness", Manufacturer::getMainBusiness)
+            .field("qualifications", Manufacturer::getQualifications)
+            .field("honors", Manufacturer::getHonors)
+            .field("address", Manufacturer::getAddress)
+            .metadata("name", Manufacturer::getName)
+            .metadata("categoryName", m -> m.getCategory() != null ? m.getCategory().getName() : null)
+            .metadata("address", Manufacturer::getAddress)
+            .build();
 
     private static final int STATUS_PUBLISHED = 1;
     private static final int STATUS_DRAFT = 0;
@@ -109,7 +120,7 @@ public class ManufacturerServiceImpl implements ManufacturerService {
         }
 
         manufacturer = manufacturerRepository.save(manufacturer);
-        publishVectorizeEvent(manufacturer, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publish(vectorMapping, manufacturer);
         return ManufacturerResponse.from(manufacturer);
     }
 
@@ -119,6 +130,7 @@ public class ManufacturerServiceImpl implements ManufacturerService {
         Manufacturer manufacturer = manufacturerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("厂商不存在: " + id));
 
+        VectorMapping.Snapshot before = vectorMapping.snapshot(manufacturer);
         mapRequestToEntity(request, manufacturer);
         if (request.getStatus() != null) {
             manufacturer.setStatus(request.getStatus());
@@ -133,7 +145,7 @@ public class ManufacturerServiceImpl implements ManufacturerService {
         }
 
         manufacturer = manufacturerRepository.save(manufacturer);
-        publishVectorizeEvent(manufacturer, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publishIfChanged(vectorMapping, before, manufacturer);
         return ManufacturerResponse.from(manufacturer);
     }
 
@@ -144,11 +156,7 @@ public class ManufacturerServiceImpl implements ManufacturerService {
             throw new ResourceNotFoundException("厂商不存在: " + id);
         }
         manufacturerRepository.deleteById(id);
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("manufacturer")
-                .entityId(id)
-                .action(VectorizeEvent.EventAction.DELETE)
-                .build());
+        vectorizePublisher.publishDelete(vectorMapping, id);
     }
 
     private void mapRequestToEntity(ManufacturerRequest request, Manufacturer manufacturer) {
@@ -178,47 +186,13 @@ public class ManufacturerServiceImpl implements ManufacturerService {
         }
     }
 
-    private void publishVectorizeEvent(Manufacturer m, VectorizeEvent.EventAction action) {
-        Map<String, String> fields = new HashMap<>();
-        fields.put("name", nullToEmpty(m.getName()));
-        fields.put("summary", nullToEmpty(m.getSummary()));
-        fields.put("description", nullToEmpty(m.getDescription()));
-        fields.put("mainBusiness", nullToEmpty(m.getMainBusiness()));
-        fields.put("qualifications", nullToEmpty(m.getQualifications()));
-        fields.put("honors", nullToEmpty(m.getHonors()));
-        fields.put("address", nullToEmpty(m.getAddress()));
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("name", m.getName());
-        if (m.getCategory() != null) {
-            metadata.put("categoryName", m.getCategory().getName());
-        }
-        metadata.put("address", m.getAddress());
-
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("manufacturer")
-                .entityId(m.getId())
-                .action(action)
-                .fields(fields)
-                .metadata(metadata)
-                .build());
-    }
-
-    private String nullToEmpty(String s) {
-        return s == null ? "" : s;
-    }
-
     @Override
     public String getEntityType() {
-        return "manufacturer";
+        return vectorMapping.getEntityType();
     }
 
     @Override
     public int resyncVectors() {
-        List<Manufacturer> allManufacturers = manufacturerRepository.findAll();
-        for (Manufacturer manufacturer : allManufacturers) {
-            publishVectorizeEvent(manufacturer, VectorizeEvent.EventAction.UPSERT);
-        }
-        return allManufacturers.size();
+        return vectorizePublisher.resync(vectorMapping, manufacturerRepository.findAll());
     }
 }
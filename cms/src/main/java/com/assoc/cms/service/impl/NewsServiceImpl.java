@@ -12,20 +12,17 @@ import com.assoc.cms.repository.NewsCategoryRepository;
 import com.assoc.cms.repository.NewsRepository;
 import com.assoc.cms.repository.TagRepository;
 import com.assoc.cms.service.NewsService;
-import com.assoc.common.event.VectorizeEvent;
+import com.assoc.common.event.VectorMapping;
+import com.assoc.common.event.VectorizePublisher;
 import com.assoc.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -37,7 +34,17 @@ public class NewsServiceImpl implements NewsService {
     private final NewsRepository newsRepository;
     private final NewsCategoryRepository newsCategoryRepository;
     private final TagRepository tagRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final VectorizePublisher vectorizePublisher;
+
+    private final VectorMapping<News> vectorMapping = VectorMapping.<News>builder("news", News::getId)
+            .field("title", News::getTitle)
+            .field("excerpt", News::getExcerpt)
+            .field("content", News::getContent)
+            .field("author", News::getAuthor)
+            .field("tags", NewsServiceImpl::tagNames)
+            .metadata("title", News::getTitle)
+            .metadata("categoryName", news -> news.getCategory() != null ? news.getCategory().getName() : null)
+            .build();
 
     private static final int STATUS_PUBLISHED = 1;
     private static final int STATUS_DRAFT = 0;
@@ -135,7 +142,7 @@ public class NewsServiceImpl implements NewsService {
         }
 
         news = newsRepository.save(news);
-        publishVectorizeEvent(news, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publish(vectorMapping, news);
         return toResponse(news);
     }
 
@@ -144,6 +151,7 @@ public class NewsServiceImpl implements NewsService {
     public NewsResponse updateNews(Long id, NewsRequest request) {
         News news = newsRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("新闻不存在: " + id));
+        VectorMapping.Snapshot before = vectorMapping.snapshot(news);
 
         NewsCategory category = newsCategoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("分类不存在: " + request.getCategoryId()));
@@ -176,7 +184,7 @@ public class NewsServiceImpl implements NewsService {
         }
 
         news = newsRepository.save(news);
-        publishVectorizeEvent(news, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publishIfChanged(vectorMapping, before, news);
         return toResponse(news);
     }
 
@@ -189,11 +197,7 @@ public class NewsServiceImpl implements NewsService {
             news.getTags().forEach(tag -> tagRepository.decrementUsageCount(tag.getId()));
         }
         newsRepository.delete(news);
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("news")
-                .entityId(id)
-                .action(VectorizeEvent.EventAction.DELETE)
-                .build());
+        vectorizePublisher.publishDelete(vectorMapping, id);
     }
 
     @Override
@@ -283,49 +287,26 @@ public class NewsServiceImpl implements NewsService {
         return response;
     }
 
-    private void publishVectorizeEvent(News news, VectorizeEvent.EventAction action) {
-        Map<String, String> fields = new HashMap<>();
-        fields.put("title", nullToEmpty(news.getTitle()));
-        fields.put("excerpt", nullToEmpty(news.getExcerpt()));
-        fields.put("content", nullToEmpty(news.getContent()));
-        fields.put("author", nullToEmpty(news.getAuthor()));
-        if (news.getTags() != null && !news.getTags().isEmpty()) {
-            String tagNames = news.getTags().stream()
+    /**
+     * Sorted so that reloading the same tags does not look like a change
+     */
+    private static String tagNames(News news) {
+        if (news.getTags() == null) {
+            return null;
+        }
+        return news.getTags().stream()
                 .map(Tag::getName)
+                .sorted()
                 .collect(Collectors.joining(" "));
-            fields.put("tags", tagNames);
-        }
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("title", news.getTitle());
-        if (news.getCategory() != null) {
-            metadata.put("categoryName", news.getCategory().getName());
-        }
-
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("news")
-                .entityId(news.getId())
-                .action(action)
-                .fields(fields)
-                .metadata(metadata)
-                .build());
-    }
-
-    private String nullToEmpty(String s) {
-        return s == null ? "" : s;
     }
 
     @Override
     public String getEntityType() {
-        return "news";
+        return vectorMapping.getEntityType();
     }
 
     @Override
     public int resyncVectors() {
-        List<News> allNews = newsRepository.findAll();
-        for (News news : allNews) {
-            publishVectorizeEvent(news, VectorizeEvent.EventAction.UPSERT);
-        }
-        return allNews.size();
+        return vectorizePublisher.resync(vectorMapping, newsRepository.findAll());
     }
 }
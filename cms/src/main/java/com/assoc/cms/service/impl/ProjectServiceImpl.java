@@ -9,18 +9,15 @@ import com.assoc.cms.entity.ProjectCategoryEntity;
 import com.assoc.cms.repository.ProjectCategoryRepository;
 import com.assoc.cms.repository.ProjectRepository;
 import com.assoc.cms.service.ProjectService;
-import com.assoc.common.event.VectorizeEvent;
+import com.assoc.common.event.VectorMapping;
+import com.assoc.common.event.VectorizePublisher;
 import com.assoc.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -29,7 +26,25 @@ public class ProjectServiceImpl implements ProjectService {
 
     private final ProjectRepository projectRepository;
     private final ProjectCategoryRepository projectCategoryRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final VectorizePublisher vectorizePublisher;
+
+    private final VectorMapping<Project> vectorMapping = VectorMapping.<Project>builder("project", Project::getId)
+            .field("title", Project::getTitle)
+            .field("description", Project::getDescription)
+            .field("background", Project::getBackground)
+            .field("designConcept", Project::getDesignConcept)
+            .field("highlights", Project::getHighlights)
+            .field("technicalFeatures", Project::getTechnicalFeatures)
+            .field("achievements", Project::getAchievements)
+            .field("location", Project::getLocation)
+            .field("owner", Project::getOwner)
+            .field("designer", Project::getDesigner)
+            .field("contractor", Project::getContractor)
+            .field("scale", Project::getScale)
+            .metadata("title", Project::getTitle)
+            .metadata("category", this::getCategoryCodeFromEntity)
+            .metadata("categoryName", this::getCategoryNameFromEntity)
+            .build();
 
     private static final int STATUS_PUBLISHED = 1;
     private static final int STATUS_DRAFT = 0;
@@ -98,7 +113,7 @@ public class ProjectServiceImpl implements ProjectService {
         project.setViews(0);
 
         project = projectRepository.save(project);
-        publishVectorizeEvent(project, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publish(vectorMapping, project);
         return toResponse(project);
     }
 
@@ -108,13 +123,14 @@ public class ProjectServiceImpl implements ProjectService {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("项目不存在: " + id));
 
+        VectorMapping.Snapshot before = vectorMapping.snapshot(project);
         mapRequestToEntity(request, project);
         if (request.getStatus() != null) {
             project.setStatus(request.getStatus());
         }
 
         project = projectRepository.save(project);
-        publishVectorizeEvent(project, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publishIfChanged(vectorMapping, before, project);
         return toResponse(project);
     }
 
@@ -125,11 +141,7 @@ public class ProjectServiceImpl implements ProjectService {
             throw new ResourceNotFoundException("项目不存在: " + id);
         }
         projectRepository.deleteById(id);
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("project")
-                .entityId(id)
-                .action(VectorizeEvent.EventAction.DELETE)
-                .build());
+        vectorizePublisher.publishDelete(vectorMapping, id);
     }
 
     private void mapRequestToEntity(ProjectRequest request, Project project) {
@@ -230,60 +242,25 @@ public class ProjectServiceImpl implements ProjectService {
         return getCategoryName(project.getCategory());
     }
 
-    private void publishVectorizeEvent(Project project, VectorizeEvent.EventAction action) {
-        Map<String, String> fields = new HashMap<>();
-        fields.put("title", nullToEmpty(project.getTitle()));
-        fields.put("description", nullToEmpty(project.getDescription()));
-        fields.put("background", nullToEmpty(project.getBackground()));
-        fields.put("designConcept", nullToEmpty(project.getDesignConcept()));
-        fields.put("highlights", nullToEmpty(project.getHighlights()));
-        fields.put("technicalFeatures", nullToEmpty(project.getTechnicalFeatures()));
-        fields.put("achievements", nullToEmpty(project.getAchievements()));
-        fields.put("location", nullToEmpty(project.getLocation()));
-        fields.put("owner", nullToEmpty(project.getOwner()));
-        fields.put("designer", nullToEmpty(project.getDesigner()));
-        fields.put("contractor", nullToEmpty(project.getContractor()));
-        fields.put("scale", nullToEmpty(project.getScale()));
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("title", project.getTitle());
-        // Use dynamic category system
+    /**
+     * Get category code, with the same fallback as {@link #getCategoryNameFromEntity}
+     */
+    private String getCategoryCodeFromEntity(Project project) {
         if (project.getCategoryId() != null) {
-            projectCategoryRepository.findById(project.getCategoryId())
-                    .ifPresent(categoryEntity -> {
-                        metadata.put("category", categoryEntity.getCode());
-                        metadata.put("categoryName", categoryEntity.getName());
-                    });
-        } else if (project.getCategory() != null) {
-            // Fallback to legacy enum for old data
-            metadata.put("category", project.getCategory().name());
-            metadata.put("categoryName", getCategoryName(project.getCategory()));
+            return projectCategoryRepository.findById(project.getCategoryId())
+                    .map(ProjectCategoryEntity::getCode)
+                    .orElse(null);
         }
-
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("project")
-                .entityId(project.getId())
-                .action(action)
-                .fields(fields)
-                .metadata(metadata)
-                .build());
-    }
-
-    private String nullToEmpty(String s) {
-        return s == null ? "" : s;
+        return project.getCategory() != null ? project.getCategory().name() : null;
     }
 
     @Override
     public String getEntityType() {
-        return "project";
+        return vectorMapping.getEntityType();
     }
 
     @Override
     public int resyncVectors() {
-        List<Project> allProjects = projectRepository.findAll();
-        for (Project project : allProjects) {
-            publishVectorizeEvent(project, VectorizeEvent.EventAction.UPSERT);
-        }
-        return allProjects.size();
+        return vectorizePublisher.resync(vectorMapping, projectRepository.findAll());
     }
 }
@@ -16,6 +16,7 @@ public enum AuditAction {
     CREATE_USER("create_user"),
     UPDATE_USER("update_user"),
     DELETE_USER("delete_user"),
+    IMPORT_USERS("import_users"),
     CREATE_ROLE("create_role"),
     UPDATE_ROLE("update_role"),
     DELETE_ROLE("delete_role"),
@@ -25,6 +26,7 @@ public enum AuditAction {
     CREATE_RESOURCE("create_resource"),
     UPDATE_RESOURCE("update_resource"),
     DELETE_RESOURCE("delete_resource"),
+    EXPORT_AUDIT_LOGS("export_audit_logs"),
     ACCESS("access");
 
     private final String code;
@@ -0,0 +1,302 @@
+package com.assoc.common.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Cluster-wide invalidation of {@link ClusterInvalidated} caches over PostgreSQL {@code LISTEN/NOTIFY}.
+ *
+ * <p>Sending: invalidations are collected for {@code coalesce-window} and sent as one
+ * {@code pg_notify} per window, evicted keys merged per cache. A cache with too many keys, keys of
+ * a type that cannot be sent, or a payload over the NOTIFY limit is cleared instead. A failed
+ * send is retried a second later.</p>
+ *
+ * <p>Receiving ({@link PgNotificationListener}): every node numbers its messages. A gap in the
+ * numbers, and every (re)connect of the listener, flushes all cluster caches on this node, since
+ * invalidations may have been missed. Cache TTLs remain the last line of defence.</p>
+ *
+ * <p>Metrics: {@code cache.invalidation.sent}, {@code .send.failures}, {@code .received},
+ * {@code .missed} (messages detected lost), {@code .flushes} (by reason), {@code .latency}
+ * (send to apply, across node clocks) and the {@code .connected} gauge.</p>
+ */
+@Slf4j
+public class CacheInvalidationBus {
+
+    /** PostgreSQL rejects NOTIFY payloads of 8000 bytes and more */
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final CacheInvalidationProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final Set<String> clusterCacheNames;
+    private final ObjectProvider<CacheManager> cacheManagers;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String origin = UUID.randomUUID().toString();
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Cache name to evicted keys; a null value clears the cache */
+    private Map<String, Set<Object>> pending = new LinkedHashMap<>();
+    private boolean sendScheduled;
+    /** Only touched by the sender thread */
+    private long sequence;
+    private final Map<String, Long> lastSequences = new ConcurrentHashMap<>();
+    private volatile boolean connected;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter sent;
+    private final Counter sendFailures;
+    private final Counter received;
+    private final Counter missed;
+    private final Timer latency;
+
+    public CacheInvalidationBus(CacheInvalidationProperties properties,
+                                JdbcTemplate jdbcTemplate,
+                                Set<String> clusterCacheNames,
+                                ObjectProvider<CacheManager> cacheManagers,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry) {
+        if (!CHANNEL.matcher(properties.getChannel()).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel: " + properties.getChannel());
+        }
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.clusterCacheNames = clusterCacheNames;
+        this.cacheManagers = cacheManagers;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.sent = Counter.builder("cache.invalidation.sent")
+                .description("Invalidation messages sent to other nodes")
+                .register(meterRegistry);
+        this.sendFailures = Counter.builder("cache.invalidation.send.failures")
+                .description("Invalidation messages that could not be sent and were retried")
+                .register(meterRegistry);
+        this.received = Counter.builder("cache.invalidation.received")
+                .description("Invalidation messages received from other nodes")
+                .register(meterRegistry);
+        this.missed = Counter.builder("cache.invalidation.missed")
+                .description("Invalidation messages detected as lost by sequence gaps")
+                .register(meterRegistry);
+        this.latency = Timer.builder("cache.invalidation.latency")
+                .description("Time from sending an invalidation to applying it on another node")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("cache.invalidation.connected", this, bus -> bus.connected ? 1 : 0)
+                .description("Whether the LISTEN connection is up")
+                .register(meterRegistry);
+    }
+
+    public String getChannel() {
+        return properties.getChannel();
+    }
+
+    /**
+     * Evict a key of the named cache on the other nodes.
+     */
+    public void evict(String cacheName, Object key) {
+        enqueue(cacheName, key);
+    }
+
+    /**
+     * Clear the named cache on the other nodes.
+     */
+    public void clear(String cacheName) {
+        enqueue(cacheName, null);
+    }
+
+    private synchronized void enqueue(String cacheName, Object key) {
+        merge(cacheName, key);
+        scheduleSend(properties.getCoalesceWindow().toMillis());
+    }
+
+    private void merge(String cacheName, Object key) {
+        if (pending.containsKey(cacheName) && pending.get(cacheName) == null) {
+            return;
+        }
+        if (key == null) {
+            pending.put(cacheName, null);
+            return;
+        }
+        Set<Object> keys = pending.computeIfAbsent(cacheName, name -> new LinkedHashSet<>());
+        keys.add(key);
+        if (keys.size() > properties.getMaxKeysPerCache()) {
+            pending.put(cacheName, null);
+        }
+    }
+
+    private void scheduleSend(long delayMillis) {
+        if (sendScheduled) {
+            return;
+        }
+        try {
+            sender.schedule(this::send, delayMillis, TimeUnit.MILLISECONDS);
+            sendScheduled = true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Cache invalidation bus is shut down, dropping {}", pending.keySet());
+        }
+    }
+
+    private void send() {
+        Map<String, Set<Object>> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            sendScheduled = false;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        InvalidationMessage message = new InvalidationMessage(
+                origin, sequence + 1, System.currentTimeMillis(), toEntries(batch));
+        try {
+            String payload = objectMapper.writeValueAsString(message);
+            if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                List<InvalidationMessage.Entry> clears = new ArrayList<>();
+                batch.keySet().forEach(cacheName -> clears.add(InvalidationMessage.Entry.clear(cacheName)));
+                payload = objectMapper.writeValueAsString(new InvalidationMessage(
+                        message.origin(), message.sequence(), message.sentAt(), clears));
+            }
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Object>) rs -> null,
+                    properties.getChannel(), payload);
+            sequence = message.sequence();
+            sent.increment();
+        } catch (DataAccessException | JsonProcessingException e) {
+            sendFailures.increment();
+            log.warn("Failed to send cache invalidation for {}, retrying: {}", batch.keySet(), e.getMessage());
+            retry(batch);
+        }
+    }
+
+    private static List<InvalidationMessage.Entry> toEntries(Map<String, Set<Object>> batch) {
+        List<InvalidationMessage.Entry> entries = new ArrayList<>(batch.size());
+        batch.forEach((cacheName, keys) -> {
+            List<InvalidationMessage.Key> encoded = keys == null ? null : InvalidationMessage.Key.encodeAll(keys);
+            entries.add(encoded == null
+                    ? InvalidationMessage.Entry.clear(cacheName)
+                    : new InvalidationMessage.Entry(cacheName, encoded));
+        });
+        return entries;
+    }
+
+    private synchronized void retry(Map<String, Set<Object>> batch) {
+        batch.forEach((cacheName, keys) -> {
+            if (keys == null) {
+                merge(cacheName, null);
+            } else {
+                keys.forEach(key -> merge(cacheName, key));
+            }
+        });
+        scheduleSend(RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * Apply a NOTIFY payload; called by the listener thread.
+     */
+    void receive(String payload) {
+        InvalidationMessage message;
+        try {
+            message = objectMapper.readValue(payload, InvalidationMessage.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Unreadable cache invalidation, flushing cluster caches: {}", e.getMessage());
+            flushLocal("malformed");
+            return;
+        }
+        if (origin.equals(message.origin())) {
+            return;
+        }
+        received.increment();
+        latency.record(Math.max(0, System.currentTimeMillis() - message.sentAt()), TimeUnit.MILLISECONDS);
+
+        Long last = lastSequences.put(message.origin(), message.sequence());
+        if (last != null && message.sequence() > last + 1) {
+            long lost = message.sequence() - last - 1;
+            missed.increment(lost);
+            log.warn("Missed {} cache invalidation(s) from node {}, flushing cluster caches", lost, message.origin());
+            flushLocal("gap");
+            return;
+        }
+        for (InvalidationMessage.Entry entry : message.entries()) {
+            apply(entry.cache(), entry.clearsAll() ? List.of() : entry.decodedKeys());
+        }
+    }
+
+    /**
+     * The listener (re)subscribed: anything sent while it was away is lost, so start clean.
+     */
+    void connected() {
+        connected = true;
+        lastSequences.clear();
+        flushLocal("connect");
+    }
+
+    void disconnected() {
+        connected = false;
+    }
+
+    private void flushLocal(String reason) {
+        meterRegistry.counter("cache.invalidation.flushes", "reason", reason).increment();
+        for (String cacheName : clusterCacheNames) {
+            apply(cacheName, List.of());
+        }
+    }
+
+    private void apply(String cacheName, Collection<Object> keys) {
+        cacheManagers.orderedStream().forEach(cacheManager -> {
+            if (cacheManager instanceof ClusterCacheManager clusterCacheManager) {
+                ClusterCacheDecorator cache = clusterCacheManager.findClusterCache(cacheName);
+                if (cache == null) {
+                    return;
+                }
+                if (keys.isEmpty()) {
+                    cache.clearLocally();
+                } else {
+                    keys.forEach(cache::evictLocally);
+                }
+            }
+        });
+        eventPublisher.publishEvent(new ClusterInvalidationEvent(cacheName, keys));
+    }
+
+    public void shutdown() {
+        sender.shutdown();
+        try {
+            // Let a pending window go out before the datasource closes
+            sender.awaitTermination(properties.getCoalesceWindow().toMillis() + RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.assoc.common.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wires the {@link CacheInvalidationBus} when {@code common.cache.invalidation.enabled} is set.
+ * Without it, {@link ClusterInvalidated} has no effect and caches stay node-local.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "common.cache.invalidation", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+public class CacheInvalidationConfiguration {
+
+    @Bean
+    public static ClusterCacheBeanPostProcessor clusterCacheBeanPostProcessor() {
+        return new ClusterCacheBeanPostProcessor();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public CacheInvalidationBus cacheInvalidationBus(CacheInvalidationProperties properties,
+                                                     JdbcTemplate jdbcTemplate,
+                                                     ClusterCacheBeanPostProcessor clusterCacheBeanPostProcessor,
+                                                     ObjectProvider<CacheManager> cacheManagers,
+                                                     ApplicationEventPublisher eventPublisher,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CacheInvalidationBus(properties, jdbcTemplate,
+                clusterCacheBeanPostProcessor.getClusterCacheNames(), cacheManagers, eventPublisher,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    @Bean
+    public PgNotificationListener pgNotificationListener(CacheInvalidationProperties properties,
+                                                         DataSourceProperties dataSourceProperties,
+                                                         CacheInvalidationBus cacheInvalidationBus) {
+        return new PgNotificationListener(properties, dataSourceProperties, cacheInvalidationBus);
+    }
+
+    /**
+     * Collects {@link ClusterInvalidated} names from all beans and wraps every {@link CacheManager}
+     * in a {@link ClusterCacheManager}. Names are looked up on each {@code getCache}, so the order
+     * in which beans are created does not matter.
+     */
+    public static class ClusterCacheBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+        private final Set<String> clusterCacheNames = ConcurrentHashMap.newKeySet();
+        private BeanFactory beanFactory;
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+            this.beanFactory = beanFactory;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            ClusterInvalidated annotation =
+                    AnnotationUtils.findAnnotation(AopUtils.getTargetClass(bean), ClusterInvalidated.class);
+            if (annotation != null) {
+                clusterCacheNames.addAll(Arrays.asList(annotation.value()));
+            }
+            if (bean instanceof CacheManager cacheManager && !(bean instanceof ClusterCacheManager)) {
+                return new ClusterCacheManager(cacheManager, clusterCacheNames,
+                        () -> beanFactory.getBean(CacheInvalidationBus.class));
+            }
+            return bean;
+        }
+
+        Set<String> getClusterCacheNames() {
+            return clusterCacheNames;
+        }
+    }
+}
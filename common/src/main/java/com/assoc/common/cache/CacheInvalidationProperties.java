@@ -0,0 +1,49 @@
+package com.assoc.common.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the cluster-wide cache invalidation bus.
+ */
+@Data
+@ConfigurationProperties(prefix = "common.cache.invalidation")
+public class CacheInvalidationProperties {
+
+    /**
+     * Enable on multi-node deployments; requires a PostgreSQL datasource.
+     */
+    private boolean enabled = false;
+
+    /**
+     * NOTIFY channel shared by all nodes of one deployment.
+     */
+    private String channel = "cache_invalidation";
+
+    /**
+     * Invalidations within this window are sent as one notification.
+     */
+    private Duration coalesceWindow = Duration.ofMillis(50);
+
+    /**
+     * A cache with more evicted keys than this in one window is cleared instead.
+     */
+    private int maxKeysPerCache = 100;
+
+    /**
+     * How long the listener blocks waiting for notifications before it checks the connection.
+     */
+    private Duration pollTimeout = Duration.ofSeconds(1);
+
+    /**
+     * A silent listener connection is probed after this long.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
+
+    /**
+     * Upper bound of the reconnect backoff, which starts at one second and doubles.
+     */
+    private Duration maxReconnectDelay = Duration.ofSeconds(30);
+}
@@ -0,0 +1,74 @@
+package com.assoc.common.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Cache of a {@link ClusterInvalidated} name: local evictions are also sent to the other nodes.
+ *
+ * <p>Extends {@link TransactionAwareCacheDecorator} so that the local eviction and the broadcast
+ * both happen after commit, and so that Actuator still unwraps the target cache for its metrics.</p>
+ */
+class ClusterCacheDecorator extends TransactionAwareCacheDecorator {
+
+    private final Supplier<CacheInvalidationBus> bus;
+
+    ClusterCacheDecorator(Cache targetCache, Supplier<CacheInvalidationBus> bus) {
+        super(targetCache);
+        this.bus = bus;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        afterCommit(() -> bus.get().evict(getName(), key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = super.evictIfPresent(key);
+        bus.get().evict(getName(), key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        afterCommit(() -> bus.get().clear(getName()));
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = super.invalidate();
+        bus.get().clear(getName());
+        return present;
+    }
+
+    /**
+     * Apply an invalidation received from another node, without sending it again.
+     */
+    void evictLocally(Object key) {
+        getTargetCache().evict(key);
+    }
+
+    void clearLocally() {
+        getTargetCache().clear();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.assoc.common.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Wraps an application {@link CacheManager} so that caches with a {@link ClusterInvalidated} name
+ * are returned as {@link ClusterCacheDecorator}s; other caches are passed through.
+ */
+class ClusterCacheManager implements CacheManager {
+
+    private final CacheManager target;
+    private final Set<String> clusterCacheNames;
+    private final Supplier<CacheInvalidationBus> bus;
+    private final Map<String, ClusterCacheDecorator> decorators = new ConcurrentHashMap<>();
+
+    ClusterCacheManager(CacheManager target, Set<String> clusterCacheNames, Supplier<CacheInvalidationBus> bus) {
+        this.target = target;
+        this.clusterCacheNames = clusterCacheNames;
+        this.bus = bus;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!clusterCacheNames.contains(name)) {
+            return target.getCache(name);
+        }
+        ClusterCacheDecorator decorator = decorators.get(name);
+        if (decorator != null) {
+            return decorator;
+        }
+        Cache cache = target.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        if (cache instanceof TransactionAwareCacheDecorator transactionAware) {
+            // Already deferred to commit by the decorator itself
+            cache = transactionAware.getTargetCache();
+        }
+        Cache targetCache = cache;
+        return decorators.computeIfAbsent(name, key -> new ClusterCacheDecorator(targetCache, bus));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return target.getCacheNames();
+    }
+
+    /**
+     * The decorator of an existing cluster cache, without creating caches on dynamic managers.
+     */
+    ClusterCacheDecorator findClusterCache(String name) {
+        if (!clusterCacheNames.contains(name) || !target.getCacheNames().contains(name)) {
+            return null;
+        }
+        return (ClusterCacheDecorator) getCache(name);
+    }
+}
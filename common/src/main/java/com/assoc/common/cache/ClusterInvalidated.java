@@ -0,0 +1,36 @@
+package com.assoc.common.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares caches whose invalidations apply to every node of the cluster.
+ *
+ * <p>Put it on the bean that owns the caches, typically the cache configuration:</p>
+ *
+ * <pre>{@code
+ * @Configuration
+ * @ClusterInvalidated(CacheConfig.USER_PERMISSIONS)
+ * public class CacheConfig { ... }
+ * }</pre>
+ *
+ * <p>For a Spring {@code Cache} of that name, {@code evict} and {@code clear} (including
+ * {@code @CacheEvict}) are repeated on the other nodes by the {@link CacheInvalidationBus}. Like
+ * with {@code TransactionAwareCacheDecorator}, they run after the current transaction commits.
+ * Holders of other node-local state can use a name that is not a Spring cache, call
+ * {@link CacheInvalidationBus#clear(String)} themselves, and react to
+ * {@link ClusterInvalidationEvent}s.</p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClusterInvalidated {
+
+    /**
+     * Cache names.
+     */
+    String[] value();
+}
@@ -0,0 +1,18 @@
+package com.assoc.common.cache;
+
+import java.util.Collection;
+
+/**
+ * Published on a node when another node invalidated a {@link ClusterInvalidated} cache, after the
+ * matching Spring cache (if any) has been evicted. Also published for every cache when the bus
+ * flushes after a reconnect or a missed message.
+ *
+ * @param cacheName cache name
+ * @param keys      evicted keys; empty when the whole cache was cleared
+ */
+public record ClusterInvalidationEvent(String cacheName, Collection<Object> keys) {
+
+    public boolean isClear() {
+        return keys.isEmpty();
+    }
+}
@@ -0,0 +1,94 @@
+package com.assoc.common.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Payload of one NOTIFY on the invalidation channel, serialized as JSON.
+ *
+ * @param origin   id of the sending node, unique per process start
+ * @param sequence per-origin message number; receivers detect lost messages by gaps
+ * @param sentAt   epoch millis at which the message was sent, for the latency metric
+ * @param entries  invalidated caches
+ */
+record InvalidationMessage(String origin, long sequence, long sentAt, List<Entry> entries) {
+
+    /**
+     * Invalidation of one cache.
+     *
+     * @param cache cache name
+     * @param keys  evicted keys; empty clears the cache
+     */
+    record Entry(String cache, List<Key> keys) {
+
+        static Entry clear(String cache) {
+            return new Entry(cache, List.of());
+        }
+
+        boolean clearsAll() {
+            return keys.isEmpty();
+        }
+
+        List<Object> decodedKeys() {
+            List<Object> decoded = new ArrayList<>(keys.size());
+            for (Key key : keys) {
+                decoded.add(key.decode());
+            }
+            return decoded;
+        }
+    }
+
+    /**
+     * A cache key with its type, so that a {@code Long} id evicts the {@code Long} entry on the
+     * receiving node and not a {@code String} one.
+     *
+     * @param type  {@code L}ong, {@code I}nteger, {@code S}tring or {@code U}UID
+     * @param value string form of the key
+     */
+    record Key(char type, String value) {
+
+        /**
+         * @return the typed key, or null for key types that cannot be sent; those caches are
+         * cleared instead
+         */
+        static Key encode(Object key) {
+            if (key instanceof Long) {
+                return new Key('L', key.toString());
+            }
+            if (key instanceof Integer) {
+                return new Key('I', key.toString());
+            }
+            if (key instanceof String) {
+                return new Key('S', (String) key);
+            }
+            if (key instanceof UUID) {
+                return new Key('U', key.toString());
+            }
+            return null;
+        }
+
+        static List<Key> encodeAll(Collection<Object> keys) {
+            List<Key> encoded = new ArrayList<>(keys.size());
+            for (Object key : keys) {
+                Key typed = encode(key);
+                if (typed == null) {
+                    return null;
+                }
+                encoded.add(typed);
+            }
+            return encoded;
+        }
+
+        Object decode() {
+            return switch (type) {
+                case 'L' -> Long.valueOf(value);
+                case 'I' -> Integer.valueOf(value);
+                case 'S' -> value;
+                case 'U' -> UUID.fromString(value);
+                default -> throw new IllegalArgumentException("Unknown cache key type: " + type);
+            };
+        }
+    }
+}
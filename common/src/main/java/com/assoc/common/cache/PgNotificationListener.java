@@ -0,0 +1,154 @@
+package com.assoc.common.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Holds the {@code LISTEN} connection of the {@link CacheInvalidationBus} on its own thread.
+ *
+ * <p>The connection is opened with the datasource settings but outside the pool, so it never
+ * competes with requests for a pooled connection and is not recycled by the pool's max lifetime.
+ * When it breaks, the listener reconnects with exponential backoff; the bus flushes the cluster
+ * caches on every successful (re)connect.</p>
+ */
+@Slf4j
+public class PgNotificationListener implements SmartLifecycle {
+
+    private static final long INITIAL_RECONNECT_DELAY_MILLIS = 1000;
+
+    private final CacheInvalidationProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheInvalidationBus bus;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+    private long reconnectDelayMillis = INITIAL_RECONNECT_DELAY_MILLIS;
+
+    public PgNotificationListener(CacheInvalidationProperties properties,
+                                  DataSourceProperties dataSourceProperties,
+                                  CacheInvalidationBus bus) {
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+        this.bus = bus;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        closeQuietly(connection);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                listen();
+            } catch (SQLException | RuntimeException e) {
+                bus.disconnected();
+                if (!running) {
+                    break;
+                }
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {} ms: {}",
+                        reconnectDelayMillis, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                reconnectDelayMillis = Math.min(reconnectDelayMillis * 2,
+                        properties.getMaxReconnectDelay().toMillis());
+            }
+        }
+        bus.disconnected();
+    }
+
+    private void listen() throws SQLException {
+        try (Connection listening = open()) {
+            connection = listening;
+            try (Statement statement = listening.createStatement()) {
+                // The channel name is validated by the bus
+                statement.execute("LISTEN " + bus.getChannel());
+            }
+            PGConnection pgConnection = listening.unwrap(PGConnection.class);
+            reconnectDelayMillis = INITIAL_RECONNECT_DELAY_MILLIS;
+            log.info("Listening for cache invalidations on channel {}", bus.getChannel());
+            bus.connected();
+
+            int pollMillis = (int) properties.getPollTimeout().toMillis();
+            long heartbeatNanos = properties.getHeartbeatInterval().toNanos();
+            long lastActivity = System.nanoTime();
+            while (running) {
+                PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                if (notifications != null && notifications.length > 0) {
+                    lastActivity = System.nanoTime();
+                    for (PGNotification notification : notifications) {
+                        bus.receive(notification.getParameter());
+                    }
+                } else if (System.nanoTime() - lastActivity >= heartbeatNanos) {
+                    // A half-open TCP connection only shows up when we write to it
+                    try (Statement statement = listening.createStatement()) {
+                        statement.execute("SELECT 1");
+                    }
+                    lastActivity = System.nanoTime();
+                }
+            }
+        } finally {
+            connection = null;
+        }
+    }
+
+    private Connection open() throws SQLException {
+        Properties info = new Properties();
+        if (dataSourceProperties.determineUsername() != null) {
+            info.setProperty("user", dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            info.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        info.setProperty("ApplicationName", "cache-invalidation-listener");
+        Connection opened = DriverManager.getConnection(dataSourceProperties.determineUrl(), info);
+        opened.setAutoCommit(true);
+        return opened;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close cache invalidation listener connection: {}", e.getMessage());
+        }
+    }
+}
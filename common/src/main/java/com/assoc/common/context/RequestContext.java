@@ -25,7 +25,7 @@ public interface RequestContext {
     void setAuthorities(Collection<String> authorities);
 
     default boolean hasAuthority(String authority) {
-        return authorities().stream().anyMatch(authority::equals);
+        return authorities().contains(authority);
     }
 
     default boolean hasAnyAuthority(String... authorities) {
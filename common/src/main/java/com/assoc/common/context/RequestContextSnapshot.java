@@ -1,5 +1,7 @@
 package com.assoc.common.context;
 
+import com.assoc.common.security.PermissionBitSet;
+
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -22,6 +24,8 @@ public final class RequestContextSnapshot {
         this.username = username;
         if (authorities == null || authorities.isEmpty()) {
             this.authorities = Collections.emptySet();
+        } else if (authorities instanceof PermissionBitSet bits) {
+            this.authorities = bits;
         } else {
             this.authorities = Collections.unmodifiableSet(new HashSet<>(authorities));
         }
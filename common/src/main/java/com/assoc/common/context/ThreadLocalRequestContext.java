@@ -1,5 +1,6 @@
 package com.assoc.common.context;
 
+import com.assoc.common.security.PermissionBitSet;
 import org.springframework.util.CollectionUtils;
 
 import java.util.Collection;
@@ -47,11 +48,7 @@ public class ThreadLocalRequestContext implements RequestContext {
 
     @Override
     public void setAuthorities(Collection<String> authorities) {
-        ContextState state = STATE.get();
-        state.authorities.clear();
-        if (!CollectionUtils.isEmpty(authorities)) {
-            state.authorities.addAll(authorities);
-        }
+        STATE.get().authorities = copyOf(authorities);
     }
 
     @Override
@@ -73,8 +70,7 @@ public class ThreadLocalRequestContext implements RequestContext {
         ContextState state = STATE.get();
         state.userId = snapshot.getUserId();
         state.username = snapshot.getUsername();
-        state.authorities.clear();
-        state.authorities.addAll(snapshot.getAuthorities());
+        state.authorities = copyOf(snapshot.getAuthorities());
     }
 
     @Override
@@ -82,9 +78,19 @@ public class ThreadLocalRequestContext implements RequestContext {
         STATE.remove();
     }
 
+    /**
+     * 权限位图不可变，直接共享，成员判断是位测试；其他集合复制为 HashSet
+     */
+    private static Set<String> copyOf(Collection<String> authorities) {
+        if (authorities instanceof PermissionBitSet bits) {
+            return bits;
+        }
+        return CollectionUtils.isEmpty(authorities) ? new HashSet<>() : new HashSet<>(authorities);
+    }
+
     private static class ContextState {
         private Long userId;
         private String username;
-        private final Set<String> authorities = new HashSet<>();
+        private Set<String> authorities = new HashSet<>();
     }
 }
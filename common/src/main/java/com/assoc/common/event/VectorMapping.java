@@ -0,0 +1,182 @@
+package com.assoc.common.event;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Declarative description of how an entity is vectorized: which text fields are embedded, which
+ * values are stored as display metadata, and which entities are indexed at all.
+ *
+ * <p>Business modules declare one mapping per entity type and hand it to {@link VectorizePublisher},
+ * which builds the {@link VectorizeEvent}s, skips updates that do not touch a mapped value, and
+ * implements the bulk resync.</p>
+ *
+ * <pre>{@code
+ * static final VectorMapping<News> VECTOR_MAPPING = VectorMapping.builder("news", News::getId)
+ *         .field("title", News::getTitle)
+ *         .field("content", News::getContent)
+ *         .metadata("title", News::getTitle)
+ *         .build();
+ * }</pre>
+ *
+ * @param <T> entity class
+ */
+public final class VectorMapping<T> {
+
+    private final String entityType;
+    private final Function<T, Long> idExtractor;
+    private final Map<String, Function<T, String>> fields;
+    private final Map<String, Function<T, ?>> metadata;
+    private final Predicate<T> indexed;
+
+    private VectorMapping(Builder<T> builder) {
+        this.entityType = builder.entityType;
+        this.idExtractor = builder.idExtractor;
+        this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(builder.fields));
+        this.metadata = Collections.unmodifiableMap(new LinkedHashMap<>(builder.metadata));
+        this.indexed = builder.indexed;
+    }
+
+    public static <T> Builder<T> builder(String entityType, Function<T, Long> idExtractor) {
+        return new Builder<>(entityType, idExtractor);
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long idOf(T entity) {
+        return idExtractor.apply(entity);
+    }
+
+    /**
+     * Whether the entity belongs in the index, e.g. only approved members.
+     */
+    public boolean isIndexed(T entity) {
+        return indexed.test(entity);
+    }
+
+    /**
+     * The mapped values of an entity, to be compared before and after an update.
+     */
+    public Snapshot snapshot(T entity) {
+        if (entity == null) {
+            return Snapshot.ABSENT;
+        }
+        return new Snapshot(isIndexed(entity), extractFields(entity), extractMetadata(entity));
+    }
+
+    /**
+     * The event that brings the index in line with the entity: an upsert, or a delete when the
+     * entity is not (or no longer) indexed.
+     */
+    public VectorizeEvent toEvent(T entity) {
+        if (!isIndexed(entity)) {
+            return deleteEvent(idOf(entity));
+        }
+        return VectorizeEvent.builder()
+                .entityType(entityType)
+                .entityId(idOf(entity))
+                .action(VectorizeEvent.EventAction.UPSERT)
+                .fields(extractFields(entity))
+                .metadata(extractMetadata(entity))
+                .build();
+    }
+
+    public VectorizeEvent deleteEvent(Long id) {
+        return VectorizeEvent.builder()
+                .entityType(entityType)
+                .entityId(id)
+                .action(VectorizeEvent.EventAction.DELETE)
+                .build();
+    }
+
+    private Map<String, String> extractFields(T entity) {
+        Map<String, String> values = new LinkedHashMap<>();
+        fields.forEach((name, extractor) -> {
+            String value = extractor.apply(entity);
+            values.put(name, value == null ? "" : value);
+        });
+        return values;
+    }
+
+    private Map<String, Object> extractMetadata(T entity) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        metadata.forEach((name, extractor) -> {
+            Object value = extractor.apply(entity);
+            if (value != null) {
+                values.put(name, value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Mapped values of an entity at one point in time; {@link #ABSENT} stands for a missing entity.
+     */
+    public record Snapshot(boolean indexed, Map<String, String> fields, Map<String, Object> metadata) {
+
+        public static final Snapshot ABSENT = new Snapshot(false, Map.of(), Map.of());
+
+        /**
+         * Whether going from this snapshot to {@code after} requires touching the index.
+         */
+        public boolean requiresUpdate(Snapshot after) {
+            if (!indexed && !after.indexed) {
+                return false;
+            }
+            return indexed != after.indexed
+                    || !Objects.equals(fields, after.fields)
+                    || !Objects.equals(metadata, after.metadata);
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final String entityType;
+        private final Function<T, Long> idExtractor;
+        private final Map<String, Function<T, String>> fields = new LinkedHashMap<>();
+        private final Map<String, Function<T, ?>> metadata = new LinkedHashMap<>();
+        private Predicate<T> indexed = entity -> true;
+
+        private Builder(String entityType, Function<T, Long> idExtractor) {
+            this.entityType = Objects.requireNonNull(entityType, "entityType");
+            this.idExtractor = Objects.requireNonNull(idExtractor, "idExtractor");
+        }
+
+        /**
+         * A text field to embed; null values are embedded as empty text.
+         */
+        public Builder<T> field(String name, Function<T, String> extractor) {
+            fields.put(name, extractor);
+            return this;
+        }
+
+        /**
+         * A value shown with search results; null values are left out.
+         */
+        public Builder<T> metadata(String name, Function<T, ?> extractor) {
+            metadata.put(name, extractor);
+            return this;
+        }
+
+        /**
+         * Restrict the index to matching entities; others are removed from it.
+         */
+        public Builder<T> indexedWhen(Predicate<T> condition) {
+            this.indexed = condition;
+            return this;
+        }
+
+        public VectorMapping<T> build() {
+            if (fields.isEmpty()) {
+                throw new IllegalStateException("Vector mapping for " + entityType + " has no fields");
+            }
+            return new VectorMapping<>(this);
+        }
+    }
+}
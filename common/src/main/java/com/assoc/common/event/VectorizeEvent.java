@@ -7,7 +7,8 @@ import java.util.Map;
 
 /**
  * Event for vectorization operations.
- * Published by business modules (activity, cms, product) and consumed by ai module.
+ * Published by business modules (activity, cms, product, member), usually through
+ * {@link VectorizePublisher}, and consumed by ai module.
  * This enables loose coupling between modules through event-driven architecture.
  */
 @Data
@@ -15,7 +16,7 @@ import java.util.Map;
 public class VectorizeEvent {
 
     /**
-     * Entity type: activity, news, project, expert, product
+     * Entity type: activity, news, project, expert, product, manufacturer, member
      */
     private String entityType;
 
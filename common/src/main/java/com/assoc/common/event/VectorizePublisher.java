@@ -0,0 +1,66 @@
+package com.assoc.common.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link VectorizeEvent}s from a {@link VectorMapping}.
+ *
+ * <p>Updates follow a snapshot / compare pattern so that edits to unmapped columns (status flags,
+ * logos, contact data, counters) do not cause the ai module to re-embed the entity:</p>
+ *
+ * <pre>{@code
+ * VectorMapping.Snapshot before = VECTOR_MAPPING.snapshot(news);
+ * mapRequestToEntity(request, news);
+ * vectorizePublisher.publishIfChanged(VECTOR_MAPPING, before, newsRepository.save(news));
+ * }</pre>
+ */
+@Component
+@RequiredArgsConstructor
+public class VectorizePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Index a new entity, or bring the index in line with it unconditionally.
+     */
+    public <T> void publish(VectorMapping<T> mapping, T entity) {
+        VectorizeEvent event = mapping.toEvent(entity);
+        eventPublisher.publishEvent(event);
+    }
+
+    /**
+     * Publish only when a mapped field, the metadata or the indexed state changed since {@code before}.
+     *
+     * @return whether an event was published
+     */
+    public <T> boolean publishIfChanged(VectorMapping<T> mapping, VectorMapping.Snapshot before, T entity) {
+        if (!before.requiresUpdate(mapping.snapshot(entity))) {
+            return false;
+        }
+        publish(mapping, entity);
+        return true;
+    }
+
+    public <T> void publishDelete(VectorMapping<T> mapping, Long id) {
+        eventPublisher.publishEvent(mapping.deleteEvent(id));
+    }
+
+    /**
+     * Re-publish every given entity; used to implement {@link VectorSyncable#resyncVectors()}.
+     * Entities that are not indexed are deleted, which clears leftovers of missed state changes.
+     *
+     * @return number of indexed entities
+     */
+    public <T> int resync(VectorMapping<T> mapping, Iterable<T> entities) {
+        int indexed = 0;
+        for (T entity : entities) {
+            publish(mapping, entity);
+            if (mapping.isIndexed(entity)) {
+                indexed++;
+            }
+        }
+        return indexed;
+    }
+}
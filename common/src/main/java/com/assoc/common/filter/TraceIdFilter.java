@@ -18,7 +18,7 @@ import java.util.UUID;
 @Order(Ordered.HIGHEST_PRECEDENCE + 10)
 public class TraceIdFilter extends OncePerRequestFilter {
 
-    private static final String TRACE_ID_KEY = "traceId";
+    public static final String TRACE_ID_KEY = "traceId";
     private static final String TRACE_ID_HEADER = "X-Trace-Id";
     private static final String VALID_TRACE_ID_PATTERN = "^[A-Za-z0-9-]{1,64}$";
 
@@ -0,0 +1,15 @@
+package com.assoc.common.job;
+
+import java.util.Map;
+
+/**
+ * Extension point for registering internal service jobs.
+ * 业务模块实现此接口后，可由 scheduler 模块的 INTERNAL_SERVICE 作业按 key 调度执行，
+ * 调度策略、集群互斥和执行日志均由 scheduler 模块负责。
+ */
+public interface InternalJobTask {
+
+    String getKey();
+
+    void execute(Map<String, Object> params) throws Exception;
+}
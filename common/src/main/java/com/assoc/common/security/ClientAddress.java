@@ -0,0 +1,24 @@
+package com.assoc.common.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 用于限流、登录节流等安全判定的客户端地址。
+ *
+ * <p>只取 {@link HttpServletRequest#getRemoteAddr()}，不直接读取 {@code X-Forwarded-For} / {@code X-Real-IP}：
+ * 这两个头可由客户端任意伪造，以它们为键的限流可被轮换绕过。部署在反向代理之后时，由
+ * {@code server.forward-headers-strategy=native} 在请求进入应用前改写远端地址，且仅当直连方属于
+ * {@code server.tomcat.remoteip.internal-proxies} 列出的可信代理时才采用转发头。</p>
+ */
+public final class ClientAddress {
+
+    private ClientAddress() {
+    }
+
+    /**
+     * 可信的客户端地址；无请求时返回 null
+     */
+    public static String of(HttpServletRequest request) {
+        return request != null ? request.getRemoteAddr() : null;
+    }
+}
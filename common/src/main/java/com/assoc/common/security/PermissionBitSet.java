@@ -0,0 +1,206 @@
+package com.assoc.common.security;
+
+import java.io.ByteArrayOutputStream;
+import java.util.AbstractSet;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Immutable set of permission codes stored as one bit per {@link PermissionCatalog} index.
+ *
+ * <p>{@link #contains(Object)} looks the code up in the catalog and tests a bit, and callers
+ * holding an index test it directly with {@link #get(int)}. {@link #encode()} produces the compact
+ * form carried in tokens: either the raw bits, or the lengths of alternating gaps and runs of set
+ * bits when that is shorter, which is the usual case for roles granted whole permission groups.</p>
+ */
+public final class PermissionBitSet extends AbstractSet<String> {
+
+    private static final byte RAW = 0;
+    private static final byte RUNS = 1;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final PermissionCatalog catalog;
+    private final BitSet bits;
+    private final int size;
+
+    private PermissionBitSet(PermissionCatalog catalog, BitSet bits) {
+        this.catalog = catalog;
+        this.bits = bits;
+        int count = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            if (catalog.codeAt(i) != null) {
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * @param indexes catalog indexes of the granted permissions; copied
+     */
+    public static PermissionBitSet of(PermissionCatalog catalog, BitSet indexes) {
+        if (indexes.length() > PermissionCatalog.MAX_INDEX + 1) {
+            throw new IllegalArgumentException("Permission index out of range: " + (indexes.length() - 1));
+        }
+        return new PermissionBitSet(catalog, (BitSet) indexes.clone());
+    }
+
+    /**
+     * @return empty if one of the codes is not in the catalog
+     */
+    public static Optional<PermissionBitSet> of(PermissionCatalog catalog, Collection<String> codes) {
+        BitSet bits = new BitSet();
+        for (String code : codes) {
+            int index = catalog.indexOf(code);
+            if (index < 0) {
+                return Optional.empty();
+            }
+            bits.set(index);
+        }
+        return Optional.of(new PermissionBitSet(catalog, bits));
+    }
+
+    /**
+     * Inverse of {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the value is malformed
+     */
+    public static PermissionBitSet decode(PermissionCatalog catalog, String encoded) {
+        byte[] data = DECODER.decode(encoded);
+        if (data.length == 0) {
+            throw new IllegalArgumentException("Empty permission bitset");
+        }
+        BitSet bits = new BitSet();
+        if (data[0] == RAW) {
+            if (data.length - 1 > (PermissionCatalog.MAX_INDEX + 1) / 8) {
+                throw new IllegalArgumentException("Permission bitset too long");
+            }
+            for (int i = 1; i < data.length; i++) {
+                for (int bit = 0; bit < 8; bit++) {
+                    if ((data[i] & (1 << bit)) != 0) {
+                        bits.set((i - 1) * 8 + bit);
+                    }
+                }
+            }
+        } else if (data[0] == RUNS) {
+            int[] position = {1};
+            int index = 0;
+            while (position[0] < data.length) {
+                int gap = readVarint(data, position);
+                int run = readVarint(data, position);
+                if (gap < 0 || run <= 0 || (long) index + gap + run > PermissionCatalog.MAX_INDEX + 1) {
+                    throw new IllegalArgumentException("Invalid run in permission bitset");
+                }
+                index += gap;
+                bits.set(index, index + run);
+                index += run;
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown permission bitset format: " + data[0]);
+        }
+        return new PermissionBitSet(catalog, bits);
+    }
+
+    /**
+     * URL-safe Base64 of the shorter of the raw and the run-length form.
+     */
+    public String encode() {
+        byte[] raw = bits.toByteArray();
+        ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        runs.write(RUNS);
+        int end = 0;
+        for (int start = bits.nextSetBit(0); start >= 0; start = bits.nextSetBit(end)) {
+            int next = bits.nextClearBit(start);
+            writeVarint(runs, start - end);
+            writeVarint(runs, next - start);
+            end = next;
+        }
+        if (runs.size() <= raw.length + 1) {
+            return ENCODER.encodeToString(runs.toByteArray());
+        }
+        byte[] tagged = new byte[raw.length + 1];
+        tagged[0] = RAW;
+        System.arraycopy(raw, 0, tagged, 1, raw.length);
+        return ENCODER.encodeToString(tagged);
+    }
+
+    public PermissionCatalog catalog() {
+        return catalog;
+    }
+
+    /**
+     * Bit test by catalog index.
+     */
+    public boolean get(int index) {
+        return index >= 0 && bits.get(index);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String code && get(catalog.indexOf(code));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int index = advance(0);
+
+            private int advance(int from) {
+                int i = bits.nextSetBit(from);
+                while (i >= 0 && catalog.codeAt(i) == null) {
+                    i = bits.nextSetBit(i + 1);
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return index >= 0;
+            }
+
+            @Override
+            public String next() {
+                if (index < 0) {
+                    throw new NoSuchElementException();
+                }
+                String code = catalog.codeAt(index);
+                index = advance(index + 1);
+                return code;
+            }
+        };
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position[0] >= data.length) {
+                throw new IllegalArgumentException("Truncated permission bitset");
+            }
+            byte b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in permission bitset");
+    }
+}
@@ -0,0 +1,74 @@
+package com.assoc.common.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Stable numbering of permission codes, against which permission sets are encoded as bitsets
+ * (see {@link PermissionBitSet}).
+ *
+ * <p>A code keeps its index for as long as the permission exists; IAM uses the permission ID.
+ * {@link #version()} is a checksum of the index-to-code mapping, so two catalogs with the same
+ * version decode a bitset to the same codes. Catalogs are immutable.</p>
+ */
+public final class PermissionCatalog {
+
+    /** Largest index that can be encoded; bitsets are sized by their highest index */
+    public static final int MAX_INDEX = (1 << 16) - 1;
+
+    public static final PermissionCatalog EMPTY = new PermissionCatalog(Map.of());
+
+    private final String[] codes;
+    private final Map<String, Integer> indexes;
+    private final long version;
+
+    /**
+     * @param codesByIndex permission code per index, each index in {@code [0, MAX_INDEX]}
+     */
+    public PermissionCatalog(Map<Integer, String> codesByIndex) {
+        TreeMap<Integer, String> sorted = new TreeMap<>(codesByIndex);
+        this.codes = new String[sorted.isEmpty() ? 0 : sorted.lastKey() + 1];
+        this.indexes = new HashMap<>(sorted.size() * 2);
+        CRC32C checksum = new CRC32C();
+        sorted.forEach((index, code) -> {
+            if (index < 0 || index > MAX_INDEX) {
+                throw new IllegalArgumentException("Permission index out of range: " + index);
+            }
+            if (code == null || indexes.putIfAbsent(code, index) != null) {
+                throw new IllegalArgumentException("Missing or duplicate permission code at index " + index);
+            }
+            codes[index] = code;
+            checksum.update((index + ":" + code + "\n").getBytes(StandardCharsets.UTF_8));
+        });
+        this.version = checksum.getValue();
+    }
+
+    /**
+     * Checksum of the mapping; changes when a code is added, removed or renamed.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return index of the code, or -1 if the catalog does not contain it
+     */
+    public int indexOf(String code) {
+        Integer index = indexes.get(code);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return code at the index, or null if no code has it
+     */
+    public String codeAt(int index) {
+        return index >= 0 && index < codes.length ? codes[index] : null;
+    }
+
+    public int size() {
+        return indexes.size();
+    }
+}
@@ -1,23 +1,89 @@
 package com.assoc.iam.config;
 
+import com.assoc.common.cache.ClusterInvalidated;
+import com.assoc.iam.service.UserPermissionLoader;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Map;
+
+/**
+ * IAM 缓存配置：每个缓存都有容量上限、过期时间和可选的后台刷新，并开启统计，
+ * 由 Actuator 以 cache_gets / cache_evictions 等指标发布到 /actuator/prometheus。
+ *
+ * <p>缓存管理器包装为事务感知：事务内的 evict / clear 在提交后才执行，
+ * 避免并发请求在提交前把旧权限重新加载进缓存。userPermissions 的失效经
+ * {@code CacheInvalidationBus} 同步到集群内其他节点。</p>
+ */
+@Slf4j
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(IamCacheProperties.class)
+@ClusterInvalidated({CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+    CacheConfig.MENU_CATALOG, CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES})
 public class CacheConfig {
-    
+
+    /** 用户权限代码缓存，key 为用户ID */
+    public static final String USER_PERMISSIONS = "userPermissions";
+
+    /** JWT 认证使用的用户主体缓存，key 为用户ID，见 UserPrincipalCache */
+    public static final String USER_PRINCIPALS = "userPrincipals";
+
+    /** 全部启用菜单的目录，见 MenuTreeCache */
+    public static final String MENU_CATALOG = "menuCatalog";
+
+    /** 角色可访问的菜单ID，key 为角色代码 */
+    public static final String ROLE_MENUS = "roleMenus";
+
+    /** 合并后的用户菜单树及 ETag，key 为角色代码组合 */
+    public static final String MENU_TREES = "menuTrees";
+
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        // 配置权限相关的缓存
-        cacheManager.setCacheNames(java.util.Arrays.asList(
-            "userPermissions",      // 用户权限缓存
-            "pathPermissions"       // 路径权限缓存
-        ));
-        return cacheManager;
+    public CacheManager cacheManager(IamCacheProperties properties, UserPermissionLoader userPermissionLoader) {
+        // 路径权限由 PermissionRouteIndex 编译索引，不再按请求路径缓存
+        Map<String, CacheLoader<Object, Object>> loaders = Map.of(
+            USER_PERMISSIONS, key -> userPermissionLoader.load((Long) key)
+        );
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // 未单独配置的缓存名也必须有上限
+        cacheManager.setCaffeine(builder(properties.getDefaults()));
+        cacheManager.setAllowNullValues(false);
+        for (String name : properties.getCaches().keySet()) {
+            IamCacheProperties.Spec spec = properties.specFor(name);
+            CacheLoader<Object, Object> loader = loaders.get(name);
+            if (spec.getRefresh() != null) {
+                if (loader == null) {
+                    throw new IllegalStateException("缓存 " + name + " 没有加载器，不能配置 refresh");
+                }
+                cacheManager.registerCustomCache(name, builder(spec).build(loader));
+            } else {
+                cacheManager.registerCustomCache(name, builder(spec).build());
+            }
+            log.info("IAM 缓存 {}: maxSize={}, ttl={}, refresh={}",
+                name, spec.getMaxSize(), spec.getTtl(), spec.getRefresh());
+        }
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static Caffeine<Object, Object> builder(IamCacheProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(spec.getMaxSize())
+            .recordStats();
+        if (spec.getTtl() != null) {
+            builder.expireAfterWrite(spec.getTtl());
+        }
+        if (spec.getRefresh() != null) {
+            builder.refreshAfterWrite(spec.getRefresh());
+        }
+        return builder;
     }
 }
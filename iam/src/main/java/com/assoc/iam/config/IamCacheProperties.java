@@ -0,0 +1,65 @@
+package com.assoc.iam.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounds of the IAM caches. Every cache gets a maximum size and an expiry, so a cache can never
+ * grow with the number of users ever seen, and a missed eviction heals after {@code ttl}.
+ */
+@Data
+@ConfigurationProperties(prefix = "iam.cache")
+public class IamCacheProperties {
+
+    /**
+     * Used for caches without their own entry in {@link #caches}.
+     */
+    private Spec defaults = new Spec(1_000, Duration.ofMinutes(10), null);
+
+    /**
+     * Per-cache settings, keyed by cache name.
+     */
+    private Map<String, Spec> caches = new LinkedHashMap<>(Map.of(
+            CacheConfig.USER_PERMISSIONS, new Spec(10_000, Duration.ofMinutes(30), Duration.ofMinutes(5)),
+            CacheConfig.USER_PRINCIPALS, new Spec(10_000, Duration.ofMinutes(2), null),
+            CacheConfig.MENU_CATALOG, new Spec(1, Duration.ofHours(1), null),
+            CacheConfig.ROLE_MENUS, new Spec(1_000, Duration.ofHours(1), null),
+            CacheConfig.MENU_TREES, new Spec(1_000, Duration.ofHours(1), null)));
+
+    public Spec specFor(String cacheName) {
+        return caches.getOrDefault(cacheName, defaults);
+    }
+
+    @Data
+    public static class Spec {
+
+        /**
+         * Upper bound of entries; least recently and frequently used entries are evicted beyond this.
+         */
+        private long maxSize;
+
+        /**
+         * Entries expire this long after they were loaded.
+         */
+        private Duration ttl;
+
+        /**
+         * Entries older than this are reloaded in the background on their next read, while the
+         * stale value is still served. Must be shorter than {@link #ttl}; unset disables refresh.
+         */
+        private Duration refresh;
+
+        public Spec() {
+        }
+
+        public Spec(long maxSize, Duration ttl, Duration refresh) {
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+            this.refresh = refresh;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.assoc.iam.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Login pipeline: bcrypt cost, the bounded pool that runs password hashing, and attempt
+ * throttling. See {@code BCryptCostBenchmark} for choosing the cost on the target hardware.
+ */
+@Data
+@ConfigurationProperties(prefix = "iam.login")
+public class LoginProperties {
+
+    /**
+     * bcrypt cost (log2 rounds, 4-31). Stored hashes of another cost are re-hashed on the next
+     * successful login.
+     */
+    private int bcryptStrength = 10;
+
+    private Pool pool = new Pool();
+
+    private Throttle throttle = new Throttle();
+
+    @Data
+    public static class Pool {
+
+        /**
+         * Threads hashing passwords; bounds the CPU that logins can take.
+         */
+        private int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+        /**
+         * Hash requests allowed to wait for a thread; further requests are rejected immediately.
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * Longest time a request may wait for its hash, queueing included.
+         */
+        private Duration maxWait = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Throttle {
+
+        /**
+         * Disable to let every attempt through (e.g. in load tests).
+         */
+        private boolean enabled = true;
+
+        /**
+         * Failed attempts per username.
+         */
+        private Window perUsername = new Window(5, Duration.ofMinutes(15));
+
+        /**
+         * Attempts, failed or not, per client IP.
+         */
+        private Window perIp = new Window(30, Duration.ofMinutes(1));
+
+        /**
+         * Upper bound of tracked usernames and IPs each; the least recently used are dropped.
+         */
+        private long maxTrackedKeys = 100_000;
+    }
+
+    @Data
+    public static class Window {
+
+        /**
+         * Attempts allowed within {@link #duration}.
+         */
+        private int maxAttempts;
+
+        /**
+         * Length of the sliding window.
+         */
+        private Duration duration;
+
+        public Window() {
+        }
+
+        public Window(int maxAttempts, Duration duration) {
+            this.maxAttempts = maxAttempts;
+            this.duration = duration;
+        }
+    }
+}
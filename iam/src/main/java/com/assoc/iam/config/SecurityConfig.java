@@ -5,13 +5,20 @@ import com.assoc.iam.security.DynamicPermissionEvaluator;
 import com.assoc.iam.security.DynamicPermissionFilter;
 import com.assoc.iam.security.JwtAuthenticationEntryPoint;
 import com.assoc.iam.security.JwtAuthenticationFilter;
+import com.assoc.iam.security.BoundedPasswordEncoder;
 import com.assoc.iam.security.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.RequiredArgsConstructor;
 import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -26,6 +33,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties({TokenStateProperties.class, LoginProperties.class, UserImportProperties.class})
 @RequiredArgsConstructor
 public class SecurityConfig {
     
@@ -36,13 +44,32 @@ public class SecurityConfig {
     private final DynamicPermissionFilter dynamicPermissionFilter;
     private final SecurityWhitelist securityWhitelist;
     
+    /**
+     * Application-wide encoder for creating and changing passwords; never rejects
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Primary
+    public PasswordEncoder passwordEncoder(LoginProperties loginProperties) {
+        return new BCryptPasswordEncoder(loginProperties.getBcryptStrength());
     }
     
-    // Rely on Spring to auto-configure DaoAuthenticationProvider
-    // via the presence of a UserDetailsService and PasswordEncoder beans.
+    /**
+     * Login verification runs on its own bounded pool so that a login burst cannot take every request thread and core
+     */
+    @Bean
+    public BoundedPasswordEncoder loginPasswordEncoder(LoginProperties loginProperties,
+                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BoundedPasswordEncoder(loginProperties.getBcryptStrength(), loginProperties.getPool(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+    
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider(BoundedPasswordEncoder loginPasswordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(loginPasswordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        return provider;
+    }
     
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
@@ -66,7 +93,7 @@ public class SecurityConfig {
                 // All other requests require authentication
                 .anyRequest().authenticated()
             )
-            // Rely on global AuthenticationManager wired from UserDetailsService + PasswordEncoder
+            // Global AuthenticationManager delegates to the authenticationProvider bean above
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterAfter(dynamicPermissionFilter, JwtAuthenticationFilter.class)
             .exceptionHandling(ex -> ex.authenticationEntryPoint(jwtAuthenticationEntryPoint));
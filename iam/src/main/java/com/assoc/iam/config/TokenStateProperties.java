@@ -0,0 +1,36 @@
+package com.assoc.iam.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Verified-token cache and revocation denylist.
+ */
+@Data
+@ConfigurationProperties(prefix = "iam.token-state")
+public class TokenStateProperties {
+
+    /**
+     * Upper bound of verified access tokens kept; each entry also expires with its token.
+     */
+    private long verifiedCacheSize = 10_000;
+
+    /**
+     * Revocations the Bloom filter is sized for. The filter is rebuilt larger when the
+     * denylist outgrows it.
+     */
+    private long expectedRevocations = 100_000;
+
+    /**
+     * False positive rate of the Bloom filter at {@link #expectedRevocations}; a false positive
+     * costs one denylist query.
+     */
+    private double falsePositiveRate = 0.001;
+
+    /**
+     * How often expired denylist rows are deleted and the Bloom filter rebuilt without them.
+     */
+    private Duration purgeInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,34 @@
+package com.assoc.iam.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Bulk user import from CSV / XLSX. Passwords are hashed with the login bcrypt cost, but on a
+ * pool of their own so that an import cannot hold up logins.
+ */
+@Data
+@ConfigurationProperties(prefix = "iam.user-import")
+public class UserImportProperties {
+
+    /**
+     * Data rows accepted per file; larger files are rejected before anything is written.
+     */
+    private int maxRows = 10_000;
+
+    /**
+     * Threads hashing imported passwords.
+     */
+    private int hashThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Imports running at once; further ones are refused with HTTP 429. Bounds the rows held in
+     * memory and the hashing tasks queued on the pool.
+     */
+    private int maxConcurrent = 2;
+
+    /**
+     * Rows per JDBC batch when inserting users, roles and department links.
+     */
+    private int batchSize = 500;
+}
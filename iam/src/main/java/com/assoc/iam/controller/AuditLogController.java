@@ -1,24 +1,40 @@
 package com.assoc.iam.controller;
 
 import com.assoc.common.Result;
+import com.assoc.common.audit.Audit;
+import com.assoc.common.audit.AuditAction;
+import com.assoc.iam.dto.AuditLogCursorPage;
+import com.assoc.iam.dto.AuditLogExportFormat;
 import com.assoc.iam.dto.AuditLogQueryRequest;
 import com.assoc.iam.dto.AuditLogResponse;
+import com.assoc.iam.service.AuditLogQueryService;
 import com.assoc.iam.service.AuditLogService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+@Slf4j
 @RestController
 @RequestMapping("/api/iam/audit/logs")
 @RequiredArgsConstructor
@@ -27,10 +43,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuditLogController {
 
     private final AuditLogService auditLogService;
+    private final AuditLogQueryService auditLogQueryService;
 
     @Operation(
         summary = "分页查询审计日志",
-        description = "按动作、资源、用户及时间范围过滤审计日志",
+        description = "按动作、资源、用户及时间范围过滤审计日志；每页都会统计总数，深分页请使用游标接口",
         responses = {
             @ApiResponse(
                 responseCode = "200",
@@ -47,4 +64,59 @@ public class AuditLogController {
         Page<AuditLogResponse> page = auditLogService.search(queryRequest, pageable);
         return Result.success(page);
     }
+
+    @Operation(
+        summary = "游标分页查询审计日志",
+        description = "按发生时间、ID 倒序返回一页，用上一页的 nextCursor 取下一页；不统计总数，翻页深度不影响速度",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "查询成功",
+                content = @Content(schema = @Schema(implementation = AuditLogCursorPage.class))
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "游标无效"
+            )
+        }
+    )
+    @GetMapping("/cursor")
+    public Result<AuditLogCursorPage> cursor(
+        AuditLogQueryRequest queryRequest,
+        @Parameter(description = "上一页返回的 nextCursor，为空时从最新记录开始")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "每页条数，最大 " + AuditLogQueryService.MAX_PAGE_SIZE)
+        @RequestParam(defaultValue = "" + AuditLogQueryService.DEFAULT_PAGE_SIZE) int size,
+        @Parameter(description = "是否返回记录数估算值")
+        @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        return Result.success(auditLogQueryService.searchAfter(queryRequest, cursor, size, withTotal));
+    }
+
+    @Operation(
+        summary = "导出审计日志",
+        description = "按过滤条件流式导出全部匹配记录，格式为 NDJSON（每行一个 JSON 对象）或 CSV",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "导出文件"
+            )
+        }
+    )
+    @GetMapping("/export")
+    @Audit(action = AuditAction.EXPORT_AUDIT_LOGS, resource = "audit_log")
+    public void export(
+        AuditLogQueryRequest queryRequest,
+        @Parameter(description = "导出格式：NDJSON 或 CSV")
+        @RequestParam(defaultValue = "NDJSON") AuditLogExportFormat format,
+        HttpServletResponse response
+    ) throws IOException {
+        String filename = "audit-logs-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"))
+                + "." + format.getExtension();
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        long exported = auditLogQueryService.export(queryRequest, format, response.getOutputStream());
+        log.info("Exported {} audit logs as {}", exported, format);
+    }
 }
@@ -3,6 +3,7 @@ package com.assoc.iam.controller;
 import com.assoc.common.Result;
 import com.assoc.common.audit.Audit;
 import com.assoc.common.audit.AuditAction;
+import com.assoc.common.security.ClientAddress;
 import com.assoc.iam.dto.LoginRequest;
 import com.assoc.iam.dto.LoginResponse;
 import com.assoc.iam.service.AuthService;
@@ -47,6 +48,10 @@ public class AuthController {
             @ApiResponse(
                 responseCode = "401", 
                 description = "用户名或密码错误"
+            ),
+            @ApiResponse(
+                responseCode = "429",
+                description = "登录尝试过于频繁"
             )
         }
     )
@@ -54,8 +59,9 @@ public class AuthController {
     @Audit(action = AuditAction.LOGIN, resource = "auth")
     public Result<LoginResponse> login(
         @Parameter(description = "登录请求信息", required = true)
-        @Valid @RequestBody LoginRequest loginRequest) {
-        LoginResponse response = authService.login(loginRequest);
+        @Valid @RequestBody LoginRequest loginRequest,
+        @Parameter(hidden = true) HttpServletRequest request) {
+        LoginResponse response = authService.login(loginRequest, ClientAddress.of(request));
         return Result.success("登录成功", response);
     }
     
@@ -153,11 +159,11 @@ public class AuthController {
     }
     
     /**
-     * User logout (client-side operation)
+     * User logout: revokes the presented tokens
      */
     @Operation(
         summary = "用户登出",
-        description = "用户登出操作（客户端删除令牌即可，无需服务器端操作）",
+        description = "吊销请求头中的访问令牌，以及请求体中的刷新令牌（可选），令牌过期前不再可用",
         responses = {
             @ApiResponse(
                 responseCode = "200",
@@ -167,9 +173,12 @@ public class AuthController {
     )
     @PostMapping("/logout")
     @Audit(action = AuditAction.LOGOUT, resource = "auth")
-    public Result<Void> logout() {
-        // For stateless JWT, logout is handled on the client side by removing the token
-        // In a production environment, you might want to maintain a blacklist of tokens
+    public Result<Void> logout(
+        @Parameter(hidden = true) HttpServletRequest request,
+        @Parameter(description = "刷新令牌（可选）")
+        @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        authService.logout(extractTokenFromRequest(request),
+            refreshTokenRequest != null ? refreshTokenRequest.getRefreshToken() : null);
         return Result.success();
     }
     
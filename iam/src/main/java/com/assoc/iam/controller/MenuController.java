@@ -5,6 +5,7 @@ import com.assoc.iam.dto.MenuRequest;
 import com.assoc.iam.dto.MenuResponse;
 import com.assoc.iam.dto.MenuTreeResponse;
 import com.assoc.iam.dto.PermissionResponse;
+import com.assoc.iam.dto.VersionedMenuTree;
 import com.assoc.iam.security.UserPrincipal;
 import com.assoc.iam.service.MenuService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,6 +15,8 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
  
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
@@ -36,11 +39,16 @@ public class MenuController {
     }
     
     @GetMapping("/user-menus")
-    @Operation(summary = "Get user accessible menu tree", description = "Get menus that current user can access")
-    public Result<List<MenuTreeResponse>> getUserMenuTree(
+    @Operation(summary = "Get user accessible menu tree",
+            description = "Get menus that current user can access; answers 304 when If-None-Match carries the current ETag")
+    public ResponseEntity<Result<List<MenuTreeResponse>>> getUserMenuTree(
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
-        List<MenuTreeResponse> menuTree = menuService.getUserMenuTree(userPrincipal.getId());
-        return Result.success(menuTree);
+        VersionedMenuTree menuTree = menuService.getMenuTreeForRoles(userPrincipal.getRoleCodes());
+        // Returning the ETag lets Spring answer conditional GETs with 304 and no body
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(menuTree.etag())
+                .body(Result.success(menuTree.menus()));
     }
     
     @GetMapping
@@ -3,7 +3,9 @@ package com.assoc.iam.controller;
 import com.assoc.common.Result;
 import com.assoc.common.audit.Audit;
 import com.assoc.common.audit.AuditAction;
+import com.assoc.common.exception.BusinessException;
 import com.assoc.iam.dto.*;
+import com.assoc.iam.service.UserImportService;
 import com.assoc.iam.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,9 +20,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
  
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Set;
 
 @Slf4j
@@ -32,6 +38,7 @@ import java.util.Set;
 public class UserController {
     
     private final UserService userService;
+    private final UserImportService userImportService;
     
     @Operation(
         summary = "创建用户",
@@ -62,6 +69,43 @@ public class UserController {
         UserResponse response = userService.createUser(request);
         return Result.success(response);
     }
+
+    @Operation(
+        summary = "批量导入用户",
+        description = "从 CSV（UTF-8）或 XLSX 文件批量创建用户。表头列：用户名、密码（必需），邮箱、手机号、真实姓名、"
+            + "状态、角色（角色编码，多个以逗号或分号分隔）、部门（部门编码）、职位。"
+            + "未通过校验的行不导入，逐行列出原因；dryRun=true 时只校验不写入",
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "导入完成",
+                content = @Content(schema = @Schema(implementation = UserImportReport.class))
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "文件格式不支持、缺少必需的列或超过行数上限"
+            ),
+            @ApiResponse(
+                responseCode = "409",
+                description = "导入期间用户名或邮箱被占用"
+            )
+        }
+    )
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Audit(action = AuditAction.IMPORT_USERS, resource = "user")
+    public Result<UserImportReport> importUsers(
+        @Parameter(description = "CSV 或 XLSX 文件", required = true)
+        @RequestParam("file") MultipartFile file,
+        @Parameter(description = "只校验不写入")
+        @RequestParam(defaultValue = "false") boolean dryRun) {
+
+        log.info("Importing users from {} ({} bytes), dryRun={}", file.getOriginalFilename(), file.getSize(), dryRun);
+        try (InputStream in = file.getInputStream()) {
+            return Result.success(userImportService.importUsers(file.getOriginalFilename(), in, dryRun));
+        } catch (IOException e) {
+            throw new BusinessException(400, "无法读取导入文件: " + e.getMessage());
+        }
+    }
     
     @Operation(
         summary = "根据ID获取用户信息",
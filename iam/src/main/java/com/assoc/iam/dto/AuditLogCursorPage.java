@@ -0,0 +1,26 @@
+package com.assoc.iam.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogCursorPage {
+
+    @Schema(description = "本页记录，按发生时间、ID 倒序")
+    private List<AuditLogResponse> items;
+
+    @Schema(description = "下一页游标，传给 cursor 参数；没有更多记录时为空")
+    private String nextCursor;
+
+    @Schema(description = "是否还有更多记录")
+    private boolean hasMore;
+
+    @Schema(description = "符合条件的记录数估算值（来自查询计划，仅在 withTotal=true 时返回）")
+    private Long approximateTotal;
+}
@@ -0,0 +1,19 @@
+package com.assoc.iam.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 审计日志导出格式
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AuditLogExportFormat {
+    /** 每行一个 JSON 对象 */
+    NDJSON("application/x-ndjson;charset=UTF-8", "ndjson"),
+    /** RFC 4180，带 UTF-8 BOM 以便 Excel 识别编码 */
+    CSV("text/csv;charset=UTF-8", "csv");
+
+    private final String contentType;
+    private final String extension;
+}
@@ -0,0 +1,45 @@
+package com.assoc.iam.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(description = "用户批量导入结果")
+public class UserImportReport {
+
+    @Schema(description = "数据行数（不含表头和空行）", example = "1200")
+    private int totalRows;
+
+    @Schema(description = "成功导入的用户数，仅校验时为0", example = "1195")
+    private int importedCount;
+
+    @Schema(description = "未通过校验的行数", example = "5")
+    private int failedCount;
+
+    @Schema(description = "是否仅校验未写入", example = "false")
+    private boolean dryRun;
+
+    @Schema(description = "未通过校验的行，按行号排列")
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "行错误")
+    public static class RowError {
+
+        @Schema(description = "行号，表头为第1行", example = "3")
+        private int rowNumber;
+
+        @Schema(description = "该行的用户名", example = "zhangsan")
+        private String username;
+
+        @Schema(description = "错误信息")
+        private List<String> messages;
+    }
+}
@@ -0,0 +1,14 @@
+package com.assoc.iam.dto;
+
+import java.util.List;
+
+/**
+ * Menu tree with the ETag of its content.
+ *
+ * <p>Instances are cached and shared between requests; the tree must not be modified.</p>
+ *
+ * @param menus root menus, children nested
+ * @param etag  hash of the serialized tree, identical on every node for the same content
+ */
+public record VersionedMenuTree(List<MenuTreeResponse> menus, String etag) {
+}
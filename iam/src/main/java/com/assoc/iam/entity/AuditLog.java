@@ -69,6 +69,6 @@ public class AuditLog extends AuditableEntity {
     @Column(name = "latency_ms")
     private Long latencyMs;
 
-    @Column(name = "occurred_at")
+    @Column(name = "occurred_at", nullable = false)
     private OffsetDateTime occurredAt;
 }
@@ -0,0 +1,42 @@
+package com.assoc.iam.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * 令牌吊销记录：吊销单个令牌（tokenHash），或吊销用户在 revokedAt 之前签发的全部令牌（仅 userId）
+ */
+@Data
+@Entity
+@Table(name = "iam_revoked_token")
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** JWT 的 SHA-256 十六进制摘要；为空时吊销该用户的全部令牌 */
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    /** logout / password / disabled */
+    @Column(name = "reason", nullable = false, length = 20)
+    private String reason;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    /** 所涉令牌全部过期的时间，之后记录可以删除 */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -44,6 +44,12 @@ public class User extends AuditableEntity {
     @Column(name = "last_login_time")
     private LocalDateTime lastLoginTime;
 
+    /**
+     * Copied into issued tokens; bumping it invalidates them
+     */
+    @Column(name = "security_stamp", nullable = false)
+    private Integer securityStamp = 0;
+
 
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
@@ -0,0 +1,14 @@
+package com.assoc.iam.exception;
+
+import com.assoc.common.exception.BusinessException;
+
+/**
+ * Thrown when a login is shed before checking the password: attempts throttled, or the
+ * password hashing pool is full or too slow.
+ */
+public class LoginRejectedException extends BusinessException {
+
+    public LoginRejectedException(String message) {
+        super(429, message);
+    }
+}
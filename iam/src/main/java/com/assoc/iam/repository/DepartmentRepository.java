@@ -2,10 +2,12 @@ package com.assoc.iam.repository;
 
 import com.assoc.iam.entity.Department;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +15,8 @@ import java.util.Optional;
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
     
     Optional<Department> findByCode(String code);
+
+    List<Department> findByCodeIn(Collection<String> codes);
     
     List<Department> findByParentIdOrderBySortOrderAsc(Long parentId);
     
@@ -40,4 +44,28 @@ public interface DepartmentRepository extends JpaRepository<Department, Long> {
     boolean existsByCode(String code);
     
     boolean existsByParentIdAndName(Long parentId, String name);
+
+    /**
+     * Recompute path and level of every department below a moved one in a single statement,
+     * walking parent_id down from the moved department's new path and level
+     */
+    @Modifying
+    @Query(value = """
+        WITH RECURSIVE subtree AS (
+            SELECT d.id, CAST(:path AS varchar) AS path, CAST(:level AS integer) AS level
+            FROM iam_department d
+            WHERE d.id = :departmentId
+            UNION ALL
+            SELECT c.id, s.path || '/' || c.id, s.level + 1 FROM iam_department c
+            INNER JOIN subtree s ON c.parent_id = s.id
+        )
+        UPDATE iam_department d
+        SET path = subtree.path, level = subtree.level, updated_time = CURRENT_TIMESTAMP
+        FROM subtree
+        WHERE d.id = subtree.id
+          AND d.id != :departmentId
+        """, nativeQuery = true)
+    int updateSubtreePaths(@Param("departmentId") Long departmentId,
+                           @Param("path") String path,
+                           @Param("level") Integer level);
 }
@@ -86,6 +86,20 @@ public interface MenuRepository extends JpaRepository<Menu, Long> {
         """, nativeQuery = true)
     List<Menu> findAccessibleMenusByUserId(@Param("userId") Long userId);
 
+    /**
+     * Find ids of the menus a role can access through its permissions, see MenuTreeCache
+     */
+    @Query(value = """
+        SELECT DISTINCT mp.menu_id FROM iam_menu_permission mp
+        JOIN iam_permission p ON mp.permission_id = p.id
+        JOIN iam_role_permission rp ON p.id = rp.permission_id
+        JOIN iam_role r ON rp.role_id = r.id
+        WHERE r.code = :roleCode
+          AND r.status = 1
+          AND p.status = 1
+        """, nativeQuery = true)
+    List<Long> findAccessibleMenuIdsByRoleCode(@Param("roleCode") String roleCode);
+
     /**
      * Check if menu has children
      */
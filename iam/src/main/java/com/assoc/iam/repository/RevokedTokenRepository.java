@@ -0,0 +1,29 @@
+package com.assoc.iam.repository;
+
+import com.assoc.iam.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    boolean existsByTokenHash(String tokenHash);
+
+    /**
+     * Latest revocation of all tokens of the user, or null
+     */
+    @Query("SELECT MAX(r.revokedAt) FROM RevokedToken r WHERE r.userId = :userId AND r.tokenHash IS NULL")
+    Instant findLatestUserRevocation(@Param("userId") Long userId);
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :cutoff")
+    int deleteExpired(@Param("cutoff") Instant cutoff);
+}
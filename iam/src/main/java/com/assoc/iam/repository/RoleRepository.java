@@ -4,6 +4,8 @@ import com.assoc.iam.entity.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,4 +20,9 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
      * Check if role code exists
      */
     boolean existsByCode(String code);
+
+    /**
+     * Find roles by codes
+     */
+    List<Role> findByCodeIn(Collection<String> codes);
 }
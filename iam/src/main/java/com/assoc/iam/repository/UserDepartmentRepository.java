@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -71,15 +72,22 @@ public interface UserDepartmentRepository extends JpaRepository<UserDepartment,
     long countActiveUsersByDepartmentId(@Param("departmentId") Long departmentId, @Param("now") LocalDate now);
     
     /**
-     * Find all user IDs in department (including sub-departments)
+     * Count active users of every department, as [departmentId, count] rows
      */
-    @Query("SELECT DISTINCT ud.userId FROM UserDepartment ud " +
-           "JOIN ud.department d WHERE (d.path LIKE :pathPrefix OR d.id = :departmentId) " +
+    @Query("SELECT ud.departmentId, COUNT(DISTINCT ud.userId) FROM UserDepartment ud " +
+           "WHERE ud.status = 1 AND (ud.startDate IS NULL OR ud.startDate <= :now) " +
+           "AND (ud.endDate IS NULL OR ud.endDate >= :now) " +
+           "GROUP BY ud.departmentId")
+    List<Object[]> countActiveUsersGroupByDepartment(@Param("now") LocalDate now);
+
+    /**
+     * Find active user IDs in any of the given departments; the subtree comes from DepartmentHierarchyIndex
+     */
+    @Query("SELECT DISTINCT ud.userId FROM UserDepartment ud WHERE ud.departmentId IN :departmentIds " +
            "AND ud.status = 1 AND (ud.startDate IS NULL OR ud.startDate <= :now) " +
            "AND (ud.endDate IS NULL OR ud.endDate >= :now)")
-    List<Long> findUserIdsByDepartmentPath(@Param("departmentId") Long departmentId, 
-                                           @Param("pathPrefix") String pathPrefix, 
-                                           @Param("now") LocalDate now);
+    List<Long> findActiveUserIdsByDepartmentIds(@Param("departmentIds") Collection<Long> departmentIds,
+                                                @Param("now") LocalDate now);
     
     /**
      * Find expired relationships
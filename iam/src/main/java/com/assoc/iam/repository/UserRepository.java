@@ -4,10 +4,12 @@ import com.assoc.iam.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -102,4 +104,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
            "LEFT JOIN FETCH r.permissions " +
            "WHERE u.id = :id")
     Optional<User> findByIdWithRolesAndPermissions(@Param("id") Long id);
+    
+    /**
+     * Role codes of an active user
+     */
+    @Query("SELECT r.code FROM User u JOIN u.roles r WHERE u.id = :id AND u.status = 1")
+    List<String> findActiveUserRoleCodes(@Param("id") Long id);
+    
+    /**
+     * Replace the password hash only, e.g. when re-hashing at a new bcrypt cost on login
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
@@ -0,0 +1,152 @@
+package com.assoc.iam.security;
+
+import com.assoc.iam.config.LoginProperties;
+import com.assoc.iam.exception.LoginRejectedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * bcrypt verification on a dedicated, bounded thread pool, for the login path only.
+ *
+ * <p>Only {@link #matches(CharSequence, String)} is offloaded: request threads hand the check to the
+ * pool and wait for it. With all threads busy, up to
+ * {@code queue-capacity} hashes wait; beyond that, and after {@code max-wait}, the caller gets
+ * {@link LoginRejectedException} (HTTP 429) at once. A credential-stuffing burst therefore costs
+ * at most {@code threads} cores and a bounded number of parked request threads, and the rest of
+ * the API keeps serving. {@link #encode(CharSequence)} runs on the caller, so the rehash after a
+ * successful login never fails it. This encoder is wired into the login
+ * {@code DaoAuthenticationProvider} only; the application-wide {@link PasswordEncoder} that admin
+ * and password-change flows use is not bounded and never answers 429.</p>
+ *
+ * <p>{@link #upgradeEncoding(String)} reports hashes whose cost differs from the configured
+ * one, in either direction, so that Spring Security re-hashes them on the next login.</p>
+ *
+ * <p>Metrics: {@code iam.password.hash} (verification time), {@code .queue.wait},
+ * {@code .rejected} (by reason) and the {@code .pool.active} / {@code .pool.queue} gauges.</p>
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long maxWaitNanos;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Timer queueWait;
+    private final Timer matchesTime;
+
+    public BoundedPasswordEncoder(int strength, LoginProperties.Pool pool, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.maxWaitNanos = pool.getMaxWait().toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(pool.getThreads(), pool.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, pool.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.meterRegistry = meterRegistry;
+        this.queueWait = Timer.builder("iam.password.queue.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesTime = Timer.builder("iam.password.hash")
+                .description("Time spent computing bcrypt")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("iam.password.pool.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Threads currently hashing passwords")
+                .register(meterRegistry);
+        Gauge.builder("iam.password.pool.queue", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a thread")
+                .register(meterRegistry);
+        log.info("密码哈希线程池: bcrypt cost={}, threads={}, queue={}, maxWait={}",
+                strength, pool.getThreads(), pool.getQueueCapacity(), pool.getMaxWait());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return verify(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(2)) != strength;
+    }
+
+    private boolean verify(Callable<Boolean> check) {
+        long submitted = System.nanoTime();
+        Future<Boolean> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                queueWait.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return check.call();
+                } finally {
+                    matchesTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected("queue_full");
+            throw new LoginRejectedException("登录请求过多，请稍后再试");
+        }
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected("timeout");
+            throw new LoginRejectedException("登录请求过多，请稍后再试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LoginRejectedException("请求已取消");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private void rejected(String reason) {
+        meterRegistry.counter("iam.password.rejected", "reason", reason).increment();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
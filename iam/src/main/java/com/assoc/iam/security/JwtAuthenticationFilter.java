@@ -1,15 +1,18 @@
 package com.assoc.iam.security;
 
 import com.assoc.common.context.RequestContext;
-import com.assoc.iam.entity.User;
 import com.assoc.iam.repository.UserRepository;
+import com.assoc.iam.security.VerifiedTokenCache.VerifiedToken;
 import com.assoc.iam.service.JwtService;
+import com.assoc.iam.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,6 +21,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,8 +35,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationService tokenRevocationService;
     private final RequestContext requestContext;
     
+    @Value("${iam.security.stateless-auth:true}")
+    private boolean statelessAuth;
+    
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -44,11 +54,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = extractTokenFromRequest(request);
             log.debug("Extracted token from request: {}", token != null ? "present" : "absent");
 
-            if (token != null && jwtService.isAccessTokenValid(token)) {
+            // Signature checked once per token, revocation on every request
+            Optional<VerifiedToken> verified = token != null ? verifiedTokenCache.verify(token) : Optional.empty();
+            Optional<Claims> parsed = verified.filter(this::isNotRevoked).map(VerifiedToken::claims);
+            if (parsed.isPresent()) {
                 log.debug("Token is valid, proceeding with authentication");
-                String username = jwtService.extractUsername(token);
-                Long userId = jwtService.extractUserId(token);
-                List<String> permissions = jwtService.extractPermissions(token);
+                Claims claims = parsed.get();
+                String username = claims.getSubject();
+                Long userId = claims.get("userId", Long.class);
+                Collection<String> permissions = jwtService.extractPermissions(claims).orElse(null);
+                int securityStamp = JwtService.securityStamp(claims);
                 log.debug("Token details - username: {}, userId: {}, permissions: {}", username, userId, permissions);
 
                 if (userId != null) {
@@ -63,19 +78,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     requestContext.setCurrentUsername(null);
                 }
 
-                if (permissions != null) {
-                    requestContext.setAuthorities(permissions);
-                } else {
-                    requestContext.setAuthorities(List.of());
-                }
-
+                Optional<UserPrincipal> principalOpt = Optional.empty();
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    // Try to get user from database to create UserPrincipal with roles and permissions
-                    Optional<User> userOpt = userRepository.findActiveUserWithRolesAndPermissions(username);
+                    principalOpt = resolvePrincipal(username, userId, securityStamp);
 
-                    if (userOpt.isPresent()) {
-                        User user = userOpt.get();
-                        UserPrincipal userPrincipal = UserPrincipal.create(user);
+                    if (principalOpt.isPresent()) {
+                        UserPrincipal userPrincipal = principalOpt.get();
 
                         // Create authentication token with UserPrincipal
                         UsernamePasswordAuthenticationToken authToken =
@@ -89,12 +97,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                         log.debug("Successfully authenticated user: {} with permissions: {}", username, permissions);
                     } else {
-                        log.warn("User not found in database: {}", username);
+                        log.warn("User not found, disabled or token revoked: {}", username);
                     }
                 } else {
                     log.debug("Username is null or authentication already set - username: {}, auth: {}",
                         username, SecurityContextHolder.getContext().getAuthentication() != null ? "present" : "absent");
                 }
+
+                if (permissions == null) {
+                    // The permission catalog changed since the token was issued: use the current permissions
+                    permissions = principalOpt.<Collection<String>>map(UserPrincipal::getPermissionCodes).orElse(List.of());
+                }
+                requestContext.setAuthorities(permissions);
             } else {
                 if (token == null) {
                     log.debug("No token found in request");
@@ -111,6 +125,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    private boolean isNotRevoked(VerifiedToken verified) {
+        if (tokenRevocationService.isRevoked(verified.hash(), verified.claims())) {
+            log.debug("Token has been revoked");
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * In stateless mode the principal comes from {@link UserPrincipalCache}, so a warm request
+     * runs no query; otherwise the user is loaded with roles and permissions on every request.
+     */
+    private Optional<UserPrincipal> resolvePrincipal(String username, Long userId, int securityStamp) {
+        if (statelessAuth && userId != null) {
+            return userPrincipalCache.resolve(userId, securityStamp);
+        }
+        return userRepository.findActiveUserWithRolesAndPermissions(username)
+                .filter(user -> user.getSecurityStamp() == null || user.getSecurityStamp() == securityStamp)
+                .map(UserPrincipal::create);
+    }
+    
     /**
      * Extract JWT token from request
      */
@@ -0,0 +1,151 @@
+package com.assoc.iam.security;
+
+import com.assoc.iam.config.LoginProperties;
+import com.assoc.iam.exception.LoginRejectedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Brute-force throttling in front of the password check.
+ *
+ * <p>Two in-memory sliding windows: every attempt counts against the client IP, and failed
+ * attempts count against the username (a success clears it). An attempt over either limit
+ * is rejected with HTTP 429 before any bcrypt is spent on it. The windows are exact sliding
+ * logs, keeping the last {@code max-attempts} timestamps per key, and live in Caffeine caches
+ * bounded by {@code max-tracked-keys} that forget a key one window after its last attempt.</p>
+ *
+ * <p>State is per node. Behind a load balancer the effective limits are multiplied by the
+ * number of nodes, which still caps online guessing at a rate bcrypt can absorb.</p>
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private final LoginProperties.Throttle properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final Cache<String, SlidingWindow> usernames;
+    private final Cache<String, SlidingWindow> ips;
+
+    @Autowired
+    public LoginThrottle(LoginProperties loginProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(loginProperties.getThrottle(), meterRegistry.getIfAvailable(SimpleMeterRegistry::new), System::nanoTime);
+    }
+
+    LoginThrottle(LoginProperties.Throttle properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.usernames = windows(properties.getPerUsername().getDuration(), properties.getMaxTrackedKeys());
+        this.ips = windows(properties.getPerIp().getDuration(), properties.getMaxTrackedKeys());
+    }
+
+    private static Cache<String, SlidingWindow> windows(Duration duration, long maxKeys) {
+        return Caffeine.newBuilder()
+                .expireAfterAccess(duration)
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    /**
+     * Records an attempt from {@code ip} and rejects it if the IP or the username is over its limit.
+     */
+    public void checkAllowed(String username, String ip) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (ip != null) {
+            LoginProperties.Window perIp = properties.getPerIp();
+            SlidingWindow window = ips.get(ip, key -> new SlidingWindow(perIp.getMaxAttempts()));
+            if (!window.tryAcquire(now, perIp.getDuration().toNanos())) {
+                reject("ip", ip);
+            }
+        }
+        String key = normalize(username);
+        if (key != null) {
+            SlidingWindow window = usernames.getIfPresent(key);
+            if (window != null && window.isFull(now, properties.getPerUsername().getDuration().toNanos())) {
+                reject("username", key);
+            }
+        }
+    }
+
+    /**
+     * Counts a failed password against the username.
+     */
+    public void recordFailure(String username) {
+        String key = normalize(username);
+        if (!properties.isEnabled() || key == null) {
+            return;
+        }
+        LoginProperties.Window perUsername = properties.getPerUsername();
+        usernames.get(key, k -> new SlidingWindow(perUsername.getMaxAttempts()))
+                .tryAcquire(clock.getAsLong(), perUsername.getDuration().toNanos());
+    }
+
+    /**
+     * Clears the failures of a username after it logged in.
+     */
+    public void recordSuccess(String username) {
+        String key = normalize(username);
+        if (key != null) {
+            usernames.invalidate(key);
+        }
+    }
+
+    private void reject(String scope, String key) {
+        meterRegistry.counter("iam.login.throttled", "scope", scope).increment();
+        log.warn("登录尝试过于频繁: {}={}", scope, key);
+        throw new LoginRejectedException("登录尝试过于频繁，请稍后再试");
+    }
+
+    private static String normalize(String username) {
+        if (username == null) {
+            return null;
+        }
+        String key = username.trim().toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    /**
+     * Timestamps of the last {@code capacity} attempts in a ring; the window is full when the
+     * oldest of them is still within the window.
+     */
+    static final class SlidingWindow {
+
+        private final long[] attempts;
+        private int size;
+        private int head;
+
+        SlidingWindow(int capacity) {
+            this.attempts = new long[Math.max(1, capacity)];
+        }
+
+        synchronized boolean isFull(long now, long windowNanos) {
+            return size == attempts.length && now - attempts[head] < windowNanos;
+        }
+
+        synchronized boolean tryAcquire(long now, long windowNanos) {
+            if (isFull(now, windowNanos)) {
+                return false;
+            }
+            attempts[head] = now;
+            head = (head + 1) % attempts.length;
+            if (size < attempts.length) {
+                size++;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.assoc.iam.security;
+
+import com.assoc.common.cache.CacheInvalidationBus;
+import com.assoc.common.cache.ClusterInvalidated;
+import com.assoc.common.cache.ClusterInvalidationEvent;
+import com.assoc.common.security.PermissionCatalog;
+import com.assoc.iam.entity.Permission;
+import com.assoc.iam.repository.PermissionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Holds the compiled {@link PermissionRoutes} of the active permissions.
+ *
+ * <p>The index is replaced as a whole, so requests see either the old or the new set of routes,
+ * never a mix. Services that change permissions call {@link #invalidate()}; the rebuild then runs
+ * after their transaction commits so that it reads the committed rows. With the cache
+ * invalidation bus enabled, the other nodes rebuild as well.</p>
+ *
+ * <p>The index also provides the {@link PermissionCatalog} used to encode permission sets as
+ * bitsets. It covers inactive permissions too, so enabling or disabling one keeps its version.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ClusterInvalidated(PermissionRouteIndex.CACHE_NAME)
+public class PermissionRouteIndex {
+
+    /** Name of the index on the cache invalidation bus */
+    public static final String CACHE_NAME = "permissionRoutes";
+
+    private static final int ACTIVE = 1;
+
+    private final PermissionRepository permissionRepository;
+    private final ObjectProvider<CacheInvalidationBus> cacheInvalidationBus;
+
+    private final TransactionSynchronization rebuildAfterCommit = new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+            rebuildEverywhere();
+        }
+    };
+
+    private volatile PermissionRoutes routes;
+
+    public PermissionRoutes.Decision check(String path, String method, Set<String> granted) {
+        PermissionRoutes current = routes;
+        return (current != null ? current : initialize()).check(path, method, granted);
+    }
+
+    /**
+     * Current numbering of all permissions, indexed by permission ID.
+     */
+    public PermissionCatalog catalog() {
+        PermissionRoutes current = routes;
+        return (current != null ? current : initialize()).catalog();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // The first request retries
+            log.error("Failed to build permission route index: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized PermissionRoutes initialize() {
+        return routes != null ? routes : rebuild();
+    }
+
+    /**
+     * Reload the active permissions and swap in a new index.
+     */
+    public synchronized PermissionRoutes rebuild() {
+        long start = System.nanoTime();
+        List<Permission> permissions = permissionRepository.findAll();
+        List<Permission> active = permissions.stream()
+                .filter(permission -> permission.getStatus() != null && permission.getStatus() == ACTIVE)
+                .toList();
+        PermissionRoutes rebuilt = PermissionRoutes.compile(active, PermissionRoutes.catalogOf(permissions));
+        routes = rebuilt;
+        log.info("Permission route index rebuilt: {} rules, catalog version {} in {} ms",
+                rebuilt.size(), rebuilt.catalog().version(), (System.nanoTime() - start) / 1_000_000);
+        return rebuilt;
+    }
+
+    /**
+     * Rebuild once the current transaction commits, or right away outside a transaction.
+     * Several changes in one transaction cause a single rebuild.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!TransactionSynchronizationManager.getSynchronizations().contains(rebuildAfterCommit)) {
+                TransactionSynchronizationManager.registerSynchronization(rebuildAfterCommit);
+            }
+        } else {
+            rebuildEverywhere();
+        }
+    }
+
+    private void rebuildEverywhere() {
+        rebuild();
+        cacheInvalidationBus.ifAvailable(bus -> bus.clear(CACHE_NAME));
+    }
+
+    /**
+     * Another node changed permissions, or the bus lost messages.
+     */
+    @EventListener
+    public void onClusterInvalidation(ClusterInvalidationEvent event) {
+        if (CACHE_NAME.equals(event.cacheName())) {
+            rebuild();
+        }
+    }
+}
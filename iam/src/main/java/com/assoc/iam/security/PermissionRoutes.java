@@ -0,0 +1,437 @@
+package com.assoc.iam.security;
+
+import com.assoc.common.security.PermissionBitSet;
+import com.assoc.common.security.PermissionCatalog;
+import com.assoc.iam.entity.Permission;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, compiled form of the active permissions' {@code resource} / {@code action} pairs.
+ *
+ * <p>Ant-style resources are stored in a path-segment trie; {@code regex:} resources are compiled
+ * once into a list of patterns. A lookup walks the request path segment by segment, so its cost
+ * depends on the path depth and the wildcards on the way, not on the number of permissions.
+ * Literal, {@code *}, {@code {var}} and {@code **} segments are matched without allocating;
+ * only segments with partial wildcards (e.g. {@code *.xlsx}) and {@code regex:} resources
+ * create a {@link Matcher}.</p>
+ *
+ * <p>Matching follows {@code AntPathMatcher} except that empty segments are ignored, so a
+ * trailing slash does not change the result.</p>
+ *
+ * <p>Each rule also carries the {@link PermissionCatalog} index of its permission; when the
+ * granted set is a {@link PermissionBitSet}, a rule is checked by a bit test.</p>
+ */
+@Slf4j
+public final class PermissionRoutes {
+
+    /**
+     * Outcome of a lookup.
+     */
+    public enum Decision {
+        /** No active permission covers the path and method */
+        UNDECLARED,
+        /** At least one covering permission is granted */
+        GRANTED,
+        /** Covering permissions exist but none is granted */
+        DENIED
+    }
+
+    private static final String REGEX_PREFIX = "regex:";
+    private static final Pattern PLAIN_VARIABLE = Pattern.compile("\\{[^{}:]+}");
+
+    private static final String[] METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+    private static final int ALL_METHODS = (1 << METHODS.length) - 1;
+
+    private static final int DECLARED = 1;
+    private static final int GRANTED = 2;
+
+    public static final PermissionRoutes EMPTY = compile(List.of());
+
+    private final Node root;
+    private final RegexRule[] regexRules;
+    private final int size;
+    private final PermissionCatalog catalog;
+
+    private PermissionRoutes(Node root, RegexRule[] regexRules, int size, PermissionCatalog catalog) {
+        this.root = root;
+        this.regexRules = regexRules;
+        this.size = size;
+        this.catalog = catalog;
+    }
+
+    /**
+     * Compile the given permissions against a catalog of the same permissions.
+     */
+    public static PermissionRoutes compile(Collection<Permission> permissions) {
+        return compile(permissions, catalogOf(permissions));
+    }
+
+    /**
+     * Compile the given permissions; callers pass the active ones only.
+     *
+     * @param catalog numbering of all permissions, including inactive ones
+     */
+    public static PermissionRoutes compile(Collection<Permission> permissions, PermissionCatalog catalog) {
+        NodeBuilder root = new NodeBuilder();
+        List<RegexRule> regexRules = new ArrayList<>();
+        int size = 0;
+        for (Permission permission : permissions) {
+            String resource = permission.getResource();
+            int methods = methodMask(permission.getAction());
+            if (resource == null || methods == 0) {
+                continue;
+            }
+            Rule rule = new Rule(methods, permission.getCode(), catalog.indexOf(permission.getCode()));
+            try {
+                if (resource.startsWith(REGEX_PREFIX)) {
+                    regexRules.add(new RegexRule(Pattern.compile(resource.substring(REGEX_PREFIX.length())), rule));
+                } else {
+                    NodeBuilder node = root;
+                    for (String segment : resource.split("/")) {
+                        if (!segment.isEmpty()) {
+                            node = node.child(segment);
+                        }
+                    }
+                    node.rules.add(rule);
+                }
+                size++;
+            } catch (IllegalArgumentException e) {
+                // An invalid resource only disables its own permission, as it did when matched per request
+                log.warn("Skipping permission {} with invalid resource {}: {}",
+                        permission.getCode(), resource, e.getMessage());
+            }
+        }
+        return new PermissionRoutes(root.build(), regexRules.toArray(RegexRule[]::new), size, catalog);
+    }
+
+    /**
+     * Catalog indexed by permission ID. IDs are never reused, so an index keeps its meaning
+     * across rebuilds; permissions without an ID or beyond {@link PermissionCatalog#MAX_INDEX}
+     * are left out and fall back to code comparison.
+     */
+    public static PermissionCatalog catalogOf(Collection<Permission> permissions) {
+        Map<Integer, String> codes = new HashMap<>();
+        for (Permission permission : permissions) {
+            Long id = permission.getId();
+            if (id != null && id >= 0 && id <= PermissionCatalog.MAX_INDEX && permission.getCode() != null) {
+                codes.put(id.intValue(), permission.getCode());
+            } else if (id != null) {
+                log.warn("Permission {} has no catalog index (id {})", permission.getCode(), id);
+            }
+        }
+        return new PermissionCatalog(codes);
+    }
+
+    /**
+     * Number of compiled permission rules.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Numbering the rules were compiled against.
+     */
+    public PermissionCatalog catalog() {
+        return catalog;
+    }
+
+    /**
+     * Match a request against the compiled permissions.
+     *
+     * @param granted permission codes held by the user
+     */
+    public Decision check(String path, String method, Set<String> granted) {
+        int methodBit = methodBit(method);
+        if (path == null || methodBit == 0) {
+            return Decision.UNDECLARED;
+        }
+        int result = match(root, path, 0, methodBit, granted);
+        for (RegexRule regexRule : regexRules) {
+            if ((result & GRANTED) != 0) {
+                break;
+            }
+            if ((regexRule.rule.methods & methodBit) != 0 && regexRule.pattern.matcher(path).matches()) {
+                result |= regexRule.rule.outcome(granted);
+            }
+        }
+        if ((result & GRANTED) != 0) {
+            return Decision.GRANTED;
+        }
+        return (result & DECLARED) != 0 ? Decision.DENIED : Decision.UNDECLARED;
+    }
+
+    private static int match(Node node, String path, int from, int methodBit, Set<String> granted) {
+        int start = skipSeparators(path, from);
+        if (start == path.length()) {
+            return node.outcomeAtEnd(methodBit, granted);
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int result = 0;
+        Node literal = node.literal(path, start, end);
+        if (literal != null) {
+            result |= match(literal, path, end, methodBit, granted);
+        }
+        if (node.single != null && (result & GRANTED) == 0) {
+            result |= match(node.single, path, end, methodBit, granted);
+        }
+        for (int i = 0; i < node.patterns.length && (result & GRANTED) == 0; i++) {
+            if (node.patterns[i].matcher(CharBuffer.wrap(path, start, end)).matches()) {
+                result |= match(node.patternChildren[i], path, end, methodBit, granted);
+            }
+        }
+        if (node.doubleWildcard != null && (result & GRANTED) == 0) {
+            // '**' consumes zero or more segments
+            int position = start;
+            while ((result & GRANTED) == 0) {
+                result |= match(node.doubleWildcard, path, position, methodBit, granted);
+                if (position >= path.length()) {
+                    break;
+                }
+                int next = path.indexOf('/', position);
+                position = next < 0 ? path.length() : skipSeparators(path, next);
+            }
+        }
+        return result;
+    }
+
+    private static int skipSeparators(String path, int from) {
+        int position = from;
+        while (position < path.length() && path.charAt(position) == '/') {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Bitmask of the HTTP methods covered by a permission action; CRUD actions map to their methods.
+     */
+    static int methodMask(String action) {
+        if (action == null) {
+            return 0;
+        }
+        return switch (action.toUpperCase(Locale.ROOT)) {
+            case "CREATE" -> methodBit("POST");
+            case "READ" -> methodBit("GET");
+            case "UPDATE" -> methodBit("PUT") | methodBit("PATCH");
+            case "*", "ALL" -> ALL_METHODS;
+            default -> methodBit(action);
+        };
+    }
+
+    private static int methodBit(String method) {
+        if (method == null) {
+            return 0;
+        }
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equalsIgnoreCase(method)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    private record Rule(int methods, String code, int index) {
+
+        int outcome(Set<String> granted) {
+            boolean held = index >= 0 && granted instanceof PermissionBitSet bits
+                    ? bits.get(index)
+                    : granted.contains(code);
+            return held ? DECLARED | GRANTED : DECLARED;
+        }
+    }
+
+    private record RegexRule(Pattern pattern, Rule rule) {
+    }
+
+    /**
+     * Trie node; literal children sit in an open-addressing table probed with the hash of the
+     * path region, so looking up a segment needs no substring.
+     */
+    private static final class Node {
+
+        private final String[] literalKeys;
+        private final Node[] literalChildren;
+        private final Node single;
+        private final Pattern[] patterns;
+        private final Node[] patternChildren;
+        private final Node doubleWildcard;
+        private final Rule[] rules;
+
+        private Node(Map<String, Node> literals, Node single, Map<Pattern, Node> patterns,
+                     Node doubleWildcard, List<Rule> rules) {
+            int capacity = Integer.highestOneBit(Math.max(1, literals.size() * 2 - 1)) << 1;
+            this.literalKeys = new String[literals.isEmpty() ? 0 : capacity];
+            this.literalChildren = new Node[literalKeys.length];
+            literals.forEach((key, child) -> {
+                int slot = key.hashCode() & (literalKeys.length - 1);
+                while (literalKeys[slot] != null) {
+                    slot = (slot + 1) & (literalKeys.length - 1);
+                }
+                literalKeys[slot] = key;
+                literalChildren[slot] = child;
+            });
+            this.single = single;
+            this.patterns = patterns.keySet().toArray(Pattern[]::new);
+            this.patternChildren = patterns.values().toArray(Node[]::new);
+            this.doubleWildcard = doubleWildcard;
+            this.rules = rules.toArray(Rule[]::new);
+        }
+
+        Node literal(String path, int start, int end) {
+            if (literalKeys.length == 0) {
+                return null;
+            }
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int length = end - start;
+            int mask = literalKeys.length - 1;
+            for (int slot = hash & mask; literalKeys[slot] != null; slot = (slot + 1) & mask) {
+                String key = literalKeys[slot];
+                if (key.length() == length && key.regionMatches(0, path, start, length)) {
+                    return literalChildren[slot];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * The path is consumed: rules of this node, and of trailing '**' segments matching nothing.
+         */
+        int outcomeAtEnd(int methodBit, Set<String> granted) {
+            int result = 0;
+            for (Rule rule : rules) {
+                if ((rule.methods & methodBit) != 0) {
+                    result |= rule.outcome(granted);
+                    if ((result & GRANTED) != 0) {
+                        return result;
+                    }
+                }
+            }
+            if (doubleWildcard != null) {
+                result |= doubleWildcard.outcomeAtEnd(methodBit, granted);
+            }
+            return result;
+        }
+    }
+
+    private static final class NodeBuilder {
+
+        private final Map<String, NodeBuilder> literals = new LinkedHashMap<>();
+        private final Map<String, NodeBuilder> patterns = new LinkedHashMap<>();
+        private NodeBuilder single;
+        private NodeBuilder doubleWildcard;
+        private final List<Rule> rules = new ArrayList<>();
+        /** Segment pattern leading to this node, for children of {@link #patterns} */
+        private final Pattern pattern;
+
+        NodeBuilder() {
+            this(null);
+        }
+
+        private NodeBuilder(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        /**
+         * Child for a segment; an invalid segment pattern throws here, while its permission
+         * is being added, so that it cannot fail {@link #build()}.
+         */
+        NodeBuilder child(String segment) {
+            if (segment.equals("**")) {
+                return doubleWildcard != null ? doubleWildcard : (doubleWildcard = new NodeBuilder());
+            }
+            if (segment.equals("*") || PLAIN_VARIABLE.matcher(segment).matches()) {
+                return single != null ? single : (single = new NodeBuilder());
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+                NodeBuilder child = patterns.get(segment);
+                if (child == null) {
+                    child = new NodeBuilder(segmentPattern(segment));
+                    patterns.put(segment, child);
+                }
+                return child;
+            }
+            return literals.computeIfAbsent(segment, key -> new NodeBuilder());
+        }
+
+        Node build() {
+            Map<String, Node> builtLiterals = new LinkedHashMap<>();
+            literals.forEach((key, child) -> builtLiterals.put(key, child.build()));
+            Map<Pattern, Node> builtPatterns = new LinkedHashMap<>();
+            patterns.values().forEach(child -> builtPatterns.put(child.pattern, child.build()));
+            return new Node(builtLiterals,
+                    single != null ? single.build() : null,
+                    builtPatterns,
+                    doubleWildcard != null ? doubleWildcard.build() : null,
+                    rules);
+        }
+    }
+
+    /**
+     * Regex for one Ant segment: {@code ?} is one character, {@code *} any characters,
+     * {@code {name}} any characters and {@code {name:regex}} the given regex.
+     */
+    static Pattern segmentPattern(String segment) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < segment.length()) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                if (c == '*') {
+                    regex.append(".*");
+                } else if (c == '?') {
+                    regex.append('.');
+                } else {
+                    int close = variableEnd(segment, i);
+                    String variable = segment.substring(i + 1, close);
+                    int colon = variable.indexOf(':');
+                    regex.append('(').append(colon < 0 ? ".*" : variable.substring(colon + 1)).append(')');
+                    i = close;
+                }
+            } else {
+                literal.append(c);
+            }
+            i++;
+        }
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static int variableEnd(String segment, int open) {
+        int depth = 0;
+        for (int i = open; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unclosed variable in path segment: " + segment);
+    }
+}
@@ -5,6 +5,7 @@ import com.assoc.iam.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,7 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     
     private final UserRepository userRepository;
     
@@ -30,4 +31,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserPrincipal.create(user);
     }
+
+    /**
+     * 登录成功且存储的哈希 cost 与配置不一致时，由 DaoAuthenticationProvider 调用以保存新哈希。
+     * 密码本身未变，因此不递增 securityStamp，已签发的令牌继续有效。
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        userRepository.updatePassword(principal.getId(), newPassword);
+        log.info("Re-hashed password for user: {}", principal.getUsername());
+        return principal.withPassword(newPassword);
+    }
 }
@@ -1,134 +1,112 @@
 package com.assoc.iam.security;
 
+import com.assoc.iam.entity.Permission;
+import com.assoc.iam.entity.Role;
 import com.assoc.iam.entity.User;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Spring Security UserDetails 实现类
  * 将业务User实体和Spring Security认证分离
+ *
+ * <p>创建时从实体中复制所需字段，不再持有实体本身，因此可以被缓存并跨请求、跨线程共享，
+ * 也不会在会话关闭后触发懒加载。</p>
  */
 @Getter
-@RequiredArgsConstructor
 public class UserPrincipal implements UserDetails {
-    
-    private final User user;
-    
-    @Override
-    public Collection<? extends GrantedAuthority> getAuthorities() {
-        if (user.getRoles() == null || user.getRoles().isEmpty()) {
-            return List.of();
-        }
 
-        // 收集权限
-        var authorities = user.getRoles().stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .map(permission -> new SimpleGrantedAuthority(permission.getCode()))
-                .collect(Collectors.toSet());
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final String email;
+    private final String realName;
+    private final boolean enabled;
+    private final int securityStamp;
+    private final List<String> roleCodes;
+    private final List<String> permissionCodes;
+    private final Set<GrantedAuthority> authorities;
 
-        // 添加角色（以 ROLE_ 前缀，符合 Spring Security 约定）
-        user.getRoles().forEach(role ->
-            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getCode()))
-        );
+    private UserPrincipal(User user) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.email = user.getEmail();
+        this.realName = user.getRealName();
+        this.enabled = user.getStatus() != null && user.getStatus() == 1;
+        this.securityStamp = user.getSecurityStamp() != null ? user.getSecurityStamp() : 0;
 
-        return authorities;
+        Set<String> roles = new LinkedHashSet<>();
+        Set<String> permissions = new LinkedHashSet<>();
+        if (user.getRoles() != null) {
+            for (Role role : user.getRoles()) {
+                roles.add(role.getCode());
+                if (role.getPermissions() != null) {
+                    role.getPermissions().stream().map(Permission::getCode).forEach(permissions::add);
+                }
+            }
+        }
+        this.roleCodes = List.copyOf(roles);
+        this.permissionCodes = List.copyOf(permissions);
+
+        // 收集权限，并添加角色（以 ROLE_ 前缀，符合 Spring Security 约定）
+        Set<GrantedAuthority> granted = new LinkedHashSet<>();
+        permissions.forEach(code -> granted.add(new SimpleGrantedAuthority(code)));
+        roles.forEach(code -> granted.add(new SimpleGrantedAuthority("ROLE_" + code)));
+        this.authorities = Set.copyOf(granted);
     }
-    
-    @Override
-    public String getPassword() {
-        return user.getPassword();
+
+    private UserPrincipal(UserPrincipal source, String password) {
+        this.id = source.id;
+        this.username = source.username;
+        this.password = password;
+        this.email = source.email;
+        this.realName = source.realName;
+        this.enabled = source.enabled;
+        this.securityStamp = source.securityStamp;
+        this.roleCodes = source.roleCodes;
+        this.permissionCodes = source.permissionCodes;
+        this.authorities = source.authorities;
     }
-    
+
     @Override
-    public String getUsername() {
-        return user.getUsername();
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
     }
-    
+
     @Override
     public boolean isAccountNonExpired() {
         return true;
     }
-    
+
     @Override
     public boolean isAccountNonLocked() {
         return true;
     }
-    
+
     @Override
     public boolean isCredentialsNonExpired() {
         return true;
     }
-    
-    @Override
-    public boolean isEnabled() {
-        return user.getStatus() != null && user.getStatus() == 1;
-    }
-    
-    /**
-     * 获取用户ID
-     */
-    public Long getId() {
-        return user.getId();
-    }
-    
-    /**
-     * 获取真实姓名
-     */
-    public String getRealName() {
-        return user.getRealName();
-    }
-    
-    /**
-     * 获取邮箱
-     */
-    public String getEmail() {
-        return user.getEmail();
-    }
-    
-    /**
-     * 获取所有部门ID列表（从用户部门关系中获取）
-     */
-    public List<Long> getDepartmentIds() {
-        return user.getDepartmentIds();
-    }
 
     /**
-     * 获取角色代码列表
+     * 静态工厂方法创建UserPrincipal，角色和权限须已加载
      */
-    public List<String> getRoleCodes() {
-        if (user.getRoles() == null || user.getRoles().isEmpty()) {
-            return List.of();
-        }
-        return user.getRoles().stream()
-                .map(role -> role.getCode())
-                .collect(Collectors.toList());
-    }
-    
-    /**
-     * 获取权限代码列表
-     */
-    public List<String> getPermissionCodes() {
-        if (user.getRoles() == null || user.getRoles().isEmpty()) {
-            return List.of();
-        }
-        return user.getRoles().stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .map(permission -> permission.getCode())
-                .distinct()
-                .collect(Collectors.toList());
+    public static UserPrincipal create(User user) {
+        return new UserPrincipal(user);
     }
-    
+
     /**
-     * 静态工厂方法创建UserPrincipal
+     * 复制一份仅密码哈希不同的主体，用于登录时按新的 bcrypt cost 重新哈希
      */
-    public static UserPrincipal create(User user) {
-        return new UserPrincipal(user);
+    public UserPrincipal withPassword(String password) {
+        return new UserPrincipal(this, password);
     }
 }
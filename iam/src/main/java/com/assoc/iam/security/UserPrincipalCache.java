@@ -0,0 +1,64 @@
+package com.assoc.iam.security;
+
+import com.assoc.iam.config.CacheConfig;
+import com.assoc.iam.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 为 JWT 认证提供用户主体，命中缓存时认证不需要查询数据库。
+ *
+ * <p>缓存以用户ID为 key，缓存的主体带有加载时的安全戳（security stamp）。令牌中的安全戳与之相同且
+ * 用户处于启用状态时才认证通过：修改或重置密码会递增安全戳，使已签发的令牌失效；禁用、删除用户或
+ * 角色变更会清除对应缓存，下一次请求即读到新状态。令牌的安全戳比缓存的新时（其他节点已变更但失效
+ * 消息尚未到达），重新加载一次。</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * @param securityStamp 令牌中的安全戳
+     * @return 令牌仍然有效时的用户主体
+     */
+    public Optional<UserPrincipal> resolve(Long userId, int securityStamp) {
+        Cache cache = cache();
+        Optional<UserPrincipal> principal = cache.get(userId, () -> load(userId));
+        if (principal != null && principal.isPresent() && principal.get().getSecurityStamp() < securityStamp) {
+            principal = load(userId);
+            cache.put(userId, principal);
+        }
+        if (principal == null || principal.isEmpty()) {
+            log.debug("用户 {} 不存在", userId);
+            return Optional.empty();
+        }
+        UserPrincipal current = principal.get();
+        if (!current.isEnabled()) {
+            log.debug("用户 {} 已被禁用", userId);
+            return Optional.empty();
+        }
+        if (current.getSecurityStamp() != securityStamp) {
+            log.debug("用户 {} 的令牌已失效: stamp {} != {}", userId, securityStamp, current.getSecurityStamp());
+            return Optional.empty();
+        }
+        return principal;
+    }
+
+    private Optional<UserPrincipal> load(Long userId) {
+        return userRepository.findByIdWithRolesAndPermissions(userId).map(UserPrincipal::create);
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.USER_PRINCIPALS));
+    }
+}
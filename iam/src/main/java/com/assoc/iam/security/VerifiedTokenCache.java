@@ -0,0 +1,84 @@
+package com.assoc.iam.security;
+
+import com.assoc.iam.config.TokenStateProperties;
+import com.assoc.iam.service.JwtService;
+import com.assoc.iam.service.TokenRevocationService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claims of access tokens whose signature has been verified, keyed by the token's SHA-256.
+ *
+ * <p>A repeated token costs one hash instead of Base64 decoding, an HMAC check and JSON parsing.
+ * Each entry expires with its token, and the cache is bounded by
+ * {@code iam.token-state.verified-cache-size}. Invalid tokens are not cached. Revocation is
+ * checked on every request by the caller, so revoking a token does not touch this cache.
+ * Metrics are published as {@code cache.*{cache=verifiedTokens}}.</p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    static final String CACHE_NAME = "verifiedTokens";
+
+    private final JwtService jwtService;
+    private final Cache<String, Claims> cache;
+
+    public VerifiedTokenCache(JwtService jwtService, TokenStateProperties properties,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jwtService = jwtService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getVerifiedCacheSize())
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remaining = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry.getIfAvailable(SimpleMeterRegistry::new), cache, CACHE_NAME);
+    }
+
+    /**
+     * @return the token's hash and claims if it is a valid, unexpired access token
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        String hash = TokenRevocationService.hash(token);
+        Claims claims = cache.getIfPresent(hash);
+        if (claims == null) {
+            Optional<Claims> parsed = jwtService.parseAccessToken(token);
+            if (parsed.isEmpty()) {
+                return Optional.empty();
+            }
+            claims = parsed.get();
+            if (claims.getExpiration() != null) {
+                cache.put(hash, claims);
+            }
+        }
+        return Optional.of(new VerifiedToken(hash, claims));
+    }
+
+    public record VerifiedToken(String hash, Claims claims) {
+    }
+}
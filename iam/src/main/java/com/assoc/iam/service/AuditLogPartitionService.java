@@ -0,0 +1,157 @@
+package com.assoc.iam.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 审计日志分区维护
+ *
+ * <p>{@code iam_audit_log} 按 {@code occurred_at} 的月份做范围分区（V005）。本服务提前创建未来月份的分区，
+ * 并在保留期到期后整块卸载（DETACH）并删除分区，代替逐行删除。月份边界按应用时区计算，与迁移脚本一致。</p>
+ *
+ * <p>多个节点可能同时执行，分区 DDL 在同一事务级咨询锁下串行进行。</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditLogPartitionService {
+
+    private static final String TABLE = "iam_audit_log";
+    private static final String DEFAULT_PARTITION = "iam_audit_log_default";
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("iam_audit_log_p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ssXXX");
+    private static final int DEFAULT_PARTITION_DELETE_BATCH = 5000;
+    /** DETACH takes an exclusive lock on the parent; give up rather than queue the audit writer behind it */
+    private static final String LOCK_TIMEOUT = "5s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 确保当前月及之后 {@code monthsAhead} 个月的分区存在
+     *
+     * @return 新建的分区数
+     */
+    public int createPartitions(int monthsAhead) {
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            Boolean attached = new TransactionTemplate(transactionManager).execute(status -> {
+                lockPartitions();
+                if (partitions().contains(name)) {
+                    return false;
+                }
+                String from = bound(month);
+                String to = bound(month.plusMonths(1));
+                // Rows that fell into the default partition for this range must move before the attach
+                jdbcTemplate.execute("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS)".formatted(name, TABLE));
+                jdbcTemplate.update("""
+                        WITH moved AS (
+                            DELETE FROM %s WHERE occurred_at >= CAST(? AS timestamptz) AND occurred_at < CAST(? AS timestamptz)
+                            RETURNING *
+                        )
+                        INSERT INTO %s SELECT * FROM moved
+                        """.formatted(DEFAULT_PARTITION, name), from, to);
+                jdbcTemplate.execute("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')"
+                        .formatted(TABLE, name, from, to));
+                return true;
+            });
+            if (Boolean.TRUE.equals(attached)) {
+                log.info("Created audit log partition {}", name);
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 删除早于 {@code cutoff} 的审计日志
+     * 整月都早于截止时间的分区被卸载并删除；跨越截止时间的分区保留到下个月整体删除。
+     * 默认分区中的过期行按批删除。
+     *
+     * @return 删除的分区数
+     */
+    public int dropPartitionsBefore(OffsetDateTime cutoff) {
+        int dropped = 0;
+        for (String name : partitions()) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(matcher.group(1), PARTITION_SUFFIX);
+            if (monthStart(month.plusMonths(1)).isAfter(cutoff)) {
+                continue;
+            }
+            Boolean removed = new TransactionTemplate(transactionManager).execute(status -> {
+                lockPartitions();
+                if (!partitions().contains(name)) {
+                    return false;
+                }
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+                jdbcTemplate.execute("ALTER TABLE %s DETACH PARTITION %s".formatted(TABLE, name));
+                jdbcTemplate.execute("DROP TABLE " + name);
+                return true;
+            });
+            if (Boolean.TRUE.equals(removed)) {
+                log.info("Dropped audit log partition {}", name);
+                dropped++;
+            }
+        }
+
+        long deleted = 0;
+        int batch;
+        do {
+            batch = jdbcTemplate.update("""
+                    DELETE FROM %1$s WHERE ctid IN (
+                        SELECT ctid FROM %1$s WHERE occurred_at < ? LIMIT ?
+                    )
+                    """.formatted(DEFAULT_PARTITION), cutoff, DEFAULT_PARTITION_DELETE_BATCH);
+            deleted += batch;
+        } while (batch >= DEFAULT_PARTITION_DELETE_BATCH);
+        if (deleted > 0) {
+            log.info("Deleted {} expired audit logs from {}", deleted, DEFAULT_PARTITION);
+        }
+        return dropped;
+    }
+
+    private void lockPartitions() {
+        jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(hashtext(?))", Integer.class, TABLE);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = CAST('iam_audit_log' AS regclass)
+                ORDER BY c.relname
+                """, String.class);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "iam_audit_log_p" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static OffsetDateTime monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+
+    private static String bound(YearMonth month) {
+        return monthStart(month).format(BOUND);
+    }
+}
@@ -0,0 +1,410 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.audit.AuditResultStatus;
+import com.assoc.common.exception.BusinessException;
+import com.assoc.iam.dto.AuditLogCursorPage;
+import com.assoc.iam.dto.AuditLogExportFormat;
+import com.assoc.iam.dto.AuditLogQueryRequest;
+import com.assoc.iam.dto.AuditLogResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 审计日志的游标分页与流式导出
+ *
+ * <p>按 {@code (occurred_at, id)} 倒序做键集分页：游标记录上一页最后一行的排序键，下一页从其后开始，
+ * 不用 OFFSET，也不统计总数；需要总数时返回查询计划的估算值。导出在只读事务中以服务端游标
+ * （fetch size）逐行读取并直接写出，内存占用与导出行数无关；角色、权限列原样输出，不做 JSON 解析。</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditLogQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final String COLUMNS = "id, user_id, username, roles, permissions, action, resource, remark, "
+            + "request_uri, http_method, client_ip, user_agent, parameters, result_status, result_message, "
+            + "latency_ms, occurred_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 查询 {@code cursor} 之后的一页，{@code cursor} 为空时从最新记录开始
+     *
+     * @param withTotal 是否附带符合条件的记录数估算值
+     */
+    public AuditLogCursorPage searchAfter(AuditLogQueryRequest request, String cursor, int size, boolean withTotal) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Filter filter = Filter.of(request);
+        List<Object> args = new ArrayList<>(filter.args());
+        StringBuilder where = new StringBuilder(filter.where());
+        if (StringUtils.hasText(cursor)) {
+            Key after = Key.decode(cursor);
+            where.append(where.isEmpty() ? " WHERE " : " AND ").append("(occurred_at, id) < (?, ?)");
+            args.add(after.occurredAt());
+            args.add(after.id());
+        }
+        args.add(limit + 1);
+
+        List<AuditLogResponse> items = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM iam_audit_log" + where + " ORDER BY occurred_at DESC, id DESC LIMIT ?",
+                (rs, rowNum) -> toResponse(rs), args.toArray());
+        boolean hasMore = items.size() > limit;
+        if (hasMore) {
+            items = items.subList(0, limit);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            AuditLogResponse last = items.get(items.size() - 1);
+            nextCursor = new Key(last.getOccurredAt(), last.getId()).encode();
+        }
+        Long total = withTotal ? estimateCount(filter) : null;
+        return new AuditLogCursorPage(items, nextCursor, hasMore, total);
+    }
+
+    /**
+     * 按过滤条件导出全部匹配记录，按发生时间、ID 倒序
+     *
+     * @return 导出的记录数
+     */
+    public long export(AuditLogQueryRequest request, AuditLogExportFormat format, OutputStream out) throws IOException {
+        Filter filter = Filter.of(request);
+        String sql = "SELECT " + COLUMNS + " FROM iam_audit_log" + filter.where() + " ORDER BY occurred_at DESC, id DESC";
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == AuditLogExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long[] count = new long[1];
+        try {
+            rowWriter.begin();
+            // The PostgreSQL driver only streams with a fetch size inside a transaction
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                statement.setFetchSize(EXPORT_FETCH_SIZE);
+                List<Object> args = filter.args();
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            }));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; nothing more can be sent
+            throw e.getCause();
+        }
+        rowWriter.end();
+        writer.flush();
+        return count[0];
+    }
+
+    /**
+     * 查询计划估算的匹配行数，代价与表大小无关
+     */
+    private Long estimateCount(Filter filter) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) SELECT 1 FROM iam_audit_log" + filter.where(),
+                String.class, filter.args().toArray());
+        try {
+            JsonNode rows = objectMapper.readTree(plan).path(0).path("Plan").path("Plan Rows");
+            return rows.isNumber() ? rows.asLong() : null;
+        } catch (IOException e) {
+            log.warn("Failed to read audit log count estimate: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private AuditLogResponse toResponse(ResultSet rs) throws SQLException {
+        AuditLogResponse response = new AuditLogResponse();
+        response.setId(rs.getLong("id"));
+        response.setUserId(rs.getObject("user_id", Long.class));
+        response.setUsername(rs.getString("username"));
+        response.setRoles(readList(rs.getString("roles")));
+        response.setPermissions(readList(rs.getString("permissions")));
+        response.setAction(rs.getString("action"));
+        response.setResource(rs.getString("resource"));
+        response.setRemark(rs.getString("remark"));
+        response.setRequestUri(rs.getString("request_uri"));
+        response.setHttpMethod(rs.getString("http_method"));
+        response.setClientIp(rs.getString("client_ip"));
+        response.setUserAgent(rs.getString("user_agent"));
+        response.setParameters(rs.getString("parameters"));
+        response.setResultStatus(resolveStatus(rs.getString("result_status")));
+        response.setResultMessage(rs.getString("result_message"));
+        response.setLatencyMs(rs.getObject("latency_ms", Long.class));
+        response.setOccurredAt(rs.getObject("occurred_at", OffsetDateTime.class));
+        return response;
+    }
+
+    private List<String> readList(String value) {
+        if (!StringUtils.hasText(value)) {
+            return List.of();
+        }
+        if (!isJsonArray(value)) {
+            return List.of(value);
+        }
+        try {
+            return objectMapper.readerForListOf(String.class).readValue(value);
+        } catch (IOException e) {
+            return List.of(value);
+        }
+    }
+
+    private static boolean isJsonArray(String value) {
+        return value.startsWith("[") && value.endsWith("]");
+    }
+
+    private static AuditResultStatus resolveStatus(String status) {
+        if (!StringUtils.hasText(status)) {
+            return null;
+        }
+        try {
+            return AuditResultStatus.valueOf(status);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 过滤条件对应的 WHERE 子句（含前导空格，无条件时为空串）及其参数
+     */
+    record Filter(String where, List<Object> args) {
+
+        static Filter of(AuditLogQueryRequest request) {
+            AuditLogQueryRequest query = request != null ? request : new AuditLogQueryRequest();
+            List<String> conditions = new ArrayList<>();
+            List<Object> args = new ArrayList<>();
+            if (StringUtils.hasText(query.getAction())) {
+                conditions.add("action = ?");
+                args.add(query.getAction());
+            }
+            if (StringUtils.hasText(query.getResource())) {
+                conditions.add("resource = ?");
+                args.add(query.getResource());
+            }
+            if (StringUtils.hasText(query.getUsername())) {
+                conditions.add("username = ?");
+                args.add(query.getUsername());
+            }
+            if (query.getResultStatus() != null) {
+                conditions.add("result_status = ?");
+                args.add(query.getResultStatus().name());
+            }
+            if (query.getStartTime() != null) {
+                conditions.add("occurred_at >= ?");
+                args.add(query.getStartTime());
+            }
+            if (query.getEndTime() != null) {
+                conditions.add("occurred_at <= ?");
+                args.add(query.getEndTime());
+            }
+            String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+            return new Filter(where, List.copyOf(args));
+        }
+    }
+
+    /**
+     * 排序键，编码为不透明的游标
+     */
+    record Key(OffsetDateTime occurredAt, long id) {
+
+        String encode() {
+            String raw = occurredAt.toInstant() + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Key decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int comma = raw.indexOf(',');
+                Instant occurredAt = Instant.parse(raw.substring(0, comma));
+                return new Key(occurredAt.atOffset(ZoneOffset.UTC), Long.parseLong(raw.substring(comma + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new BusinessException(400, "无效的分页游标");
+            }
+        }
+    }
+
+    private interface RowWriter {
+
+        void begin() throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        default void end() throws IOException {
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.setRootValueSeparator(null);
+            // The writer is flushed and closed by the caller
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            writeNumber("userId", rs.getObject("user_id", Long.class));
+            writeString("username", rs.getString("username"));
+            writeList("roles", rs.getString("roles"));
+            writeList("permissions", rs.getString("permissions"));
+            writeString("action", rs.getString("action"));
+            writeString("resource", rs.getString("resource"));
+            writeString("remark", rs.getString("remark"));
+            writeString("requestUri", rs.getString("request_uri"));
+            writeString("httpMethod", rs.getString("http_method"));
+            writeString("clientIp", rs.getString("client_ip"));
+            writeString("userAgent", rs.getString("user_agent"));
+            writeString("parameters", rs.getString("parameters"));
+            writeString("resultStatus", rs.getString("result_status"));
+            writeString("resultMessage", rs.getString("result_message"));
+            writeNumber("latencyMs", rs.getObject("latency_ms", Long.class));
+            OffsetDateTime occurredAt = rs.getObject("occurred_at", OffsetDateTime.class);
+            writeString("occurredAt", occurredAt != null ? occurredAt.toString() : null);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void end() throws IOException {
+            generator.flush();
+        }
+
+        private void writeString(String name, String value) throws IOException {
+            if (value != null) {
+                generator.writeStringField(name, value);
+            } else {
+                generator.writeNullField(name);
+            }
+        }
+
+        private void writeNumber(String name, Long value) throws IOException {
+            if (value != null) {
+                generator.writeNumberField(name, value);
+            } else {
+                generator.writeNullField(name);
+            }
+        }
+
+        /** Stored as a JSON array; written as is instead of parsed and re-serialized */
+        private void writeList(String name, String value) throws IOException {
+            generator.writeFieldName(name);
+            if (!StringUtils.hasText(value)) {
+                generator.writeStartArray();
+                generator.writeEndArray();
+            } else if (isJsonArray(value)) {
+                generator.writeRawValue(value);
+            } else {
+                generator.writeStartArray();
+                generator.writeString(value);
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private static final String[] HEADER = {"id", "userId", "username", "roles", "permissions", "action",
+                "resource", "remark", "requestUri", "httpMethod", "clientIp", "userAgent", "parameters",
+                "resultStatus", "resultMessage", "latencyMs", "occurredAt"};
+        /** Column of each header field; roles and permissions stay in their stored JSON form */
+        private static final String[] COLUMNS = {"id", "user_id", "username", "roles", "permissions", "action",
+                "resource", "remark", "request_uri", "http_method", "client_ip", "user_agent", "parameters",
+                "result_status", "result_message", "latency_ms", "occurred_at"};
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write('\uFEFF');
+            writer.write(String.join(",", HEADER));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if ("occurred_at".equals(COLUMNS[i])) {
+                    OffsetDateTime occurredAt = rs.getObject(i + 1, OffsetDateTime.class);
+                    if (occurredAt != null) {
+                        writer.write(occurredAt.toString());
+                    }
+                    continue;
+                }
+                Object value = rs.getObject(i + 1);
+                if (value instanceof Number) {
+                    writer.write(value.toString());
+                } else if (value != null) {
+                    writeField(value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            // A leading formula character would be evaluated by spreadsheet applications
+            String safe = !value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+            if (safe.indexOf(',') < 0 && safe.indexOf('"') < 0 && safe.indexOf('\n') < 0 && safe.indexOf('\r') < 0) {
+                writer.write(safe);
+                return;
+            }
+            writer.write('"');
+            writer.write(safe.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
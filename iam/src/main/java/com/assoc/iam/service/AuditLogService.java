@@ -16,11 +16,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import jakarta.persistence.criteria.Predicate;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,9 +36,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AuditLogService {
 
+    private static final String INSERT_SQL = "INSERT INTO iam_audit_log (user_id, username, roles, permissions, "
+            + "action, resource, remark, request_uri, http_method, client_ip, user_agent, parameters, "
+            + "result_status, result_message, latency_ms, occurred_at, created_time, updated_time, "
+            + "created_by, updated_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     private final AuditLogRepository auditLogRepository;
     private final ObjectMapper objectMapper;
     private final RequestContext requestContext;
+    private final JdbcTemplate jdbcTemplate;
 
     @Transactional
     public void record(AuditContext context) {
@@ -52,6 +64,42 @@ public class AuditLogService {
         auditLogRepository.save(entity);
     }
 
+    /**
+     * 批量写入审计日志（组提交）
+     * 一条 JDBC 批量语句写入整批记录，驱动开启 reWriteBatchedInserts 后合并为多行 INSERT；
+     * 操作人取自各条记录本身，而非当前线程的请求上下文
+     */
+    @Transactional
+    public void recordAll(List<AuditContext> contexts) {
+        if (contexts == null || contexts.isEmpty()) {
+            return;
+        }
+        List<AuditLog> entities = contexts.stream().map(this::toEntity).toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, entities, entities.size(), (ps, entity) -> {
+            setLong(ps, 1, entity.getUserId());
+            ps.setString(2, entity.getUsername());
+            ps.setString(3, entity.getRoles());
+            ps.setString(4, entity.getPermissions());
+            ps.setString(5, entity.getAction());
+            ps.setString(6, entity.getResource());
+            ps.setString(7, entity.getRemark());
+            ps.setString(8, entity.getRequestUri());
+            ps.setString(9, entity.getHttpMethod());
+            ps.setString(10, entity.getClientIp());
+            ps.setString(11, entity.getUserAgent());
+            ps.setString(12, entity.getParameters());
+            ps.setString(13, entity.getResultStatus());
+            ps.setString(14, entity.getResultMessage());
+            setLong(ps, 15, entity.getLatencyMs());
+            ps.setObject(16, entity.getOccurredAt());
+            ps.setTimestamp(17, now);
+            ps.setTimestamp(18, now);
+            setLong(ps, 19, entity.getUserId());
+            setLong(ps, 20, entity.getUserId());
+        });
+    }
+
     @Transactional(readOnly = true)
     public Page<AuditLogResponse> search(AuditLogQueryRequest request, Pageable pageable) {
         final AuditLogQueryRequest queryRequest = request != null ? request : new AuditLogQueryRequest();
@@ -86,24 +134,20 @@ public class AuditLogService {
                 .map(this::toResponse);
     }
 
-    @Transactional
-    public long deleteOlderThan(OffsetDateTime cutoff) {
-        return auditLogRepository.deleteByOccurredAtBefore(cutoff);
-    }
-
     private AuditLog toEntity(AuditContext context) {
         AuditLog entity = new AuditLog();
+        // 请求头等外部输入可能超出列宽，按列宽截断，避免单条记录导致整批写入失败
         entity.setUserId(context.getUserId());
-        entity.setUsername(context.getUsername());
+        entity.setUsername(truncate(context.getUsername(), 100));
         entity.setRoles(serializeList(context.getRoles()));
         entity.setPermissions(serializeList(context.getPermissions()));
-        entity.setAction(resolveAction(context.getAction()));
-        entity.setResource(context.getResource());
-        entity.setRemark(context.getRemark());
-        entity.setRequestUri(context.getRequestUri());
-        entity.setHttpMethod(context.getHttpMethod());
-        entity.setClientIp(context.getClientIp());
-        entity.setUserAgent(context.getUserAgent());
+        entity.setAction(truncate(resolveAction(context.getAction()), 100));
+        entity.setResource(truncate(context.getResource(), 100));
+        entity.setRemark(truncate(context.getRemark(), 255));
+        entity.setRequestUri(truncate(context.getRequestUri(), 500));
+        entity.setHttpMethod(truncate(context.getHttpMethod(), 20));
+        entity.setClientIp(truncate(context.getClientIp(), 64));
+        entity.setUserAgent(truncate(context.getUserAgent(), 255));
         entity.setParameters(context.getParameters());
         entity.setResultStatus(context.getResultStatus() != null ? context.getResultStatus().name() : null);
         entity.setResultMessage(context.getResultMessage());
@@ -159,6 +203,23 @@ public class AuditLogService {
         }
     }
 
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        // 不拆开代理对
+        int end = Character.isHighSurrogate(value.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+        return value.substring(0, end);
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
     private String resolveAction(String action) {
         if (StringUtils.hasText(action)) {
             return action;
@@ -1,19 +1,26 @@
 package com.assoc.iam.service;
 
+import com.assoc.common.exception.BusinessException;
 import com.assoc.iam.dto.LoginRequest;
 import com.assoc.iam.dto.LoginResponse;
 import com.assoc.iam.entity.User;
 import com.assoc.iam.exception.AuthenticationException;
 import com.assoc.iam.repository.UserRepository;
+import com.assoc.iam.security.LoginThrottle;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 
@@ -25,12 +32,18 @@ public class AuthService {
     private final UserRepository userRepository;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginThrottle loginThrottle;
+    private final PlatformTransactionManager transactionManager;
     
     /**
      * User login
+     *
+     * <p>Not transactional as a whole: the password check may wait for the bcrypt pool, and must
+     * not hold a database connection meanwhile. Throttled or shed attempts fail with HTTP 429.</p>
      */
-    @Transactional
-    public LoginResponse login(LoginRequest loginRequest) {
+    public LoginResponse login(LoginRequest loginRequest, String clientIp) {
+        loginThrottle.checkAllowed(loginRequest.getUsername(), clientIp);
         try {
             // Authenticate user
             authenticationManager.authenticate(
@@ -39,44 +52,57 @@ public class AuthService {
                             loginRequest.getPassword()
                     )
             );
-            
-            // Get user with roles and permissions
-            User user = userRepository.findActiveUserByUsernameOrEmailWithRolesAndPermissions(loginRequest.getUsername())
-                    .orElseThrow(() -> new AuthenticationException("用户不存在或已被禁用"));
-            
-            // Update last login time
-            user.setLastLoginTime(LocalDateTime.now());
-            userRepository.save(user);
-            
-            // Generate tokens
-            String accessToken = jwtService.generateAccessToken(user);
-            String refreshToken = jwtService.generateRefreshToken(user);
-            
-            // Build response
-            LoginResponse.UserInfo userInfo = LoginResponse.UserInfo.builder()
-                    .id(user.getId())
-                    .username(user.getUsername())
-                    .email(user.getEmail())
-                    .realName(user.getRealName())
-                    .roles(user.getRoleCodes())
-                    .build();
-            
-            LoginResponse response = LoginResponse.builder()
-                    .accessToken(accessToken)
-                    .refreshToken(refreshToken)
-                    .expiresIn(jwtService.getRemainingExpiration(accessToken) / 1000) // Convert to seconds
-                    .user(userInfo)
-                    .build();
-            
-            log.info("User logged in successfully: {}", user.getUsername());
-            return response;
+            loginThrottle.recordSuccess(loginRequest.getUsername());
+            
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                // Get user with roles and permissions
+                User user = userRepository.findActiveUserByUsernameOrEmailWithRolesAndPermissions(loginRequest.getUsername())
+                        .orElseThrow(() -> new AuthenticationException("用户不存在或已被禁用"));
+                
+                // Update last login time
+                user.setLastLoginTime(LocalDateTime.now());
+                userRepository.save(user);
+                
+                // Generate tokens
+                String accessToken = jwtService.generateAccessToken(user);
+                String refreshToken = jwtService.generateRefreshToken(user);
+                
+                // Build response
+                LoginResponse.UserInfo userInfo = LoginResponse.UserInfo.builder()
+                        .id(user.getId())
+                        .username(user.getUsername())
+                        .email(user.getEmail())
+                        .realName(user.getRealName())
+                        .roles(user.getRoleCodes())
+                        .build();
+                
+                LoginResponse response = LoginResponse.builder()
+                        .accessToken(accessToken)
+                        .refreshToken(refreshToken)
+                        .expiresIn(jwtService.getRemainingExpiration(accessToken) / 1000) // Convert to seconds
+                        .user(userInfo)
+                        .build();
+                
+                log.info("User logged in successfully: {}", user.getUsername());
+                return response;
+            });
             
         } catch (BadCredentialsException e) {
+            loginThrottle.recordFailure(loginRequest.getUsername());
             log.warn("Invalid credentials for user: {}", loginRequest.getUsername());
             throw new AuthenticationException("用户名或密码错误");
         } catch (DisabledException e) {
             log.warn("Account disabled for user: {}", loginRequest.getUsername());
             throw new AuthenticationException("账户已被禁用");
+        } catch (BusinessException e) {
+            throw e;
+        } catch (InternalAuthenticationServiceException e) {
+            // A 429 from the password encoder is wrapped when thrown while looking up the user
+            if (e.getCause() instanceof BusinessException cause) {
+                throw cause;
+            }
+            log.error("Login failed for user: {}", loginRequest.getUsername());
+            throw new RuntimeException("登录失败", e);
         } catch (Exception e) {
             log.error("Login failed for user: {}", loginRequest.getUsername());
             throw new RuntimeException("登录失败", e);
@@ -97,6 +123,16 @@ public class AuthService {
             User user = userRepository.findActiveUserWithRolesAndPermissions(username)
                     .orElseThrow(() -> new AuthenticationException("用户不存在或已被禁用"));
             
+            // 密码修改或重置后，之前签发的 refresh token 不再可用
+            int stamp = jwtService.extractClaim(refreshToken, JwtService::securityStamp);
+            if (user.getSecurityStamp() != null && user.getSecurityStamp() != stamp) {
+                throw new AuthenticationException("Refresh token 已失效，请重新登录");
+            }
+            Claims refreshClaims = jwtService.extractClaim(refreshToken, claims -> claims);
+            if (tokenRevocationService.isRevoked(TokenRevocationService.hash(refreshToken), refreshClaims)) {
+                throw new AuthenticationException("Refresh token 已注销，请重新登录");
+            }
+            
             // Generate new tokens
             String newAccessToken = jwtService.generateAccessToken(user);
             String newRefreshToken = jwtService.generateRefreshToken(user);
@@ -133,13 +169,33 @@ public class AuthService {
      */
     public boolean validateToken(String token) {
         try {
-            return jwtService.isAccessTokenValid(token);
+            return jwtService.parseAccessToken(token)
+                    .filter(claims -> !tokenRevocationService.isRevoked(TokenRevocationService.hash(token), claims))
+                    .isPresent();
         } catch (Exception e) {
             log.error("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
     
+    /**
+     * Logout: revoke the access token and, if given, the refresh token until they expire.
+     * Tokens that are already invalid or expired need no revocation.
+     */
+    @Transactional
+    public void logout(String accessToken, String refreshToken) {
+        revoke(accessToken);
+        revoke(refreshToken);
+    }
+    
+    private void revoke(String token) {
+        if (!StringUtils.hasText(token)) {
+            return;
+        }
+        jwtService.parseToken(token).ifPresent(claims ->
+                tokenRevocationService.revokeToken(TokenRevocationService.hash(token), claims, TokenRevocationService.REASON_LOGOUT));
+    }
+    
     /**
      * Get user info from token
      */
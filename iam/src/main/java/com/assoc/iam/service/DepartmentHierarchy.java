@@ -0,0 +1,208 @@
+package com.assoc.iam.service;
+
+import com.assoc.iam.dto.DepartmentTreeResponse;
+import com.assoc.iam.entity.Department;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable snapshot of the department tree, numbered by an Euler tour.
+ *
+ * <p>A depth-first walk numbers the departments in pre-order, siblings by sort order and ID.
+ * Each department gets the interval {@code [enter, exit]} of the positions of its subtree, so
+ * "is X under Y" is two integer comparisons and the subtree of Y is a contiguous slice of
+ * the walk. Departments whose parent is missing start a tree of their own, so every department
+ * has an interval even if the data is inconsistent.</p>
+ *
+ * <p>All departments are included, inactive ones too; the tree for display skips inactive
+ * departments and everything below them.</p>
+ */
+public final class DepartmentHierarchy {
+
+    private static final int ACTIVE = 1;
+
+    /**
+     * Department fields kept in the snapshot.
+     */
+    public record Node(Long id, String name, String code, String description, Long parentId,
+                       Integer sortOrder, Integer level, Integer status, int enter, int exit, boolean hasChildren) {
+
+        public boolean isActive() {
+            return status != null && status == ACTIVE;
+        }
+    }
+
+    private static final DepartmentHierarchy EMPTY = new DepartmentHierarchy(new Node[0], new int[0][], Map.of());
+
+    /** Departments in walk order; {@code nodes[i].enter() == i} */
+    private final Node[] nodes;
+    /** Positions of the children of each position, in sibling order */
+    private final int[][] children;
+    private final Map<Long, Integer> positions;
+
+    private DepartmentHierarchy(Node[] nodes, int[][] children, Map<Long, Integer> positions) {
+        this.nodes = nodes;
+        this.children = children;
+        this.positions = positions;
+    }
+
+    public static DepartmentHierarchy empty() {
+        return EMPTY;
+    }
+
+    public static DepartmentHierarchy of(Collection<Department> departments) {
+        Comparator<Department> siblingOrder = Comparator
+                .comparing(Department::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Department::getId);
+        List<Department> sorted = new ArrayList<>(departments);
+        sorted.sort(siblingOrder);
+
+        Map<Long, Department> byId = new HashMap<>();
+        sorted.forEach(department -> byId.put(department.getId(), department));
+        Map<Long, List<Department>> childrenOf = new HashMap<>();
+        List<Department> roots = new ArrayList<>();
+        for (Department department : sorted) {
+            Long parentId = department.getParentId();
+            if (parentId == null || !byId.containsKey(parentId) || parentId.equals(department.getId())) {
+                roots.add(department);
+            } else {
+                childrenOf.computeIfAbsent(parentId, id -> new ArrayList<>()).add(department);
+            }
+        }
+
+        int size = sorted.size();
+        Department[] order = new Department[size];
+        int[] exits = new int[size];
+        Map<Long, Integer> positions = new HashMap<>();
+        int next = 0;
+        // Roots first; departments on a parent cycle are unreachable from them and are walked last
+        List<Department> starts = new ArrayList<>(roots);
+        starts.addAll(sorted);
+        Deque<Department> stack = new ArrayDeque<>();
+        for (Department start : starts) {
+            stack.push(start);
+            while (!stack.isEmpty()) {
+                Department department = stack.pop();
+                if (positions.containsKey(department.getId())) {
+                    continue;
+                }
+                int position = next++;
+                order[position] = department;
+                exits[position] = position;
+                positions.put(department.getId(), position);
+                List<Department> kids = childrenOf.getOrDefault(department.getId(), List.of());
+                for (int i = kids.size() - 1; i >= 0; i--) {
+                    stack.push(kids.get(i));
+                }
+            }
+        }
+        // Children come after their parent, so walking backwards settles a subtree before its root
+        for (int position = size - 1; position >= 0; position--) {
+            Long parentId = order[position].getParentId();
+            Integer parent = parentId != null ? positions.get(parentId) : null;
+            if (parent != null && parent < position && exits[parent] < exits[position]) {
+                exits[parent] = exits[position];
+            }
+        }
+
+        Node[] nodes = new Node[size];
+        int[][] childPositions = new int[size][];
+        for (int position = 0; position < size; position++) {
+            Department department = order[position];
+            List<Department> kids = childrenOf.getOrDefault(department.getId(), List.of());
+            childPositions[position] = kids.stream().mapToInt(kid -> positions.get(kid.getId())).toArray();
+            nodes[position] = new Node(department.getId(), department.getName(), department.getCode(),
+                    department.getDescription(), department.getParentId(), department.getSortOrder(),
+                    department.getLevel(), department.getStatus(), position, exits[position], !kids.isEmpty());
+        }
+        return new DepartmentHierarchy(nodes, childPositions, Map.copyOf(positions));
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public Optional<Node> get(Long departmentId) {
+        Integer position = positions.get(departmentId);
+        return position != null ? Optional.of(nodes[position]) : Optional.empty();
+    }
+
+    /**
+     * Whether {@code departmentId} is {@code ancestorId} or lies below it.
+     */
+    public boolean isInSubtree(Long departmentId, Long ancestorId) {
+        Integer position = positions.get(departmentId);
+        Integer ancestor = positions.get(ancestorId);
+        return position != null && ancestor != null
+                && nodes[ancestor].enter() <= position && position <= nodes[ancestor].exit();
+    }
+
+    /**
+     * Whether {@code departmentId} lies strictly below {@code ancestorId}.
+     */
+    public boolean isDescendant(Long departmentId, Long ancestorId) {
+        return !departmentId.equals(ancestorId) && isInSubtree(departmentId, ancestorId);
+    }
+
+    /**
+     * IDs of a department and everything below it, in walk order; empty for an unknown ID.
+     */
+    public List<Long> subtreeIds(Long departmentId) {
+        Integer position = positions.get(departmentId);
+        if (position == null) {
+            return List.of();
+        }
+        return Arrays.stream(nodes, position, nodes[position].exit() + 1).map(Node::id).toList();
+    }
+
+    /**
+     * Tree of the active departments, from the top-level ones down.
+     *
+     * @param userCounts active users per department ID; missing IDs count as zero
+     */
+    public List<DepartmentTreeResponse> activeTree(Map<Long, Long> userCounts) {
+        List<DepartmentTreeResponse> roots = new ArrayList<>();
+        for (int position = 0; position < nodes.length; position = nodes[position].exit() + 1) {
+            Node node = nodes[position];
+            if (node.parentId() == null && node.isActive()) {
+                roots.add(treeNode(position, userCounts));
+            }
+        }
+        return roots;
+    }
+
+    private DepartmentTreeResponse treeNode(int position, Map<Long, Long> userCounts) {
+        Node node = nodes[position];
+        DepartmentTreeResponse response = new DepartmentTreeResponse();
+        response.setId(node.id());
+        response.setName(node.name());
+        response.setCode(node.code());
+        response.setDescription(node.description());
+        response.setParentId(node.parentId());
+        response.setSortOrder(node.sortOrder());
+        response.setLevel(node.level());
+        response.setStatus(node.status());
+        response.setHasChildren(node.hasChildren());
+        response.setUserCount(userCounts.getOrDefault(node.id(), 0L).intValue());
+
+        if (node.hasChildren()) {
+            List<DepartmentTreeResponse> kids = new ArrayList<>();
+            for (int child : children[position]) {
+                if (nodes[child].isActive()) {
+                    kids.add(treeNode(child, userCounts));
+                }
+            }
+            response.setChildren(kids);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,103 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.cache.CacheInvalidationBus;
+import com.assoc.common.cache.ClusterInvalidated;
+import com.assoc.common.cache.ClusterInvalidationEvent;
+import com.assoc.iam.repository.DepartmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the current {@link DepartmentHierarchy}, loaded from all departments in one query.
+ *
+ * <p>Like {@code PermissionRouteIndex}, the snapshot is replaced as a whole. Services that change
+ * departments call {@link #invalidate()}; the reload runs after their transaction commits, and
+ * with the cache invalidation bus enabled the other nodes reload as well.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ClusterInvalidated(DepartmentHierarchyIndex.CACHE_NAME)
+public class DepartmentHierarchyIndex {
+
+    /** Name of the index on the cache invalidation bus */
+    public static final String CACHE_NAME = "departmentHierarchy";
+
+    private final DepartmentRepository departmentRepository;
+    private final ObjectProvider<CacheInvalidationBus> cacheInvalidationBus;
+
+    private final TransactionSynchronization rebuildAfterCommit = new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+            rebuildEverywhere();
+        }
+    };
+
+    private volatile DepartmentHierarchy hierarchy;
+
+    public DepartmentHierarchy current() {
+        DepartmentHierarchy current = hierarchy;
+        return current != null ? current : initialize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // The first request retries
+            log.error("Failed to build department hierarchy index: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized DepartmentHierarchy initialize() {
+        return hierarchy != null ? hierarchy : rebuild();
+    }
+
+    /**
+     * Reload all departments and swap in a new snapshot.
+     */
+    public synchronized DepartmentHierarchy rebuild() {
+        long start = System.nanoTime();
+        DepartmentHierarchy rebuilt = DepartmentHierarchy.of(departmentRepository.findAll());
+        hierarchy = rebuilt;
+        log.info("Department hierarchy index rebuilt: {} departments in {} ms",
+                rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+        return rebuilt;
+    }
+
+    /**
+     * Rebuild once the current transaction commits, or right away outside a transaction.
+     * Several changes in one transaction cause a single rebuild.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!TransactionSynchronizationManager.getSynchronizations().contains(rebuildAfterCommit)) {
+                TransactionSynchronizationManager.registerSynchronization(rebuildAfterCommit);
+            }
+        } else {
+            rebuildEverywhere();
+        }
+    }
+
+    private void rebuildEverywhere() {
+        rebuild();
+        cacheInvalidationBus.ifAvailable(bus -> bus.clear(CACHE_NAME));
+    }
+
+    /**
+     * Another node changed departments, or the bus lost messages.
+     */
+    @EventListener
+    public void onClusterInvalidation(ClusterInvalidationEvent event) {
+        if (CACHE_NAME.equals(event.cacheName())) {
+            rebuild();
+        }
+    }
+}
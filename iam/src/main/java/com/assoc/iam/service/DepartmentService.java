@@ -7,13 +7,17 @@ import com.assoc.iam.dto.DepartmentResponse;
 import com.assoc.iam.dto.DepartmentTreeResponse;
 import com.assoc.iam.entity.Department;
 import com.assoc.iam.repository.DepartmentRepository;
+import com.assoc.iam.repository.UserDepartmentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -23,13 +27,19 @@ import java.util.stream.Collectors;
 public class DepartmentService {
     
     private final DepartmentRepository departmentRepository;
+    private final UserDepartmentRepository userDepartmentRepository;
+    private final DepartmentHierarchyIndex departmentHierarchyIndex;
     
+    /**
+     * 部门树取自内存中的部门层级索引，用户数由一次分组查询得到
+     */
     @Transactional(readOnly = true)
     public List<DepartmentTreeResponse> getDepartmentTree() {
-        List<Department> rootDepartments = departmentRepository.findActiveRootDepartments();
-        return rootDepartments.stream()
-                .map(this::convertToTreeResponse)
-                .collect(Collectors.toList());
+        Map<Long, Long> userCounts = new HashMap<>();
+        for (Object[] row : userDepartmentRepository.countActiveUsersGroupByDepartment(LocalDate.now())) {
+            userCounts.put((Long) row[0], (Long) row[1]);
+        }
+        return departmentHierarchyIndex.current().activeTree(userCounts);
     }
     
     @Transactional(readOnly = true)
@@ -83,6 +93,7 @@ public class DepartmentService {
         calculateDepartmentPath(department);
         
         Department savedDepartment = departmentRepository.save(department);
+        departmentHierarchyIndex.invalidate();
         log.info("Created department: {} with code: {}", savedDepartment.getName(), savedDepartment.getCode());
         
         return convertToResponse(savedDepartment);
@@ -101,13 +112,20 @@ public class DepartmentService {
         department.setSortOrder(request.getSortOrder());
         department.setStatus(request.getStatus());
         
-        if (!java.util.Objects.equals(department.getParentId(), request.getParentId())) {
+        boolean parentChanged = !java.util.Objects.equals(department.getParentId(), request.getParentId());
+        if (parentChanged) {
+            if (request.getParentId() != null && departmentHierarchyIndex.current().isDescendant(request.getParentId(), id)) {
+                throw new BusinessException(400, "不能移动到自己的子部门");
+            }
             department.setParentId(request.getParentId());
             calculateDepartmentPath(department);
-            updateChildrenPaths(department);
         }
         
         Department savedDepartment = departmentRepository.save(department);
+        if (parentChanged) {
+            departmentRepository.updateSubtreePaths(id, savedDepartment.getPath(), savedDepartment.getLevel());
+        }
+        departmentHierarchyIndex.invalidate();
         log.info("Updated department: {} with code: {}", savedDepartment.getName(), savedDepartment.getCode());
         
         return convertToResponse(savedDepartment);
@@ -127,6 +145,7 @@ public class DepartmentService {
         }
         
         departmentRepository.delete(department);
+        departmentHierarchyIndex.invalidate();
         log.info("Deleted department: {} with code: {}", department.getName(), department.getCode());
     }
     
@@ -139,16 +158,18 @@ public class DepartmentService {
             departmentRepository.findById(newParentId)
                     .orElseThrow(() -> new ResourceNotFoundException("目标父部门", newParentId));
             
-            if (isDescendant(newParentId, id)) {
+            if (departmentHierarchyIndex.current().isInSubtree(newParentId, id)) {
                 throw new BusinessException(400, "不能移动到自己的子部门");
             }
         }
         
         department.setParentId(newParentId);
         calculateDepartmentPath(department);
-        updateChildrenPaths(department);
         
         departmentRepository.save(department);
+        // 整棵子树的 path / level 由一条语句按 parent_id 重新计算
+        departmentRepository.updateSubtreePaths(id, department.getPath(), department.getLevel());
+        departmentHierarchyIndex.invalidate();
         log.info("Moved department: {} to new parent: {}", department.getName(), newParentId);
     }
     
@@ -193,50 +214,6 @@ public class DepartmentService {
         department.setPath(String.join("/", pathParts));
     }
     
-    private void updateChildrenPaths(Department parent) {
-        List<Department> children = departmentRepository.findByParentIdOrderBySortOrderAsc(parent.getId());
-        for (Department child : children) {
-            calculateDepartmentPath(child);
-            departmentRepository.save(child);
-            updateChildrenPaths(child);
-        }
-    }
-    
-    private boolean isDescendant(Long potentialDescendant, Long ancestor) {
-        Department dept = departmentRepository.findById(potentialDescendant).orElse(null);
-        while (dept != null && dept.getParentId() != null) {
-            if (dept.getParentId().equals(ancestor)) {
-                return true;
-            }
-            dept = departmentRepository.findById(dept.getParentId()).orElse(null);
-        }
-        return false;
-    }
-    
-    private DepartmentTreeResponse convertToTreeResponse(Department department) {
-        DepartmentTreeResponse response = new DepartmentTreeResponse();
-        response.setId(department.getId());
-        response.setName(department.getName());
-        response.setCode(department.getCode());
-        response.setDescription(department.getDescription());
-        response.setParentId(department.getParentId());
-        response.setSortOrder(department.getSortOrder());
-        response.setLevel(department.getLevel());
-        response.setStatus(department.getStatus());
-        response.setHasChildren(department.hasChildren());
-        response.setUserCount((int) department.getActiveUserCount());
-        
-        if (department.hasChildren()) {
-            List<DepartmentTreeResponse> children = department.getChildren().stream()
-                    .filter(child -> child.getStatus() == 1)
-                    .map(this::convertToTreeResponse)
-                    .collect(Collectors.toList());
-            response.setChildren(children);
-        }
-        
-        return response;
-    }
-    
     private DepartmentResponse convertToResponse(Department department) {
         DepartmentResponse response = new DepartmentResponse();
         response.setId(department.getId());
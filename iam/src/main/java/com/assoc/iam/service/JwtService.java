@@ -1,22 +1,37 @@
 package com.assoc.iam.service;
 
+import com.assoc.common.security.PermissionBitSet;
+import com.assoc.common.security.PermissionCatalog;
 import com.assoc.iam.entity.User;
+import com.assoc.iam.security.PermissionRouteIndex;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class JwtService {
     
+    /** Compressed permission bitset, see {@link PermissionBitSet#encode()} */
+    private static final String PERMISSION_BITS = "pb";
+    
+    /** Version of the permission catalog the bitset was encoded against */
+    private static final String CATALOG_VERSION = "pv";
+    
+    private final PermissionRouteIndex permissionRouteIndex;
+    
     @Value("${jwt.secret:water-platform-jwt-secret-key-12345678901234567890}")
     private String secretKey;
     
@@ -29,8 +44,26 @@ public class JwtService {
     @Value("${jwt.issuer:water-platform}")
     private String issuer;
     
+    /** Built once; both are immutable and thread-safe */
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secretKey.getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+    
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser().verifyWith(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
     }
     
     /**
@@ -43,12 +76,28 @@ public class JwtService {
         claims.put("email", user.getEmail());
         claims.put("realName", user.getRealName());
         claims.put("roles", user.getRoleCodes());
-        claims.put("permissions", user.getPermissionCodes());
+        putPermissions(claims, user.getPermissionCodes());
+        claims.put("stamp", user.getSecurityStamp());
         claims.put("tokenType", "access");
 
         return generateToken(claims, user.getUsername(), accessTokenExpiration);
     }
     
+    /**
+     * Permissions go in as a bitset over the permission catalog, a few bytes instead of one
+     * string per code; the code list is used only if a code has no catalog index.
+     */
+    private void putPermissions(Map<String, Object> claims, List<String> codes) {
+        PermissionCatalog catalog = permissionRouteIndex.catalog();
+        Optional<PermissionBitSet> bits = PermissionBitSet.of(catalog, codes);
+        if (bits.isPresent()) {
+            claims.put(CATALOG_VERSION, catalog.version());
+            claims.put(PERMISSION_BITS, bits.get().encode());
+        } else {
+            claims.put("permissions", codes);
+        }
+    }
+    
     /**
      * Generate refresh token for user
      */
@@ -56,6 +105,7 @@ public class JwtService {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", user.getId());
         claims.put("username", user.getUsername());
+        claims.put("stamp", user.getSecurityStamp());
         claims.put("tokenType", "refresh");
 
         return generateToken(claims, user.getUsername(), refreshTokenExpiration);
@@ -108,11 +158,29 @@ public class JwtService {
     }
     
     /**
-     * Extract user permissions from token
+     * Permission codes carried by a token, as a {@link PermissionBitSet} or, for tokens issued
+     * before the bitset encoding, as the plain code list. Empty when the token was encoded
+     * against another catalog version; callers then use the user's current permissions.
      */
     @SuppressWarnings("unchecked")
-    public List<String> extractPermissions(String token) {
-        return extractClaim(token, claims -> claims.get("permissions", List.class));
+    public Optional<Collection<String>> extractPermissions(Claims claims) {
+        String encoded = claims.get(PERMISSION_BITS, String.class);
+        if (encoded == null) {
+            List<String> codes = claims.get("permissions", List.class);
+            return Optional.of(codes != null ? codes : List.of());
+        }
+        PermissionCatalog catalog = permissionRouteIndex.catalog();
+        Number version = claims.get(CATALOG_VERSION, Number.class);
+        if (version == null || version.longValue() != catalog.version()) {
+            log.debug("Permission catalog changed since the token was issued: {} != {}", version, catalog.version());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(PermissionBitSet.decode(catalog, encoded));
+        } catch (IllegalArgumentException e) {
+            log.warn("Malformed permission bitset in token: {}", e.getMessage());
+            return Optional.empty();
+        }
     }
     
     /**
@@ -130,14 +198,41 @@ public class JwtService {
         return claimsResolver.resolve(claims);
     }
     
+    /**
+     * Verify an access token and return its claims, parsing it only once.
+     * Expired, tampered and refresh tokens yield empty.
+     */
+    public Optional<Claims> parseAccessToken(String token) {
+        return parseToken(token).filter(claims -> "access".equals(claims.get("tokenType", String.class)));
+    }
+    
+    /**
+     * Verify a token of any type and return its claims; expired and tampered tokens yield empty.
+     */
+    public Optional<Claims> parseToken(String token) {
+        try {
+            return Optional.of(getParser().parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token rejected: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Security stamp of the user at the time the token was issued; tokens issued before stamps
+     * existed count as stamp 0.
+     */
+    public static int securityStamp(Claims claims) {
+        Integer stamp = claims.get("stamp", Integer.class);
+        return stamp != null ? stamp : 0;
+    }
+    
     /**
      * Extract all claims from token
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
+            return getParser()
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (JwtException e) {
@@ -3,7 +3,9 @@ package com.assoc.iam.service;
 import com.assoc.iam.dto.MenuRequest;
 import com.assoc.iam.dto.MenuResponse;
 import com.assoc.iam.dto.MenuTreeResponse;
+import com.assoc.iam.dto.VersionedMenuTree;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MenuService {
@@ -18,6 +20,11 @@ public interface MenuService {
      */
     List<MenuTreeResponse> getUserMenuTree(Long userId);
     
+    /**
+     * Get the menu tree of a set of roles with its ETag; the tree is cached and must not be modified
+     */
+    VersionedMenuTree getMenuTreeForRoles(Collection<String> roleCodes);
+    
     /**
      * Get all menus (flat list)
      */
@@ -1,15 +1,19 @@
 package com.assoc.iam.service;
 
+import com.assoc.iam.config.CacheConfig;
 import com.assoc.iam.dto.MenuRequest;
 import com.assoc.iam.dto.MenuResponse;
 import com.assoc.iam.dto.MenuTreeResponse;
 import com.assoc.iam.dto.PermissionResponse;
+import com.assoc.iam.dto.VersionedMenuTree;
 import com.assoc.iam.entity.Menu;
 import com.assoc.iam.entity.Permission;
 import com.assoc.iam.repository.MenuRepository;
 import com.assoc.iam.repository.PermissionRepository;
+import com.assoc.iam.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,17 +27,22 @@ public class MenuServiceImpl implements MenuService {
 
     private final MenuRepository menuRepository;
     private final PermissionRepository permissionRepository;
+    private final UserRepository userRepository;
+    private final MenuTreeCache menuTreeCache;
 
     @Override
     public List<MenuTreeResponse> getMenuTree() {
-        List<Menu> allMenus = menuRepository.findAllActiveMenusOrdered();
-        return buildMenuTree(allMenus);
+        return menuTreeCache.all();
     }
 
     @Override
     public List<MenuTreeResponse> getUserMenuTree(Long userId) {
-        List<Menu> userMenus = menuRepository.findAccessibleMenusByUserId(userId);
-        return buildMenuTree(userMenus);
+        return menuTreeCache.forRoles(userRepository.findActiveUserRoleCodes(userId)).menus();
+    }
+
+    @Override
+    public VersionedMenuTree getMenuTreeForRoles(Collection<String> roleCodes) {
+        return menuTreeCache.forRoles(roleCodes);
     }
 
     @Override
@@ -84,6 +93,7 @@ public class MenuServiceImpl implements MenuService {
 
     @Override
     @Transactional
+    @CacheEvict(value = {CacheConfig.MENU_CATALOG, CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public MenuResponse createMenu(MenuRequest request, Long operatorId) {
         if (existsByCode(request.getCode())) {
             throw new RuntimeException("Menu code already exists: " + request.getCode());
@@ -120,6 +130,7 @@ public class MenuServiceImpl implements MenuService {
 
     @Override
     @Transactional
+    @CacheEvict(value = {CacheConfig.MENU_CATALOG, CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public MenuResponse updateMenu(Long id, MenuRequest request, Long operatorId) {
         Menu menu = menuRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Menu not found with id: " + id));
@@ -170,6 +181,7 @@ public class MenuServiceImpl implements MenuService {
 
     @Override
     @Transactional
+    @CacheEvict(value = {CacheConfig.MENU_CATALOG, CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public void deleteMenu(Long id, Long operatorId) {
         Menu menu = menuRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Menu not found with id: " + id));
@@ -184,6 +196,7 @@ public class MenuServiceImpl implements MenuService {
 
     @Override
     @Transactional
+    @CacheEvict(value = {CacheConfig.MENU_CATALOG, CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public MenuResponse moveMenu(Long menuId, Long newParentId, Long operatorId) {
         Menu menu = menuRepository.findById(menuId)
                 .orElseThrow(() -> new RuntimeException("Menu not found with id: " + menuId));
@@ -233,50 +246,6 @@ public class MenuServiceImpl implements MenuService {
         return descendants.stream().noneMatch(menu -> menu.getId().equals(parentId));
     }
 
-    private List<MenuTreeResponse> buildMenuTree(List<Menu> menus) {
-        Map<Long, MenuTreeResponse> menuMap = menus.stream()
-                .map(this::convertToTreeResponse)
-                .collect(Collectors.toMap(MenuTreeResponse::getId, menu -> menu));
-
-        List<MenuTreeResponse> rootMenus = new ArrayList<>();
-
-        for (MenuTreeResponse menu : menuMap.values()) {
-            if (menu.getParentId() == null) {
-                rootMenus.add(menu);
-            } else {
-                MenuTreeResponse parent = menuMap.get(menu.getParentId());
-                if (parent != null) {
-                    if (parent.getChildren() == null) {
-                        parent.setChildren(new ArrayList<>());
-                    }
-                    parent.getChildren().add(menu);
-                }
-            }
-        }
-
-        // Sort menus at each level
-        sortMenuTree(rootMenus);
-        return rootMenus;
-    }
-
-    private void sortMenuTree(List<MenuTreeResponse> menus) {
-        if (menus == null || menus.isEmpty()) {
-            return;
-        }
-
-        menus.sort((a, b) -> {
-            int result = Integer.compare(a.getSortOrder(), b.getSortOrder());
-            return result != 0 ? result : Long.compare(a.getId(), b.getId());
-        });
-
-        menus.forEach(menu -> {
-            if (menu.getChildren() != null) {
-                menu.setHasChildren(true);
-                sortMenuTree(menu.getChildren());
-            }
-        });
-    }
-
     private void copyPropertiesToEntity(MenuRequest request, Menu menu) {
         menu.setName(request.getName());
         menu.setCode(request.getCode());
@@ -338,38 +307,9 @@ public class MenuServiceImpl implements MenuService {
         return response;
     }
 
-    private MenuTreeResponse convertToTreeResponse(Menu menu) {
-        MenuTreeResponse response = new MenuTreeResponse();
-        response.setId(menu.getId());
-        response.setName(menu.getName());
-        response.setCode(menu.getCode());
-        response.setPath(menu.getPath());
-        response.setIcon(menu.getIcon());
-        response.setComponent(menu.getComponent());
-        response.setParentId(menu.getParentId());
-        response.setLevel(menu.getLevel());
-        response.setSortOrder(menu.getSortOrder());
-        response.setMenuType(menu.getMenuType());
-        response.setExternal(menu.getExternal());
-        response.setCache(menu.getCache());
-        response.setHidden(menu.getHidden());
-        response.setHasChildren(menuRepository.hasActiveChildren(menu.getId()));
-
-        // Set meta information for frontend
-        MenuTreeResponse.MenuMeta meta = new MenuTreeResponse.MenuMeta();
-        meta.setTitle(menu.getName());
-        meta.setIcon(menu.getIcon());
-        meta.setHideInMenu(menu.getHidden());
-        meta.setKeepAlive(menu.getCache());
-        meta.setTarget(menu.getExternal() ? "_blank" : null);
-        meta.setOrder(menu.getSortOrder());
-        response.setMeta(meta);
-
-        return response;
-    }
-
     @Override
     @Transactional
+    @CacheEvict(value = {CacheConfig.MENU_CATALOG, CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public void addPermissionsToMenu(Long menuId, List<Long> permissionIds, Long operatorId) {
         if (menuId == null || permissionIds == null || permissionIds.isEmpty()) {
             throw new IllegalArgumentException("Menu ID and permission IDs cannot be null or empty");
@@ -399,6 +339,7 @@ public class MenuServiceImpl implements MenuService {
 
     @Override
     @Transactional
+    @CacheEvict(value = {CacheConfig.MENU_CATALOG, CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public void removePermissionsFromMenu(Long menuId, List<Long> permissionIds, Long operatorId) {
         if (menuId == null || permissionIds == null || permissionIds.isEmpty()) {
             throw new IllegalArgumentException("Menu ID and permission IDs cannot be null or empty");
@@ -414,6 +355,7 @@ public class MenuServiceImpl implements MenuService {
 
     @Override
     @Transactional
+    @CacheEvict(value = {CacheConfig.MENU_CATALOG, CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public void updateMenuPermissions(Long menuId, List<Long> permissionIds, Long operatorId) {
         if (menuId == null) {
             throw new IllegalArgumentException("Menu ID cannot be null");
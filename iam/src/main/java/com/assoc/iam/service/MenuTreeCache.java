@@ -0,0 +1,248 @@
+package com.assoc.iam.service;
+
+import com.assoc.iam.config.CacheConfig;
+import com.assoc.iam.dto.MenuTreeResponse;
+import com.assoc.iam.dto.VersionedMenuTree;
+import com.assoc.iam.entity.Menu;
+import com.assoc.iam.repository.MenuRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * 用户菜单树缓存：角色组合相同的用户共享同一棵菜单树，加载菜单页不再查询数据库。
+ *
+ * <p>三层缓存，均经 {@link CacheConfig} 注册并在集群内失效：</p>
+ * <ul>
+ *   <li>{@link CacheConfig#MENU_CATALOG}：全部启用菜单，按树的先序排列；</li>
+ *   <li>{@link CacheConfig#ROLE_MENUS}：每个角色经权限可访问的菜单ID，key 为角色代码；</li>
+ *   <li>{@link CacheConfig#MENU_TREES}：合并后的菜单树及其 ETag，key 为排序去重后的角色代码组合。</li>
+ * </ul>
+ *
+ * <p>未命中的角色组合由各角色的菜单集合在目录上按位取并集，再按先序一次遍历建树，不需要排序。
+ * 菜单变更清除全部三层；角色、权限变更清除后两层；用户角色变更会清除其用户主体缓存，
+ * 请求随即带上新的角色组合。</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MenuTreeCache {
+
+    private static final String CATALOG_KEY = "active";
+
+    private final MenuRepository menuRepository;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 角色组合可访问的菜单树；停用的角色、权限、菜单不计入
+     */
+    public VersionedMenuTree forRoles(Collection<String> roleCodes) {
+        TreeSet<String> roles = new TreeSet<>();
+        if (roleCodes != null) {
+            roleCodes.stream().filter(Objects::nonNull).forEach(roles::add);
+        }
+        String fingerprint = String.join(",", roles);
+        return cache(CacheConfig.MENU_TREES).get(fingerprint, () -> merge(roles));
+    }
+
+    /**
+     * 全部启用菜单的树，每次返回新的对象
+     */
+    public List<MenuTreeResponse> all() {
+        MenuCatalog catalog = catalog();
+        BitSet everything = new BitSet(catalog.size());
+        everything.set(0, catalog.size());
+        return catalog.tree(everything);
+    }
+
+    private VersionedMenuTree merge(Collection<String> roles) {
+        MenuCatalog catalog = catalog();
+        BitSet accessible = new BitSet(catalog.size());
+        for (String role : roles) {
+            for (long menuId : roleMenus(role)) {
+                int position = catalog.positionOf(menuId);
+                if (position >= 0) {
+                    accessible.set(position);
+                }
+            }
+        }
+        List<MenuTreeResponse> menus = List.copyOf(catalog.tree(accessible));
+        VersionedMenuTree tree = new VersionedMenuTree(menus, etag(menus));
+        log.debug("菜单树已构建: roles={}, menus={}", roles, accessible.cardinality());
+        return tree;
+    }
+
+    private long[] roleMenus(String roleCode) {
+        return cache(CacheConfig.ROLE_MENUS).get(roleCode, () ->
+                menuRepository.findAccessibleMenuIdsByRoleCode(roleCode).stream()
+                        .mapToLong(Long::longValue)
+                        .toArray());
+    }
+
+    private MenuCatalog catalog() {
+        return cache(CacheConfig.MENU_CATALOG).get(CATALOG_KEY, () ->
+                MenuCatalog.of(menuRepository.findAllActiveMenusOrdered()));
+    }
+
+    private String etag(List<MenuTreeResponse> menus) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(menus));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute menu tree ETag", e);
+        }
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name));
+    }
+
+    /**
+     * 启用菜单按树的先序排列：父菜单总在子菜单之前，兄弟菜单按排序号和ID排列。
+     * 父菜单未启用或不存在的菜单不可达，不在目录中，与逐个挂载的建树方式结果相同。
+     */
+    static final class MenuCatalog {
+
+        private final Menu[] menus;
+        private final int[] parents;
+        private final boolean[] hasActiveChildren;
+        private final Map<Long, Integer> positions;
+
+        private MenuCatalog(Menu[] menus, int[] parents, boolean[] hasActiveChildren, Map<Long, Integer> positions) {
+            this.menus = menus;
+            this.parents = parents;
+            this.hasActiveChildren = hasActiveChildren;
+            this.positions = positions;
+        }
+
+        static MenuCatalog of(List<Menu> activeMenus) {
+            Comparator<Menu> siblingOrder = Comparator
+                    .comparing(Menu::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(Menu::getId);
+            Map<Long, List<Menu>> childrenByParent = new HashMap<>();
+            List<Menu> roots = new ArrayList<>();
+            for (Menu menu : activeMenus) {
+                if (menu.getParentId() == null) {
+                    roots.add(menu);
+                } else {
+                    childrenByParent.computeIfAbsent(menu.getParentId(), id -> new ArrayList<>()).add(menu);
+                }
+            }
+            roots.sort(siblingOrder);
+            childrenByParent.values().forEach(children -> children.sort(siblingOrder));
+
+            List<Menu> ordered = new ArrayList<>(activeMenus.size());
+            List<Integer> parentPositions = new ArrayList<>(activeMenus.size());
+            Map<Long, Integer> positions = new HashMap<>();
+            Deque<Visit> stack = new ArrayDeque<>();
+            for (int i = roots.size() - 1; i >= 0; i--) {
+                stack.push(new Visit(roots.get(i), -1));
+            }
+            while (!stack.isEmpty()) {
+                Visit visit = stack.pop();
+                Menu menu = visit.menu();
+                int position = ordered.size();
+                positions.put(menu.getId(), position);
+                ordered.add(menu);
+                parentPositions.add(visit.parent());
+                List<Menu> children = childrenByParent.getOrDefault(menu.getId(), List.of());
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(new Visit(children.get(i), position));
+                }
+            }
+
+            int size = ordered.size();
+            int[] parents = new int[size];
+            boolean[] hasActiveChildren = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                parents[i] = parentPositions.get(i);
+                hasActiveChildren[i] = childrenByParent.containsKey(ordered.get(i).getId());
+            }
+            return new MenuCatalog(ordered.toArray(new Menu[0]), parents, hasActiveChildren, Map.copyOf(positions));
+        }
+
+        private record Visit(Menu menu, int parent) {
+        }
+
+        int size() {
+            return menus.length;
+        }
+
+        int positionOf(long menuId) {
+            return positions.getOrDefault(menuId, -1);
+        }
+
+        /**
+         * 由可访问的菜单位置建树；父菜单不可访问的菜单连同其子树被忽略
+         */
+        List<MenuTreeResponse> tree(BitSet accessible) {
+            MenuTreeResponse[] nodes = new MenuTreeResponse[menus.length];
+            List<MenuTreeResponse> roots = new ArrayList<>();
+            for (int position = accessible.nextSetBit(0); position >= 0; position = accessible.nextSetBit(position + 1)) {
+                int parent = parents[position];
+                if (parent < 0) {
+                    nodes[position] = node(position);
+                    roots.add(nodes[position]);
+                } else if (nodes[parent] != null) {
+                    nodes[position] = node(position);
+                    MenuTreeResponse parentNode = nodes[parent];
+                    if (parentNode.getChildren() == null) {
+                        parentNode.setChildren(new ArrayList<>());
+                    }
+                    parentNode.getChildren().add(nodes[position]);
+                }
+            }
+            return roots;
+        }
+
+        private MenuTreeResponse node(int position) {
+            Menu menu = menus[position];
+            MenuTreeResponse response = new MenuTreeResponse();
+            response.setId(menu.getId());
+            response.setName(menu.getName());
+            response.setCode(menu.getCode());
+            response.setPath(menu.getPath());
+            response.setIcon(menu.getIcon());
+            response.setComponent(menu.getComponent());
+            response.setParentId(menu.getParentId());
+            response.setLevel(menu.getLevel());
+            response.setSortOrder(menu.getSortOrder());
+            response.setMenuType(menu.getMenuType());
+            response.setExternal(menu.getExternal());
+            response.setCache(menu.getCache());
+            response.setHidden(menu.getHidden());
+            response.setHasChildren(hasActiveChildren[position]);
+
+            // Set meta information for frontend
+            MenuTreeResponse.MenuMeta meta = new MenuTreeResponse.MenuMeta();
+            meta.setTitle(menu.getName());
+            meta.setIcon(menu.getIcon());
+            meta.setHideInMenu(menu.getHidden());
+            meta.setKeepAlive(menu.getCache());
+            meta.setTarget(Boolean.TRUE.equals(menu.getExternal()) ? "_blank" : null);
+            meta.setOrder(menu.getSortOrder());
+            response.setMeta(meta);
+            return response;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.assoc.iam.service;
 
+import com.assoc.iam.config.CacheConfig;
 import com.assoc.iam.entity.Permission;
 import com.assoc.iam.repository.PermissionRepository;
+import com.assoc.iam.security.PermissionRouteIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -18,12 +20,12 @@ import java.util.Optional;
 public class PermissionConfigService {
     
     private final PermissionRepository permissionRepository;
+    private final PermissionRouteIndex permissionRouteIndex;
     
     /**
      * 添加权限配置
      */
     @Transactional
-    @CacheEvict(value = "pathPermissions", allEntries = true)
     public Permission addPermissionConfig(String name, String code, String resource, String action, String description) {
         // 检查权限代码是否已存在
         if (permissionRepository.existsByCode(code)) {
@@ -41,6 +43,7 @@ public class PermissionConfigService {
         permission.setUpdatedTime(LocalDateTime.now());
         
         Permission saved = permissionRepository.save(permission);
+        permissionRouteIndex.invalidate();
         log.info("添加权限配置: {} -> {} {}", code, action, resource);
         
         return saved;
@@ -50,7 +53,8 @@ public class PermissionConfigService {
      * 更新权限配置
      */
     @Transactional
-    @CacheEvict(value = "pathPermissions", allEntries = true)
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
 public Permission updatePermissionConfig(Long id, String name, String code, String resource, String action, String description) {
         Optional<Permission> permissionOpt = permissionRepository.findById(id);
         if (permissionOpt.isEmpty()) {
@@ -72,6 +76,7 @@ public Permission updatePermissionConfig(Long id, String name, String code, Stri
         permission.setUpdatedTime(LocalDateTime.now());
         
         Permission updated = permissionRepository.save(permission);
+        permissionRouteIndex.invalidate();
         log.info("更新权限配置: {} -> {} {}", code, action, resource);
         
         return updated;
@@ -81,7 +86,8 @@ public Permission updatePermissionConfig(Long id, String name, String code, Stri
      * 删除权限配置
      */
     @Transactional
-    @CacheEvict(value = "pathPermissions", allEntries = true)
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public void deletePermissionConfig(Long id) {
         Optional<Permission> permissionOpt = permissionRepository.findById(id);
         if (permissionOpt.isEmpty()) {
@@ -90,6 +96,7 @@ public Permission updatePermissionConfig(Long id, String name, String code, Stri
         
         Permission permission = permissionOpt.get();
         permissionRepository.deleteById(id);
+        permissionRouteIndex.invalidate();
         log.info("删除权限配置: {}", permission.getCode());
     }
     
@@ -97,7 +104,8 @@ public Permission updatePermissionConfig(Long id, String name, String code, Stri
      * 启用/禁用权限配置
      */
     @Transactional
-    @CacheEvict(value = {"pathPermissions", "userPermissions"}, allEntries = true)
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public void togglePermissionStatus(Long id, Integer status) {
         Optional<Permission> permissionOpt = permissionRepository.findById(id);
         if (permissionOpt.isEmpty()) {
@@ -109,6 +117,7 @@ public Permission updatePermissionConfig(Long id, String name, String code, Stri
         permission.setUpdatedTime(LocalDateTime.now());
         
         permissionRepository.save(permission);
+        permissionRouteIndex.invalidate();
         log.info("修改权限状态: {} -> {}", permission.getCode(), status == 1 ? "启用" : "禁用");
     }
     
@@ -116,7 +125,6 @@ public Permission updatePermissionConfig(Long id, String name, String code, Stri
      * 批量添加API权限配置
      */
     @Transactional
-    @CacheEvict(value = "pathPermissions", allEntries = true)
     public void batchAddApiPermissions(List<ApiPermissionConfig> configs) {
         for (ApiPermissionConfig config : configs) {
             try {
@@ -152,8 +160,10 @@ public Permission updatePermissionConfig(Long id, String name, String code, Stri
     /**
      * 清除所有权限缓存
      */
-    @CacheEvict(value = {"pathPermissions", "userPermissions"}, allEntries = true)
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public void clearAllPermissionCache() {
+        permissionRouteIndex.invalidate();
         log.info("清除所有权限缓存");
     }
     
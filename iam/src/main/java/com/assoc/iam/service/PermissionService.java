@@ -2,11 +2,14 @@ package com.assoc.iam.service;
 
 import com.assoc.common.exception.BusinessException;
 import com.assoc.common.exception.ResourceNotFoundException;
+import com.assoc.iam.config.CacheConfig;
 import com.assoc.iam.dto.PermissionRequest;
 import com.assoc.iam.dto.PermissionResponse;
 import com.assoc.iam.entity.Permission;
 import com.assoc.iam.repository.PermissionRepository;
+import com.assoc.iam.security.PermissionRouteIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -18,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class PermissionService {
     
     private final PermissionRepository permissionRepository;
+    private final PermissionRouteIndex permissionRouteIndex;
     
     public PermissionResponse createPermission(PermissionRequest request) {
         if (permissionRepository.existsByCode(request.getCode())) {
@@ -33,6 +37,7 @@ public class PermissionService {
         permission.setStatus(request.getStatus());
         
         Permission savedPermission = permissionRepository.save(permission);
+        permissionRouteIndex.invalidate();
         return convertToResponse(savedPermission);
     }
     
@@ -49,6 +54,8 @@ public class PermissionService {
             .map(this::convertToResponse);
     }
     
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public PermissionResponse updatePermission(Long id, PermissionRequest request) {
         Permission permission = permissionRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("权限", id));
@@ -65,13 +72,17 @@ public class PermissionService {
         permission.setStatus(request.getStatus());
         
         Permission updatedPermission = permissionRepository.save(permission);
+        permissionRouteIndex.invalidate();
         return convertToResponse(updatedPermission);
     }
     
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public void deletePermission(Long id) {
         Permission permission = permissionRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("权限", id));
         permissionRepository.delete(permission);
+        permissionRouteIndex.invalidate();
     }
     
     private PermissionResponse convertToResponse(Permission permission) {
@@ -2,6 +2,7 @@ package com.assoc.iam.service;
 
 import com.assoc.common.exception.BusinessException;
 import com.assoc.common.exception.ResourceNotFoundException;
+import com.assoc.iam.config.CacheConfig;
 import com.assoc.iam.dto.RoleRequest;
 import com.assoc.iam.dto.RoleResponse;
 import com.assoc.iam.entity.Role;
@@ -9,6 +10,7 @@ import com.assoc.iam.entity.Permission;
 import com.assoc.iam.repository.RoleRepository;
 import com.assoc.iam.repository.PermissionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -59,6 +61,8 @@ public class RoleService {
             .map(this::convertToResponse);
     }
     
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public RoleResponse updateRole(Long id, RoleRequest request) {
         Role role = roleRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("角色", id));
@@ -82,6 +86,8 @@ public class RoleService {
         return convertToResponse(updatedRole);
     }
     
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public void deleteRole(Long id) {
         Role role = roleRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("角色", id));
@@ -105,6 +111,8 @@ public class RoleService {
         return response;
     }
     
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public RoleResponse assignPermissionsToRole(Long roleId, Set<Long> permissionIds) {
         Role role = roleRepository.findById(roleId)
             .orElseThrow(() -> new ResourceNotFoundException("角色", roleId));
@@ -121,6 +129,8 @@ public class RoleService {
         return convertToResponse(updatedRole);
     }
     
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public RoleResponse addPermissionsToRole(Long roleId, Set<Long> permissionIds) {
         Role role = roleRepository.findById(roleId)
             .orElseThrow(() -> new ResourceNotFoundException("角色", roleId));
@@ -141,6 +151,8 @@ public class RoleService {
         return convertToResponse(updatedRole);
     }
     
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS,
+        CacheConfig.ROLE_MENUS, CacheConfig.MENU_TREES}, allEntries = true)
     public RoleResponse removePermissionsFromRole(Long roleId, Set<Long> permissionIds) {
         Role role = roleRepository.findById(roleId)
             .orElseThrow(() -> new ResourceNotFoundException("角色", roleId));
@@ -0,0 +1,278 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.cache.CacheInvalidationBus;
+import com.assoc.common.cache.ClusterInvalidated;
+import com.assoc.common.cache.ClusterInvalidationEvent;
+import com.assoc.iam.config.TokenStateProperties;
+import com.assoc.iam.entity.RevokedToken;
+import com.assoc.iam.repository.RevokedTokenRepository;
+import com.assoc.iam.security.BloomFilter;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 令牌吊销名单：登出吊销单个令牌，修改密码、禁用用户吊销该用户此前签发的全部令牌。
+ *
+ * <p>名单持久化在 iam_revoked_token 表中，内存中的 Bloom 过滤器挡在前面：绝大多数令牌未被吊销，
+ * 检查只需一次过滤器探测，不访问数据库；过滤器命中（已吊销或误判）时才查表确认。
+ * 按用户的吊销数量少，每个用户最近一次吊销的时间完整保存在内存中，检查不查表。
+ * 两者在启动时从表构建，吊销在事务提交后加入，并经 {@link CacheInvalidationBus}
+ * 同步到其他节点；总线丢消息时各节点从表重建。过期记录定期删除，内存状态随之重建。</p>
+ *
+ * <p>修改、重置密码不写吊销记录，由安全戳使旧令牌失效。</p>
+ */
+@Slf4j
+@Service
+@ClusterInvalidated(TokenRevocationService.CACHE_NAME)
+public class TokenRevocationService {
+
+    /** Name of the denylist on the cache invalidation bus */
+    public static final String CACHE_NAME = "revokedTokens";
+
+    public static final String REASON_LOGOUT = "logout";
+    public static final String REASON_DISABLED = "disabled";
+
+    private static final String TOKEN_KEY = "t:";
+    private static final String USER_KEY = "u:";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenStateProperties properties;
+    private final ObjectProvider<CacheInvalidationBus> cacheInvalidationBus;
+    private final long maxTokenLifetimeMillis;
+
+    private final Counter filterNegatives;
+    private final Counter falsePositives;
+    private final Counter revokedHits;
+
+    private volatile BloomFilter filter;
+    /** Latest revocation of all tokens per user, for users with unexpired revocations */
+    private volatile Map<Long, Instant> userRevocations = new ConcurrentHashMap<>();
+    /** Until the first build, every check goes to the table */
+    private volatile boolean ready;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  TokenStateProperties properties,
+                                  ObjectProvider<CacheInvalidationBus> cacheInvalidationBus,
+                                  ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                  @Value("${jwt.refresh-token-expiration:604800000}") long maxTokenLifetimeMillis) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.properties = properties;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.maxTokenLifetimeMillis = maxTokenLifetimeMillis;
+        this.filter = new BloomFilter(properties.getExpectedRevocations(), properties.getFalsePositiveRate());
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        this.filterNegatives = lookups(meterRegistry, "filter_negative");
+        this.falsePositives = lookups(meterRegistry, "false_positive");
+        this.revokedHits = lookups(meterRegistry, "revoked");
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("iam.token.revocation.checks")
+                .description("Revocation checks of presented tokens, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hex SHA-256 of a token, the key of the denylist and of the verified-token cache.
+     */
+    public static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 吊销单个令牌，保留到令牌过期
+     */
+    @Transactional
+    public void revokeToken(String tokenHash, Claims claims, String reason) {
+        RevokedToken revoked = new RevokedToken();
+        revoked.setTokenHash(tokenHash);
+        revoked.setUserId(claims.get("userId", Long.class));
+        revoked.setReason(reason);
+        revoked.setRevokedAt(Instant.now());
+        revoked.setExpiresAt(claims.getExpiration().toInstant());
+        revokedTokenRepository.save(revoked);
+        log.info("吊销令牌: userId={}, reason={}", revoked.getUserId(), reason);
+        publishAfterCommit(TOKEN_KEY + tokenHash);
+    }
+
+    /**
+     * 吊销用户在此之前签发的全部令牌，保留到其中最晚签发的 refresh token 过期
+     */
+    @Transactional
+    public void revokeUser(Long userId, String reason) {
+        Instant now = Instant.now();
+        RevokedToken revoked = new RevokedToken();
+        revoked.setUserId(userId);
+        revoked.setReason(reason);
+        revoked.setRevokedAt(now);
+        revoked.setExpiresAt(now.plusMillis(maxTokenLifetimeMillis));
+        revokedTokenRepository.save(revoked);
+        log.info("吊销用户 {} 的全部令牌: reason={}", userId, reason);
+        publishAfterCommit(USER_KEY + userId + ":" + now.toEpochMilli());
+    }
+
+    /**
+     * A token is revoked if it was revoked itself, or its user's tokens were revoked after it
+     * was issued. JWT issue times have second precision: a token issued within the second of a
+     * user revocation is not covered by it (the security stamp still is).
+     *
+     * @param tokenHash {@link #hash(String)} of the token
+     */
+    public boolean isRevoked(String tokenHash, Claims claims) {
+        Long userId = claims.get("userId", Long.class);
+        boolean built = ready;
+        if (built && userId != null && revokedBefore(userRevocations.get(userId), claims.getIssuedAt())) {
+            revokedHits.increment();
+            return true;
+        }
+        if (built && !filter.mightContain(tokenBloomHash(tokenHash))) {
+            filterNegatives.increment();
+            return false;
+        }
+        boolean revoked;
+        try {
+            revoked = revokedTokenRepository.existsByTokenHash(tokenHash)
+                    || (!built && userId != null
+                        && revokedBefore(revokedTokenRepository.findLatestUserRevocation(userId), claims.getIssuedAt()));
+        } catch (RuntimeException e) {
+            // 无法确认时按已吊销处理
+            log.error("查询令牌吊销名单失败: {}", e.getMessage());
+            return true;
+        }
+        (revoked ? revokedHits : falsePositives).increment();
+        return revoked;
+    }
+
+    private static boolean revokedBefore(Instant revokedAt, Date issuedAt) {
+        return revokedAt != null
+                && (issuedAt == null || issuedAt.toInstant().isBefore(revokedAt.truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+    private void publishAfterCommit(String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 提交后再加入过滤器，与并发的重建不会互相覆盖：重建要么读到这条记录，要么在它之前完成
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(key);
+                }
+            });
+        } else {
+            publish(key);
+        }
+    }
+
+    private void publish(String key) {
+        add(key);
+        cacheInvalidationBus.ifAvailable(bus -> bus.evict(CACHE_NAME, key));
+    }
+
+    private synchronized void add(String key) {
+        if (key.startsWith(TOKEN_KEY)) {
+            filter.put(tokenBloomHash(key.substring(TOKEN_KEY.length())));
+        } else if (key.startsWith(USER_KEY)) {
+            // u:<userId>:<revokedAt epoch millis>
+            int separator = key.indexOf(':', USER_KEY.length());
+            userRevocations.merge(Long.parseLong(key.substring(USER_KEY.length(), separator)),
+                    Instant.ofEpochMilli(Long.parseLong(key.substring(separator + 1))), TokenRevocationService::later);
+        }
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * 从表重建过滤器
+     */
+    public synchronized void rebuild() {
+        List<RevokedToken> entries = revokedTokenRepository.findByExpiresAtAfter(Instant.now());
+        BloomFilter rebuilt = new BloomFilter(
+                Math.max(properties.getExpectedRevocations(), entries.size() * 2L), properties.getFalsePositiveRate());
+        Map<Long, Instant> users = new ConcurrentHashMap<>();
+        for (RevokedToken entry : entries) {
+            if (entry.getTokenHash() != null) {
+                rebuilt.put(tokenBloomHash(entry.getTokenHash()));
+            } else {
+                users.merge(entry.getUserId(), entry.getRevokedAt(), TokenRevocationService::later);
+            }
+        }
+        filter = rebuilt;
+        userRevocations = users;
+        ready = true;
+        log.info("令牌吊销过滤器已重建: {} 条记录", entries.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // 未就绪期间每次检查都查表，下次清理时重试
+            log.error("重建令牌吊销过滤器失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 删除过期记录并重建过滤器；多个节点同时执行也无妨
+     */
+    @Scheduled(fixedDelayString = "${iam.token-state.purge-interval:PT1H}",
+            initialDelayString = "${iam.token-state.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("删除过期的令牌吊销记录 {} 条", deleted);
+        }
+        rebuild();
+    }
+
+    /**
+     * 其他节点吊销了令牌，或总线丢失了消息
+     */
+    @EventListener
+    public void onClusterInvalidation(ClusterInvalidationEvent event) {
+        if (!CACHE_NAME.equals(event.cacheName())) {
+            return;
+        }
+        if (event.isClear()) {
+            rebuild();
+        } else {
+            event.keys().forEach(key -> add(String.valueOf(key)));
+        }
+    }
+
+    private static long tokenBloomHash(String tokenHash) {
+        // 摘要本身已均匀分布，取前 64 位即可
+        return Long.parseUnsignedLong(tokenHash, 0, 16, 16);
+    }
+}
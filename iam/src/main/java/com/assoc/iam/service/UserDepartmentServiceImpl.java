@@ -25,6 +25,7 @@ public class UserDepartmentServiceImpl implements UserDepartmentService {
     private final UserDepartmentRepository userDepartmentRepository;
     private final UserRepository userRepository;
     private final DepartmentRepository departmentRepository;
+    private final DepartmentHierarchyIndex departmentHierarchyIndex;
     
     @Override
     public UserDepartmentResponse createUserDepartment(UserDepartmentRequest request) {
@@ -264,12 +265,16 @@ public class UserDepartmentServiceImpl implements UserDepartmentService {
     @Override
     @Transactional(readOnly = true)
     public List<Long> getUserIdsInDepartmentTree(Long departmentId) {
-        Department department = departmentRepository.findById(departmentId)
-                .orElseThrow(() -> new IllegalArgumentException("部门不存在"));
-        
-        String pathPrefix = department.getPath() + "/%";
+        List<Long> departmentIds = departmentHierarchyIndex.current().subtreeIds(departmentId);
+        if (departmentIds.isEmpty()) {
+            // Not in the index yet, e.g. created on another node a moment ago
+            if (!departmentRepository.existsById(departmentId)) {
+                throw new IllegalArgumentException("部门不存在");
+            }
+            departmentIds = List.of(departmentId);
+        }
         
-        return userDepartmentRepository.findUserIdsByDepartmentPath(departmentId, pathPrefix, LocalDate.now());
+        return userDepartmentRepository.findActiveUserIdsByDepartmentIds(departmentIds, LocalDate.now());
     }
     
     @Override
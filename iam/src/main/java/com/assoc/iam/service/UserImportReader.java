@@ -0,0 +1,419 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.exception.BusinessException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Streams the rows of a user import file, CSV (UTF-8) or XLSX (first worksheet).
+ *
+ * <p>The first row is the header; columns are matched by name, in Chinese or English, and
+ * unknown columns are ignored. Blank rows are skipped. Row numbers are those shown by a
+ * spreadsheet, the header being row 1, so that the error report points at the right line.</p>
+ *
+ * <p>XLSX is read with StAX straight from the archive, one row at a time; only the shared string
+ * table is held in memory. No spreadsheet library is needed.</p>
+ */
+final class UserImportReader {
+
+    /**
+     * One data row; blank cells are {@code null}.
+     */
+    record Row(int number, String username, String password, String email, String phone, String realName,
+               String status, String roles, String department, String position) {
+    }
+
+    enum Column {
+        USERNAME("用户名", "username"),
+        PASSWORD("密码", "password"),
+        EMAIL("邮箱", "email"),
+        PHONE("手机号", "phone"),
+        REAL_NAME("真实姓名", "realname", "real_name", "name"),
+        STATUS("状态", "status"),
+        ROLES("角色", "roles", "role"),
+        DEPARTMENT("部门", "部门编码", "department", "department_code"),
+        POSITION("职位", "position");
+
+        private final List<String> headers;
+
+        Column(String... headers) {
+            this.headers = List.of(headers);
+        }
+
+        private static final Map<String, Column> BY_HEADER = new HashMap<>();
+
+        static {
+            for (Column column : values()) {
+                column.headers.forEach(header -> BY_HEADER.put(header, column));
+            }
+        }
+
+        static Column of(String header) {
+            return header != null ? BY_HEADER.get(header.trim().toLowerCase(Locale.ROOT)) : null;
+        }
+    }
+
+    private static final String RELATIONSHIP_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private UserImportReader() {
+    }
+
+    static boolean isSupported(String filename) {
+        return isCsv(filename) || isXlsx(filename);
+    }
+
+    /**
+     * Pass each data row of the file to {@code consumer}, in file order.
+     */
+    static void read(String filename, InputStream in, Consumer<Row> consumer) throws IOException {
+        if (isXlsx(filename)) {
+            readXlsx(in, consumer);
+        } else if (isCsv(filename)) {
+            readCsv(new InputStreamReader(in, StandardCharsets.UTF_8), consumer);
+        } else {
+            throw new BusinessException(400, "仅支持 CSV 或 XLSX 文件");
+        }
+    }
+
+    private static boolean isCsv(String filename) {
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    private static boolean isXlsx(String filename) {
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".xlsx");
+    }
+
+    // ---- rows ----
+
+    /**
+     * Maps cells to columns once the header row is known.
+     */
+    private static final class RowMapper {
+
+        private final Consumer<Row> consumer;
+        private Column[] columns;
+
+        RowMapper(Consumer<Row> consumer) {
+            this.consumer = consumer;
+        }
+
+        void accept(int number, List<String> cells) {
+            if (cells.stream().allMatch(cell -> cell == null || cell.isBlank())) {
+                return;
+            }
+            if (columns == null) {
+                header(cells);
+                return;
+            }
+            String[] values = new String[Column.values().length];
+            for (int i = 0; i < Math.min(cells.size(), columns.length); i++) {
+                String cell = cells.get(i);
+                if (columns[i] != null && cell != null && !cell.isBlank()) {
+                    values[columns[i].ordinal()] = cell.trim();
+                }
+            }
+            consumer.accept(new Row(number,
+                    values[Column.USERNAME.ordinal()], values[Column.PASSWORD.ordinal()],
+                    values[Column.EMAIL.ordinal()], values[Column.PHONE.ordinal()],
+                    values[Column.REAL_NAME.ordinal()], values[Column.STATUS.ordinal()],
+                    values[Column.ROLES.ordinal()], values[Column.DEPARTMENT.ordinal()],
+                    values[Column.POSITION.ordinal()]));
+        }
+
+        private void header(List<String> cells) {
+            columns = new Column[cells.size()];
+            for (int i = 0; i < cells.size(); i++) {
+                columns[i] = Column.of(cells.get(i));
+            }
+            List<Column> present = Arrays.asList(columns);
+            for (Column required : List.of(Column.USERNAME, Column.PASSWORD)) {
+                if (!present.contains(required)) {
+                    throw new BusinessException(400, "导入文件缺少必需的列: " + required.headers.get(0));
+                }
+            }
+        }
+
+        void finish() {
+            if (columns == null) {
+                throw new BusinessException(400, "导入文件为空");
+            }
+        }
+    }
+
+    // ---- CSV ----
+
+    /**
+     * RFC 4180: comma-separated, fields optionally quoted, {@code ""} inside quotes, line breaks
+     * allowed inside quotes. A leading byte order mark is ignored.
+     */
+    static void readCsv(Reader source, Consumer<Row> consumer) throws IOException {
+        RowMapper mapper = new RowMapper(consumer);
+        Reader reader = source instanceof BufferedReader ? source : new BufferedReader(source);
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int line = 1;
+        int rowStart = 1;
+        int c = reader.read();
+        if (c == '\uFEFF') {
+            c = reader.read();
+        }
+        for (; c != -1; c = reader.read()) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        cell.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    cell.append((char) c);
+                }
+            } else if (c == '"' && cell.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                cells.add(cell.toString());
+                cell.setLength(0);
+                mapper.accept(rowStart, cells);
+                cells = new ArrayList<>();
+                any = false;
+                rowStart = ++line;
+            } else {
+                cell.append((char) c);
+            }
+        }
+        if (any) {
+            cells.add(cell.toString());
+            mapper.accept(rowStart, cells);
+        }
+        mapper.finish();
+    }
+
+    // ---- XLSX ----
+
+    private static void readXlsx(InputStream in, Consumer<Row> consumer) throws IOException {
+        // The entries are needed in a fixed order, so the archive is spooled to disk for random access
+        Path file = Files.createTempFile("user-import-", ".xlsx");
+        try {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            try (ZipFile zip = new ZipFile(file.toFile())) {
+                List<String> sharedStrings = sharedStrings(zip);
+                ZipEntry sheet = zip.getEntry(firstSheet(zip));
+                if (sheet == null) {
+                    throw new BusinessException(400, "XLSX 文件中没有工作表");
+                }
+                try (InputStream sheetIn = zip.getInputStream(sheet)) {
+                    readSheet(sheetIn, sharedStrings, consumer);
+                }
+            }
+        } catch (XMLStreamException | java.util.zip.ZipException e) {
+            throw new BusinessException(400, "无法解析 XLSX 文件: " + e.getMessage());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Path of the first worksheet listed in the workbook.
+     */
+    private static String firstSheet(ZipFile zip) throws IOException, XMLStreamException {
+        String relationshipId = null;
+        ZipEntry workbook = zip.getEntry("xl/workbook.xml");
+        if (workbook != null) {
+            try (InputStream in = zip.getInputStream(workbook)) {
+                XMLStreamReader xml = xmlReader(in);
+                while (xml.hasNext() && relationshipId == null) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(xml.getLocalName())) {
+                        relationshipId = xml.getAttributeValue(RELATIONSHIP_NS, "id");
+                    }
+                }
+                xml.close();
+            }
+        }
+        ZipEntry relationships = zip.getEntry("xl/_rels/workbook.xml.rels");
+        if (relationshipId != null && relationships != null) {
+            try (InputStream in = zip.getInputStream(relationships)) {
+                XMLStreamReader xml = xmlReader(in);
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(xml.getLocalName())
+                            && relationshipId.equals(xml.getAttributeValue(null, "Id"))) {
+                        String target = xml.getAttributeValue(null, "Target");
+                        xml.close();
+                        return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+                    }
+                }
+                xml.close();
+            }
+        }
+        return "xl/worksheets/sheet1.xml";
+    }
+
+    private static List<String> sharedStrings(ZipFile zip) throws IOException, XMLStreamException {
+        List<String> strings = new ArrayList<>();
+        ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+        if (entry == null) {
+            return strings;
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            XMLStreamReader xml = xmlReader(in);
+            StringBuilder text = null;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if ("si".equals(xml.getLocalName())) {
+                        text = new StringBuilder();
+                    } else if ("t".equals(xml.getLocalName()) && text != null) {
+                        text.append(xml.getElementText());
+                    } else if ("rPh".equals(xml.getLocalName())) {
+                        skip(xml);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "si".equals(xml.getLocalName())) {
+                    strings.add(text.toString());
+                    text = null;
+                }
+            }
+            xml.close();
+        }
+        return strings;
+    }
+
+    private static void readSheet(InputStream in, List<String> sharedStrings, Consumer<Row> consumer)
+            throws XMLStreamException {
+        RowMapper mapper = new RowMapper(consumer);
+        XMLStreamReader xml = xmlReader(in);
+        List<String> cells = null;
+        int rowNumber = 0;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "row" -> {
+                        String r = xml.getAttributeValue(null, "r");
+                        rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                        cells = new ArrayList<>();
+                    }
+                    case "c" -> {
+                        if (cells != null) {
+                            int column = columnIndex(xml.getAttributeValue(null, "r"), cells.size());
+                            String value = cellValue(xml, xml.getAttributeValue(null, "t"), sharedStrings);
+                            while (cells.size() < column) {
+                                cells.add(null);
+                            }
+                            cells.add(value);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName()) && cells != null) {
+                mapper.accept(rowNumber, cells);
+                cells = null;
+            }
+        }
+        xml.close();
+        mapper.finish();
+    }
+
+    /**
+     * Reads a {@code <c>} element up to its end tag.
+     */
+    private static String cellValue(XMLStreamReader xml, String type, List<String> sharedStrings)
+            throws XMLStreamException {
+        StringBuilder value = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("v".equals(name) || "t".equals(name)) {
+                    value.append(xml.getElementText());
+                } else if ("rPh".equals(name)) {
+                    skip(xml);
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        if ("s".equals(type) && !value.isEmpty()) {
+            int index = Integer.parseInt(value.toString().trim());
+            return index < sharedStrings.size() ? sharedStrings.get(index) : null;
+        }
+        if ("b".equals(type)) {
+            return "1".contentEquals(value) ? "TRUE" : "FALSE";
+        }
+        return value.isEmpty() ? null : value.toString();
+    }
+
+    /**
+     * Zero-based column of a cell reference such as {@code "AB12"}; cells without one follow the previous.
+     */
+    private static int columnIndex(String reference, int next) {
+        if (reference == null) {
+            return next;
+        }
+        int column = 0;
+        for (int i = 0; i < reference.length() && Character.isLetter(reference.charAt(i)); i++) {
+            column = column * 26 + (Character.toUpperCase(reference.charAt(i)) - 'A' + 1);
+        }
+        return column > 0 ? column - 1 : next;
+    }
+
+    private static void skip(XMLStreamReader xml) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static XMLStreamReader xmlReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory.createXMLStreamReader(in);
+    }
+}
@@ -0,0 +1,46 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.security.PermissionBitSet;
+import com.assoc.iam.entity.Permission;
+import com.assoc.iam.entity.User;
+import com.assoc.iam.repository.UserRepository;
+import com.assoc.iam.security.PermissionRouteIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 加载用户的有效权限代码，作为 userPermissions 缓存的加载器（包括后台刷新）
+ *
+ * <p>结果是按权限ID编号的 {@link PermissionBitSet}，路由匹配时按位判断；
+ * 有权限不在权限目录中时退回普通的代码集合。</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPermissionLoader {
+
+    private final UserRepository userRepository;
+    private final PermissionRouteIndex permissionRouteIndex;
+
+    @Transactional(readOnly = true)
+    public Set<String> load(Long userId) {
+        Optional<User> userOpt = userRepository.findByIdWithRolesAndPermissions(userId);
+        if (userOpt.isEmpty()) {
+            return Set.of();
+        }
+
+        User user = userOpt.get();
+        Set<String> codes = user.getRoles().stream()
+                .filter(role -> role.getStatus() == 1) // 只考虑激活的角色
+                .flatMap(role -> role.getPermissions().stream())
+                .filter(permission -> permission.getStatus() == 1) // 只考虑激活的权限
+                .map(Permission::getCode)
+                .collect(Collectors.toUnmodifiableSet());
+        Optional<PermissionBitSet> bits = PermissionBitSet.of(permissionRouteIndex.catalog(), codes);
+        return bits.isPresent() ? bits.get() : codes;
+    }
+}
@@ -1,18 +1,18 @@
 package com.assoc.iam.service;
 
 import com.assoc.common.context.RequestContext;
+import com.assoc.iam.config.CacheConfig;
 import com.assoc.iam.dto.*;
-import com.assoc.iam.entity.Menu;
 import com.assoc.iam.entity.Role;
 import com.assoc.iam.entity.User;
 import com.assoc.iam.exception.InvalidPasswordException;
 import com.assoc.iam.exception.UserAlreadyExistsException;
 import com.assoc.iam.exception.UserNotFoundException;
-import com.assoc.iam.repository.MenuRepository;
 import com.assoc.iam.repository.RoleRepository;
 import com.assoc.iam.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -30,11 +30,12 @@ public class UserServiceImpl implements UserService {
     
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final MenuRepository menuRepository;
+    private final MenuTreeCache menuTreeCache;
     private final PasswordEncoder passwordEncoder;
     private final UserDepartmentService userDepartmentService;
     private final RequestContext requestContext;
     private final GlobalUserLookupService globalUserLookupService;
+    private final TokenRevocationService tokenRevocationService;
     
     @Override
     @Transactional
@@ -109,6 +110,7 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS}, key = "#id")
     @Transactional
     public UserResponse updateUser(Long id, UserUpdateRequest request) {
         log.info("Updating user with ID: {}", id);
@@ -150,6 +152,7 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @CacheEvict(value = CacheConfig.USER_PRINCIPALS, key = "#id")
     @Transactional
     public void changePassword(Long id, ChangePasswordRequest request) {
         log.info("Changing password for user ID: {}", id);
@@ -167,14 +170,16 @@ public class UserServiceImpl implements UserService {
             throw new InvalidPasswordException("新密码与确认密码不一致");
         }
         
-        // 更新密码
+        // 更新密码；递增安全戳使已签发的令牌失效
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        bumpSecurityStamp(user);
         userRepository.save(user);
         
         log.info("Password changed successfully for user ID: {}", id);
     }
     
     @Override
+    @CacheEvict(value = CacheConfig.USER_PRINCIPALS, key = "#id")
     @Transactional
     public void resetPassword(Long id, String newPassword) {
         log.info("Resetting password for user ID: {}", id);
@@ -183,12 +188,14 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new UserNotFoundException(id));
         
         user.setPassword(passwordEncoder.encode(newPassword));
+        bumpSecurityStamp(user);
         userRepository.save(user);
         
         log.info("Password reset successfully for user ID: {}", id);
     }
     
     @Override
+    @CacheEvict(value = CacheConfig.USER_PRINCIPALS, key = "#id")
     @Transactional
     public void enableUser(Long id) {
         log.info("Enabling user ID: {}", id);
@@ -196,10 +203,16 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @CacheEvict(value = CacheConfig.USER_PRINCIPALS, key = "#id")
     @Transactional
     public void disableUser(Long id) {
         log.info("Disabling user ID: {}", id);
         updateUserStatus(id, 0);
+        tokenRevocationService.revokeUser(id, TokenRevocationService.REASON_DISABLED);
+    }
+    
+    private void bumpSecurityStamp(User user) {
+        user.setSecurityStamp(user.getSecurityStamp() == null ? 1 : user.getSecurityStamp() + 1);
     }
     
     private void updateUserStatus(Long id, Integer status) {
@@ -210,6 +223,7 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS}, key = "#id")
     @Transactional
     public void deleteUser(Long id) {
         log.info("Deleting user ID: {}", id);
@@ -223,6 +237,7 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS}, key = "#userId")
     @Transactional
     public void assignRoles(Long userId, Set<Long> roleIds) {
         log.info("Assigning roles {} to user ID: {}", roleIds, userId);
@@ -241,6 +256,7 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @CacheEvict(value = {CacheConfig.USER_PERMISSIONS, CacheConfig.USER_PRINCIPALS}, key = "#userId")
     @Transactional
     public void removeRoles(Long userId, Set<Long> roleIds) {
         log.info("Removing roles {} from user ID: {}", roleIds, userId);
@@ -269,12 +285,9 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<MenuTreeResponse> getUserMenuTree(Long userId) {
         log.debug("Getting menu tree for user: {}", userId);
-
-        List<Menu> userMenus = menuRepository.findAccessibleMenusByUserId(userId);
-        return buildMenuTree(userMenus);
+        return menuTreeCache.forRoles(userRepository.findActiveUserRoleCodes(userId)).menus();
     }
     
     @Override
@@ -344,89 +357,6 @@ public class UserServiceImpl implements UserService {
         return response;
     }
     
-    /**
-     * 构建菜单树结构
-     */
-    private List<MenuTreeResponse> buildMenuTree(List<Menu> menus) {
-        Map<Long, MenuTreeResponse> menuMap = menus.stream()
-                .map(this::convertToTreeResponse)
-                .collect(Collectors.toMap(MenuTreeResponse::getId, menu -> menu));
-        
-        List<MenuTreeResponse> rootMenus = new ArrayList<>();
-        
-        for (MenuTreeResponse menu : menuMap.values()) {
-            if (menu.getParentId() == null) {
-                rootMenus.add(menu);
-            } else {
-                MenuTreeResponse parent = menuMap.get(menu.getParentId());
-                if (parent != null) {
-                    if (parent.getChildren() == null) {
-                        parent.setChildren(new ArrayList<>());
-                    }
-                    parent.getChildren().add(menu);
-                }
-            }
-        }
-        
-        // Sort menus at each level
-        sortMenuTree(rootMenus);
-        return rootMenus;
-    }
-    
-    /**
-     * 排序菜单树
-     */
-    private void sortMenuTree(List<MenuTreeResponse> menus) {
-        if (menus == null || menus.isEmpty()) {
-            return;
-        }
-        
-        menus.sort((a, b) -> {
-            int result = Integer.compare(a.getSortOrder(), b.getSortOrder());
-            return result != 0 ? result : Long.compare(a.getId(), b.getId());
-        });
-        
-        menus.forEach(menu -> {
-            if (menu.getChildren() != null) {
-                menu.setHasChildren(true);
-                sortMenuTree(menu.getChildren());
-            }
-        });
-    }
-    
-    /**
-     * 转换Menu实体为MenuTreeResponse
-     */
-    private MenuTreeResponse convertToTreeResponse(Menu menu) {
-        MenuTreeResponse response = new MenuTreeResponse();
-        response.setId(menu.getId());
-        response.setName(menu.getName());
-        response.setCode(menu.getCode());
-        response.setPath(menu.getPath());
-        response.setIcon(menu.getIcon());
-        response.setComponent(menu.getComponent());
-        response.setParentId(menu.getParentId());
-        response.setLevel(menu.getLevel());
-        response.setSortOrder(menu.getSortOrder());
-        response.setMenuType(menu.getMenuType());
-        response.setExternal(menu.getExternal());
-        response.setCache(menu.getCache());
-        response.setHidden(menu.getHidden());
-        response.setHasChildren(menu.hasChildren());
-        
-        // Set meta information for frontend
-        MenuTreeResponse.MenuMeta meta = new MenuTreeResponse.MenuMeta();
-        meta.setTitle(menu.getName());
-        meta.setIcon(menu.getIcon());
-        meta.setHideInMenu(menu.getHidden());
-        meta.setKeepAlive(menu.getCache());
-        meta.setTarget(menu.getExternal() ? "_blank" : null);
-        meta.setOrder(menu.getSortOrder());
-        response.setMeta(meta);
-        
-        return response;
-    }
-    
     @Override
     public long countActiveUsers() {
         log.debug("Counting active users");
@@ -0,0 +1,3 @@
+-- Security stamp: copied into every token at issue time and bumped when existing tokens must stop
+-- working (password change or reset). Authentication compares the two without loading roles.
+ALTER TABLE iam_user ADD COLUMN security_stamp INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Token denylist. A row revokes either one token (token_hash, hex SHA-256 of the JWT) or every
+-- token of a user issued before revoked_at. Rows are purged once expires_at has passed, when the
+-- tokens they cover have expired on their own.
+CREATE TABLE iam_revoked_token (
+    id BIGSERIAL PRIMARY KEY,
+    token_hash VARCHAR(64),
+    user_id BIGINT,
+    reason VARCHAR(20) NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT iam_revoked_token_target_check CHECK (token_hash IS NOT NULL OR user_id IS NOT NULL)
+);
+
+CREATE INDEX idx_iam_revoked_token_hash ON iam_revoked_token (token_hash) WHERE token_hash IS NOT NULL;
+CREATE INDEX idx_iam_revoked_token_user ON iam_revoked_token (user_id, revoked_at) WHERE token_hash IS NULL;
+CREATE INDEX idx_iam_revoked_token_expires ON iam_revoked_token (expires_at);
@@ -0,0 +1,79 @@
+-- Partition iam_audit_log by month of occurred_at
+-- Retention used to delete expired rows one entity at a time; with monthly partitions it drops whole
+-- partitions instead, and time-range searches prune to the months they cover.
+
+ALTER TABLE iam_audit_log RENAME TO iam_audit_log_legacy;
+ALTER TABLE iam_audit_log_legacy RENAME CONSTRAINT iam_audit_log_pkey TO iam_audit_log_legacy_pkey;
+DROP INDEX IF EXISTS idx_iam_audit_log_time;
+DROP INDEX IF EXISTS idx_iam_audit_log_action_resource;
+DROP INDEX IF EXISTS idx_iam_audit_log_user;
+
+-- Keep the id sequence so existing ids stay unique
+ALTER SEQUENCE iam_audit_log_id_seq OWNED BY NONE;
+
+CREATE TABLE iam_audit_log (
+    id BIGINT NOT NULL DEFAULT nextval('iam_audit_log_id_seq'),
+    user_id BIGINT,
+    username VARCHAR(100),
+    roles TEXT,
+    permissions TEXT,
+    action VARCHAR(100) NOT NULL,
+    resource VARCHAR(100),
+    remark VARCHAR(255),
+    request_uri VARCHAR(500),
+    http_method VARCHAR(20),
+    client_ip VARCHAR(64),
+    user_agent VARCHAR(255),
+    parameters TEXT,
+    result_status VARCHAR(32),
+    result_message TEXT,
+    latency_ms BIGINT,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    created_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    updated_by BIGINT,
+    -- Unique constraints on a partitioned table must include the partition key
+    PRIMARY KEY (id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
+ALTER SEQUENCE iam_audit_log_id_seq OWNED BY iam_audit_log.id;
+
+-- Monthly partitions are created ahead by the retention job; the default one only catches gaps
+CREATE TABLE iam_audit_log_default PARTITION OF iam_audit_log DEFAULT;
+
+-- Month boundaries follow the session time zone, which the JDBC driver sets to the application's
+DO $$
+DECLARE
+    partition_month TIMESTAMP WITH TIME ZONE;
+BEGIN
+    FOR partition_month IN
+        SELECT date_trunc('month', COALESCE(occurred_at, created_time, NOW())) FROM iam_audit_log_legacy
+        UNION
+        SELECT date_trunc('month', NOW()) + INTERVAL '1 month' * n FROM generate_series(0, 2) n
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF iam_audit_log FOR VALUES FROM (%L) TO (%L)',
+                       'iam_audit_log_p' || to_char(partition_month, 'YYYYMM'), partition_month,
+                       partition_month + INTERVAL '1 month');
+    END LOOP;
+END $$;
+
+INSERT INTO iam_audit_log
+    (id, user_id, username, roles, permissions, action, resource, remark, request_uri, http_method,
+     client_ip, user_agent, parameters, result_status, result_message, latency_ms, occurred_at,
+     created_time, updated_time, created_by, updated_by)
+SELECT id, user_id, username, roles, permissions, action, resource, remark, request_uri, http_method,
+       client_ip, user_agent, parameters, result_status, result_message, latency_ms,
+       COALESCE(occurred_at, created_time, NOW()), created_time, updated_time, created_by, updated_by
+FROM iam_audit_log_legacy;
+
+DROP TABLE iam_audit_log_legacy;
+
+-- Indexes are defined on the parent and created on every partition, including future ones
+CREATE INDEX idx_iam_audit_log_time ON iam_audit_log (occurred_at DESC);
+CREATE INDEX idx_iam_audit_log_action_resource ON iam_audit_log (action, resource);
+CREATE INDEX idx_iam_audit_log_user ON iam_audit_log (user_id);
+
+ANALYZE iam_audit_log;
+
+COMMENT ON TABLE iam_audit_log IS '审计日志，按发生时间（occurred_at）月份分区';
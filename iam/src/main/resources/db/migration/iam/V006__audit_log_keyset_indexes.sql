@@ -0,0 +1,11 @@
+-- Keyset pagination of the audit log on (occurred_at, id), newest first
+-- Every index a search can use ends in the sort key, so a page is an index range scan per partition
+-- that stops after LIMIT rows, however deep the page, and no COUNT(*) is needed to page.
+
+DROP INDEX IF EXISTS idx_iam_audit_log_time;
+CREATE INDEX idx_iam_audit_log_time ON iam_audit_log (occurred_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_iam_audit_log_action_resource;
+CREATE INDEX idx_iam_audit_log_action_resource ON iam_audit_log (action, resource, occurred_at DESC, id DESC);
+
+CREATE INDEX idx_iam_audit_log_username ON iam_audit_log (username, occurred_at DESC, id DESC);
@@ -0,0 +1,67 @@
+package com.assoc.iam.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of one password check per bcrypt cost, to pick {@code iam.login.bcrypt-strength}.
+ *
+ * <p>Aim for roughly 50-100 ms per check on the production CPU: slow enough for offline
+ * cracking, while {@code pool.threads} cores still verify {@code threads / time} logins per second.
+ * Every cost step doubles the time. Run on the target hardware with:</p>
+ *
+ * <pre>
+ * mvn -pl iam -am test-compile -Dmaven.test.skip=false
+ * java -cp "$(cat classpath.txt):iam/target/test-classes:iam/target/classes" com.assoc.iam.benchmark.BCryptCostBenchmark
+ * </pre>
+ *
+ * <p>with {@code classpath.txt} from {@code mvn -pl iam dependency:build-classpath -Dmdep.outputFile=../classpath.txt}.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BCryptCostBenchmark {
+
+    private static final String PASSWORD = "Correct-Horse-Battery-9";
+
+    @Param({"8", "10", "12"})
+    private int cost;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(cost);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BCryptCostBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
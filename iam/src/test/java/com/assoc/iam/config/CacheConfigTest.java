@@ -0,0 +1,76 @@
+package com.assoc.iam.config;
+
+import com.assoc.iam.service.UserPermissionLoader;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CacheConfigTest {
+
+    @Test
+    void bindsPerCacheSpecs() {
+        IamCacheProperties properties = bind(Map.of(
+                "iam.cache.caches.userPermissions.max-size", "50",
+                "iam.cache.caches.userPermissions.ttl", "PT2M",
+                "iam.cache.caches.userPermissions.refresh", "PT1M"));
+
+        IamCacheProperties.Spec spec = properties.specFor(CacheConfig.USER_PERMISSIONS);
+        assertThat(spec.getMaxSize()).isEqualTo(50);
+        assertThat(spec.getTtl()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(spec.getRefresh()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(properties.specFor("other")).isSameAs(properties.getDefaults());
+    }
+
+    @Test
+    void userPermissionsIsBoundedLoadingCache() {
+        UserPermissionLoader loader = mock(UserPermissionLoader.class);
+        when(loader.load(7L)).thenReturn(Set.of("user:list"));
+        CacheManager cacheManager = new CacheConfig().cacheManager(new IamCacheProperties(), loader);
+
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                caffeine(cacheManager.getCache(CacheConfig.USER_PERMISSIONS));
+        assertThat(nativeCache).isInstanceOf(LoadingCache.class);
+        Policy<Object, Object> policy = nativeCache.policy();
+        assertThat(policy.eviction().orElseThrow().getMaximum()).isEqualTo(10_000);
+        assertThat(policy.expireAfterWrite().orElseThrow().getExpiresAfter()).isEqualTo(Duration.ofMinutes(30));
+        assertThat(policy.refreshAfterWrite()).isPresent();
+        assertThat(policy.isRecordingStats()).isTrue();
+
+        assertThat(((LoadingCache<Object, Object>) nativeCache).get(7L)).isEqualTo(Set.of("user:list"));
+    }
+
+    @Test
+    void undeclaredCachesAreBounded() {
+        CacheManager cacheManager = new CacheConfig()
+                .cacheManager(new IamCacheProperties(), mock(UserPermissionLoader.class));
+
+        Policy<Object, Object> policy = caffeine(cacheManager.getCache("menus")).policy();
+        assertThat(policy.eviction().orElseThrow().getMaximum()).isEqualTo(1_000);
+        assertThat(policy.isRecordingStats()).isTrue();
+    }
+
+    private static IamCacheProperties bind(Map<String, String> values) {
+        return new Binder(new MapConfigurationPropertySource(values))
+                .bindOrCreate("iam.cache", IamCacheProperties.class);
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine(Cache cache) {
+        assertThat(cache).isInstanceOf(TransactionAwareCacheDecorator.class);
+        Cache target = ((TransactionAwareCacheDecorator) cache).getTargetCache();
+        return ((CaffeineCache) target).getNativeCache();
+    }
+}
@@ -0,0 +1,28 @@
+package com.assoc.iam.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void hasNoFalseNegativesAndBoundedFalsePositives() {
+        int insertions = 100_000;
+        BloomFilter filter = new BloomFilter(insertions, 0.001);
+        for (long key = 0; key < insertions; key++) {
+            filter.put(BloomFilter.mix(key));
+        }
+
+        for (long key = 0; key < insertions; key++) {
+            assertThat(filter.mightContain(BloomFilter.mix(key))).isTrue();
+        }
+        int falsePositives = 0;
+        for (long key = insertions; key < 2L * insertions; key++) {
+            if (filter.mightContain(BloomFilter.mix(key))) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / insertions).isLessThan(0.002);
+    }
+}
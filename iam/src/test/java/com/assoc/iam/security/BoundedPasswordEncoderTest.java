@@ -0,0 +1,89 @@
+package com.assoc.iam.security;
+
+import com.assoc.iam.config.LoginProperties;
+import com.assoc.iam.exception.LoginRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void verifiesOnThePoolAndEncodesOnTheCaller() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, pool(2, 8, Duration.ofSeconds(5)), meterRegistry);
+        try {
+            String hash = encoder.encode("secret");
+
+            assertThat(encoder.matches("secret", hash)).isTrue();
+            assertThat(encoder.matches("wrong", hash)).isFalse();
+            assertThat(meterRegistry.timer("iam.password.hash", "operation", "matches").count()).isEqualTo(2);
+            // The rehash after a successful login runs on the caller and cannot be rejected
+            assertThat(meterRegistry.timer("iam.password.queue.wait").count()).isEqualTo(2);
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void upgradesHashesOfAnotherCost() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(10, pool(1, 1, Duration.ofSeconds(5)), new SimpleMeterRegistry());
+        try {
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(10).encode("secret"))).isFalse();
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(11).encode("secret"))).isTrue();
+            assertThat(encoder.upgradeEncoding("not-a-bcrypt-hash")).isFalse();
+            assertThat(encoder.upgradeEncoding(null)).isFalse();
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void rejectsWhenThePoolIsSaturated() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(12, pool(1, 1, Duration.ofMillis(50)), meterRegistry);
+        String hash = new BCryptPasswordEncoder(12).encode("secret");
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(callers.submit(() -> encoder.matches("secret", hash)));
+            }
+            int rejected = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(LoginRejectedException.class);
+                    rejected++;
+                }
+            }
+
+            assertThat(rejected).isEqualTo(6);
+            assertThat(meterRegistry.counter("iam.password.rejected", "reason", "queue_full").count()
+                    + meterRegistry.counter("iam.password.rejected", "reason", "timeout").count()).isEqualTo(6);
+        } finally {
+            callers.shutdownNow();
+            encoder.destroy();
+        }
+    }
+
+    private static LoginProperties.Pool pool(int threads, int queueCapacity, Duration maxWait) {
+        LoginProperties.Pool pool = new LoginProperties.Pool();
+        pool.setThreads(threads);
+        pool.setQueueCapacity(queueCapacity);
+        pool.setMaxWait(maxWait);
+        return pool;
+    }
+}
@@ -0,0 +1,197 @@
+package com.assoc.iam.security;
+
+import com.assoc.common.context.ThreadLocalRequestContext;
+import com.assoc.iam.config.CacheConfig;
+import com.assoc.iam.config.IamCacheProperties;
+import com.assoc.iam.config.TokenStateProperties;
+import com.assoc.iam.entity.Permission;
+import com.assoc.iam.entity.Role;
+import com.assoc.iam.entity.User;
+import com.assoc.iam.repository.PermissionRepository;
+import com.assoc.iam.repository.RevokedTokenRepository;
+import com.assoc.iam.repository.UserRepository;
+import com.assoc.iam.service.DynamicPermissionService;
+import com.assoc.iam.service.JwtService;
+import com.assoc.iam.service.TokenRevocationService;
+import com.assoc.iam.service.UserPermissionLoader;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+/**
+ * Database queries per authenticated request: JWT filter plus the dynamic permission check,
+ * as {@code DynamicPermissionFilter} runs it, compared between both modes.
+ */
+class JwtAuthenticationQueryBenchmarkTest {
+
+    private static final int REQUESTS = 2_000;
+    private static final String PATH = "/api/iam/users";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PermissionRouteIndex routeIndex = routeIndex();
+    private final JwtService jwtService = new JwtService(routeIndex);
+    private final User user = user();
+
+    JwtAuthenticationQueryBenchmarkTest() {
+        ReflectionTestUtils.setField(jwtService, "secretKey", "benchmark-secret-key-must-be-at-least-256-bits-long-for-HS256");
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "issuer", "benchmark");
+        when(userRepository.findActiveUserWithRolesAndPermissions(anyString())).thenReturn(Optional.of(user));
+        when(userRepository.findByIdWithRolesAndPermissions(anyLong())).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void databaseModeQueriesTwicePerRequest() throws Exception {
+        // Before: the filter loads the user, and the permission lookup was not cached
+        Result result = run(false, new NoOpCacheManager());
+
+        assertThat(result.queriesPerRequest()).isEqualTo(2.0);
+    }
+
+    @Test
+    void statelessModeQueriesOnlyOnColdCache() throws Exception {
+        CacheManager cacheManager = new CacheConfig()
+                .cacheManager(new IamCacheProperties(), new UserPermissionLoader(userRepository, routeIndex));
+
+        Result result = run(true, cacheManager);
+
+        assertThat(result.coldQueries()).isEqualTo(2);
+        assertThat(result.queriesPerRequest()).isZero();
+    }
+
+    @Test
+    void revokedStampIsRejected() throws Exception {
+        CacheManager cacheManager = new CacheConfig()
+                .cacheManager(new IamCacheProperties(), new UserPermissionLoader(userRepository, routeIndex));
+        JwtAuthenticationFilter filter = filter(true, cacheManager);
+        String token = jwtService.generateAccessToken(user);
+
+        user.setSecurityStamp(1);
+        cacheManager.getCache(CacheConfig.USER_PRINCIPALS).evict(user.getId());
+        authenticate(filter, token);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private Result run(boolean statelessAuth, CacheManager cacheManager) throws Exception {
+        JwtAuthenticationFilter filter = filter(statelessAuth, cacheManager);
+        DynamicPermissionService permissionService = permissionService(cacheManager);
+        String token = jwtService.generateAccessToken(user);
+
+        authorize(filter, permissionService, token);
+        int coldQueries = queries();
+        clearInvocations(userRepository);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            authorize(filter, permissionService, token);
+        }
+        return new Result(coldQueries, (double) queries() / REQUESTS);
+    }
+
+    private void authorize(JwtAuthenticationFilter filter, DynamicPermissionService permissionService,
+                           String token) throws Exception {
+        authenticate(filter, token);
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertThat(permissionService.hasPermission(principal.getId(), PATH, "GET")).isTrue();
+    }
+
+    private void authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    @SuppressWarnings("unchecked")
+    private JwtAuthenticationFilter filter(boolean statelessAuth, CacheManager cacheManager) {
+        TokenStateProperties tokenState = new TokenStateProperties();
+        ObjectProvider<MeterRegistry> meterRegistry = new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+        TokenRevocationService revocations = new TokenRevocationService(mock(RevokedTokenRepository.class),
+                tokenState, mock(ObjectProvider.class), meterRegistry, 604_800_000L);
+        revocations.rebuild();
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userRepository,
+                new UserPrincipalCache(userRepository, cacheManager),
+                new VerifiedTokenCache(jwtService, tokenState, meterRegistry), revocations,
+                new ThreadLocalRequestContext());
+        ReflectionTestUtils.setField(filter, "statelessAuth", statelessAuth);
+        return filter;
+    }
+
+    private DynamicPermissionService permissionService(CacheManager cacheManager) {
+        return new DynamicPermissionService(new UserPermissionLoader(userRepository, routeIndex), cacheManager, routeIndex);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PermissionRouteIndex routeIndex() {
+        PermissionRepository permissionRepository = mock(PermissionRepository.class);
+        when(permissionRepository.findAll()).thenReturn(List.copyOf(permissions()));
+        PermissionRouteIndex routeIndex = new PermissionRouteIndex(permissionRepository, mock(ObjectProvider.class));
+        routeIndex.rebuild();
+        return routeIndex;
+    }
+
+    private int queries() {
+        int count = 0;
+        for (Invocation invocation : mockingDetails(userRepository).getInvocations()) {
+            if (invocation.getMethod().getName().startsWith("find")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static User user() {
+        Role role = new Role();
+        role.setId(1L);
+        role.setCode("ADMIN");
+        role.setStatus(1);
+        role.setPermissions(permissions());
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("admin");
+        user.setPassword("{noop}secret");
+        user.setStatus(1);
+        user.setRoles(Set.of(role));
+        return user;
+    }
+
+    private static Set<Permission> permissions() {
+        Permission permission = new Permission();
+        permission.setId(1L);
+        permission.setCode("user:list");
+        permission.setResource(PATH);
+        permission.setAction("GET");
+        permission.setStatus(1);
+        return Set.of(permission);
+    }
+
+    private record Result(int coldQueries, double queriesPerRequest) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.assoc.iam.security;
+
+import com.assoc.iam.config.LoginProperties;
+import com.assoc.iam.exception.LoginRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LoginThrottle throttle = new LoginThrottle(throttle(), meterRegistry, now::get);
+
+    @Test
+    void blocksUsernameAfterFailuresUntilTheWindowSlides() {
+        for (int i = 0; i < 3; i++) {
+            throttle.checkAllowed("alice", "10.0.0." + i);
+            throttle.recordFailure("alice");
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+        }
+
+        assertThatThrownBy(() -> throttle.checkAllowed(" Alice ", "10.0.1.1"))
+                .isInstanceOf(LoginRejectedException.class);
+        assertThatCode(() -> throttle.checkAllowed("bob", "10.0.1.1")).doesNotThrowAnyException();
+
+        // The first failure leaves the window
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThatCode(() -> throttle.checkAllowed("alice", "10.0.1.2")).doesNotThrowAnyException();
+        assertThat(meterRegistry.counter("iam.login.throttled", "scope", "username").count()).isEqualTo(1);
+    }
+
+    @Test
+    void successClearsFailures() {
+        throttle.recordFailure("alice");
+        throttle.recordFailure("alice");
+        throttle.recordSuccess("alice");
+        throttle.recordFailure("alice");
+        throttle.recordFailure("alice");
+
+        assertThatCode(() -> throttle.checkAllowed("alice", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void limitsAttemptsPerIp() {
+        for (int i = 0; i < 5; i++) {
+            throttle.checkAllowed("user" + i, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> throttle.checkAllowed("user5", "10.0.0.1"))
+                .isInstanceOf(LoginRejectedException.class);
+        assertThatCode(() -> throttle.checkAllowed("user5", "10.0.0.2")).doesNotThrowAnyException();
+
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertThatCode(() -> throttle.checkAllowed("user5", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    private static LoginProperties.Throttle throttle() {
+        LoginProperties.Throttle throttle = new LoginProperties.Throttle();
+        throttle.setPerUsername(new LoginProperties.Window(3, Duration.ofMinutes(1)));
+        throttle.setPerIp(new LoginProperties.Window(5, Duration.ofMinutes(1)));
+        return throttle;
+    }
+}
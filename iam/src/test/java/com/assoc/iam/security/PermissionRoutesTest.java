@@ -0,0 +1,129 @@
+package com.assoc.iam.security;
+
+import com.assoc.common.security.PermissionBitSet;
+import com.assoc.iam.entity.Permission;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PermissionRoutesTest {
+
+    private static final PermissionRoutes ROUTES = PermissionRoutes.compile(List.of(
+            permission("user:list", "/api/iam/users", "GET"),
+            permission("user:read", "/api/iam/users/{id}", "READ"),
+            permission("user:update", "/api/iam/users/*", "UPDATE"),
+            permission("user:create", "/api/iam/users", "CREATE"),
+            permission("cms:all", "/api/cms/**", "ALL"),
+            permission("report:export", "/api/reports/*.xlsx", "GET"),
+            permission("audit:read", "regex:^/api/iam/audit-logs/\\d+$", "GET")));
+
+    @Test
+    void literalAndVariableSegments() {
+        assertThat(ROUTES.check("/api/iam/users", "GET", Set.of("user:list")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(ROUTES.check("/api/iam/users/42", "GET", Set.of("user:read")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(ROUTES.check("/api/iam/users/42", "GET", Set.of("user:list")))
+                .isEqualTo(PermissionRoutes.Decision.DENIED);
+        assertThat(ROUTES.check("/api/iam/users/42/roles", "GET", Set.of("user:read")))
+                .isEqualTo(PermissionRoutes.Decision.UNDECLARED);
+    }
+
+    @Test
+    void crudActionsMapToMethods() {
+        assertThat(ROUTES.check("/api/iam/users/42", "PATCH", Set.of("user:update")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(ROUTES.check("/api/iam/users", "POST", Set.of("user:create")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(ROUTES.check("/api/iam/users/42", "DELETE", Set.of("user:update")))
+                .isEqualTo(PermissionRoutes.Decision.UNDECLARED);
+    }
+
+    @Test
+    void doubleWildcardMatchesZeroOrMoreSegments() {
+        assertThat(ROUTES.check("/api/cms", "DELETE", Set.of("cms:all")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(ROUTES.check("/api/cms/news/1/tags", "PUT", Set.of("cms:all")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(ROUTES.check("/api/cmsx", "GET", Set.of("cms:all")))
+                .isEqualTo(PermissionRoutes.Decision.UNDECLARED);
+    }
+
+    @Test
+    void partialWildcardAndRegexResources() {
+        assertThat(ROUTES.check("/api/reports/members.xlsx", "GET", Set.of("report:export")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(ROUTES.check("/api/reports/members.csv", "GET", Set.of("report:export")))
+                .isEqualTo(PermissionRoutes.Decision.UNDECLARED);
+        assertThat(ROUTES.check("/api/iam/audit-logs/7", "GET", Set.of("audit:read")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(ROUTES.check("/api/iam/audit-logs/x", "GET", Set.of("audit:read")))
+                .isEqualTo(PermissionRoutes.Decision.UNDECLARED);
+    }
+
+    @Test
+    void invalidResourceDisablesOnlyItsOwnPermission() {
+        PermissionRoutes routes = PermissionRoutes.compile(List.of(
+                permission("user:list", "/api/iam/users", "GET"),
+                permission("broken:regex", "/api/iam/users/{id:[}", "GET"),
+                permission("broken:variable", "/api/iam/{id", "GET"),
+                permission("broken:pattern", "regex:(", "GET"),
+                permission("user:read", "/api/iam/users/{id:\\d+}", "GET")));
+
+        assertThat(routes.size()).isEqualTo(2);
+        assertThat(routes.check("/api/iam/users", "GET", Set.of("user:list")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(routes.check("/api/iam/users/42", "GET", Set.of("user:read")))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(routes.check("/api/iam/users/x", "GET", Set.of("broken:regex")))
+                .isEqualTo(PermissionRoutes.Decision.UNDECLARED);
+    }
+
+    @Test
+    void bitsetGrantsByIndex() {
+        List<Permission> permissions = List.of(
+                permission(3L, "user:list", "/api/iam/users", "GET"),
+                permission(9L, "user:read", "/api/iam/users/{id}", "READ"));
+        PermissionRoutes routes = PermissionRoutes.compile(permissions);
+        PermissionBitSet granted = PermissionBitSet.of(routes.catalog(), List.of("user:read")).orElseThrow();
+
+        assertThat(routes.check("/api/iam/users/42", "GET", granted))
+                .isEqualTo(PermissionRoutes.Decision.GRANTED);
+        assertThat(routes.check("/api/iam/users", "GET", granted))
+                .isEqualTo(PermissionRoutes.Decision.DENIED);
+        assertThat(PermissionBitSet.decode(routes.catalog(), granted.encode())).containsExactly("user:read");
+    }
+
+    @Test
+    void agreesWithAntPathMatcher() {
+        AntPathMatcher matcher = new AntPathMatcher();
+        List<String> patterns = List.of("/api/a/**", "/api/a/*/c", "/api/{x}/b", "/api/a/b*", "/api/**/c", "/api/a");
+        List<String> paths = List.of("/api/a", "/api/a/b", "/api/a/b/c", "/api/a/bb", "/api/z/b", "/api/z/y/c", "/api/b");
+        for (String pattern : patterns) {
+            PermissionRoutes routes = PermissionRoutes.compile(List.of(permission("p", pattern, "GET")));
+            for (String path : paths) {
+                boolean expected = matcher.match(pattern, path);
+                assertThat(routes.check(path, "GET", Set.of("p")) == PermissionRoutes.Decision.GRANTED)
+                        .as("%s ~ %s", pattern, path)
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    private static Permission permission(String code, String resource, String action) {
+        return permission(null, code, resource, action);
+    }
+
+    private static Permission permission(Long id, String code, String resource, String action) {
+        Permission permission = new Permission();
+        permission.setId(id);
+        permission.setCode(code);
+        permission.setResource(resource);
+        permission.setAction(action);
+        return permission;
+    }
+}
@@ -0,0 +1,70 @@
+package com.assoc.iam.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditLogPartitionServiceTest {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AuditLogPartitionService service =
+            new AuditLogPartitionService(jdbcTemplate, mock(PlatformTransactionManager.class));
+
+    @Test
+    void dropsOnlyMonthsEntirelyBeforeTheCutoff() {
+        YearMonth cutoffMonth = YearMonth.of(2026, 4);
+        OffsetDateTime cutoff = cutoffMonth.atDay(15).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+        String expired = partition(cutoffMonth.minusMonths(1));
+        String current = partition(cutoffMonth);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class)))
+                .thenReturn(List.of("iam_audit_log_default", expired, current));
+
+        assertThat(service.dropPartitionsBefore(cutoff)).isEqualTo(1);
+
+        verify(jdbcTemplate).execute("ALTER TABLE iam_audit_log DETACH PARTITION " + expired);
+        verify(jdbcTemplate).execute("DROP TABLE " + expired);
+        verify(jdbcTemplate, never()).execute("DROP TABLE " + current);
+        verify(jdbcTemplate, never()).execute("DROP TABLE iam_audit_log_default");
+        // Expired rows that landed in the default partition are deleted row by row
+        verify(jdbcTemplate).update(startsWith("DELETE FROM iam_audit_log_default"), eq(cutoff), any());
+    }
+
+    @Test
+    void createsMissingMonthsAhead() {
+        YearMonth now = YearMonth.now();
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class)))
+                .thenReturn(List.of("iam_audit_log_default", partition(now)));
+
+        assertThat(service.createPartitions(2)).isEqualTo(2);
+
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE " + partition(now) + " "));
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE " + partition(now.plusMonths(1)) + " "));
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE " + partition(now.plusMonths(2)) + " "));
+        verify(jdbcTemplate).execute(startsWith(
+                "ALTER TABLE iam_audit_log ATTACH PARTITION " + partition(now.plusMonths(2)) + " FOR VALUES FROM"));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE " + partition(now.plusMonths(3))));
+        verify(jdbcTemplate, never()).execute(contains("DETACH"));
+    }
+
+    private static String partition(YearMonth month) {
+        return "iam_audit_log_p" + month.format(SUFFIX);
+    }
+}
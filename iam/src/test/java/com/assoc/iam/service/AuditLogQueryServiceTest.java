@@ -0,0 +1,139 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.exception.BusinessException;
+import com.assoc.iam.dto.AuditLogCursorPage;
+import com.assoc.iam.dto.AuditLogExportFormat;
+import com.assoc.iam.dto.AuditLogQueryRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuditLogQueryServiceTest {
+
+    private static final OffsetDateTime T0 = OffsetDateTime.of(2026, 10, 1, 8, 30, 0, 123456000, ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AuditLogQueryService service =
+            new AuditLogQueryService(jdbcTemplate, mock(PlatformTransactionManager.class), new ObjectMapper());
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pagesByKeysetWithoutCounting() throws Exception {
+        doAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> rows = new ArrayList<>();
+            for (long id = 30; id > 27; id--) {
+                rows.add(mapper.mapRow(row(id, "[\"ADMIN\"]", "alice"), 0));
+            }
+            return rows;
+        }).when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Object[].class));
+
+        AuditLogQueryRequest request = new AuditLogQueryRequest();
+        request.setUsername("alice");
+        AuditLogCursorPage first = service.searchAfter(request, null, 2, false);
+
+        assertThat(first.getItems()).extracting("id").containsExactly(30L, 29L);
+        assertThat(first.getItems().get(0).getRoles()).containsExactly("ADMIN");
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getApproximateTotal()).isNull();
+
+        service.searchAfter(request, first.getNextCursor(), 2, false);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertThat(sql.getAllValues().get(1))
+                .contains("WHERE username = ? AND (occurred_at, id) < (?, ?)")
+                .endsWith("ORDER BY occurred_at DESC, id DESC LIMIT ?");
+        Object[] second = args.getAllValues().get(1);
+        assertThat(second).hasSize(4);
+        assertThat(second[0]).isEqualTo("alice");
+        assertThat(((OffsetDateTime) second[1]).toInstant()).isEqualTo(T0.toInstant());
+        assertThat(second[2]).isEqualTo(29L);
+        assertThat(second[3]).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsForgedCursors() {
+        assertThatThrownBy(() -> service.searchAfter(null, "bm90LWEtY3Vyc29y", 20, false))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void estimatesTotalsFromThePlan() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class), any(Object[].class)))
+                .thenReturn("[{\"Plan\": {\"Node Type\": \"Append\", \"Plan Rows\": 123456}}]");
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+
+        assertThat(service.searchAfter(null, null, 20, true).getApproximateTotal()).isEqualTo(123456L);
+    }
+
+    @Test
+    void exportsCsvAndNdjsonRowByRow() throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row(7L, "[\"ADMIN\",\"USER\"]", "=cmd,\"x\""));
+            handler.processRow(row(6L, "legacy", null));
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertThat(service.export(null, AuditLogExportFormat.CSV, csv)).isEqualTo(2);
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines[0]).startsWith("\uFEFFid,userId,username,roles");
+        assertThat(lines[1]).startsWith("7,1,\"'=cmd,\"\"x\"\"\",\"[\"\"ADMIN\"\",\"\"USER\"\"]\",");
+        assertThat(lines[1]).endsWith("," + T0);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        service.export(null, AuditLogExportFormat.NDJSON, ndjson);
+        String[] records = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(records).hasSize(2);
+        ObjectMapper mapper = new ObjectMapper();
+        assertThat(mapper.readTree(records[0]).get("roles").toString()).isEqualTo("[\"ADMIN\",\"USER\"]");
+        assertThat(mapper.readTree(records[1]).get("roles").toString()).isEqualTo("[\"legacy\"]");
+        assertThat(mapper.readTree(records[1]).get("username").isNull()).isTrue();
+    }
+
+    private static ResultSet row(long id, String roles, String username) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getObject("user_id", Long.class)).thenReturn(1L);
+        when(rs.getString("username")).thenReturn(username);
+        when(rs.getString("roles")).thenReturn(roles);
+        when(rs.getString("action")).thenReturn("login");
+        when(rs.getObject("occurred_at", OffsetDateTime.class)).thenReturn(T0);
+        // CSV reads by position
+        when(rs.getObject(1)).thenReturn(id);
+        when(rs.getObject(2)).thenReturn(1L);
+        when(rs.getObject(3)).thenReturn(username);
+        when(rs.getObject(4)).thenReturn(roles);
+        when(rs.getObject(6)).thenReturn("login");
+        when(rs.getObject(anyInt(), eq(OffsetDateTime.class))).thenReturn(T0);
+        return rs;
+    }
+}
@@ -0,0 +1,81 @@
+package com.assoc.iam.service;
+
+import com.assoc.iam.dto.DepartmentTreeResponse;
+import com.assoc.iam.entity.Department;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DepartmentHierarchyTest {
+
+    @Test
+    void numbersSubtreesAsContiguousIntervals() {
+        DepartmentHierarchy hierarchy = DepartmentHierarchy.of(List.of(
+                department(5L, 2L, 0, 1),
+                department(1L, null, 1, 1),
+                department(2L, 1L, 2, 1),
+                department(3L, 1L, 1, 1),
+                department(4L, 3L, 0, 1),
+                department(6L, null, 0, 1)));
+
+        assertThat(hierarchy.subtreeIds(6L)).containsExactly(6L);
+        assertThat(hierarchy.subtreeIds(1L)).containsExactly(1L, 3L, 4L, 2L, 5L);
+        assertThat(hierarchy.subtreeIds(3L)).containsExactly(3L, 4L);
+        assertThat(hierarchy.isDescendant(5L, 1L)).isTrue();
+        assertThat(hierarchy.isDescendant(4L, 2L)).isFalse();
+        assertThat(hierarchy.isDescendant(1L, 1L)).isFalse();
+        assertThat(hierarchy.isInSubtree(1L, 1L)).isTrue();
+        assertThat(hierarchy.isInSubtree(1L, 5L)).isFalse();
+        assertThat(hierarchy.subtreeIds(42L)).isEmpty();
+    }
+
+    @Test
+    void toleratesOrphansAndCycles() {
+        DepartmentHierarchy hierarchy = DepartmentHierarchy.of(List.of(
+                department(1L, 99L, 0, 1),
+                department(2L, 1L, 0, 1),
+                department(3L, 4L, 0, 1),
+                department(4L, 3L, 0, 1)));
+
+        assertThat(hierarchy.size()).isEqualTo(4);
+        assertThat(hierarchy.subtreeIds(1L)).containsExactly(1L, 2L);
+        assertThat(hierarchy.subtreeIds(3L)).containsExactly(3L, 4L);
+        assertThat(hierarchy.isDescendant(3L, 4L)).isFalse();
+        // Only departments without a parent are top-level in the displayed tree
+        assertThat(hierarchy.activeTree(Map.of())).isEmpty();
+    }
+
+    @Test
+    void activeTreeSkipsInactiveSubtrees() {
+        DepartmentHierarchy hierarchy = DepartmentHierarchy.of(List.of(
+                department(1L, null, 0, 1),
+                department(2L, 1L, 0, 0),
+                department(3L, 2L, 0, 1),
+                department(4L, 1L, 1, 1),
+                department(5L, null, 1, 0)));
+
+        List<DepartmentTreeResponse> tree = hierarchy.activeTree(Map.of(4L, 7L));
+
+        assertThat(tree).extracting(DepartmentTreeResponse::getId).containsExactly(1L);
+        DepartmentTreeResponse root = tree.get(0);
+        assertThat(root.isHasChildren()).isTrue();
+        assertThat(root.getChildren()).extracting(DepartmentTreeResponse::getId).containsExactly(4L);
+        assertThat(root.getChildren().get(0).getUserCount()).isEqualTo(7);
+        assertThat(root.getChildren().get(0).isHasChildren()).isFalse();
+        assertThat(root.getChildren().get(0).getChildren()).isNull();
+    }
+
+    private static Department department(Long id, Long parentId, int sortOrder, int status) {
+        Department department = new Department();
+        department.setId(id);
+        department.setParentId(parentId);
+        department.setSortOrder(sortOrder);
+        department.setStatus(status);
+        department.setName("部门" + id);
+        department.setCode("DEPT_" + id);
+        return department;
+    }
+}
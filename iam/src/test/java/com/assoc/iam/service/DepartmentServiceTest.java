@@ -5,6 +5,7 @@ import com.assoc.iam.dto.DepartmentResponse;
 import com.assoc.iam.dto.DepartmentTreeResponse;
 import com.assoc.iam.entity.Department;
 import com.assoc.iam.repository.DepartmentRepository;
+import com.assoc.iam.repository.UserDepartmentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +29,12 @@ class DepartmentServiceTest {
     @Mock
     private DepartmentRepository departmentRepository;
 
+    @Mock
+    private UserDepartmentRepository userDepartmentRepository;
+
+    @Mock
+    private DepartmentHierarchyIndex departmentHierarchyIndex;
+
     @InjectMocks
     private DepartmentService departmentService;
 
@@ -75,8 +82,10 @@ class DepartmentServiceTest {
     @Test
     void getDepartmentTree_ShouldReturnTreeStructure() {
         // Given
-        rootDepartment.setChildren(Arrays.asList(childDepartment));
-        when(departmentRepository.findActiveRootDepartments()).thenReturn(Arrays.asList(rootDepartment));
+        when(departmentHierarchyIndex.current())
+                .thenReturn(DepartmentHierarchy.of(Arrays.asList(childDepartment, rootDepartment)));
+        when(userDepartmentRepository.countActiveUsersGroupByDepartment(any()))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, 3L}));
 
         // When
         List<DepartmentTreeResponse> result = departmentService.getDepartmentTree();
@@ -88,6 +97,10 @@ class DepartmentServiceTest {
         assertThat(treeResponse.getName()).isEqualTo("技术部");
         assertThat(treeResponse.getCode()).isEqualTo("TECH");
         assertThat(treeResponse.isHasChildren()).isTrue();
+        assertThat(treeResponse.getUserCount()).isZero();
+        assertThat(treeResponse.getChildren()).extracting(DepartmentTreeResponse::getId).containsExactly(2L);
+        assertThat(treeResponse.getChildren().get(0).getUserCount()).isEqualTo(3);
+        verify(departmentRepository, never()).findActiveRootDepartments();
     }
 
     @Test
@@ -298,7 +311,8 @@ class DepartmentServiceTest {
 
         when(departmentRepository.findById(2L)).thenReturn(Optional.of(childDepartment));
         when(departmentRepository.findById(3L)).thenReturn(Optional.of(targetParent));
-        when(departmentRepository.findByParentIdOrderBySortOrderAsc(2L)).thenReturn(Arrays.asList());
+        when(departmentHierarchyIndex.current())
+                .thenReturn(DepartmentHierarchy.of(Arrays.asList(rootDepartment, childDepartment, targetParent)));
         when(departmentRepository.save(any(Department.class))).thenReturn(childDepartment);
 
         // When
@@ -306,6 +320,22 @@ class DepartmentServiceTest {
 
         // Then
         verify(departmentRepository).save(any(Department.class));
+        verify(departmentRepository).updateSubtreePaths(2L, "3/2", 2);
+        verify(departmentHierarchyIndex).invalidate();
+    }
+
+    @Test
+    void moveDepartment_ShouldThrowException_WhenTargetIsDescendant() {
+        // Given
+        when(departmentRepository.findById(1L)).thenReturn(Optional.of(rootDepartment));
+        when(departmentRepository.findById(2L)).thenReturn(Optional.of(childDepartment));
+        when(departmentHierarchyIndex.current())
+                .thenReturn(DepartmentHierarchy.of(Arrays.asList(rootDepartment, childDepartment)));
+
+        // When & Then
+        assertThatThrownBy(() -> departmentService.moveDepartment(1L, 2L))
+                .hasMessage("不能移动到自己的子部门");
+        verify(departmentRepository, never()).updateSubtreePaths(any(), any(), any());
     }
 
     @Test
@@ -0,0 +1,166 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.security.PermissionBitSet;
+import com.assoc.iam.entity.Permission;
+import com.assoc.iam.entity.Role;
+import com.assoc.iam.entity.User;
+import com.assoc.iam.repository.PermissionRepository;
+import com.assoc.iam.security.PermissionRouteIndex;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Permission claims of access tokens: bitset encoding, tokens issued with the code list, and
+ * catalog changes. An admin with every permission gets a token a tenth the size of the code list.
+ */
+class JwtServicePermissionClaimTest {
+
+    private static final String SECRET = "test-secret-key-must-be-at-least-256-bits-long-for-HS256";
+    private static final int PERMISSIONS = 400;
+
+    private final List<Permission> catalog = new ArrayList<>(permissions());
+    private final PermissionRepository permissionRepository = mock(PermissionRepository.class);
+    private final PermissionRouteIndex routeIndex = routeIndex();
+    private final JwtService jwtService = jwtService();
+
+    @Test
+    void adminTokenCarriesCompactBitset() {
+        User admin = user(catalog);
+
+        String token = jwtService.generateAccessToken(admin);
+        String legacy = legacyToken(admin);
+        Collection<String> permissions = jwtService.extractPermissions(claims(token)).orElseThrow();
+
+        assertThat(token.length()).isLessThan(legacy.length() / 10);
+        assertThat(permissions).isInstanceOf(PermissionBitSet.class)
+                .containsExactlyInAnyOrderElementsOf(admin.getPermissionCodes());
+        assertThat(permissions.contains("perm:399")).isTrue();
+        assertThat(permissions.contains("perm:missing")).isFalse();
+    }
+
+    @Test
+    void sparsePermissionsRoundTrip() {
+        List<Permission> granted = catalog.stream().filter(p -> p.getId() % 7 == 0).toList();
+        User user = user(granted);
+
+        Collection<String> permissions = jwtService.extractPermissions(claims(jwtService.generateAccessToken(user))).orElseThrow();
+
+        assertThat(permissions).containsExactlyInAnyOrderElementsOf(user.getPermissionCodes());
+    }
+
+    @Test
+    void legacyTokenKeepsItsCodeList() {
+        User user = user(catalog.subList(0, 3));
+
+        Collection<String> permissions = jwtService.extractPermissions(claims(legacyToken(user))).orElseThrow();
+
+        assertThat(permissions).containsExactlyInAnyOrder("perm:1", "perm:2", "perm:3");
+    }
+
+    @Test
+    void renamedPermissionInvalidatesBitset() {
+        String token = jwtService.generateAccessToken(user(catalog.subList(0, 3)));
+
+        catalog.get(0).setCode("perm:renamed");
+        routeIndex.rebuild();
+
+        assertThat(jwtService.extractPermissions(claims(token))).isEmpty();
+    }
+
+    @Test
+    void unknownCodeFallsBackToCodeList() {
+        Permission unsaved = permission(null, "perm:unsaved");
+        User user = user(List.of(catalog.get(0), unsaved));
+
+        Collection<String> permissions = jwtService.extractPermissions(claims(jwtService.generateAccessToken(user))).orElseThrow();
+
+        assertThat(permissions).isNotInstanceOf(PermissionBitSet.class)
+                .containsExactlyInAnyOrder("perm:1", "perm:unsaved");
+    }
+
+    private Claims claims(String token) {
+        return jwtService.parseAccessToken(token).orElseThrow();
+    }
+
+    /**
+     * An access token as issued before the bitset encoding.
+     */
+    private static String legacyToken(User user) {
+        return Jwts.builder()
+                .claims(Map.of(
+                        "userId", user.getId(),
+                        "username", user.getUsername(),
+                        "roles", user.getRoleCodes(),
+                        "permissions", user.getPermissionCodes(),
+                        "tokenType", "access"))
+                .subject(user.getUsername())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @SuppressWarnings("unchecked")
+    private PermissionRouteIndex routeIndex() {
+        when(permissionRepository.findAll()).thenAnswer(invocation -> List.copyOf(catalog));
+        PermissionRouteIndex index = new PermissionRouteIndex(permissionRepository, mock(ObjectProvider.class));
+        index.rebuild();
+        return index;
+    }
+
+    private JwtService jwtService() {
+        JwtService service = new JwtService(routeIndex);
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(service, "issuer", "test");
+        return service;
+    }
+
+    private static User user(Collection<Permission> permissions) {
+        Role role = new Role();
+        role.setId(1L);
+        role.setCode("ADMIN");
+        role.setStatus(1);
+        role.setPermissions(Set.copyOf(permissions));
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("admin");
+        user.setStatus(1);
+        user.setRoles(Set.of(role));
+        return user;
+    }
+
+    private static List<Permission> permissions() {
+        List<Permission> permissions = new ArrayList<>();
+        for (long id = 1; id <= PERMISSIONS; id++) {
+            permissions.add(permission(id, "perm:" + id));
+        }
+        return permissions;
+    }
+
+    private static Permission permission(Long id, String code) {
+        Permission permission = new Permission();
+        permission.setId(id);
+        permission.setCode(code);
+        permission.setResource("/api/" + code.replace(':', '/'));
+        permission.setAction("GET");
+        permission.setStatus(1);
+        return permission;
+    }
+}
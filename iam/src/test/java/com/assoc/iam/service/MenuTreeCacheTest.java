@@ -0,0 +1,97 @@
+package com.assoc.iam.service;
+
+import com.assoc.iam.config.CacheConfig;
+import com.assoc.iam.config.IamCacheProperties;
+import com.assoc.iam.dto.MenuTreeResponse;
+import com.assoc.iam.dto.VersionedMenuTree;
+import com.assoc.iam.entity.Menu;
+import com.assoc.iam.repository.MenuRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MenuTreeCacheTest {
+
+    private final MenuRepository menuRepository = mock(MenuRepository.class);
+    private final CacheManager cacheManager = new CacheConfig()
+            .cacheManager(new IamCacheProperties(), mock(UserPermissionLoader.class));
+    private final MenuTreeCache cache = new MenuTreeCache(menuRepository, cacheManager, new ObjectMapper());
+
+    @Test
+    void usersWithTheSameRolesShareOneTree() {
+        catalog(menu(1L, null, 0, "系统管理"), menu(2L, 1L, 0, "用户管理"));
+        when(menuRepository.findAccessibleMenuIdsByRoleCode("ADMIN")).thenReturn(List.of(1L, 2L));
+        when(menuRepository.findAccessibleMenuIdsByRoleCode("AUDITOR")).thenReturn(List.of(1L));
+
+        VersionedMenuTree first = cache.forRoles(List.of("ADMIN", "AUDITOR"));
+        VersionedMenuTree second = cache.forRoles(Set.of("AUDITOR", "ADMIN"));
+        cache.forRoles(List.of("ADMIN"));
+
+        assertThat(second).isSameAs(first);
+        verify(menuRepository, times(1)).findAllActiveMenusOrdered();
+        verify(menuRepository, times(1)).findAccessibleMenuIdsByRoleCode("ADMIN");
+        verify(menuRepository, times(1)).findAccessibleMenuIdsByRoleCode("AUDITOR");
+    }
+
+    @Test
+    void mergesRoleMenusIntoASortedTree() {
+        catalog(
+                menu(1L, null, 2, "系统管理"),
+                menu(2L, null, 1, "内容管理"),
+                menu(3L, 1L, 5, "用户管理"),
+                menu(4L, 1L, 0, "角色管理"),
+                menu(5L, 99L, 0, "父菜单已停用"),
+                menu(6L, 2L, 0, "文章管理"));
+        when(menuRepository.findAccessibleMenuIdsByRoleCode("A")).thenReturn(List.of(3L, 1L));
+        when(menuRepository.findAccessibleMenuIdsByRoleCode("B")).thenReturn(List.of(2L, 4L, 5L, 42L));
+        when(menuRepository.findAccessibleMenuIdsByRoleCode("C")).thenReturn(List.of(6L));
+
+        List<MenuTreeResponse> menus = cache.forRoles(List.of("A", "B")).menus();
+
+        assertThat(menus).extracting(MenuTreeResponse::getId).containsExactly(2L, 1L);
+        assertThat(menus.get(0).getChildren()).isNull();
+        assertThat(menus.get(0).getHasChildren()).isTrue();
+        assertThat(menus.get(1).getChildren()).extracting(MenuTreeResponse::getId).containsExactly(4L, 3L);
+        assertThat(menus.get(1).getChildren().get(0).getHasChildren()).isFalse();
+        // A menu whose parent is not accessible is left out, as before
+        assertThat(cache.forRoles(List.of("C")).menus()).isEmpty();
+    }
+
+    @Test
+    void etagFollowsTheContent() {
+        catalog(menu(1L, null, 0, "系统管理"));
+        when(menuRepository.findAccessibleMenuIdsByRoleCode("A")).thenReturn(List.of(1L));
+        when(menuRepository.findAccessibleMenuIdsByRoleCode("B")).thenReturn(List.of(1L));
+        String etag = cache.forRoles(List.of("A")).etag();
+
+        assertThat(cache.forRoles(List.of("B")).etag()).isEqualTo(etag);
+
+        catalog(menu(1L, null, 0, "系统设置"));
+        cacheManager.getCache(CacheConfig.MENU_CATALOG).clear();
+        cacheManager.getCache(CacheConfig.MENU_TREES).clear();
+        assertThat(cache.forRoles(List.of("A")).etag()).isNotEqualTo(etag);
+    }
+
+    private void catalog(Menu... menus) {
+        when(menuRepository.findAllActiveMenusOrdered()).thenReturn(List.of(menus));
+    }
+
+    private static Menu menu(Long id, Long parentId, int sortOrder, String name) {
+        Menu menu = new Menu();
+        menu.setId(id);
+        menu.setParentId(parentId);
+        menu.setSortOrder(sortOrder);
+        menu.setName(name);
+        menu.setCode("menu-" + id);
+        return menu;
+    }
+}
@@ -0,0 +1,144 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.cache.CacheInvalidationBus;
+import com.assoc.common.cache.ClusterInvalidationEvent;
+import com.assoc.iam.config.TokenStateProperties;
+import com.assoc.iam.entity.RevokedToken;
+import com.assoc.iam.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private final CacheInvalidationBus bus = mock(CacheInvalidationBus.class);
+    private final TokenRevocationService service = service(repository, bus);
+
+    @Test
+    void activeTokensAreCheckedWithoutQueries() {
+        service.rebuild();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(service.isRevoked(TokenRevocationService.hash("token-" + i), claims((long) i, Instant.now()))).isFalse();
+        }
+
+        verify(repository, never()).existsByTokenHash(anyString());
+        verify(repository, never()).findLatestUserRevocation(any());
+    }
+
+    @Test
+    void loggedOutTokenIsRevokedAndBroadcast() {
+        service.rebuild();
+        String hash = TokenRevocationService.hash("token");
+        when(repository.existsByTokenHash(hash)).thenReturn(true);
+
+        service.revokeToken(hash, claims(1L, Instant.now()), TokenRevocationService.REASON_LOGOUT);
+
+        assertThat(service.isRevoked(hash, claims(1L, Instant.now()))).isTrue();
+        verify(bus).evict(TokenRevocationService.CACHE_NAME, "t:" + hash);
+    }
+
+    @Test
+    void userRevocationCoversTokensIssuedBeforeWithoutQueries() {
+        service.rebuild();
+        Instant revokedAt = Instant.now();
+
+        service.revokeUser(7L, TokenRevocationService.REASON_DISABLED);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.isRevoked(TokenRevocationService.hash("old"), claims(7L, revokedAt.minusSeconds(60)))).isTrue();
+            assertThat(service.isRevoked(TokenRevocationService.hash("new"), claims(7L, revokedAt.plusSeconds(60)))).isFalse();
+        }
+        verify(repository, never()).findLatestUserRevocation(any());
+    }
+
+    @Test
+    void userRevocationsReachOtherNodesWithTheirInstant() {
+        Instant revokedAt = Instant.now().minusSeconds(600);
+        RevokedToken row = new RevokedToken();
+        row.setUserId(7L);
+        row.setRevokedAt(revokedAt);
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(row));
+        service.rebuild();
+        assertThat(service.isRevoked(TokenRevocationService.hash("old"), claims(7L, revokedAt.minusSeconds(60)))).isTrue();
+        assertThat(service.isRevoked(TokenRevocationService.hash("new"), claims(7L, revokedAt.plusSeconds(60)))).isFalse();
+
+        ArgumentCaptor<Object> key = ArgumentCaptor.forClass(Object.class);
+        service.revokeUser(7L, TokenRevocationService.REASON_DISABLED);
+        verify(bus).evict(eq(TokenRevocationService.CACHE_NAME), key.capture());
+
+        service.onClusterInvalidation(new ClusterInvalidationEvent(TokenRevocationService.CACHE_NAME, List.of(key.getValue())));
+        assertThat(service.isRevoked(TokenRevocationService.hash("new"), claims(7L, revokedAt.plusSeconds(60)))).isTrue();
+        verify(repository, never()).findLatestUserRevocation(any());
+    }
+
+    @Test
+    void otherNodesLearnRevocationsFromTheBusAndTheTable() {
+        String hash = TokenRevocationService.hash("token");
+        when(repository.existsByTokenHash(hash)).thenReturn(true);
+        ArgumentCaptor<Object> key = ArgumentCaptor.forClass(Object.class);
+        service.rebuild();
+        service.revokeToken(hash, claims(1L, Instant.now()), TokenRevocationService.REASON_LOGOUT);
+        verify(bus).evict(eq(TokenRevocationService.CACHE_NAME), key.capture());
+
+        TokenRevocationService viaBus = service(repository, bus);
+        viaBus.rebuild();
+        viaBus.onClusterInvalidation(new ClusterInvalidationEvent(TokenRevocationService.CACHE_NAME, List.of(key.getValue())));
+        assertThat(viaBus.isRevoked(hash, claims(1L, Instant.now()))).isTrue();
+
+        RevokedToken row = new RevokedToken();
+        row.setTokenHash(hash);
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(row));
+        TokenRevocationService restarted = service(repository, bus);
+        restarted.rebuild();
+        assertThat(restarted.isRevoked(hash, claims(1L, Instant.now()))).isTrue();
+    }
+
+    @Test
+    void checksTheTableUntilBuilt() {
+        String hash = TokenRevocationService.hash("token");
+
+        assertThat(service.isRevoked(hash, claims(1L, Instant.now()))).isFalse();
+
+        verify(repository).existsByTokenHash(hash);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TokenRevocationService service(RevokedTokenRepository repository, CacheInvalidationBus bus) {
+        ObjectProvider<CacheInvalidationBus> provider = mock(ObjectProvider.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<CacheInvalidationBus>>getArgument(0).accept(bus);
+            return null;
+        }).when(provider).ifAvailable(any());
+        return new TokenRevocationService(repository, new TokenStateProperties(), provider,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class), 604_800_000L);
+    }
+
+    private static Claims claims(Long userId, Instant issuedAt) {
+        return Jwts.claims()
+                .add("userId", userId)
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(issuedAt.plusSeconds(3600)))
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserImportReaderTest {
+
+    @Test
+    void readsQuotedCsvWithChineseHeaders() throws IOException {
+        String csv = "\uFEFF用户名,密码,真实姓名,备注,角色\r\n"
+                + "zhangsan,secret1,\"张三\",\"多行\n备注\",\"ADMIN,AUDITOR\"\r\n"
+                + ",,,,\r\n"
+                + "lisi,\"pa\"\"ss\",李四,,USER";
+
+        List<UserImportReader.Row> rows = new ArrayList<>();
+        UserImportReader.readCsv(new StringReader(csv), rows::add);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).number()).isEqualTo(2);
+        assertThat(rows.get(0).realName()).isEqualTo("张三");
+        assertThat(rows.get(0).roles()).isEqualTo("ADMIN,AUDITOR");
+        assertThat(rows.get(0).email()).isNull();
+        // The quoted line break belongs to row 2, the blank row is 4
+        assertThat(rows.get(1).number()).isEqualTo(5);
+        assertThat(rows.get(1).password()).isEqualTo("pa\"ss");
+    }
+
+    @Test
+    void rejectsFilesWithoutRequiredColumns() {
+        assertThatThrownBy(() -> UserImportReader.readCsv(new StringReader("username,email\na,b"), row -> { }))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("密码");
+        assertThatThrownBy(() -> UserImportReader.readCsv(new StringReader(""), row -> { }))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void readsTheFirstWorksheetOfAnXlsx() throws IOException {
+        byte[] xlsx = xlsx(
+                "<sst><si><t>username</t></si><si><t>password</t></si><si><r><t>王</t></r><r><t>五</t></r></si></sst>",
+                "<worksheet><sheetData>"
+                        + "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c>"
+                        + "<c r=\"D1\" t=\"inlineStr\"><is><t>真实姓名</t></is></c><c r=\"E1\" t=\"inlineStr\"><is><t>手机号</t></is></c></row>"
+                        + "<row r=\"3\"><c r=\"A3\" t=\"inlineStr\"><is><t>wangwu</t></is></c><c r=\"B3\" t=\"str\"><v>secret1</v></c>"
+                        + "<c r=\"D3\" t=\"s\"><v>2</v></c><c r=\"E3\"><v>13800138000</v></c></row>"
+                        + "</sheetData></worksheet>");
+
+        List<UserImportReader.Row> rows = new ArrayList<>();
+        UserImportReader.read("staff.XLSX", new ByteArrayInputStream(xlsx), rows::add);
+
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.number()).isEqualTo(3);
+            assertThat(row.username()).isEqualTo("wangwu");
+            assertThat(row.password()).isEqualTo("secret1");
+            assertThat(row.realName()).isEqualTo("王五");
+            assertThat(row.phone()).isEqualTo("13800138000");
+        });
+    }
+
+    private static byte[] xlsx(String sharedStrings, String sheet) throws IOException {
+        String ns = " xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            entry(zip, "xl/worksheets/sheet2.xml", sheet.replaceFirst(">", ns + ">"));
+            entry(zip, "xl/sharedStrings.xml", sharedStrings.replaceFirst(">", ns + ">"));
+            entry(zip, "xl/workbook.xml", "<workbook" + ns
+                    + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"员工\" sheetId=\"2\" r:id=\"rId7\"/></sheets></workbook>");
+            entry(zip, "xl/_rels/workbook.xml.rels",
+                    "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                            + "<Relationship Id=\"rId7\" Target=\"worksheets/sheet2.xml\"/></Relationships>");
+        }
+        return out.toByteArray();
+    }
+
+    private static void entry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
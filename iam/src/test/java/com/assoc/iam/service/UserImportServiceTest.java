@@ -0,0 +1,223 @@
+package com.assoc.iam.service;
+
+import com.assoc.common.context.RequestContext;
+import com.assoc.common.exception.BusinessException;
+import com.assoc.iam.config.LoginProperties;
+import com.assoc.iam.config.UserImportProperties;
+import com.assoc.iam.dto.UserImportReport;
+import com.assoc.iam.entity.Department;
+import com.assoc.iam.entity.Role;
+import com.assoc.iam.repository.DepartmentRepository;
+import com.assoc.iam.repository.RoleRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final DepartmentRepository departmentRepository = mock(DepartmentRepository.class);
+    private final UserImportService service = service();
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    void reportsEveryInvalidRowWithoutWriting() throws Exception {
+        when(roleRepository.findByCodeIn(any())).thenReturn(List.of(role(1L, "USER")));
+        when(departmentRepository.findByCodeIn(any())).thenReturn(List.of());
+        existingUsers("taken", "taken@example.com");
+
+        UserImportReport report = importCsv("""
+                username,password,email,roles,department,status
+                ok_user,secret1,ok@example.com,USER,,
+                taken,secret1,,,,
+                other,secret1,taken@example.com,,,
+                ok_user,secret1,,GHOST,DEPT_X,2
+                x,1,bad-email,,,
+                """, true);
+
+        assertThat(report.getTotalRows()).isEqualTo(5);
+        assertThat(report.getFailedCount()).isEqualTo(4);
+        assertThat(report.isDryRun()).isTrue();
+        assertThat(report.getImportedCount()).isZero();
+        assertThat(report.getErrors()).extracting(UserImportReport.RowError::getRowNumber).containsExactly(3, 4, 5, 6);
+        assertThat(report.getErrors().get(0).getMessages()).containsExactly("用户名已存在");
+        assertThat(report.getErrors().get(1).getMessages()).containsExactly("邮箱已存在");
+        assertThat(report.getErrors().get(2).getMessages()).containsExactly(
+                "状态只能是 1（启用）或 0（停用）", "用户名与第 2 行重复", "角色不存在: GHOST", "部门不存在: DEPT_X");
+        assertThat(report.getErrors().get(3).getMessages()).hasSize(3);
+        // Only the valid row would be written, but dry runs write nothing
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void insertsValidRowsInBatches() throws Exception {
+        when(roleRepository.findByCodeIn(any())).thenReturn(List.of(role(1L, "USER"), role(2L, "AUDITOR")));
+        Department department = new Department();
+        department.setId(10L);
+        department.setCode("OPS");
+        when(departmentRepository.findByCodeIn(any())).thenReturn(List.of(department));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            ResultSet rs = mock(ResultSet.class);
+            for (String username : List.of("alice", "bob")) {
+                when(rs.getString("username")).thenReturn(username);
+                when(rs.getLong("id")).thenReturn(username.equals("alice") ? 100L : 101L);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT id, username"), any(PreparedStatementSetter.class),
+                any(RowCallbackHandler.class));
+
+        UserImportReport report = importCsv("""
+                用户名,密码,角色,部门,职位
+                alice,secret1,USER;AUDITOR,OPS,工程师
+                bob,secret2,,,
+                """, false);
+
+        assertThat(report.getImportedCount()).isEqualTo(2);
+        assertThat(report.getErrors()).isEmpty();
+
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Object>> userSetter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO iam_user ("), eq(List.of(0, 1)), eq(500),
+                userSetter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        userSetter.getValue().setValues(ps, 1);
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(ps).setString(eq(1), eq("bob"));
+        verify(ps).setString(eq(2), hash.capture());
+        assertThat(new BCryptPasswordEncoder().matches("secret2", hash.getValue())).isTrue();
+
+        ArgumentCaptor<Collection<long[]>> userRoles = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO iam_user_role"), userRoles.capture(), eq(500), any());
+        assertThat(userRoles.getValue()).containsExactly(new long[]{100L, 1L}, new long[]{100L, 2L});
+        ArgumentCaptor<Collection<Object>> links = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO iam_user_department"), links.capture(), eq(500), any());
+        assertThat(links.getValue()).hasSize(1);
+    }
+
+    @Test
+    void refusesImportsBeyondMaxConcurrent() throws Exception {
+        when(roleRepository.findByCodeIn(any())).thenReturn(List.of());
+        when(departmentRepository.findByCodeIn(any())).thenReturn(List.of());
+        CountDownLatch reading = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        InputStream stalled = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return -1;
+            }
+        };
+        ExecutorService uploads = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                running.add(uploads.submit(() -> service.importUsers("users.csv", stalled, true)));
+            }
+            assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> importCsv("username,password\nok_user,secret1\n", true))
+                    .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getCode()).isEqualTo(429));
+
+            release.countDown();
+            for (Future<?> upload : running) {
+                try {
+                    upload.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    // An empty upload may be rejected; only the permit matters here
+                }
+            }
+        } finally {
+            release.countDown();
+            uploads.shutdownNow();
+        }
+        assertThat(importCsv("username,password\nok_user,secret1\n", true).getTotalRows()).isEqualTo(1);
+    }
+
+    private UserImportReport importCsv(String csv, boolean dryRun) throws Exception {
+        return service.importUsers("users.csv", new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), dryRun);
+    }
+
+    private void existingUsers(String username, String email) throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            List<String[]> rows = new ArrayList<>();
+            rows.add(new String[]{username, null});
+            rows.add(new String[]{"someone", email});
+            for (String[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("username")).thenReturn(row[0]);
+                when(rs.getString("email")).thenReturn(row[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT username, email"), any(PreparedStatementSetter.class),
+                any(RowCallbackHandler.class));
+    }
+
+    private UserImportService service() {
+        LoginProperties loginProperties = new LoginProperties();
+        loginProperties.setBcryptStrength(4);
+        UserImportProperties properties = new UserImportProperties();
+        properties.setHashThreads(2);
+        return new UserImportService(jdbcTemplate, roleRepository, departmentRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(RequestContext.class),
+                mock(PlatformTransactionManager.class), properties, loginProperties);
+    }
+
+    private static Role role(Long id, String code) {
+        Role role = new Role();
+        role.setId(id);
+        role.setCode(code);
+        return role;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,6 +20,12 @@ public interface OrganizationMemberRepository extends JpaRepository<Organization
      */
     Optional<OrganizationMember> findByMember_Id(Long memberId);
 
+    /**
+     * All organization members with their member row, for the vector resync
+     */
+    @Query("SELECT om FROM OrganizationMember om JOIN FETCH om.member")
+    List<OrganizationMember> findAllWithMember();
+
     /**
      * Find by organization name
      */
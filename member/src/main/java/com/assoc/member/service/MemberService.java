@@ -1,5 +1,6 @@
 package com.assoc.member.service;
 
+import com.assoc.common.event.VectorSyncable;
 import com.assoc.member.dto.*;
 import com.assoc.member.entity.MemberStatus;
 import com.assoc.member.entity.MemberType;
@@ -11,7 +12,7 @@ import java.util.Optional;
 /**
  * Member service interface
  */
-public interface MemberService {
+public interface MemberService extends VectorSyncable {
 
     /**
      * Get member by ID
@@ -1,5 +1,6 @@
 package com.assoc.member.service.impl;
 
+import com.assoc.common.event.VectorizePublisher;
 import com.assoc.common.exception.BusinessException;
 import com.assoc.iam.dto.UserRequest;
 import com.assoc.iam.repository.RoleRepository;
@@ -36,6 +37,7 @@ public class MemberApplicationServiceImpl implements MemberApplicationService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final ObjectMapper objectMapper;
+    private final VectorizePublisher vectorizePublisher;
 
     @Override
     @Transactional
@@ -137,6 +139,9 @@ public class MemberApplicationServiceImpl implements MemberApplicationService {
         member.setExpiredAt(LocalDateTime.now().plusYears(1));
 
         memberRepository.save(member);
+        if (member.getOrganizationMember() != null) {
+            vectorizePublisher.publish(MemberVectorMapping.ORGANIZATION, member.getOrganizationMember());
+        }
 
         log.info("Member application approved: memberId={}, userId={}", memberId, member.getUserId());
 
@@ -1,5 +1,7 @@
 package com.assoc.member.service.impl;
 
+import com.assoc.common.event.VectorMapping;
+import com.assoc.common.event.VectorizePublisher;
 import com.assoc.common.exception.BusinessException;
 import com.assoc.member.dto.*;
 import com.assoc.member.entity.*;
@@ -25,6 +27,7 @@ public class MemberServiceImpl implements MemberService {
     private final IndividualMemberRepository individualMemberRepository;
     private final OrganizationMemberRepository organizationMemberRepository;
     private final ObjectMapper objectMapper;
+    private final VectorizePublisher vectorizePublisher;
 
     @Override
     public MemberResponse getMemberById(Long id) {
@@ -146,6 +149,7 @@ public class MemberServiceImpl implements MemberService {
 
         OrganizationMember organization = organizationMemberRepository.findByMember_Id(id)
                 .orElseThrow(() -> new BusinessException("Organization member details not found"));
+        VectorMapping.Snapshot before = MemberVectorMapping.ORGANIZATION.snapshot(organization);
 
         // Update fields if provided
         if (request.getOrgName() != null) organization.setOrgName(request.getOrgName());
@@ -217,6 +221,7 @@ public class MemberServiceImpl implements MemberService {
         if (request.getLogo() != null) organization.setLogo(request.getLogo());
 
         organizationMemberRepository.save(organization);
+        vectorizePublisher.publishIfChanged(MemberVectorMapping.ORGANIZATION, before, organization);
         log.info("Organization member updated: memberId={}", id);
 
         return getMemberById(id);
@@ -228,8 +233,7 @@ public class MemberServiceImpl implements MemberService {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("Member not found: " + id));
 
-        member.setStatus(MemberStatus.SUSPENDED);
-        memberRepository.save(member);
+        changeStatus(member, MemberStatus.SUSPENDED);
         log.info("Member suspended: id={}", id);
     }
 
@@ -239,8 +243,7 @@ public class MemberServiceImpl implements MemberService {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("Member not found: " + id));
 
-        member.setStatus(MemberStatus.ACTIVE);
-        memberRepository.save(member);
+        changeStatus(member, MemberStatus.ACTIVE);
         log.info("Member activated: id={}", id);
     }
 
@@ -252,6 +255,9 @@ public class MemberServiceImpl implements MemberService {
 
         // Delete is cascaded to individual/organization member
         memberRepository.delete(member);
+        if (member.getMemberType() == MemberType.ORGANIZATION) {
+            vectorizePublisher.publishDelete(MemberVectorMapping.ORGANIZATION, id);
+        }
         log.info("Member deleted: id={}", id);
     }
 
@@ -331,6 +337,33 @@ public class MemberServiceImpl implements MemberService {
                 });
     }
 
+    @Override
+    public String getEntityType() {
+        return MemberVectorMapping.ORGANIZATION.getEntityType();
+    }
+
+    @Override
+    public int resyncVectors() {
+        return vectorizePublisher.resync(MemberVectorMapping.ORGANIZATION,
+                organizationMemberRepository.findAllWithMember());
+    }
+
+    /**
+     * Organization members enter or leave the knowledge base with their status
+     */
+    private void changeStatus(Member member, MemberStatus status) {
+        Optional<OrganizationMember> organization = member.getMemberType() == MemberType.ORGANIZATION
+                ? organizationMemberRepository.findByMember_Id(member.getId())
+                : Optional.empty();
+        VectorMapping.Snapshot before = organization
+                .map(MemberVectorMapping.ORGANIZATION::snapshot)
+                .orElse(VectorMapping.Snapshot.ABSENT);
+
+        member.setStatus(status);
+        memberRepository.save(member);
+        organization.ifPresent(o -> vectorizePublisher.publishIfChanged(MemberVectorMapping.ORGANIZATION, before, o));
+    }
+
     private MemberResponse toResponse(Member member) {
         MemberResponse response = new MemberResponse();
         response.setId(member.getId());
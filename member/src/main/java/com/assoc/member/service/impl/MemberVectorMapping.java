@@ -0,0 +1,36 @@
+package com.assoc.member.service.impl;
+
+import com.assoc.common.event.VectorMapping;
+import com.assoc.member.entity.MemberStatus;
+import com.assoc.member.entity.OrganizationMember;
+
+/**
+ * Vectorization of approved organization members for the knowledge base.
+ * Only public profile fields are embedded; contact data and identifiers stay out of the index.
+ */
+final class MemberVectorMapping {
+
+    static final VectorMapping<OrganizationMember> ORGANIZATION = VectorMapping
+            .<OrganizationMember>builder("member", OrganizationMember::getMemberId)
+            .field("orgName", OrganizationMember::getOrgName)
+            .field("orgType", o -> o.getOrgType() != null ? o.getOrgType().getDescription() : null)
+            .field("businessScope", OrganizationMember::getBusinessScope)
+            .field("qualifications", OrganizationMember::getQualifications)
+            .field("projects", OrganizationMember::getProjects)
+            .field("introduction", OrganizationMember::getIntroduction)
+            .field("region", MemberVectorMapping::region)
+            .metadata("name", OrganizationMember::getOrgName)
+            .metadata("orgType", o -> o.getOrgType() != null ? o.getOrgType().getDescription() : null)
+            .metadata("city", OrganizationMember::getCity)
+            .indexedWhen(o -> o.getMember() != null && o.getMember().getStatus() == MemberStatus.ACTIVE)
+            .build();
+
+    private MemberVectorMapping() {
+    }
+
+    private static String region(OrganizationMember organization) {
+        String province = organization.getProvince() != null ? organization.getProvince() : "";
+        String city = organization.getCity() != null ? organization.getCity() : "";
+        return (province + " " + city).trim();
+    }
+}
@@ -9,17 +9,15 @@ import com.assoc.product.entity.ProductCategory;
 import com.assoc.product.repository.ProductCategoryRepository;
 import com.assoc.product.repository.ProductRepository;
 import com.assoc.product.service.ProductService;
-import com.assoc.common.event.VectorizeEvent;
+import com.assoc.common.event.VectorMapping;
+import com.assoc.common.event.VectorizePublisher;
 import com.assoc.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -28,7 +26,22 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final ProductCategoryRepository categoryRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final VectorizePublisher vectorizePublisher;
+
+    private final VectorMapping<Product> vectorMapping = VectorMapping.<Product>builder("product", Product::getId)
+            .field("name", Product::getName)
+            .field("summary", Product::getSummary)
+            .field("description", Product::getDescription)
+            .field("features", Product::getFeatures)
+            .field("application", Product::getApplication)
+            .field("specifications", Product::getSpecifications)
+            .field("manufacturer", Product::getManufacturer)
+            .field("model", Product::getModel)
+            .field("certifications", Product::getCertifications)
+            .metadata("name", Product::getName)
+            .metadata("categoryName", product -> product.getCategory() != null ? product.getCategory().getName() : null)
+            .metadata("manufacturer", Product::getManufacturer)
+            .build();
 
     private static final int STATUS_PUBLISHED = 1;
     private static final int STATUS_DRAFT = 0;
@@ -94,7 +107,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         product = productRepository.save(product);
-        publishVectorizeEvent(product, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publish(vectorMapping, product);
         return toResponse(product);
     }
 
@@ -104,6 +117,7 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("产品不存在: " + id));
 
+        VectorMapping.Snapshot before = vectorMapping.snapshot(product);
         mapRequestToEntity(request, product);
         if (request.getStatus() != null) {
             product.setStatus(request.getStatus());
@@ -118,7 +132,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         product = productRepository.save(product);
-        publishVectorizeEvent(product, VectorizeEvent.EventAction.UPSERT);
+        vectorizePublisher.publishIfChanged(vectorMapping, before, product);
         return toResponse(product);
     }
 
@@ -129,11 +143,7 @@ public class ProductServiceImpl implements ProductService {
             throw new ResourceNotFoundException("产品不存在: " + id);
         }
         productRepository.deleteById(id);
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("product")
-                .entityId(id)
-                .action(VectorizeEvent.EventAction.DELETE)
-                .build());
+        vectorizePublisher.publishDelete(vectorMapping, id);
     }
 
     private void mapRequestToEntity(ProductRequest request, Product product) {
@@ -217,49 +227,13 @@ public class ProductServiceImpl implements ProductService {
         return response;
     }
 
-    private void publishVectorizeEvent(Product product, VectorizeEvent.EventAction action) {
-        Map<String, String> fields = new HashMap<>();
-        fields.put("name", nullToEmpty(product.getName()));
-        fields.put("summary", nullToEmpty(product.getSummary()));
-        fields.put("description", nullToEmpty(product.getDescription()));
-        fields.put("features", nullToEmpty(product.getFeatures()));
-        fields.put("application", nullToEmpty(product.getApplication()));
-        fields.put("specifications", nullToEmpty(product.getSpecifications()));
-        fields.put("manufacturer", nullToEmpty(product.getManufacturer()));
-        fields.put("model", nullToEmpty(product.getModel()));
-        fields.put("certifications", nullToEmpty(product.getCertifications()));
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("name", product.getName());
-        if (product.getCategory() != null) {
-            metadata.put("categoryName", product.getCategory().getName());
-        }
-        metadata.put("manufacturer", product.getManufacturer());
-
-        eventPublisher.publishEvent(VectorizeEvent.builder()
-                .entityType("product")
-                .entityId(product.getId())
-                .action(action)
-                .fields(fields)
-                .metadata(metadata)
-                .build());
-    }
-
-    private String nullToEmpty(String s) {
-        return s == null ? "" : s;
-    }
-
     @Override
     public String getEntityType() {
-        return "product";
+        return vectorMapping.getEntityType();
     }
 
     @Override
     public int resyncVectors() {
-        java.util.List<Product> allProducts = productRepository.findAll();
-        for (Product product : allProducts) {
-            publishVectorizeEvent(product, VectorizeEvent.EventAction.UPSERT);
-        }
-        return allProducts.size();
+        return vectorizePublisher.resync(vectorMapping, productRepository.findAll());
     }
 }
@@ -1,6 +1,7 @@
 package com.assoc.scheduler.handler;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.assoc.common.job.InternalJobTask;
 import com.assoc.scheduler.entity.JobType;
 import com.assoc.scheduler.entity.SchedulerJob;
 import lombok.Data;
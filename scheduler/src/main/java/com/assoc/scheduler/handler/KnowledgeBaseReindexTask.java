@@ -1,5 +1,6 @@
 package com.assoc.scheduler.handler;
 
+import com.assoc.common.job.InternalJobTask;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
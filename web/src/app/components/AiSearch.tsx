@@ -148,6 +148,7 @@ export function AiSearch({ onNavigate }: AiSearchProps) {
   const [messages, setMessages] = useState<ChatMessage[]>([]);
   const [currentAnswer, setCurrentAnswer] = useState('');
   const [currentReferences, setCurrentReferences] = useState<RagReference[]>([]);
+  const [followUpSuggestions, setFollowUpSuggestions] = useState<string[]>(FOLLOW_UP_SUGGESTIONS);
   const [error, setError] = useState<string | null>(null);
   const [isExpanded, setIsExpanded] = useState(false);
 
@@ -174,6 +175,7 @@ export function AiSearch({ onNavigate }: AiSearchProps) {
     setMessages([]);
     setCurrentAnswer('');
     setCurrentReferences([]);
+    setFollowUpSuggestions(FOLLOW_UP_SUGGESTIONS);
     setQuery('');
     setStatus('idle');
     setError(null);
@@ -219,6 +221,11 @@ export function AiSearch({ onNavigate }: AiSearchProps) {
             return newAnswer;
           });
         },
+        onSuggestions: (questions) => {
+          if (questions.length > 0) {
+            setFollowUpSuggestions(questions);
+          }
+        },
         onDone: () => {
           // Use refs to get latest values
           const finalAnswer = currentAnswerRef.current;
@@ -490,7 +497,7 @@ export function AiSearch({ onNavigate }: AiSearchProps) {
             <Sparkles className="w-4 h-4" />
             {hasConversation ? '可以追问：' : '试试问：'}
           </span>
-          {(hasConversation ? FOLLOW_UP_SUGGESTIONS : SUGGESTED_QUESTIONS).map((suggestion, index) => (
+          {(hasConversation ? followUpSuggestions : SUGGESTED_QUESTIONS).map((suggestion, index) => (
             <button
               key={index}
               onClick={() => handleSuggestionClick(suggestion)}
@@ -7,6 +7,8 @@ export interface PublicRagChatRequest {
   query: string;
   types?: string[];
   conversationId?: string;
+  /** SSE coalescing delay in ms; 0 streams every token separately, omitted uses the server default */
+  streamDelayMs?: number;
 }
 
 /**
@@ -23,7 +25,7 @@ export interface RagReference {
 /**
  * SSE event types
  */
-export type RagSseEventType = 'meta' | 'references' | 'content' | 'done' | 'error';
+export type RagSseEventType = 'meta' | 'references' | 'content' | 'suggestions' | 'queue' | 'done' | 'error';
 
 /**
  * SSE event data
@@ -46,15 +48,17 @@ export interface RagMetaData {
 function parseSseEvent(eventText: string): RagSseEvent | null {
   const lines = eventText.trim().split('\n');
   let eventType: RagSseEventType = 'content';
-  let data = '';
+  const dataLines: string[] = [];
 
   for (const line of lines) {
     if (line.startsWith('event:')) {
       eventType = line.slice(6).trim() as RagSseEventType;
     } else if (line.startsWith('data:')) {
-      data = line.slice(5);
+      // Coalesced content frames span several data lines when they contain newlines
+      dataLines.push(line.slice(5));
     }
   }
+  const data = dataLines.join('\n');
 
   if (!eventType && !data) return null;
 
@@ -68,6 +72,7 @@ export interface RagChatCallbacks {
   onMeta?: (data: RagMetaData) => void;
   onReferences?: (references: RagReference[]) => void;
   onContent?: (content: string) => void;
+  onSuggestions?: (questions: string[]) => void;
   onDone?: () => void;
   onError?: (error: Error) => void;
 }
@@ -150,6 +155,16 @@ export function publicRagChat(
                 callbacks.onContent(event.data);
               }
               break;
+            case 'suggestions':
+              if (callbacks.onSuggestions) {
+                try {
+                  const questions = JSON.parse(event.data) as string[];
+                  callbacks.onSuggestions(questions);
+                } catch {
+                  console.error('Failed to parse suggestions event:', event.data);
+                }
+              }
+              break;
             case 'done':
               if (callbacks.onDone) {
                 callbacks.onDone();